@@ -0,0 +1,100 @@
+package com.cqnu.benchmark;
+
+import com.cqnu.CompiledJoddHttpConfig;
+import com.cqnu.JoddHttpWrapper;
+import com.cqnu.utill.HttpResponseUtils;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import jodd.http.HttpRequest;
+import jodd.http.HttpResponse;
+
+/**
+ * 压测使用的响应数据
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public final class BenchmarkData {
+
+    public static final String URL = "http://127.0.0.1/benchmark";
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * 生成符合code/data/list约定、大小约为targetBytes的json响应体
+     *
+     * @param targetBytes 响应体的目标大小，单位字节
+     * @return json响应体
+     */
+    public static String jsonBody(int targetBytes) {
+        StringBuilder list = new StringBuilder(targetBytes + 256);
+        int id = 0;
+        do {
+            if (id > 0) {
+                list.append(',');
+            }
+            list.append("{\"id\":").append(id)
+                .append(",\"name\":\"item-").append(id)
+                .append("\",\"price\":").append(id * 3 % 1000).append(".5")
+                .append(",\"tags\":[\"hot\",\"new\"],\"enabled\":true}");
+            id++;
+        } while (list.length() < targetBytes - 64);
+
+        return "{\"code\":0,\"msg\":\"ok\",\"data\":{\"total\":" + id + ",\"list\":[" + list + "]}}";
+    }
+
+    /**
+     * 生成完整的http响应报文
+     *
+     * @param contentType 响应头Content-Type
+     * @param body        响应体
+     * @return http响应报文
+     */
+    public static byte[] rawResponse(String contentType, byte[] body) {
+        String head = "HTTP/1.1 200 OK\r\n"
+            + "Content-Type: " + contentType + "\r\n"
+            + "Content-Length: " + body.length + "\r\n"
+            + "\r\n";
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(head.length() + body.length);
+        byte[] headBytes = head.getBytes(StandardCharsets.ISO_8859_1);
+        outputStream.write(headBytes, 0, headBytes.length);
+        outputStream.write(body, 0, body.length);
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * 生成json响应报文
+     *
+     * @param targetBytes 响应体的目标大小，单位字节
+     * @return http响应报文
+     */
+    public static byte[] rawJsonResponse(int targetBytes) {
+        return rawResponse("application/json;charset=UTF-8", jsonBody(targetBytes).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析响应报文，在压测的准备阶段调用一次，作为每次调用的响应模板
+     *
+     * @param rawResponse http响应报文
+     * @return 响应对象
+     */
+    public static HttpResponse readResponse(byte[] rawResponse) {
+        return HttpResponse.readFrom(new ByteArrayInputStream(rawResponse));
+    }
+
+    /**
+     * 以响应模板的副本创建已经"收到响应"的包装类，不经过网络。
+     * 包装类会缓存解析结果，每次调用都需要新的包装类；副本只复制响应头和响应体字符串的引用，不会重新解析报文
+     *
+     * @param compiledConfig 编译后的请求配置
+     * @param template       {@link #readResponse(byte[])}得到的响应模板
+     * @return 包装类
+     */
+    public static JoddHttpWrapper newWrapper(CompiledJoddHttpConfig compiledConfig, HttpResponse template) {
+        JoddHttpWrapper wrapper = JoddHttpWrapper.newInstance(HttpRequest.get(URL), compiledConfig);
+        wrapper.setHttpResponse(HttpResponseUtils.copy(template));
+        return wrapper;
+    }
+}
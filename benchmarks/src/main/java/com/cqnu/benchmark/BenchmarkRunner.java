@@ -0,0 +1,44 @@
+package com.cqnu.benchmark;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 压测入口，结果以json格式写入{@code results/jmh-result-yyyyMMddHHmmss.json}，便于不同版本之间对比。
+ * <p>
+ * 参数为需要运行的压测类名的正则表达式，不传时运行全部压测，例如：
+ * {@code java -jar target/benchmarks.jar HttpStatusBenchmark}
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        File resultDir = new File("results");
+        if (!resultDir.exists() && !resultDir.mkdirs()) {
+            throw new IllegalStateException("无法创建压测结果目录: " + resultDir.getAbsolutePath());
+        }
+        String timestamp = new SimpleDateFormat("yyyyMMddHHmmss").format(new Date());
+        File resultFile = new File(resultDir, "jmh-result-" + timestamp + ".json");
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+            .resultFormat(ResultFormatType.JSON)
+            .result(resultFile.getPath());
+        if (args.length == 0) {
+            options.include("com\\.cqnu\\.benchmark\\..*");
+        }
+        for (String include : args) {
+            options.include(include);
+        }
+
+        new Runner(options.build()).run();
+        System.out.println("压测结果已写入: " + resultFile.getAbsolutePath());
+    }
+}
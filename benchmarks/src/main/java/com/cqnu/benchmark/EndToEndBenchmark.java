@@ -0,0 +1,105 @@
+package com.cqnu.benchmark;
+
+import com.alibaba.fastjson.JSONObject;
+import com.cqnu.JoddHttpWrapper;
+import com.cqnu.JoddHttpWrapper.JoddHttpConfig;
+import com.cqnu.pool.HttpConnectionPool;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import jodd.http.HttpRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 通过本地内嵌的http服务压测{@code sendRequest}到{@code getResponseJsonObject}的完整流程，
+ * 分别对比每次新建连接与使用连接池的耗时
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EndToEndBenchmark {
+
+    @Param({"1024", "102400"})
+    private int bodySize;
+
+    private HttpServer server;
+
+    private ExecutorService serverExecutor;
+
+    private String url;
+
+    private JoddHttpConfig config;
+
+    private JoddHttpConfig pooledConfig;
+
+    private HttpConnectionPool connectionPool;
+
+    @Setup
+    public void setUp() throws IOException {
+        byte[] body = BenchmarkData.jsonBody(bodySize).getBytes(StandardCharsets.UTF_8);
+        serverExecutor = Executors.newFixedThreadPool(4);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 128);
+        server.setExecutor(serverExecutor);
+        server.createContext("/benchmark", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/benchmark";
+
+        config = JoddHttpConfig.newConfigInstanceByDefault().setValidateListJsonNodeExist(true);
+        connectionPool = HttpConnectionPool.newDefaultInstance();
+        pooledConfig = JoddHttpConfig.newConfigInstanceByDefault()
+            .setValidateListJsonNodeExist(true)
+            .setConnectionPool(connectionPool);
+    }
+
+    @TearDown
+    public void tearDown() {
+        connectionPool.shutdown();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public JSONObject newConnection() {
+        return sendAndValidate(config);
+    }
+
+    @Benchmark
+    public JSONObject pooledConnection() {
+        return sendAndValidate(pooledConfig);
+    }
+
+    private JSONObject sendAndValidate(JoddHttpConfig joddHttpConfig) {
+        JoddHttpWrapper wrapper = JoddHttpWrapper.newInstance(HttpRequest.get(url), joddHttpConfig);
+        wrapper.sendRequest();
+        wrapper.validateResponse();
+        return wrapper.getResponseJsonObject();
+    }
+}
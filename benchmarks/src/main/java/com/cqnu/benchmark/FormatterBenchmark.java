@@ -0,0 +1,40 @@
+package com.cqnu.benchmark;
+
+import com.cqnu.utill.Slf4jStyleFormatter;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link Slf4jStyleFormatter#format(String, Object...)}的耗时
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FormatterBenchmark {
+
+    private String url = BenchmarkData.URL;
+
+    private int statusCode = 500;
+
+    private String body = BenchmarkData.jsonBody(1024);
+
+    @Benchmark
+    public String format() {
+        return Slf4jStyleFormatter.format("请求响应的statusCode错误. url: [{}], statusCode: [{}], responseBodyText: [{}]",
+            url, statusCode, body);
+    }
+}
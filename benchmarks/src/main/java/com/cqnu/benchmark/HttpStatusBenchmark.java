@@ -0,0 +1,63 @@
+package com.cqnu.benchmark;
+
+import com.cqnu.utill.HttpStatus;
+import com.cqnu.utill.HttpStatusCode;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 状态码查找的耗时，{@link #linearScan()}为改用查找表之前遍历{@link HttpStatus#values()}的实现，作为对照
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HttpStatusBenchmark {
+
+    @Param({"200", "404", "503"})
+    private int statusCode;
+
+    @Benchmark
+    public HttpStatus linearScan() {
+        for (HttpStatus status : HttpStatus.values()) {
+            if (status.value() == statusCode) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public HttpStatus resolve() {
+        return HttpStatus.resolve(statusCode);
+    }
+
+    @Benchmark
+    public HttpStatus.Series seriesResolve() {
+        return HttpStatus.Series.resolve(statusCode);
+    }
+
+    @Benchmark
+    public boolean is2xxSuccessful() {
+        return HttpStatus.valueOf(statusCode).is2xxSuccessful();
+    }
+
+    @Benchmark
+    public boolean statusCodeIs2xxSuccessful() {
+        return HttpStatusCode.valueOf(statusCode).is2xxSuccessful();
+    }
+}
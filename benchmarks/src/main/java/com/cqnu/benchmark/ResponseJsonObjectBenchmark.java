@@ -0,0 +1,87 @@
+package com.cqnu.benchmark;
+
+import com.alibaba.fastjson.JSONObject;
+import com.cqnu.CompiledJoddHttpConfig;
+import com.cqnu.JoddHttpWrapper;
+import com.cqnu.JoddHttpWrapper.JoddHttpConfig;
+import java.util.concurrent.TimeUnit;
+import jodd.http.HttpResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 不同大小的响应体下，完整解析json对象与按需扫描字段的耗时对比。
+ * <p>
+ * 包装类会缓存解析结果，每次调用都在测量的方法中创建新的包装类，创建的开销参考{@code newWrapperBaseline}
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ResponseJsonObjectBenchmark {
+
+    @Param({"1024", "102400", "10485760"})
+    private int bodySize;
+
+    private HttpResponse jsonResponse;
+
+    private CompiledJoddHttpConfig config;
+
+    private CompiledJoddHttpConfig lazyConfig;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        jsonResponse = BenchmarkData.readResponse(BenchmarkData.rawJsonResponse(bodySize));
+        config = JoddHttpConfig.newConfigInstanceByDefault().compile();
+        lazyConfig = JoddHttpConfig.newConfigInstanceByDefault().setLazyJsonAccess(true).compile();
+    }
+
+    /**
+     * 只创建包装类的耗时，其余方法的结果都包含这部分开销
+     */
+    @Benchmark
+    public JoddHttpWrapper newWrapperBaseline() {
+        return BenchmarkData.newWrapper(config, jsonResponse);
+    }
+
+    @Benchmark
+    public JSONObject getResponseJsonObject() {
+        return BenchmarkData.newWrapper(config, jsonResponse).getResponseJsonObject();
+    }
+
+    @Benchmark
+    public Integer businessCodeFromJsonObject() {
+        return BenchmarkData.newWrapper(config, jsonResponse).getBusinessCode();
+    }
+
+    @Benchmark
+    public Integer businessCodeLazy() {
+        return BenchmarkData.newWrapper(lazyConfig, jsonResponse).getBusinessCode();
+    }
+
+    @Benchmark
+    public Integer firstListIdLazy() {
+        return BenchmarkData.newWrapper(lazyConfig, jsonResponse).getJsonPathValue("data.list[0].id", Integer.class);
+    }
+
+    @Benchmark
+    public Integer totalLazy() {
+        // total位于list之后，需要跳过整个list
+        return BenchmarkData.newWrapper(lazyConfig, jsonResponse).getJsonPathValue("data.total", Integer.class);
+    }
+}
@@ -0,0 +1,106 @@
+package com.cqnu.benchmark;
+
+import com.alibaba.fastjson.JSONObject;
+import com.alibaba.fastjson.JSONValidator;
+import com.cqnu.CompiledJoddHttpConfig;
+import com.cqnu.JoddHttpWrapper;
+import com.cqnu.JoddHttpWrapper.JoddHttpConfig;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import jodd.http.HttpResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link JoddHttpWrapper#validateResponse()}在不同配置下的耗时。
+ * <p>
+ * {@code legacyThreePass}复现了单次解析改造之前的流程（JSONValidator校验、parseObject解析、失败时再取bodyText），
+ * 用于对比单次解析节省的cpu和内存分配，内存分配可以通过{@code -prof gc}查看。
+ * 包装类会缓存解析和校验结果，每次调用都在测量的方法中创建新的包装类，创建的开销参考{@code newWrapperBaseline}
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ValidateResponseBenchmark {
+
+    @Param({"1024", "204800", "819200"})
+    private int bodySize;
+
+    private HttpResponse jsonResponse;
+
+    private HttpResponse streamResponse;
+
+    private CompiledJoddHttpConfig defaultConfig;
+
+    private CompiledJoddHttpConfig streamConfig;
+
+    private CompiledJoddHttpConfig noValidationConfig;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        jsonResponse = BenchmarkData.readResponse(BenchmarkData.rawJsonResponse(bodySize));
+        streamResponse = BenchmarkData.readResponse(BenchmarkData.rawResponse("application/octet-stream",
+            BenchmarkData.jsonBody(bodySize).getBytes(StandardCharsets.UTF_8)));
+        defaultConfig = JoddHttpConfig.newConfigInstanceByDefault().setValidateListJsonNodeExist(true).compile();
+        streamConfig = JoddHttpConfig.newStreamConfigInstance().compile();
+        noValidationConfig = JoddHttpConfig.newNoValidationConfigInstance().compile();
+    }
+
+    /**
+     * 只创建包装类的耗时，其余方法的结果都包含这部分开销
+     */
+    @Benchmark
+    public JoddHttpWrapper newWrapperBaseline() {
+        return BenchmarkData.newWrapper(defaultConfig, jsonResponse);
+    }
+
+    @Benchmark
+    public JSONObject defaultConfig() {
+        JoddHttpWrapper wrapper = BenchmarkData.newWrapper(defaultConfig, jsonResponse);
+        wrapper.validateResponse();
+        return wrapper.getResponseJsonObject();
+    }
+
+    @Benchmark
+    public JoddHttpWrapper streamConfig() {
+        JoddHttpWrapper wrapper = BenchmarkData.newWrapper(streamConfig, streamResponse);
+        wrapper.validateResponse();
+        return wrapper;
+    }
+
+    @Benchmark
+    public JoddHttpWrapper noValidationConfig() {
+        JoddHttpWrapper wrapper = BenchmarkData.newWrapper(noValidationConfig, jsonResponse);
+        wrapper.validateResponse();
+        return wrapper;
+    }
+
+    @Benchmark
+    public JSONObject legacyThreePass() {
+        HttpResponse httpResponse = BenchmarkData.newWrapper(defaultConfig, jsonResponse).getHttpResponse();
+        if (!JSONValidator.from(httpResponse.bodyText()).validate()) {
+            throw new IllegalStateException(httpResponse.bodyText());
+        }
+        JSONObject jsonObject = JSONObject.parseObject(httpResponse.bodyText());
+        if (jsonObject.getInteger("code") != 0 || jsonObject.getJSONObject("data").getJSONArray("list").isEmpty()) {
+            throw new IllegalStateException(httpResponse.bodyText());
+        }
+        return jsonObject;
+    }
+}
@@ -0,0 +1,203 @@
+package com.cqnu;
+
+import static jodd.net.MimeTypes.MIME_APPLICATION_JSON;
+
+import com.cqnu.JoddHttpWrapper.JoddHttpConfig;
+import com.cqnu.metrics.ValidationStep;
+import com.cqnu.stream.ContentDecoders;
+import com.cqnu.validation.ResponseValidator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * 编译后的不可变配置，通过{@link JoddHttpConfig#compile()}创建，可以在多个线程中共用。
+ * <p>
+ * 编译时复制一份配置，之后修改原配置对象不会影响已经编译的配置。
+ * 请求头Content-Type、Accept、Accept-Encoding的值以及需要执行的校验规则在编译时确定，
+ * 每次创建{@link JoddHttpWrapper}时只是把这些值设置到请求上，不再重复拼接和判断。
+ * 需要大量发送请求时，应当编译一次后通过{@link JoddHttpWrapper#newInstance(jodd.http.HttpRequest, CompiledJoddHttpConfig)}复用
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public final class CompiledJoddHttpConfig {
+
+    /**
+     * 配置的副本，不会被修改，也不会暴露给调用方
+     */
+    private final JoddHttpConfig config;
+
+    /**
+     * 请求头Content-Type的值，与jodd的{@code HttpBase#contentType(String, String)}格式一致
+     */
+    private final String contentTypeHeader;
+
+    private final String acceptHeader;
+
+    /**
+     * 请求头Accept-Encoding的值，未开启压缩时为null
+     */
+    private final String acceptEncodingHeader;
+
+    /**
+     * 请求头Accept是否包含application/json，为false时跳过content-type校验
+     */
+    private final boolean acceptJson;
+
+    /**
+     * {@link JoddHttpWrapper#validateResponse()}需要按顺序执行的校验规则，内置规则在前，自定义规则在后，忽略所有校验时为空
+     */
+    private final ValidationRule[] validationChain;
+
+    CompiledJoddHttpConfig(JoddHttpConfig config) {
+        this.config = config;
+        String mediaType = config.getMediaType();
+        String charset = config.getCharset();
+        this.contentTypeHeader = charset == null || charset.isEmpty() ? mediaType : mediaType + ";charset=" + charset;
+        this.acceptHeader = config.getAccept();
+        this.acceptEncodingHeader = config.isCompressionEnabled() ? ContentDecoders.getAcceptEncoding() : null;
+        this.acceptJson = acceptHeader != null && acceptHeader.contains(MIME_APPLICATION_JSON);
+        this.validationChain = compileValidationChain();
+    }
+
+    /**
+     * 获取默认的编译配置，默认配置参考{@link JoddHttpConfig#newConfigInstanceByDefault()}
+     *
+     * @return 默认的编译配置
+     */
+    public static CompiledJoddHttpConfig getDefault() {
+        return DefaultHolder.DEFAULT_CONFIG;
+    }
+
+    /**
+     * 根据校验开关的依赖关系确定内置规则，再追加自定义规则，之后各规则不需要再判断自己是否需要执行
+     */
+    private ValidationRule[] compileValidationChain() {
+        if (config.isIgnoreAllValidation()) {
+            return new ValidationRule[0];
+        }
+
+        List<ValidationRule> rules = new ArrayList<>();
+        rules.add(new ValidationRule(ValidationStep.STATUS_CODE));
+        if (acceptJson) {
+            rules.add(new ValidationRule(ValidationStep.CONTENT_TYPE));
+        }
+        if (!config.isLazyJsonAccess()) {
+            rules.add(new ValidationRule(ValidationStep.JSON_FORMAT));
+        }
+        if (config.isValidateCodeJsonNodeExist()) {
+            rules.add(new ValidationRule(ValidationStep.BUSINESS_CODE));
+            if (config.isValidateDataJsonNodeExist()) {
+                rules.add(new ValidationRule(ValidationStep.DATA_NODE));
+                if (config.isValidateListJsonNodeExist()) {
+                    rules.add(new ValidationRule(ValidationStep.LIST_NODE));
+                }
+            }
+        }
+        if (config.getValidators() != null) {
+            for (ResponseValidator validator : config.getValidators()) {
+                rules.add(new ValidationRule(validator));
+            }
+        }
+        return rules.toArray(new ValidationRule[0]);
+    }
+
+    /**
+     * 获取配置的副本，修改返回的对象不会影响该编译配置
+     *
+     * @return 配置的副本
+     */
+    public JoddHttpConfig toConfig() {
+        return config.copy();
+    }
+
+    JoddHttpConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * 获取异步请求使用的线程池，只读，不复制配置
+     *
+     * @return 线程池，未配置时返回null
+     */
+    public Executor getAsyncExecutor() {
+        return config.getAsyncExecutor();
+    }
+
+    /**
+     * 获取流式读取响应体时的缓冲区大小，只读，不复制配置
+     *
+     * @return 缓冲区大小，单位字节
+     */
+    public int getDownloadBufferSize() {
+        return config.getDownloadBufferSize();
+    }
+
+    String getContentTypeHeader() {
+        return contentTypeHeader;
+    }
+
+    String getAcceptHeader() {
+        return acceptHeader;
+    }
+
+    String getAcceptEncodingHeader() {
+        return acceptEncodingHeader;
+    }
+
+    boolean isAcceptJson() {
+        return acceptJson;
+    }
+
+    ValidationRule[] getValidationChain() {
+        return validationChain;
+    }
+
+    /**
+     * 编译后的校验规则，内置规则只有校验步骤，自定义规则的校验步骤为{@link ValidationStep#CUSTOM}
+     */
+    static final class ValidationRule {
+
+        private final String name;
+
+        private final ValidationStep step;
+
+        /**
+         * 自定义规则，内置规则为null
+         */
+        private final ResponseValidator validator;
+
+        private ValidationRule(ValidationStep step) {
+            this.name = step.name();
+            this.step = step;
+            this.validator = null;
+        }
+
+        private ValidationRule(ResponseValidator validator) {
+            this.name = validator.getName();
+            this.step = ValidationStep.CUSTOM;
+            this.validator = validator;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        ValidationStep getStep() {
+            return step;
+        }
+
+        ResponseValidator getValidator() {
+            return validator;
+        }
+    }
+
+    /**
+     * 默认配置在第一次使用时由类加载过程初始化，类加载保证了线程安全
+     */
+    private static final class DefaultHolder {
+
+        private static final CompiledJoddHttpConfig DEFAULT_CONFIG = JoddHttpConfig.newConfigInstanceByDefault().compile();
+    }
+}
@@ -3,23 +3,99 @@ package com.cqnu;
 import static com.cqnu.utill.Slf4jStyleFormatter.format;
 import static jodd.net.MimeTypes.MIME_APPLICATION_JSON;
 
+import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONException;
 import com.alibaba.fastjson.JSONObject;
-import com.alibaba.fastjson.JSONValidator;
+import com.alibaba.fastjson.TypeReference;
+import com.cqnu.CompiledJoddHttpConfig.ValidationRule;
+import com.cqnu.async.AsyncHttpExecutors;
+import com.cqnu.breaker.CircuitBreaker;
+import com.cqnu.breaker.CircuitBreakerRegistry;
+import com.cqnu.cache.CachedResponse;
+import com.cqnu.cache.HttpResponseCache;
+import com.cqnu.coalesce.RequestCoalescer;
 import com.cqnu.constant.CommonConstant;
+import com.cqnu.exception.CircuitBreakerOpenException;
 import com.cqnu.exception.HttpRequestException;
+import com.cqnu.exception.ResponseBodySnippet;
+import com.cqnu.hedge.HedgingPolicy;
+import com.cqnu.json.JsonListReader;
+import com.cqnu.json.JsonListReader.ListValidation;
+import com.cqnu.json.JsonPathScanner;
+import com.cqnu.json.JsonResponseBody;
+import com.cqnu.json.JsonValueSpan;
+import com.cqnu.json.ListData;
+import com.cqnu.json.ResponseEnvelope;
+import com.cqnu.json.ResponseTypes;
+import com.cqnu.json.StrictJsonValidator;
+import com.cqnu.metrics.HttpMetricsRecorder;
+import com.cqnu.metrics.MeteredHttpConnection;
+import com.cqnu.metrics.MeteredHttpConnectionProvider;
+import com.cqnu.metrics.NoopHttpMetricsRecorder;
+import com.cqnu.metrics.ValidationStep;
+import com.cqnu.pool.ConnectionPoolException;
+import com.cqnu.pool.HttpConnectionPool;
+import com.cqnu.pool.PooledHttpConnection;
+import com.cqnu.retry.RetryBudget;
+import com.cqnu.retry.RetryPolicy;
+import com.cqnu.stream.ContentDecoders;
+import com.cqnu.stream.StreamingHttpResponse;
+import com.cqnu.timeout.Deadline;
+import com.cqnu.timeout.TimedHttpConnection;
+import com.cqnu.timeout.TimedHttpConnectionProvider;
 import com.cqnu.utill.Assert;
 import com.cqnu.utill.CollectionUtils;
+import com.cqnu.utill.HttpResponseUtils;
 import com.cqnu.utill.HttpStatus;
+import com.cqnu.utill.HttpStatusCode;
+import com.cqnu.validation.ResponseValidator;
+import com.cqnu.validation.ValidationContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.charset.UnsupportedCharsetException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import jodd.http.HttpConnection;
+import jodd.http.HttpConnectionProvider;
 import jodd.http.HttpException;
 import jodd.http.HttpRequest;
 import jodd.http.HttpResponse;
 import jodd.net.MimeTypes;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.experimental.Accessors;
 
 /**
@@ -36,141 +112,1938 @@ public class JoddHttpWrapper {
      */
     private HttpRequest httpRequest;
 
+    /**
+     * 请求对象的工厂，重试时用于创建新的请求对象，为null时重用{@link JoddHttpWrapper#httpRequest}
+     */
+    private Supplier<HttpRequest> requestFactory;
+
     /**
      * 本次请求的响应对象
      */
     private HttpResponse httpResponse;
 
     /**
-     * http请求的配置类
+     * 编译后的配置，多个包装类共用
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private CompiledJoddHttpConfig compiledConfig;
+
+    /**
+     * http请求的配置类，通常是{@link #compiledConfig}中的配置副本，多个包装类共用，不能被修改；
+     * 调用过{@link #getJoddHttpConfig()}时为{@link #exposedConfig}
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private JoddHttpConfig joddHttpConfig;
+
+    /**
+     * 通过{@link #getJoddHttpConfig()}交给调用方的配置，只属于该包装类，调用方可以修改，为null时没有交给调用方
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private JoddHttpConfig exposedConfig;
+
+    /**
+     * json响应体中的code校验结果。
+     * 如果code未校验成功则跳过data和list的校验
+     */
+    private boolean codeValidateResult;
+
+    /**
+     * 请求响应体中的json, 不能直接访问该字段，应该通过{@link JoddHttpWrapper#getResponseJsonObject()}获取该字段
+     */
+    private JSONObject responseJsonObject;
+
+    /**
+     * 响应体解码后的文本，只解码一次，不能直接访问该字段，应该通过{@link JoddHttpWrapper#getResponseBodyText()}获取该字段
+     */
+    private String responseBodyText;
+
+    /**
+     * 响应体json的单次解析结果，格式校验、json对象获取以及code、data、list校验共用该结果
+     */
+    private JsonResponseBody jsonResponseBody;
+
+    /**
+     * 指标中使用的路由名称，为null时使用请求路径。
+     * 路径中带有id等变化的内容时，应该设置为路由模板，例如{@code /users/{id}}
+     */
+    private String metricsRoute;
+
+    /**
+     * 本次请求使用的熔断器，未配置{@link JoddHttpConfig#getCircuitBreakerRegistry()}时为null
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private CircuitBreaker circuitBreaker;
+
+    /**
+     * 本次请求在熔断器中的记录序号，用于补记业务编码校验失败
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long circuitBreakerCallSequence = CircuitBreaker.NOT_RECORDED;
+
+    /**
+     * 请求是否因为另一个请求先完成而被取消，被取消的请求不计入熔断器和请求指标
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile boolean cancelledByHedge;
+
+    /**
+     * 异步请求是否已经被取消或者超时，取消后不再发送请求、重试或者等待重试
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile boolean cancelled;
+
+    /**
+     * 取消异步请求时唤醒正在等待重试的线程
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final CountDownLatch cancelSignal = new CountDownLatch(1);
+
+    /**
+     * 本次请求使用或者存入的缓存条目，使用缓存的响应时跳过{@link JoddHttpWrapper#validateResponse()}
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private CachedResponse cachedResponse;
+
+    /**
+     * 正在通过条件请求重新验证的缓存条目，服务端返回304时使用该条目的响应
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private CachedResponse revalidatingResponse;
+
+    /**
+     * 是否持有{@link #cachedResponse}堆外响应体的引用，响应体复制到堆内后释放
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean offHeapBodyRetained;
+
+    /**
+     * 响应是否已经校验通过，合并请求时由leader完成校验，使用同一个编译配置的等待者共用校验结果
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean responseValidated;
+
+    /**
+     * 合并请求时leader已经解析的json，多个等待者共用，不能被修改，需要时复制到{@link #jsonResponseBody}
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private JsonResponseBody sharedJsonResponseBody;
+
+    /**
+     * 新收到的响应的压缩指标是否还没有记录，响应体在第一次解码时记录
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean compressionMetricsPending;
+
+    /**
+     * 调用方传入的截止时间，为null时不限制。
+     * 实际生效的截止时间是该值、{@link Deadline#current()}以及{@link JoddHttpConfig#getTotalTimeout()}中最早的一个，
+     * 重试和对冲请求共用同一个截止时间
+     */
+    private Deadline deadline;
+
+    /**
+     * 本次请求实际生效的截止时间，每次发送请求时重新确定，为null时不限制
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Deadline activeDeadline;
+
+    /**
+     * 流式下载到文件时，单次transferFrom的最大字节数
+     */
+    private static final long DOWNLOAD_TRANSFER_CHUNK_SIZE = 1024 * 1024;
+
+    /**
+     * 对冲请求的竞争状态：都未完成、原始请求先完成、对冲请求先完成
+     */
+    private static final int HEDGE_PENDING = 0;
+
+    private static final int PRIMARY_WON = 1;
+
+    private static final int HEDGE_WON = 2;
+
+    private JoddHttpWrapper(HttpRequest httpRequest, CompiledJoddHttpConfig compiledConfig) {
+        this.compiledConfig = compiledConfig;
+        this.joddHttpConfig = compiledConfig.getConfig();
+        this.httpRequest = httpRequest;
+
+        configRequest();
+    }
+
+    /**
+     * 根据编译后的配置配置request对象，请求头的值在编译时已经生成
+     */
+    private void configRequest() {
+        httpRequest.headerOverwrite("Content-Type", compiledConfig.getContentTypeHeader());
+        httpRequest.headerOverwrite("Accept", compiledConfig.getAcceptHeader());
+        String acceptEncoding = compiledConfig.getAcceptEncodingHeader();
+        if (acceptEncoding != null && httpRequest.header("Accept-Encoding") == null) {
+            httpRequest.header("Accept-Encoding", acceptEncoding);
+        }
+
+        if (joddHttpConfig.getConnectionPool() != null) {
+            httpRequest.connectionKeepAlive(true);
+        }
+        configConnection();
+    }
+
+    /**
+     * 设置连接超时、读取超时以及创建连接的provider。
+     * 有截止时间时，连接超时和读取超时不会超过剩余的时间，并通过{@link TimedHttpConnectionProvider}在截止时间到达时关闭连接，
+     * 读取超时是两次读取之间的最大间隔，持续缓慢返回数据的响应只会被截止时间中断
+     */
+    private void configConnection() {
+        long connectTimeout = resolveTimeout(joddHttpConfig.getConnectTimeout());
+        long readTimeout = resolveTimeout(joddHttpConfig.getReadTimeout());
+        if (activeDeadline != null) {
+            long remainingMillis = Math.max(activeDeadline.remainingMillis(), 1);
+            connectTimeout = connectTimeout <= 0 ? remainingMillis : Math.min(connectTimeout, remainingMillis);
+            readTimeout = readTimeout <= 0 ? remainingMillis : Math.min(readTimeout, remainingMillis);
+        }
+        httpRequest.connectionTimeout((int) connectTimeout);
+        httpRequest.timeout((int) readTimeout);
+
+        HttpConnectionProvider connectionProvider = joddHttpConfig.getConnectionPool();
+        int writeTimeout = joddHttpConfig.getWriteTimeout();
+        if (writeTimeout > 0 || activeDeadline != null) {
+            connectionProvider = new TimedHttpConnectionProvider(connectionProvider, writeTimeout, activeDeadline);
+        }
+        if (isMetricsEnabled()) {
+            connectionProvider = new MeteredHttpConnectionProvider(connectionProvider);
+        }
+        if (connectionProvider != null) {
+            httpRequest.withConnectionProvider(connectionProvider);
+        }
+    }
+
+    /**
+     * 单独设置的超时时间小于等于0时使用{@link JoddHttpConfig#getTimeout()}
+     */
+    private long resolveTimeout(int timeout) {
+        return timeout > 0 ? timeout : joddHttpConfig.getTimeout();
+    }
+
+    /**
+     * 确定本次请求生效的截止时间，取传入的截止时间、当前线程继承的截止时间以及从现在开始计算的总超时时间中最早的一个
+     */
+    private Deadline resolveDeadline() {
+        Deadline resolved = Deadline.earliest(deadline, Deadline.current());
+        int totalTimeout = joddHttpConfig.getTotalTimeout();
+        return totalTimeout > 0 ? Deadline.earliest(resolved, Deadline.after(totalTimeout, TimeUnit.MILLISECONDS)) : resolved;
+    }
+
+    /**
+     * 已经到达截止时间时不再发送请求
+     *
+     * @throws HttpRequestException 已经到达截止时间时，抛出此异常
+     */
+    private void checkDeadline() {
+        if (activeDeadline != null && activeDeadline.isExpired()) {
+            String message = format("请求超过截止时间，不再发送. url: [{}]", httpRequest.url());
+            throw new HttpRequestException(message);
+        }
+    }
+
+    /**
+     * 异步请求已经被取消时不再发送请求
+     *
+     * @throws HttpRequestException 请求已经被取消时，抛出此异常
+     */
+    private void checkCancelled() {
+        if (cancelled) {
+            throw new HttpRequestException(format("异步请求已被取消，不再发送. url: [{}]", httpRequest.url()));
+        }
+    }
+
+    /**
+     * 判断等待指定时间后是否已经到达截止时间，此时不再重试
+     *
+     * @param delayMillis 等待的时间，单位毫秒
+     * @return 没有截止时间时返回false
+     */
+    private boolean isDeadlineReachedAfter(long delayMillis) {
+        return activeDeadline != null && activeDeadline.remainingMillis() <= delayMillis;
+    }
+
+    /**
+     * 根据连接的超时状态确定请求失败的原因
+     */
+    private String getConnectionFailureReason() {
+        HttpConnection connection = MeteredHttpConnection.unwrap(httpRequest.connection());
+        if (connection instanceof TimedHttpConnection && ((TimedHttpConnection) connection).isWriteTimedOut()) {
+            return format("写入请求超时, writeTimeout: [{}]", joddHttpConfig.getWriteTimeout());
+        }
+        if (activeDeadline != null && activeDeadline.isExpired()) {
+            return "请求超过截止时间";
+        }
+        return "请求连接失败";
+    }
+
+    /**
+     * jodd已经读取了完整的响应体，取消连接上写超时和截止时间的定时任务
+     */
+    private void disarmConnection() {
+        HttpConnection connection = MeteredHttpConnection.unwrap(httpRequest.connection());
+        if (connection instanceof TimedHttpConnection) {
+            ((TimedHttpConnection) connection).disarm();
+        }
+    }
+
+    /**
+     * 根据指定HttpRequest参数创建包装类实例，会调用{@link CompiledJoddHttpConfig#getDefault()}获取默认的配置。
+     *
+     * @param httpRequest 请求参数，不能为null
+     * @return 以默认配置创建的包装类
+     * @throws IllegalArgumentException 当httpRequest为null时，抛出此异常
+     */
+    public static JoddHttpWrapper newInstance(HttpRequest httpRequest) {
+        return newInstance(httpRequest, CompiledJoddHttpConfig.getDefault());
+    }
+
+
+    /**
+     * 根据指定HttpRequest参数及JoddHttpConfig配置对象创建包装类实例。
+     * 每次调用都会编译一次配置，大量请求共用同一个配置时，应当使用{@link #newInstance(HttpRequest, CompiledJoddHttpConfig)}
+     *
+     * @param httpRequest    请求参数，不能为null
+     * @param joddHttpConfig 请求配置对象，如果为null则启用默认配置
+     * @return 以指定配置对象创建的包装类
+     * @throws IllegalArgumentException 当httpRequest为null时，抛出此异常
+     */
+    public static JoddHttpWrapper newInstance(HttpRequest httpRequest, JoddHttpConfig joddHttpConfig) {
+        return newInstance(httpRequest, compile(joddHttpConfig));
+    }
+
+    /**
+     * 根据指定HttpRequest参数及编译后的配置创建包装类实例，不会复制配置或者生成请求头
+     *
+     * @param httpRequest    请求参数，不能为null
+     * @param compiledConfig 编译后的配置，如果为null则启用默认配置
+     * @return 以指定配置创建的包装类
+     * @throws IllegalArgumentException 当httpRequest为null时，抛出此异常
+     */
+    public static JoddHttpWrapper newInstance(HttpRequest httpRequest, CompiledJoddHttpConfig compiledConfig) {
+        Assert.notNull(httpRequest, "httpRequest不能为null");
+        if (compiledConfig == null) {
+            compiledConfig = CompiledJoddHttpConfig.getDefault();
+        }
+        return new JoddHttpWrapper(httpRequest, compiledConfig);
+    }
+
+    private static CompiledJoddHttpConfig compile(JoddHttpConfig joddHttpConfig) {
+        return joddHttpConfig == null ? CompiledJoddHttpConfig.getDefault() : joddHttpConfig.compile();
+    }
+
+    /**
+     * 根据请求对象的工厂及JoddHttpConfig配置对象创建包装类实例。
+     * 工厂会立即被调用一次创建第一个请求对象，之后每次重试都会创建新的请求对象，请求的url、请求头、请求体等应当相同。
+     * 需要重试读取超时等已经建立连接之后的失败时，必须使用该方法创建包装类
+     *
+     * @param requestFactory 请求对象的工厂，不能为null，也不能返回null
+     * @param joddHttpConfig 请求配置对象，如果为null则启用默认配置
+     * @return 以指定配置对象创建的包装类
+     * @throws IllegalArgumentException 当requestFactory为null或者返回null时，抛出此异常
+     */
+    public static JoddHttpWrapper newInstance(Supplier<HttpRequest> requestFactory, JoddHttpConfig joddHttpConfig) {
+        return newInstance(requestFactory, compile(joddHttpConfig));
+    }
+
+    /**
+     * 根据请求对象的工厂及编译后的配置创建包装类实例，其余同{@link #newInstance(Supplier, JoddHttpConfig)}
+     *
+     * @param requestFactory 请求对象的工厂，不能为null，也不能返回null
+     * @param compiledConfig 编译后的配置，如果为null则启用默认配置
+     * @return 以指定配置创建的包装类
+     * @throws IllegalArgumentException 当requestFactory为null或者返回null时，抛出此异常
+     */
+    public static JoddHttpWrapper newInstance(Supplier<HttpRequest> requestFactory, CompiledJoddHttpConfig compiledConfig) {
+        Assert.notNull(requestFactory, "requestFactory不能为null");
+        JoddHttpWrapper wrapper = newInstance(requestFactory.get(), compiledConfig);
+        wrapper.requestFactory = requestFactory;
+        return wrapper;
+    }
+
+    /**
+     * 获取本次请求使用的配置，修改返回的对象对本次请求之后的发送、校验和解析生效，不会重新配置已经创建的请求对象。
+     * 返回的对象只属于该包装类，修改不会影响共用同一个编译配置的其他包装类。
+     * 第一次调用时复制一份配置，之后每次发送和校验前检查该配置，被修改过时才重新编译，只需要读取配置时应当使用{@link #getCompiledConfig()}
+     *
+     * @return 本次请求使用的配置
+     */
+    public JoddHttpConfig getJoddHttpConfig() {
+        if (exposedConfig == null) {
+            exposedConfig = compiledConfig.toConfig();
+            joddHttpConfig = exposedConfig;
+        }
+        return exposedConfig;
+    }
+
+    /**
+     * 获取本次请求使用的编译配置，不会复制配置，可以在频繁调用的路径中读取配置
+     *
+     * @return 编译后的配置
+     */
+    public CompiledJoddHttpConfig getCompiledConfig() {
+        recompileExposedConfig();
+        return compiledConfig;
+    }
+
+    /**
+     * 替换本次请求之后的校验和解析使用的配置，不会重新配置已经创建的请求对象
+     *
+     * @param joddHttpConfig 请求配置对象，如果为null则启用默认配置
+     */
+    public void setJoddHttpConfig(JoddHttpConfig joddHttpConfig) {
+        this.compiledConfig = compile(joddHttpConfig);
+        this.joddHttpConfig = compiledConfig.getConfig();
+        this.exposedConfig = null;
+    }
+
+    /**
+     * 调用方修改了{@link #getJoddHttpConfig()}返回的配置时重新编译，使校验规则等编译时确定的内容与配置一致。
+     * 编译配置中保存的是编译时的副本，与之相等时说明配置没有被修改，继续使用原来的编译配置，
+     * 合并请求等按编译配置是否为同一个对象判断的逻辑不会因为调用过{@link #getJoddHttpConfig()}而失效
+     */
+    private void recompileExposedConfig() {
+        if (exposedConfig != null && !exposedConfig.equals(compiledConfig.getConfig())) {
+            this.compiledConfig = exposedConfig.compile();
+            // 继续使用交给调用方的对象，之后的修改仍然生效
+            this.joddHttpConfig = exposedConfig;
+        }
+    }
+
+    /**
+     * 发送httpRequest。
+     * 配置了{@link JoddHttpConfig#getRetryPolicy()}时，连接失败、超时以及需要重试的状态码会按重试策略重新发送，
+     * 最后一次请求的响应作为本次请求的响应，仍需通过{@link JoddHttpWrapper#validateResponse()}校验。
+     * 配置了{@link JoddHttpConfig#getResponseCache()}时，GET请求优先使用新鲜的缓存，过期的缓存通过条件请求重新验证。
+     * 配置了{@link JoddHttpConfig#getRequestCoalescer()}时，同时发送的相同GET、HEAD请求只有一个会真正发送，
+     * 其余请求共用其响应，此时校验在该方法中完成，校验失败的异常也由该方法抛出。
+     * 与真正发送的请求使用同一个{@link CompiledJoddHttpConfig}的请求直接共用其校验结果，json也只解析一次，
+     * 使用其他配置的请求按自己的配置重新校验，但仍然共用已经解析的json。
+     * 有截止时间时（参考{@link JoddHttpWrapper#getDeadline()}），到达截止时间后不再重试，正在进行的请求会被中断
+     *
+     * @throws HttpRequestException 当http请求连接失败或者超过截止时间时，抛出该异常
+     */
+    public void sendRequest() {
+        recompileExposedConfig();
+        releaseOffHeapBody();
+        this.responseValidated = false;
+        this.circuitBreaker = null;
+        this.circuitBreakerCallSequence = CircuitBreaker.NOT_RECORDED;
+        this.activeDeadline = resolveDeadline();
+        RequestCoalescer requestCoalescer = joddHttpConfig.getRequestCoalescer();
+        String method = httpRequest.method();
+        boolean isCoalescable = "GET".equalsIgnoreCase(method) || "HEAD".equalsIgnoreCase(method);
+        if (requestCoalescer == null || !isCoalescable) {
+            sendOrUseCachedResponse();
+            return;
+        }
+
+        // 等待时间小于等于0表示不限制，有截止时间时必须传入正数
+        checkDeadline();
+        long waitMillis = joddHttpConfig.getTimeout();
+        if (activeDeadline != null) {
+            long remainingMillis = Math.max(activeDeadline.remainingMillis(), 1);
+            waitMillis = waitMillis <= 0 ? remainingMillis : Math.min(waitMillis, remainingMillis);
+        }
+        CoalescedResponse coalescedResponse = requestCoalescer.execute(getCoalescingKey(), waitMillis,
+            this::sendAndValidateForCoalescing);
+        boolean isLeader = coalescedResponse.leader == this;
+        if (!isLeader) {
+            useCoalescedResponse(coalescedResponse);
+        }
+        if (isLeader || coalescedResponse.compiledConfig == compiledConfig) {
+            if (coalescedResponse.validationException != null) {
+                throw coalescedResponse.validationException;
+            }
+            return;
+        }
+        // 配置不同时校验规则、业务编码等按自己的配置执行
+        validateResponse();
+    }
+
+    /**
+     * 作为合并请求的leader发送请求并校验，在返回之前创建结果快照，校验失败的异常记录在快照中，由调用方抛出
+     *
+     * @return 响应、缓存条目和json解析结果的快照
+     */
+    private CoalescedResponse sendAndValidateForCoalescing() {
+        sendOrUseCachedResponse();
+        RuntimeException validationException = null;
+        try {
+            validateResponse();
+        } catch (RuntimeException e) {
+            validationException = e;
+        }
+        // 堆外缓存的响应体复制一次到堆内，所有等待者共用同一个不可变的响应体字符串
+        loadOffHeapBody();
+        return new CoalescedResponse(this, validationException);
+    }
+
+    /**
+     * 合并请求的key，由请求方法、url和请求头组成
+     */
+    private String getCoalescingKey() {
+        StringBuilder key = new StringBuilder(httpRequest.method()).append(' ').append(httpRequest.url());
+        for (String name : httpRequest.headerNames()) {
+            key.append('\n').append(name).append(": ").append(httpRequest.headers(name));
+        }
+        return key.toString();
+    }
+
+    /**
+     * 使用合并请求中leader结果快照的副本作为本次请求的响应，不会读取leader本身的状态。
+     * 每个等待者使用独立的响应对象，json在需要时从快照复制，使用同一个编译配置时直接共用leader的校验结果
+     *
+     * @param coalescedResponse leader在合并的任务中创建的快照
+     */
+    private void useCoalescedResponse(CoalescedResponse coalescedResponse) {
+        this.httpResponse = HttpResponseUtils.copy(coalescedResponse.httpResponse);
+        this.cachedResponse = coalescedResponse.cachedResponse;
+        this.sharedJsonResponseBody = coalescedResponse.jsonResponseBody;
+        this.compressionMetricsPending = false;
+        this.jsonResponseBody = null;
+        this.responseJsonObject = null;
+        this.responseBodyText = null;
+        if (coalescedResponse.compiledConfig == compiledConfig) {
+            this.codeValidateResult = coalescedResponse.codeValidateResult;
+            this.responseValidated = coalescedResponse.validationException == null;
+        }
+    }
+
+    /**
+     * 发送httpRequest，请求可以使用缓存时优先使用缓存的响应
+     */
+    private void sendOrUseCachedResponse() {
+        this.cachedResponse = null;
+        this.sharedJsonResponseBody = null;
+        this.revalidatingResponse = null;
+        HttpResponseCache responseCache = joddHttpConfig.getResponseCache();
+        if (responseCache == null || !HttpResponseCache.isCacheableRequest(httpRequest)) {
+            sendWithRetry();
+            return;
+        }
+
+        CachedResponse entry = responseCache.lookup(httpRequest);
+        if (entry != null && entry.isFresh() && !HttpResponseCache.isRevalidationRequired(httpRequest)) {
+            responseCache.recordHit();
+            useCachedResponse(entry);
+            return;
+        }
+        if (entry != null && entry.hasValidators()) {
+            this.revalidatingResponse = entry;
+        } else if (entry != null) {
+            entry.releaseBody();
+        }
+
+        boolean isNotModified = false;
+        try {
+            sendWithRetry();
+            isNotModified = revalidatingResponse != null && httpResponse.statusCode() == HttpStatus.NOT_MODIFIED.value();
+        } finally {
+            if (revalidatingResponse != null && !isNotModified) {
+                revalidatingResponse.releaseBody();
+            }
+        }
+        if (isNotModified) {
+            // 304没有响应体，使用缓存中已校验的响应代替，不再经过状态码等校验
+            responseCache.refresh(revalidatingResponse, httpResponse);
+            httpResponse.close();
+            useCachedResponse(revalidatingResponse);
+        } else {
+            responseCache.recordMiss();
+        }
+        this.revalidatingResponse = null;
+    }
+
+    /**
+     * 使用缓存条目中响应的副本作为本次请求的响应，已经解析的json在需要时才从缓存条目复制，不会重新解析。
+     * 堆外的条目响应体在需要时才复制到堆内，复制之前一直持有lookup时取得的引用
+     *
+     * @param entry 新鲜的或者重新验证通过的缓存条目
+     */
+    private void useCachedResponse(CachedResponse entry) {
+        this.cachedResponse = entry;
+        this.offHeapBodyRetained = entry.isOffHeap();
+        this.httpResponse = entry.newHttpResponse();
+        this.compressionMetricsPending = false;
+        this.jsonResponseBody = null;
+        this.responseJsonObject = null;
+        this.responseBodyText = null;
+        this.codeValidateResult = joddHttpConfig.isValidateCodeJsonNodeExist();
+    }
+
+    /**
+     * 按重试策略发送httpRequest，未配置重试策略时只发送一次
+     */
+    private void sendWithRetry() {
+        RetryPolicy retryPolicy = joddHttpConfig.getRetryPolicy();
+        if (retryPolicy == null) {
+            sendAttempt();
+            return;
+        }
+
+        RetryBudget retryBudget = retryPolicy.getRetryBudget();
+        if (retryBudget != null) {
+            retryBudget.recordRequest();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            long retryDelay;
+            try {
+                sendAttempt();
+                retryDelay = retryPolicy.getRetryDelay(attempt, httpRequest.method(), httpResponse);
+                if (retryDelay < 0 || cancelled || isDeadlineReachedAfter(retryDelay) || !prepareRetry(retryBudget)) {
+                    return;
+                }
+            } catch (HttpRequestException e) {
+                if (cancelled) {
+                    throw e;
+                }
+                retryDelay = retryPolicy.getRetryDelay(attempt, httpRequest.method(), e.getCause());
+                if (retryDelay < 0 || isDeadlineReachedAfter(retryDelay) || !prepareRetry(retryBudget)) {
+                    throw e;
+                }
+            }
+            awaitRetry(retryDelay);
+        }
+    }
+
+    /**
+     * 为重试准备新的请求对象。
+     * 没有请求对象的工厂时，只有底层连接已经释放的请求对象才能重新发送
+     *
+     * @param retryBudget 重试预算，为null时不限制
+     * @return 可以重试时返回true
+     */
+    private boolean prepareRetry(RetryBudget retryBudget) {
+        if (httpResponse != null) {
+            httpResponse.close();
+        }
+        if (requestFactory == null && httpRequest.connection() != null) {
+            return false;
+        }
+        if (retryBudget != null && !retryBudget.tryAcquireRetry()) {
+            return false;
+        }
+
+        if (requestFactory != null) {
+            this.httpRequest = requestFactory.get();
+            Assert.notNull(httpRequest, "requestFactory返回的httpRequest不能为null");
+            configRequest();
+        }
+        this.httpResponse = null;
+        this.responseBodyText = null;
+        this.responseJsonObject = null;
+        this.jsonResponseBody = null;
+        return true;
+    }
+
+    /**
+     * 等待重试，异步请求被取消时立即结束等待
+     *
+     * @throws HttpRequestException 等待时被中断或者请求被取消时，抛出此异常
+     */
+    private void awaitRetry(long retryDelay) {
+        try {
+            if (cancelSignal.await(retryDelay, TimeUnit.MILLISECONDS)) {
+                String message = format("等待重试时异步请求被取消. url: [{}]", httpRequest.url());
+                throw new HttpRequestException(message);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            String message = format("等待重试时被中断. url: [{}]", httpRequest.url());
+            throw new HttpRequestException(message, e);
+        }
+    }
+
+    /**
+     * 发送一次请求。配置了{@link JoddHttpConfig#getHedgingPolicy()}、有请求对象的工厂并且为GET或HEAD请求时，以对冲的方式发送
+     */
+    private void sendAttempt() {
+        HedgingPolicy hedgingPolicy = joddHttpConfig.getHedgingPolicy();
+        String method = httpRequest.method();
+        boolean isHedgeable = "GET".equalsIgnoreCase(method) || "HEAD".equalsIgnoreCase(method);
+        if (hedgingPolicy == null || requestFactory == null || !isHedgeable) {
+            sendRequestOnce();
+            return;
+        }
+        sendHedgedRequest(hedgingPolicy);
+    }
+
+    /**
+     * 在当前线程发送原始请求，超过对冲延迟仍未完成时在异步线程池中发送对冲请求，使用先完成的响应并取消另一个请求
+     *
+     * @param hedgingPolicy 对冲请求策略
+     * @throws HttpRequestException 当原始请求失败并且没有成功的对冲请求时，抛出原始请求的异常
+     */
+    private void sendHedgedRequest(HedgingPolicy hedgingPolicy) {
+        hedgingPolicy.recordRequest();
+        long startNanos = System.nanoTime();
+        AtomicInteger winner = new AtomicInteger(HEDGE_PENDING);
+        AtomicReference<JoddHttpWrapper> hedgeReference = new AtomicReference<>();
+        CompletableFuture<JoddHttpWrapper> hedgeFuture = new CompletableFuture<>();
+        ScheduledFuture<?> hedgeTask = AsyncHttpExecutors.getTimeoutScheduler().schedule(
+            () -> launchHedge(hedgingPolicy, winner, hedgeReference, hedgeFuture),
+            hedgingPolicy.getHedgeDelayMillis(), TimeUnit.MILLISECONDS);
+
+        cancelledByHedge = false;
+        HttpRequestException primaryFailure = null;
+        try {
+            sendRequestOnce();
+        } catch (HttpRequestException e) {
+            primaryFailure = e;
+        }
+        // 对冲请求先完成时原始请求会被立即取消，此时的耗时是原始请求实际耗时的下界
+        long primaryLatencyNanos = System.nanoTime() - startNanos;
+
+        if (cancelled) {
+            abandonHedge(hedgeTask, winner, hedgeReference, hedgeFuture);
+            if (primaryFailure != null) {
+                throw primaryFailure;
+            }
+            return;
+        }
+
+        if (primaryFailure == null && winner.compareAndSet(HEDGE_PENDING, PRIMARY_WON)) {
+            hedgeTask.cancel(false);
+            JoddHttpWrapper hedge = hedgeReference.get();
+            if (hedge != null) {
+                hedge.cancelledByHedge = true;
+                hedge.abortRequest();
+            }
+            hedgingPolicy.recordCompletion(primaryLatencyNanos, false);
+            return;
+        }
+
+        // 对冲请求还没有发出时，原始请求只可能是失败的
+        JoddHttpWrapper hedge = hedgeTask.cancel(false) ? null : hedgeFuture.join();
+        if (hedge == null) {
+            throw primaryFailure;
+        }
+
+        if (httpResponse != null) {
+            httpResponse.close();
+        }
+        this.httpRequest = hedge.httpRequest;
+        this.httpResponse = hedge.httpResponse;
+        this.compressionMetricsPending = hedge.compressionMetricsPending;
+        this.circuitBreaker = hedge.circuitBreaker;
+        this.circuitBreakerCallSequence = hedge.circuitBreakerCallSequence;
+        hedgingPolicy.recordCompletion(primaryLatencyNanos, true);
+    }
+
+    /**
+     * 异步请求被取消时放弃对冲：对冲请求还未完成时取消它，已经先完成时关闭它的响应
+     */
+    private void abandonHedge(ScheduledFuture<?> hedgeTask, AtomicInteger winner,
+                              AtomicReference<JoddHttpWrapper> hedgeReference, CompletableFuture<JoddHttpWrapper> hedgeFuture) {
+        hedgeTask.cancel(false);
+        if (winner.compareAndSet(HEDGE_PENDING, PRIMARY_WON)) {
+            JoddHttpWrapper hedge = hedgeReference.get();
+            if (hedge != null) {
+                hedge.cancelledByHedge = true;
+                hedge.cancelRequest();
+            }
+            return;
+        }
+
+        JoddHttpWrapper hedge = hedgeFuture.join();
+        if (hedge != null && hedge.httpResponse != null) {
+            hedge.httpResponse.close();
+        }
+    }
+
+    /**
+     * 在异步线程池中发送对冲请求，对冲请求先完成时取消原始请求。
+     * 无论是否发送，hedgeFuture都会完成：对冲请求先完成时为对冲请求的包装类，否则为null
+     */
+    private void launchHedge(HedgingPolicy hedgingPolicy, AtomicInteger winner,
+                             AtomicReference<JoddHttpWrapper> hedgeReference, CompletableFuture<JoddHttpWrapper> hedgeFuture) {
+        if (winner.get() != HEDGE_PENDING || !hedgingPolicy.tryAcquireHedge()) {
+            hedgeFuture.complete(null);
+            return;
+        }
+
+        JoddHttpWrapper hedge;
+        try {
+            hedge = new JoddHttpWrapper(requestFactory.get(), compiledConfig);
+        } catch (RuntimeException e) {
+            hedgeFuture.complete(null);
+            return;
+        }
+        hedge.metricsRoute = metricsRoute;
+        hedge.revalidatingResponse = revalidatingResponse;
+        hedge.activeDeadline = activeDeadline;
+        hedgeReference.set(hedge);
+
+        Thread schedulerThread = Thread.currentThread();
+        try {
+            resolveAsyncExecutor().execute(() -> {
+                // 线程池已满时拒绝策略会在调度线程中直接执行任务，此时放弃对冲，避免阻塞调度线程
+                if (Thread.currentThread() == schedulerThread || winner.get() != HEDGE_PENDING) {
+                    hedgeFuture.complete(null);
+                    return;
+                }
+                try {
+                    hedge.sendRequestOnce();
+                } catch (RuntimeException e) {
+                    hedgeFuture.complete(null);
+                    return;
+                }
+
+                if (winner.compareAndSet(HEDGE_PENDING, HEDGE_WON)) {
+                    cancelledByHedge = true;
+                    abortRequest();
+                    hedgeFuture.complete(hedge);
+                } else {
+                    hedge.httpResponse.close();
+                    hedgeFuture.complete(null);
+                }
+            });
+        } catch (RuntimeException e) {
+            hedgeFuture.complete(null);
+        }
+    }
+
+    /**
+     * 发送一次httpRequest，不进行重试
+     *
+     * @throws HttpRequestException 当http请求连接失败时，抛出该异常
+     */
+    private void sendRequestOnce() {
+        this.httpResponse = null;
+        checkCancelled();
+        checkDeadline();
+        configConnection();
+        acquireCircuitBreakerPermission();
+        if (revalidatingResponse != null) {
+            addConditionalHeaders(revalidatingResponse);
+        }
+
+        long startNanos = System.nanoTime();
+        try {
+            this.httpResponse = httpRequest.send();
+        } catch (HttpException e) {
+            releasePooledConnection();
+            if (cancelledByHedge || cancelled) {
+                // 被取消的请求不是上游的失败，不计入熔断器和请求指标
+                if (circuitBreaker != null) {
+                    circuitBreaker.releasePermission();
+                }
+                String reason = cancelledByHedge ? "请求已被对冲请求取消" : "异步请求已被取消";
+                throw new HttpRequestException(format("{}.url：[{}]", reason, httpRequest.url()), e);
+            }
+            recordCircuitBreakerFailure(e, startNanos);
+            if (isMetricsEnabled()) {
+                joddHttpConfig.getMetricsRecorder().recordRequestFailure(httpRequest.host(), getMetricsRouteOrPath(),
+                    System.nanoTime() - startNanos);
+            }
+            String message = format("{}.url：[{}]", getConnectionFailureReason(), httpRequest.url());
+            throw new HttpRequestException(message, e);
+        }
+        long endNanos = System.nanoTime();
+        disarmConnection();
+        recordCircuitBreakerResult(endNanos - startNanos);
+        recordExchange(startNanos, endNanos);
+        releasePooledConnection();
+        this.compressionMetricsPending = true;
+    }
+
+    /**
+     * 响应体是否需要按Content-Encoding解码，空响应体（例如HEAD、204、304）即使带有Content-Encoding也不需要解码
+     */
+    private boolean isDecodingRequired() {
+        String raw = httpResponse.bodyRaw();
+        String contentEncoding = httpResponse.header("Content-Encoding");
+        return raw != null && !raw.isEmpty() && ContentDecoders.isEncoded(contentEncoding)
+            && ContentDecoders.isSupported(contentEncoding);
+    }
+
+    /**
+     * 按Content-Encoding解码响应体，解码后删除Content-Encoding，之后读取文本、字节和缓存都使用解码后的响应体。
+     * 解码结果完整保存在内存中，最多{@link JoddHttpConfig#getMaxDecompressedBodySize()}字节；
+     * 只需要解析json时由{@link #getJsonResponseBody()}从压缩的响应体流式解析，不会调用该方法
+     *
+     * @throws HttpRequestException 压缩内容损坏或者解压后超过最大字节数时，抛出此异常
+     */
+    private void decodeResponseBody() {
+        if (!isDecodingRequired()) {
+            return;
+        }
+
+        String contentEncoding = httpResponse.header("Content-Encoding");
+        String raw = httpResponse.bodyRaw();
+        String decoded;
+        try {
+            decoded = ContentDecoders.decodeRaw(contentEncoding, raw, joddHttpConfig.getMaxDecompressedBodySize());
+        } catch (IOException e) {
+            throw newDecodingException(contentEncoding, e);
+        }
+        httpResponse.headerRemove("Content-Encoding");
+        httpResponse.body(decoded);
+        recordCompression(raw.length(), decoded.length());
+    }
+
+    private HttpRequestException newDecodingException(String contentEncoding, IOException cause) {
+        String message = format("解压响应体失败. url: [{}], statusCode: [{}], contentEncoding: [{}]",
+            httpRequest.url(), httpResponse.statusCode(), contentEncoding);
+        return new HttpRequestException(message, cause);
+    }
+
+    /**
+     * 记录新收到的响应的压缩指标，每个响应只记录一次，使用缓存或合并请求的响应时不记录
+     */
+    private void recordCompression(long encodedBytes, long decodedBytes) {
+        if (!compressionMetricsPending) {
+            return;
+        }
+        compressionMetricsPending = false;
+        if (isMetricsEnabled()) {
+            joddHttpConfig.getMetricsRecorder().recordCompression(httpRequest.host(), getMetricsRouteOrPath(),
+                encodedBytes, decodedBytes);
+        }
+    }
+
+    /**
+     * 准备读取响应体：将堆外缓存的响应体复制到堆内，并按Content-Encoding解码
+     */
+    private void loadResponseBody() {
+        loadOffHeapBody();
+        decodeResponseBody();
+    }
+
+    /**
+     * 添加重新验证缓存条目的条件请求头
+     *
+     * @param entry 需要重新验证的缓存条目
+     */
+    private void addConditionalHeaders(CachedResponse entry) {
+        if (entry.getEtag() != null) {
+            httpRequest.headerOverwrite("If-None-Match", entry.getEtag());
+        }
+        if (entry.getLastModified() != null) {
+            httpRequest.headerOverwrite("If-Modified-Since", entry.getLastModified());
+        }
+    }
+
+    /**
+     * 向host对应的熔断器申请放行
+     *
+     * @throws CircuitBreakerOpenException 当熔断器打开或者半开状态下探测请求已满时，抛出此异常
+     */
+    private void acquireCircuitBreakerPermission() {
+        CircuitBreakerRegistry circuitBreakerRegistry = joddHttpConfig.getCircuitBreakerRegistry();
+        circuitBreakerCallSequence = CircuitBreaker.NOT_RECORDED;
+        if (circuitBreakerRegistry == null) {
+            circuitBreaker = null;
+            return;
+        }
+
+        circuitBreaker = circuitBreakerRegistry.getCircuitBreaker(httpRequest.host());
+        if (!circuitBreaker.tryAcquirePermission()) {
+            String message = format("熔断器已打开，请求被拒绝. url: [{}], state: [{}]", httpRequest.url(), circuitBreaker.getState());
+            throw new CircuitBreakerOpenException(message, httpRequest.host());
+        }
+    }
+
+    /**
+     * 记录收到响应的请求，5xx计为失败
+     *
+     * @param durationNanos 请求耗时，单位纳秒
+     */
+    private void recordCircuitBreakerResult(long durationNanos) {
+        if (circuitBreaker != null) {
+            boolean isServerError = HttpStatusCode.valueOf(httpResponse.statusCode()).is5xxServerError();
+            circuitBreakerCallSequence = circuitBreaker.onResult(durationNanos, isServerError);
+        }
+    }
+
+    /**
+     * 记录发送失败的请求。
+     * 从连接池借出连接失败时请求没有发送到服务端，只归还许可，避免本地连接池满载打开健康host的熔断器
+     *
+     * @param e          发送失败的异常
+     * @param startNanos 开始发送请求的时间
+     */
+    private void recordCircuitBreakerFailure(HttpException e, long startNanos) {
+        if (circuitBreaker == null) {
+            return;
+        }
+        if (isConnectionPoolFailure(e)) {
+            circuitBreaker.releasePermission();
+        } else {
+            circuitBreaker.onResult(System.nanoTime() - startNanos, true);
+        }
+    }
+
+    private static boolean isConnectionPoolFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectionPoolException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 将收到响应之后才发现的失败补记到熔断器，业务编码错误和自定义校验失败都通过该方法记录
+     */
+    private void recordCircuitBreakerLateFailure() {
+        if (circuitBreaker != null) {
+            circuitBreaker.onLateFailure(circuitBreakerCallSequence);
+        }
+    }
+
+    /**
+     * 记录本次请求的耗时和字节数，必须在连接释放前调用
+     *
+     * @param startNanos 开始发送请求的时间
+     * @param endNanos   读取完响应的时间
+     */
+    private void recordExchange(long startNanos, long endNanos) {
+        HttpConnection connection = httpRequest.connection();
+        if (!isMetricsEnabled() || !(connection instanceof MeteredHttpConnection)) {
+            return;
+        }
+
+        MeteredHttpConnection meteredConnection = (MeteredHttpConnection) connection;
+        long firstByteAtNanos = meteredConnection.getFirstByteAtNanos();
+        joddHttpConfig.getMetricsRecorder().recordExchange(httpRequest.host(), getMetricsRouteOrPath(),
+            httpResponse.statusCode(), meteredConnection.getConnectNanos(),
+            firstByteAtNanos < 0 ? -1 : firstByteAtNanos - startNanos, endNanos - startNanos,
+            meteredConnection.getBytesWritten(), meteredConnection.getBytesRead());
+    }
+
+    private boolean isMetricsEnabled() {
+        HttpMetricsRecorder metricsRecorder = joddHttpConfig.getMetricsRecorder();
+        return metricsRecorder != null && metricsRecorder.isEnabled();
+    }
+
+    private String getMetricsRouteOrPath() {
+        return metricsRoute != null ? metricsRoute : httpRequest.path();
+    }
+
+    /**
+     * 在配置的异步线程池中发送httpRequest，线程池参考{@link JoddHttpConfig#getAsyncExecutor()}。
+     * 取消返回的future或者超过{@link JoddHttpConfig#getAsyncTimeout()}时，会关闭底层连接以中断正在进行的请求，
+     * 之后不再重试，正在等待重试的线程会立即结束。被取消的包装类不能再次发送请求
+     *
+     * @return 请求完成后返回当前包装类的future，请求失败时以{@link HttpRequestException}异常完成
+     */
+    public CompletableFuture<JoddHttpWrapper> sendRequestAsync() {
+        return submitAsync(() -> {
+            sendRequest();
+            return this;
+        });
+    }
+
+    /**
+     * 在配置的异步线程池中发送httpRequest，校验响应结果后返回响应体json对象。
+     * 取消和超时的处理同{@link JoddHttpWrapper#sendRequestAsync()}
+     *
+     * @return 响应体json对象的future，请求或校验失败时以{@link HttpRequestException}异常完成
+     */
+    public CompletableFuture<JSONObject> sendAndValidateAsync() {
+        return submitAsync(() -> {
+            sendRequest();
+            validateResponse();
+            return getResponseJsonObject();
+        });
+    }
+
+    /**
+     * 将任务提交到异步线程池执行。
+     * future异常完成（取消、超时）时取消请求；任务开始执行前future已完成时不再发送请求
+     *
+     * @param task 需要异步执行的任务
+     * @return 任务结果的future
+     */
+    private <T> CompletableFuture<T> submitAsync(Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                cancelRequest();
+            }
+        });
+
+        int asyncTimeout = joddHttpConfig.getAsyncTimeout();
+        if (asyncTimeout > 0) {
+            ScheduledFuture<?> timeoutTask = AsyncHttpExecutors.getTimeoutScheduler().schedule(() -> {
+                String message = format("异步请求超时. url: [{}], asyncTimeout: [{}]", httpRequest.url(), asyncTimeout);
+                future.completeExceptionally(new HttpRequestException(message));
+            }, asyncTimeout, TimeUnit.MILLISECONDS);
+            future.whenComplete((result, throwable) -> timeoutTask.cancel(false));
+        }
+
+        Deadline inheritedDeadline = Deadline.current();
+        try {
+            resolveAsyncExecutor().execute(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+                try (Deadline.Scope scope = inheritedDeadline == null ? null : inheritedDeadline.attach()) {
+                    future.complete(task.get());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            String message = format("异步请求提交失败. url: [{}]", httpRequest.url());
+            future.completeExceptionally(new HttpRequestException(message, e));
+        }
+        return future;
+    }
+
+    private Executor resolveAsyncExecutor() {
+        Executor executor = joddHttpConfig.getAsyncExecutor();
+        return executor == null ? AsyncHttpExecutors.getDefaultExecutor() : executor;
+    }
+
+    /**
+     * 取消请求：标记为已取消并唤醒等待重试的线程，再关闭底层连接。
+     * 请求还在线程池中排队、正在等待重试或者处于两次重试之间时，由发送线程检查取消标记后结束
+     */
+    private void cancelRequest() {
+        cancelled = true;
+        cancelSignal.countDown();
+        abortRequest();
+    }
+
+    /**
+     * 关闭请求的底层连接，正在读写该连接的线程会立即失败
+     */
+    private void abortRequest() {
+        HttpConnection connection = httpRequest.connection();
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    /**
+     * 将连接池借出的连接归还。
+     * jodd在返回响应前已经读取了完整的响应体，所以连接可以立即归还，响应为keep-alive时连接会被复用，否则直接关闭
+     */
+    private void releasePooledConnection() {
+        HttpConnection connection = TimedHttpConnection.unwrap(MeteredHttpConnection.unwrap(httpRequest.connection()));
+        if (!(connection instanceof PooledHttpConnection)) {
+            return;
+        }
+
+        if (httpResponse == null) {
+            httpRequest.connection().close();
+            return;
+        }
+
+        if (httpResponse.isConnectionPersistent()) {
+            ((PooledHttpConnection) connection).markReusable();
+        }
+        httpResponse.close();
+    }
+
+    /**
+     * 对响应结果进行校验，校验失败时会将失败的步骤记录到{@link JoddHttpConfig#getMetricsRecorder()}。
+     * 使用缓存的响应时跳过校验，配置了{@link JoddHttpConfig#getResponseCache()}时校验通过的响应会被缓存
+     */
+    public void validateResponse() {
+        if (joddHttpConfig.isIgnoreAllValidation() || cachedResponse != null || responseValidated) {
+            return;
+        }
+        recompileExposedConfig();
+
+        boolean isTimed = isMetricsEnabled();
+        ValidationContext validationContext = null;
+        for (ValidationRule rule : compiledConfig.getValidationChain()) {
+            long startNanos = isTimed ? System.nanoTime() : 0;
+            try {
+                ResponseValidator validator = rule.getValidator();
+                if (validator == null) {
+                    validate(rule.getStep());
+                } else {
+                    if (validationContext == null) {
+                        validationContext = new ValidationContext(this, joddHttpConfig.isLazyJsonAccess());
+                    }
+                    validator.validate(validationContext);
+                }
+            } catch (RuntimeException e) {
+                if (rule.getValidator() != null) {
+                    recordCircuitBreakerLateFailure();
+                }
+                if (isTimed) {
+                    recordValidationRule(rule, startNanos, false);
+                    joddHttpConfig.getMetricsRecorder().recordValidationFailure(httpRequest.host(), getMetricsRouteOrPath(),
+                        rule.getStep());
+                }
+                throw e;
+            }
+            if (isTimed) {
+                recordValidationRule(rule, startNanos, true);
+            }
+        }
+        responseValidated = true;
+        storeCachedResponse();
+    }
+
+    private void recordValidationRule(ValidationRule rule, long startNanos, boolean passed) {
+        joddHttpConfig.getMetricsRecorder().recordValidationRule(httpRequest.host(), getMetricsRouteOrPath(),
+            rule.getName(), System.nanoTime() - startNanos, passed);
+    }
+
+    /**
+     * 执行单个内置的校验步骤
+     */
+    private void validate(ValidationStep step) {
+        switch (step) {
+            case STATUS_CODE:
+                validateStatusCode();
+                break;
+            case CONTENT_TYPE:
+                validateResponseContentType();
+                break;
+            case JSON_FORMAT:
+                validateJsonFormat();
+                break;
+            case BUSINESS_CODE:
+                validateBusinessCode();
+                break;
+            case DATA_NODE:
+                validateDataJsonNodeExist();
+                break;
+            case LIST_NODE:
+                validateListJsonNodeExist();
+                break;
+            default:
+                throw new IllegalStateException("未知的校验步骤: " + step);
+        }
+    }
+
+    /**
+     * 将校验通过的响应及已经解析的json存入缓存，不可缓存的响应会被忽略
+     */
+    private void storeCachedResponse() {
+        HttpResponseCache responseCache = joddHttpConfig.getResponseCache();
+        if (responseCache == null) {
+            return;
+        }
+
+        // 响应体已经完整读取，缓存前释放连接，避免缓存条目持有连接
+        httpResponse.close();
+        // 缓存解码后的响应体，命中缓存时不再重复解压
+        decodeResponseBody();
+        this.cachedResponse = responseCache.store(httpRequest, httpResponse, jsonResponseBody);
+    }
+
+    /**
+     * 从给定的json对象中取出business code。
+     * 开启{@link JoddHttpConfig#isLazyJsonAccess()}时只扫描到code字段为止，不会解析整个响应体
+     *
+     * @return json中包含的business code
+     * @throws HttpRequestException code不是整数时，按code错误抛出此异常
+     */
+    public Integer getBusinessCode() {
+        if (joddHttpConfig.isLazyJsonAccess()) {
+            JsonValueSpan code = scanJsonPath(CommonConstant.JSON_KEY_BUSINESS_CODE);
+            try {
+                return code == null || code.isNull() ? null : code.getValue(Integer.class);
+            } catch (JSONException e) {
+                throw newInvalidBusinessCodeException(e);
+            }
+        }
+
+        getResponseJsonObject();
+        try {
+            return getJsonResponseBody().getBusinessCode();
+        } catch (JSONException | NumberFormatException e) {
+            throw newInvalidBusinessCodeException(e);
+        }
+    }
+
+    /**
+     * code无法转换为整数时，与code错误一样计入熔断器的失败
+     */
+    private HttpRequestException newInvalidBusinessCodeException(RuntimeException cause) {
+        recordCircuitBreakerLateFailure();
+        return newBusinessCodeException(null, cause);
+    }
+
+    /**
+     * 按路径从响应体中提取json值，只扫描到目标字段为止，不会构建完整的json对象，调用该方法会自动关闭http连接。
+     * 路径格式参考{@link JsonPathScanner}，例如{@code data.list[0].id}
+     *
+     * @param path 值的路径，不能为空
+     * @return 路径对应的值，json对象为JSONObject，json数组为JSONArray，路径不存在时返回null
+     * @throws HttpRequestException 扫描过程中遇到json格式错误时，抛出此异常
+     * @throws UnsupportedOperationException 当content-type响应头中mediaType非application/json时，抛出此异常
+     */
+    public Object getJsonPathValue(String path) {
+        JsonValueSpan value = scanJsonPath(path);
+        return value == null ? null : value.getValue();
+    }
+
+    /**
+     * 按路径从响应体中提取json值并绑定为指定类型，其余同{@link JoddHttpWrapper#getJsonPathValue(String)}
+     *
+     * @param path 值的路径，不能为空
+     * @param type 目标类型，不能为null
+     * @return 绑定后的值，路径不存在时返回null
+     */
+    public <T> T getJsonPathValue(String path, Class<T> type) {
+        Assert.notNull(type, "type不能为null");
+        JsonValueSpan value = scanJsonPath(path);
+        return value == null ? null : value.getValue(type);
+    }
+
+    /**
+     * 在原始响应体中扫描路径对应的值
+     *
+     * @param path 值的路径
+     * @return 值在响应体中的位置，路径不存在时返回null
+     */
+    private JsonValueSpan scanJsonPath(String path) {
+        if (isResponseMediaTypeNotJson()) {
+            throw new UnsupportedOperationException("content-type响应头中mediaType非application/json，无法提取json值. 请检查http请求和响应内容.");
+        }
+
+        loadResponseBody();
+        try {
+            return JsonPathScanner.find(httpResponse.bodyRaw(), HttpResponseUtils.getCharset(httpResponse), path);
+        } catch (JSONException e) {
+            throw newJsonFormatException(e);
+        } finally {
+            httpResponse.close();
+        }
+    }
+
+    /**
+     * 获取请求响应体中的字符串转换过来的json对象，调用该方法会自动关闭http连接。
+     * 使用缓存的响应时返回的是缓存中json对象的副本，修改返回的对象不会影响缓存和其他请求
+     *
+     * @return 响应体中转换出来的json对象
+     * @throws UnsupportedOperationException 当content-type响应头中mediaType非application/json时，抛出此异常
+     */
+    public JSONObject getResponseJsonObject() {
+        if (isResponseMediaTypeNotJson()) {
+            throw new UnsupportedOperationException("content-type响应头中mediaType非application/json，无法获取json对象. 请检查http请求和响应内容.");
+        }
+
+        if (responseJsonObject == null) {
+            responseJsonObject = getJsonResponseBody().getJsonObject();
+        }
+
+        return responseJsonObject;
+    }
+
+    /**
+     * 将整个响应体直接绑定为指定类型，不经过中间的json对象，调用该方法会自动关闭http连接。
+     * 适用于响应体不符合code/data约定的接口，绑定时只校验http状态码、content-type和json格式
+     *
+     * @param type 目标类型，不能为null
+     * @return 绑定后的对象
+     * @throws HttpRequestException 状态码、content-type或者json格式校验失败时，抛出此异常
+     * @throws UnsupportedOperationException 当content-type响应头中mediaType非application/json时，抛出此异常
+     */
+    public <T> T getResponseAs(Class<T> type) {
+        Assert.notNull(type, "type不能为null");
+        return bindResponseBody(type);
+    }
+
+    /**
+     * 将整个响应体直接绑定为指定的泛型类型，其余同{@link JoddHttpWrapper#getResponseAs(Class)}
+     *
+     * @param typeReference 目标类型，不能为null
+     * @return 绑定后的对象
+     */
+    public <T> T getResponseAs(TypeReference<T> typeReference) {
+        Assert.notNull(typeReference, "typeReference不能为null");
+        return bindResponseBody(typeReference.getType());
+    }
+
+    /**
+     * 将响应体json中的data节点直接绑定为指定类型，不经过中间的json对象，调用该方法会自动关闭http连接。
+     * 按配置在同一次解析中完成状态码、content-type、json格式、code和data节点的校验，
+     * 由于不知道data的结构，list节点的校验会被跳过，需要校验list时请使用{@link JoddHttpWrapper#getListAs(Class)}
+     *
+     * @param type data节点的类型，不能为null
+     * @return 绑定后的data节点，data不存在且未开启校验时返回null
+     * @throws HttpRequestException 任一校验失败时，抛出此异常
+     */
+    public <T> T getDataAs(Class<T> type) {
+        Assert.notNull(type, "type不能为null");
+        return bindData(type);
+    }
+
+    /**
+     * 将响应体json中的data节点直接绑定为指定的泛型类型，其余同{@link JoddHttpWrapper#getDataAs(Class)}
+     *
+     * @param typeReference data节点的类型，不能为null
+     * @return 绑定后的data节点
+     */
+    public <T> T getDataAs(TypeReference<T> typeReference) {
+        Assert.notNull(typeReference, "typeReference不能为null");
+        return bindData(typeReference.getType());
+    }
+
+    /**
+     * 将响应体json中的data.list节点直接绑定为指定元素类型的列表，不经过中间的json对象，调用该方法会自动关闭http连接。
+     * 按配置在同一次解析中完成状态码、content-type、json格式、code、data和list节点的校验
+     *
+     * @param elementType list元素的类型，不能为null
+     * @return 绑定后的列表，list不存在且未开启校验时返回null
+     * @throws HttpRequestException 任一校验失败时，抛出此异常
+     */
+    public <T> List<T> getListAs(Class<T> elementType) {
+        Assert.notNull(elementType, "elementType不能为null");
+        return bindList(elementType);
+    }
+
+    /**
+     * 将响应体json中的data.list节点直接绑定为指定泛型元素类型的列表，其余同{@link JoddHttpWrapper#getListAs(Class)}
+     *
+     * @param elementTypeReference list元素的类型，不能为null
+     * @return 绑定后的列表
+     */
+    public <T> List<T> getListAs(TypeReference<T> elementTypeReference) {
+        Assert.notNull(elementTypeReference, "elementTypeReference不能为null");
+        return bindList(elementTypeReference.getType());
+    }
+
+    /**
+     * 以流的方式发送请求，逐个读取响应体json中data.list节点的元素，边接收响应体边处理，同一时间只有一个元素在内存中。
+     * 适用于list很大的接口，返回的流使用完毕后必须关闭以释放连接，例如在try-with-resources中使用。
+     * <p>
+     * 按配置进行状态码、content-type、code以及data、list节点不为空的校验：状态码和content-type在返回前校验，
+     * code在读取到时校验，data、list在遍历结束时校验，校验失败的异常在遍历时抛出。
+     * 响应体中code在data之后时，只有遍历完list才能校验code，此时失败前已经返回的元素应当被丢弃
+     *
+     * @param elementType list元素的类型，不能为null
+     * @return list元素的流
+     * @throws HttpRequestException 请求连接失败或者状态码、content-type校验失败时，抛出此异常
+     * @throws UnsupportedOperationException 当content-type响应头中mediaType非application/json时，抛出此异常
+     */
+    public <T> Stream<T> streamListAs(Class<T> elementType) {
+        Assert.notNull(elementType, "elementType不能为null");
+        return streamList(elementType);
+    }
+
+    /**
+     * 逐个读取响应体json中data.list节点的泛型元素，其余同{@link JoddHttpWrapper#streamListAs(Class)}
+     *
+     * @param elementTypeReference list元素的类型，不能为null
+     * @return list元素的流
+     */
+    public <T> Stream<T> streamListAs(TypeReference<T> elementTypeReference) {
+        Assert.notNull(elementTypeReference, "elementTypeReference不能为null");
+        return streamList(elementTypeReference.getType());
+    }
+
+    private <T> Stream<T> streamList(Type elementType) {
+        codeValidateResult = false;
+        StreamingHttpResponse streamingResponse = sendRequestForStream();
+        try {
+            if (!joddHttpConfig.isIgnoreAllValidation()) {
+                validateStreamStatusCode(streamingResponse);
+                validateResponseContentType();
+            }
+            if (isResponseMediaTypeNotJson()) {
+                throw new UnsupportedOperationException("content-type响应头中mediaType非application/json，无法读取list. 请检查http请求和响应内容.");
+            }
+
+            Charset charset = HttpResponseUtils.getCharset(httpResponse);
+            InputStreamReader bodyReader = new InputStreamReader(streamingResponse.getDecodedBody(),
+                charset == null ? StandardCharsets.UTF_8 : charset);
+            JsonListReader<T> listReader = new JsonListReader<>(bodyReader, elementType, new StreamListValidation());
+            Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(new Iterator<T>() {
+                @Override
+                public boolean hasNext() {
+                    try {
+                        return listReader.hasNext();
+                    } catch (JSONException e) {
+                        String reason = format("请求响应的Json串格式错误. contentType: [{}],", httpResponse.contentType());
+                        throw newStreamValidationException(reason, ValidationStep.JSON_FORMAT, null, e);
+                    }
+                }
+
+                @Override
+                public T next() {
+                    hasNext();
+                    return listReader.next();
+                }
+            }, Spliterator.ORDERED);
+            return StreamSupport.stream(spliterator, false).onClose(() -> {
+                listReader.close();
+                streamingResponse.close();
+            });
+        } catch (IOException e) {
+            streamingResponse.close();
+            String message = format("读取响应体失败. url: [{}], statusCode: [{}]", httpRequest.url(), httpResponse.statusCode());
+            throw new HttpRequestException(message, e);
+        } catch (RuntimeException e) {
+            streamingResponse.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 合并请求中leader的结果快照，在合并的任务返回之前创建，之后不会被修改，等待者只读取快照而不读取leader的状态。
+     * 响应和json都是leader所持有对象的副本，leader之后关闭、修改自己的响应对象和json对象不会影响快照
+     */
+    private static final class CoalescedResponse {
+
+        /**
+         * 真正发送请求的包装类，只用于判断调用方是否为leader
+         */
+        private final JoddHttpWrapper leader;
+
+        private final CompiledJoddHttpConfig compiledConfig;
+
+        private final HttpResponse httpResponse;
+
+        private final CachedResponse cachedResponse;
+
+        /**
+         * leader已经解析的json，未解析时为null
+         */
+        private final JsonResponseBody jsonResponseBody;
+
+        private final boolean codeValidateResult;
+
+        /**
+         * leader校验失败的异常，校验通过时为null
+         */
+        private final RuntimeException validationException;
+
+        private CoalescedResponse(JoddHttpWrapper leader, RuntimeException validationException) {
+            this.leader = leader;
+            this.compiledConfig = leader.compiledConfig;
+            this.httpResponse = HttpResponseUtils.copy(leader.httpResponse);
+            this.cachedResponse = leader.cachedResponse;
+            this.jsonResponseBody = leader.jsonResponseBody == null ? null : leader.jsonResponseBody.copy();
+            this.codeValidateResult = leader.codeValidateResult;
+            this.validationException = validationException;
+        }
+    }
+
+    /**
+     * 流式读取list时的校验，开关与{@link JoddHttpWrapper#validateResponse()}一致，响应体没有缓存，异常信息中不包含响应体
+     */
+    private final class StreamListValidation implements ListValidation {
+
+        @Override
+        public void onBusinessCode(Integer code) {
+            if (joddHttpConfig.isIgnoreAllValidation() || !joddHttpConfig.isValidateCodeJsonNodeExist()) {
+                return;
+            }
+            if (isBusinessCodeInvalid(code)) {
+                recordCircuitBreakerLateFailure();
+                throw newStreamValidationException("json响应体中的code不存在或者错误.", ValidationStep.BUSINESS_CODE, code, null);
+            }
+            codeValidateResult = true;
+        }
+
+        @Override
+        public void onEnd(boolean dataFound, long elementCount) {
+            if (joddHttpConfig.isIgnoreAllValidation() || !codeValidateResult
+                || !joddHttpConfig.isValidateDataJsonNodeExist()) {
+                return;
+            }
+            if (!dataFound) {
+                throw newStreamValidationException("json响应体中的data节点不存在.", ValidationStep.DATA_NODE, null, null);
+            }
+            if (joddHttpConfig.isValidateListJsonNodeExist() && elementCount == 0) {
+                throw newStreamValidationException("json响应体中的list节点不存在.", ValidationStep.LIST_NODE, null, null);
+            }
+        }
+    }
+
+    /**
+     * 创建流式读取时校验失败的异常，响应体没有缓存，异常中不包含响应体片段
+     */
+    private HttpRequestException newStreamValidationException(String reason, ValidationStep step, Integer businessCode,
+                                                              Throwable cause) {
+        return new HttpRequestException(reason, step, httpRequest.url(), httpResponse.statusCode(), businessCode,
+            null, cause);
+    }
+
+    private <T> T bindData(Type dataType) {
+        ResponseEnvelope<T> envelope = bindResponseBody(ResponseTypes.envelopeOf(dataType));
+        T data = envelope.getData();
+        validateBoundEnvelope(envelope.getCode(), isEmptyNode(data), false);
+        return data;
+    }
+
+    private <T> List<T> bindList(Type elementType) {
+        ResponseEnvelope<ListData<T>> envelope = bindResponseBody(ResponseTypes.listEnvelopeOf(elementType));
+        ListData<T> data = envelope.getData();
+        List<T> list = data == null ? null : data.getList();
+        validateBoundEnvelope(envelope.getCode(), data == null, CollectionUtils.isEmpty(list));
+        return list;
+    }
+
+    /**
+     * 对已绑定的外层结构进行code、data和list校验，开关与{@link JoddHttpWrapper#validateResponse()}一致
+     *
+     * @param code        响应体json中的业务编码
+     * @param dataMissing data节点是否不存在或为空
+     * @param listMissing list节点是否不存在或为空
      */
-    private JoddHttpConfig joddHttpConfig;
+    private void validateBoundEnvelope(Integer code, boolean dataMissing, boolean listMissing) {
+        if (joddHttpConfig.isIgnoreAllValidation() || !joddHttpConfig.isValidateCodeJsonNodeExist()) {
+            return;
+        }
+        if (isBusinessCodeInvalid(code)) {
+            recordCircuitBreakerLateFailure();
+            throw newBusinessCodeException(code);
+        }
+        codeValidateResult = true;
+
+        if (!joddHttpConfig.isValidateDataJsonNodeExist()) {
+            return;
+        }
+        if (dataMissing) {
+            throw newDataNodeMissingException();
+        }
+        if (joddHttpConfig.isValidateListJsonNodeExist() && listMissing) {
+            throw newListNodeMissingException();
+        }
+    }
+
+    private static boolean isEmptyNode(Object node) {
+        if (node instanceof Collection) {
+            return ((Collection<?>) node).isEmpty();
+        }
+        if (node instanceof Map) {
+            return ((Map<?, ?>) node).isEmpty();
+        }
+        return node == null;
+    }
 
     /**
-     * json响应体中的code校验结果。
-     * 如果code未校验成功则跳过data和list的校验
+     * 在一次解析中将响应体绑定为指定类型，json格式错误时转换为{@link HttpRequestException}
+     *
+     * @param type 目标类型
+     * @return 绑定后的对象
      */
-    private boolean codeValidateResult;
+    private <T> T bindResponseBody(Type type) {
+        if (!joddHttpConfig.isIgnoreAllValidation()) {
+            validateStatusCode();
+            validateResponseContentType();
+        }
+        if (isResponseMediaTypeNotJson()) {
+            throw new UnsupportedOperationException("content-type响应头中mediaType非application/json，无法绑定响应体. 请检查http请求和响应内容.");
+        }
+
+        try {
+            String bodyText = getResponseBodyText();
+            if (!joddHttpConfig.isIgnoreAllValidation() && bodyText != null) {
+                StrictJsonValidator.validate(bodyText);
+            }
+            T result = JSON.parseObject(bodyText, type);
+            if (result == null) {
+                throw new JSONException("响应体为空或为json字面量null");
+            }
+            return result;
+        } catch (JSONException e) {
+            throw newJsonFormatException(e);
+        } finally {
+            httpResponse.close();
+        }
+    }
 
     /**
-     * 请求响应体中的json, 不能直接访问该字段，应该通过{@link JoddHttpWrapper#getResponseJsonObject()}获取该字段
+     * 获取本次请求的响应，压缩的响应体在返回前按Content-Encoding解码，未收到响应时返回null
+     *
+     * @return 本次请求的响应
+     * @throws HttpRequestException 压缩内容损坏或者解压后超过最大字节数时，抛出此异常
      */
-    private JSONObject responseJsonObject;
+    public HttpResponse getHttpResponse() {
+        if (httpResponse != null) {
+            loadResponseBody();
+        }
+        return httpResponse;
+    }
 
-    private JoddHttpWrapper(HttpRequest httpRequest, JoddHttpConfig joddHttpConfig) {
-        this.joddHttpConfig = joddHttpConfig;
-        this.httpRequest = httpRequest;
+    /**
+     * 获取响应体解码后的文本，多次调用只会解码一次。
+     *
+     * @return 响应体文本
+     */
+    public String getResponseBodyText() {
+        if (responseBodyText == null) {
+            loadResponseBody();
+            responseBodyText = httpResponse.bodyText();
+        }
+        return responseBodyText;
+    }
 
-        configRequest();
+    /**
+     * 使用堆外缓存的响应时，将响应体复制到本次请求的响应对象中，只复制一次，复制后释放堆外响应体的引用
+     */
+    private void loadOffHeapBody() {
+        if (cachedResponse != null && cachedResponse.isOffHeap() && httpResponse.bodyRaw() == null) {
+            httpResponse.body(cachedResponse.getBodyRaw());
+            releaseOffHeapBody();
+        }
     }
 
     /**
-     * 根据传入的config对象配置request对象
+     * 释放本次请求持有的堆外响应体的引用，使缓冲区在条目被删除后可以复用
      */
-    private void configRequest() {
-        httpRequest.connectionTimeout(joddHttpConfig.getTimeout());
-        httpRequest.timeout(joddHttpConfig.getTimeout());
-        httpRequest.contentType(joddHttpConfig.getMediaType(), joddHttpConfig.getCharset());
-        httpRequest.accept(joddHttpConfig.getAccept());
+    private void releaseOffHeapBody() {
+        if (offHeapBodyRetained) {
+            offHeapBodyRetained = false;
+            cachedResponse.releaseBody();
+        }
     }
 
     /**
-     * 根据指定HttpRequest参数创建包装类实例，会调用{@link JoddHttpConfig#getDefaultConfig()}获取默认的配置。
+     * 获取响应体json的解析结果，响应体只会被解析一次，调用该方法会自动关闭http连接。
      *
-     * @param httpRequest 请求参数，不能为null
-     * @return 以默认配置创建的包装类
-     * @throws IllegalArgumentException 当httpRequest为null时，抛出此异常
+     * @return 响应体json的解析结果
      */
-    public static JoddHttpWrapper newInstance(HttpRequest httpRequest) {
-        return newInstance(httpRequest, JoddHttpConfig.getDefaultConfig());
+    private JsonResponseBody getJsonResponseBody() {
+        if (jsonResponseBody == null && sharedJsonResponseBody != null) {
+            jsonResponseBody = sharedJsonResponseBody.copy();
+        }
+        if (jsonResponseBody == null && cachedResponse != null) {
+            jsonResponseBody = cachedResponse.getJsonResponseBody();
+        }
+        if (jsonResponseBody == null) {
+            try {
+                loadOffHeapBody();
+                jsonResponseBody = responseBodyText == null && isDecodingRequired()
+                    ? parseEncodedResponseBody() : JsonResponseBody.parse(getResponseBodyText());
+            } finally {
+                if (httpResponse != null) {
+                    httpResponse.close();
+                }
+            }
+        }
+        return jsonResponseBody;
     }
 
-
     /**
-     * 根据指定HttpRequest参数及JoddHttpConfig配置对象创建包装类实例。
+     * 边解压边解析压缩的响应体，不生成解压后的响应体字符串，解压的字节数同样受{@link JoddHttpConfig#getMaxDecompressedBodySize()}限制。
+     * 响应头中的charset不被支持时，按读取文本的方式解压后解析
      *
-     * @param httpRequest    请求参数，不能为null
-     * @param joddHttpConfig 请求配置对象，如果为null则启用默认配置
-     * @return 以指定配置对象创建的包装类
-     * @throws IllegalArgumentException 当httpRequest为null时，抛出此异常
+     * @return 响应体json的解析结果
+     * @throws HttpRequestException 压缩内容损坏或者解压后超过最大字节数时，抛出此异常
      */
-    public static JoddHttpWrapper newInstance(HttpRequest httpRequest, JoddHttpConfig joddHttpConfig) {
-        Assert.notNull(httpRequest, "httpRequest不能为null");
-        if (joddHttpConfig == null) {
-            joddHttpConfig = JoddHttpConfig.getDefaultConfig();
+    private JsonResponseBody parseEncodedResponseBody() {
+        Charset charset = HttpResponseUtils.getCharset(httpResponse);
+        if (charset == null && httpResponse.charset() != null) {
+            return JsonResponseBody.parse(getResponseBodyText());
+        }
+
+        String contentEncoding = httpResponse.header("Content-Encoding");
+        ContentDecoders.BoundedInputStream decodedBody;
+        try {
+            decodedBody = ContentDecoders.decodeRawStream(contentEncoding, httpResponse.bodyRaw(),
+                joddHttpConfig.getMaxDecompressedBodySize());
+        } catch (IOException e) {
+            throw newDecodingException(contentEncoding, e);
         }
-        return new JoddHttpWrapper(httpRequest, joddHttpConfig);
+        // 未指定charset时与jodd的bodyText()一致，每个字节对应一个字符
+        JsonResponseBody result = JsonResponseBody.parse(new InputStreamReader(decodedBody,
+            charset == null ? StandardCharsets.ISO_8859_1 : charset));
+        JSONException parseException = result.getParseException();
+        if (parseException != null && parseException.getCause() instanceof IOException) {
+            throw newDecodingException(contentEncoding, (IOException) parseException.getCause());
+        }
+        recordCompression(httpResponse.bodyRaw().length(), decodedBody.getCount());
+        return result;
     }
 
     /**
-     * 发送httpRequest
+     * 以流的方式发送httpRequest，只读取状态行和响应头，响应体按需从连接中读取。
+     * 不能与{@link JoddHttpWrapper#sendRequest()}同时使用，使用完毕后必须关闭返回的响应以释放连接。
+     * 配置了熔断器时，按收到响应头为止的耗时和状态码记录结果
      *
-     * @throws HttpRequestException 当http请求连接失败时，抛出该异常
+     * @return 流式响应
+     * @throws HttpRequestException 当http请求连接失败或者熔断器拒绝请求时，抛出该异常
      */
-    public void sendRequest() {
+    public StreamingHttpResponse sendRequestForStream() {
+        recompileExposedConfig();
+        this.activeDeadline = resolveDeadline();
+        checkDeadline();
+        configConnection();
+        acquireCircuitBreakerPermission();
+        long startNanos = System.nanoTime();
         try {
-            this.httpResponse = httpRequest.send();
+            StreamingHttpResponse streamingResponse = StreamingHttpResponse.send(httpRequest);
+            this.httpResponse = streamingResponse.getHttpResponse();
+            recordCircuitBreakerResult(System.nanoTime() - startNanos);
+            return streamingResponse;
         } catch (HttpException e) {
-            String message = format("请求连接失败.url：[{}]", httpRequest.url());
+            recordCircuitBreakerFailure(e, startNanos);
+            String message = format("{}.url：[{}]", getConnectionFailureReason(), httpRequest.url());
             throw new HttpRequestException(message, e);
         }
     }
 
     /**
-     * 对响应结果进行校验
+     * 发送httpRequest，以流的方式将响应体写入指定的输出流，响应体不会缓存在内存中，调用该方法会自动关闭http连接。
+     *
+     * @param outputStream 响应体写入的输出流，不能为null，方法结束后不会关闭该流
+     * @return 写入的字节数
+     * @throws HttpRequestException 请求连接失败、http状态码错误或者读写失败时，抛出此异常
+     * @throws IllegalArgumentException 当outputStream为null时，抛出此异常
      */
-    public void validateResponse() {
-        if (joddHttpConfig.isIgnoreAllValidation()) {
-            return;
-        }
+    public long downloadTo(OutputStream outputStream) {
+        Assert.notNull(outputStream, "outputStream不能为null");
 
-        validateStatusCode();
-        validateResponseContentType();
-        validateJsonFormat();
-        validateBusinessCode();
-        validateDataJsonNodeExist();
-        validateListJsonNodeExist();
+        return download((body, contentLength) -> {
+            byte[] buffer = new byte[joddHttpConfig.getDownloadBufferSize()];
+            long total = 0;
+            int count;
+            while ((count = body.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, count);
+                total += count;
+            }
+            return total;
+        });
     }
 
     /**
-     * 从给定的json对象中取出business code
+     * 发送httpRequest，以流的方式将响应体写入指定的channel，响应体不会缓存在内存中，调用该方法会自动关闭http连接。
      *
-     * @return json中包含的business code
+     * @param channel 响应体写入的channel，不能为null，方法结束后不会关闭该channel
+     * @return 写入的字节数
+     * @throws HttpRequestException 请求连接失败、http状态码错误或者读写失败时，抛出此异常
+     * @throws IllegalArgumentException 当channel为null时，抛出此异常
      */
-    public Integer getBusinessCode() {
-        return getResponseJsonObject().getInteger(CommonConstant.JSON_KEY_BUSINESS_CODE);
+    public long downloadTo(WritableByteChannel channel) {
+        Assert.notNull(channel, "channel不能为null");
+
+        return download((body, contentLength) -> {
+            byte[] buffer = new byte[joddHttpConfig.getDownloadBufferSize()];
+            ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+            long total = 0;
+            int count;
+            while ((count = body.read(buffer)) != -1) {
+                // 以Buffer类型调用，避免在高版本jdk上编译后运行于jdk8时找不到ByteBuffer的协变返回方法
+                ((Buffer) byteBuffer).clear();
+                ((Buffer) byteBuffer).limit(count);
+                while (byteBuffer.hasRemaining()) {
+                    channel.write(byteBuffer);
+                }
+                total += count;
+            }
+            return total;
+        });
     }
 
     /**
-     * 获取请求响应体中的字符串转换过来的json对象，调用该方法会自动关闭http连接。
+     * 发送httpRequest，通过{@link FileChannel#transferFrom}将响应体写入指定文件，文件已存在时会被覆盖，调用该方法会自动关闭http连接。
+     * 只有http状态码校验通过后才会创建文件
      *
-     * @return 响应体中转换出来的json对象
-     * @throws UnsupportedOperationException 当content-type响应头中mediaType非application/json时，抛出此异常
+     * @param path 响应体写入的文件路径，不能为null
+     * @return 写入的字节数
+     * @throws HttpRequestException 请求连接失败、http状态码错误或者读写失败时，抛出此异常
+     * @throws IllegalArgumentException 当path为null时，抛出此异常
      */
-    public JSONObject getResponseJsonObject() {
-        if (isResponseMediaTypeNotJson()) {
-            throw new UnsupportedOperationException("content-type响应头中mediaType非application/json，无法获取json对象. 请检查http请求和响应内容.");
-        }
+    public long downloadTo(Path path) {
+        Assert.notNull(path, "path不能为null");
 
-        if (responseJsonObject == null) {
-            try {
-                responseJsonObject = JSONObject.parseObject(httpResponse.bodyText());
-            } finally {
-                if (httpResponse != null) {
-                    httpResponse.close();
+        return download((body, contentLength) -> {
+            try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ReadableByteChannel source = Channels.newChannel(body);
+                long chunkSize = Math.max(joddHttpConfig.getDownloadBufferSize(), DOWNLOAD_TRANSFER_CHUNK_SIZE);
+                long position = 0;
+                long count;
+                while ((count = fileChannel.transferFrom(source, position, chunkSize)) > 0) {
+                    position += count;
                 }
+                return position;
+            }
+        });
+    }
+
+    /**
+     * 以流的方式发送请求，校验http状态码后将响应体交给transfer处理
+     */
+    private long download(BodyTransfer transfer) {
+        StreamingHttpResponse streamingResponse = sendRequestForStream();
+        try {
+            if (!joddHttpConfig.isIgnoreAllValidation()) {
+                validateStreamStatusCode(streamingResponse);
             }
+            // 响应体经过压缩时，Content-Length是压缩后的长度
+            long contentLength = ContentDecoders.isEncoded(httpResponse.header("Content-Encoding"))
+                ? -1 : streamingResponse.getContentLength();
+            return transfer.transfer(streamingResponse.getDecodedBody(), contentLength);
+        } catch (IOException e) {
+            String reason = activeDeadline != null && activeDeadline.isExpired() ? "下载响应体超过截止时间" : "下载响应体失败";
+            String message = format("{}. url: [{}], statusCode: [{}]", reason, httpRequest.url(), httpResponse.statusCode());
+            throw new HttpRequestException(message, e);
+        } finally {
+            streamingResponse.close();
         }
+    }
 
-        return responseJsonObject;
+    /**
+     * 校验流式响应的http状态码，校验失败时读取部分响应体用于异常信息
+     */
+    private void validateStreamStatusCode(StreamingHttpResponse streamingResponse) throws IOException {
+        if (HttpStatusCode.valueOf(httpResponse.statusCode()).is2xxSuccessful()) {
+            return;
+        }
+
+        byte[] snippet = new byte[joddHttpConfig.getErrorBodySnippetLimit()];
+        int length = 0;
+        int count;
+        String contentEncoding = httpResponse.header("Content-Encoding");
+        InputStream body = ContentDecoders.isSupported(contentEncoding)
+            ? streamingResponse.getDecodedBody() : streamingResponse.getBody();
+        while (length < snippet.length && (count = body.read(snippet, length, snippet.length - length)) != -1) {
+            length += count;
+        }
+        httpResponse.body(new String(snippet, 0, length, StandardCharsets.ISO_8859_1));
+        if (ContentDecoders.isSupported(contentEncoding)) {
+            httpResponse.headerRemove("Content-Encoding");
+        }
+        validateStatusCode();
+    }
+
+    /**
+     * 响应体的处理逻辑
+     */
+    @FunctionalInterface
+    private interface BodyTransfer {
+
+        /**
+         * 处理响应体
+         *
+         * @param body          响应体输入流
+         * @param contentLength 响应体长度，未知时为-1
+         * @return 处理的字节数
+         * @throws IOException 读写失败时，抛出此异常
+         */
+        long transfer(InputStream body, long contentLength) throws IOException;
     }
 
     /**
-     * 获取请求响应体对应的字节数组，下载的文件一般都不大，所以jodd直接转成bytes问题不大，调用该方法会自动关闭http连接。
+     * 获取请求响应体对应的字节数组，响应体会完整缓存在内存中，大文件请使用{@link JoddHttpWrapper#downloadTo(Path)}等流式下载方法，调用该方法会自动关闭http连接。
      *
      * @return 响应体对应的字节数组，当响应体body为空时，返回null
      */
     public byte[] getResponseBodyBytes() {
+        loadResponseBody();
         try {
             return httpResponse.bodyBytes();
         } finally {
@@ -178,6 +2051,22 @@ public class JoddHttpWrapper {
         }
     }
 
+    /**
+     * 获取响应体的只读ByteBuffer，调用该方法会自动关闭http连接。
+     * 使用堆外缓存的响应并且响应体尚未复制到堆内时直接返回缓存的只读视图，不复制响应体；否则包装{@link JoddHttpWrapper#getResponseBodyBytes()}的结果
+     *
+     * @return 只读的响应体，当响应体body为空时，返回null
+     */
+    public ByteBuffer getResponseBody() {
+        if (cachedResponse != null && cachedResponse.isOffHeap() && httpResponse.bodyRaw() == null) {
+            // 视图交给调用方后不再释放引用，条目被删除后该缓冲区交给GC回收，不会被复用
+            offHeapBodyRetained = false;
+            return cachedResponse.getBody();
+        }
+        byte[] bytes = getResponseBodyBytes();
+        return bytes == null ? null : ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
     /**
      * 根据响应的content-type头判断，是否为非application/json类型的响应体
      *
@@ -203,13 +2092,18 @@ public class JoddHttpWrapper {
             return;
         }
 
-        JSONObject responseJsonObject = getResponseJsonObject();
-        JSONObject dataJsonObject = responseJsonObject.getJSONObject(CommonConstant.JSON_KEY_DATA);
-        JSONArray listJsonArray = dataJsonObject.getJSONArray(CommonConstant.JSON_KEY_LIST);
+        if (joddHttpConfig.isLazyJsonAccess()) {
+            JsonValueSpan list = scanJsonPath(CommonConstant.JSON_KEY_DATA + "." + CommonConstant.JSON_KEY_LIST);
+            if (list == null || !list.isArray() || list.isEmptyContainer()) {
+                throw newListNodeMissingException();
+            }
+            return;
+        }
+
+        getResponseJsonObject();
+        JSONArray listJsonArray = getJsonResponseBody().getListJsonArray();
         if (CollectionUtils.isEmpty(listJsonArray)) {
-            String errorMessage = format("json响应体中的list节点不存在. url: [{}], statusCode: [{}], responseBodyText: [{}]",
-                httpRequest.url(), httpResponse.statusCode(), httpResponse.bodyText());
-            throw new HttpRequestException(errorMessage);
+            throw newListNodeMissingException();
         }
     }
 
@@ -226,12 +2120,18 @@ public class JoddHttpWrapper {
             return;
         }
 
-        JSONObject responseJsonObject = getResponseJsonObject();
-        JSONObject data = responseJsonObject.getJSONObject(CommonConstant.JSON_KEY_DATA);
+        if (joddHttpConfig.isLazyJsonAccess()) {
+            JsonValueSpan data = scanJsonPath(CommonConstant.JSON_KEY_DATA);
+            if (data == null || !data.isObject() || data.isEmptyContainer()) {
+                throw newDataNodeMissingException();
+            }
+            return;
+        }
+
+        getResponseJsonObject();
+        JSONObject data = getJsonResponseBody().getDataJsonObject();
         if (CollectionUtils.isEmpty(data)) {
-            String errorMessage = format("json响应体中的data节点不存在. url: [{}], statusCode: [{}], responseBodyText: [{}]",
-                httpRequest.url(), httpResponse.statusCode(), httpResponse.bodyText());
-            throw new HttpRequestException(errorMessage);
+            throw newDataNodeMissingException();
         }
     }
 
@@ -248,33 +2148,92 @@ public class JoddHttpWrapper {
         }
 
         Integer code = getBusinessCode();
+        if (isBusinessCodeInvalid(code)) {
+            recordCircuitBreakerLateFailure();
+            throw newBusinessCodeException(code);
+        }
 
+        codeValidateResult = true;
+    }
+
+    /**
+     * 判断业务编码code是否不存在或者与配置中的不一致
+     *
+     * @param code 响应体json中的业务编码
+     * @return code不存在或者错误时返回true
+     */
+    private boolean isBusinessCodeInvalid(Integer code) {
         boolean isCodeMissing = Objects.isNull(code);
         boolean isBusinessCodeError = !Objects.equals(joddHttpConfig.getBusinessCode(), code);
-        if (isCodeMissing || isBusinessCodeError) {
-            String errorMessage = format("json响应体中的code不存在或者错误. url: [{}], statusCode: [{}], businessCode: [{}], responseBodyText: [{}]",
-                httpRequest.url(), httpResponse.statusCode(), code, httpResponse.bodyText());
-            throw new HttpRequestException(errorMessage);
-        }
+        return isCodeMissing || isBusinessCodeError;
+    }
 
-        codeValidateResult = true;
+    private HttpRequestException newBusinessCodeException(Integer code) {
+        return newBusinessCodeException(code, null);
+    }
+
+    private HttpRequestException newBusinessCodeException(Integer code, Throwable cause) {
+        return newValidationException("json响应体中的code不存在或者错误.", ValidationStep.BUSINESS_CODE, code, cause);
+    }
+
+    private HttpRequestException newDataNodeMissingException() {
+        return newValidationException("json响应体中的data节点不存在.", ValidationStep.DATA_NODE, null, null);
+    }
+
+    private HttpRequestException newListNodeMissingException() {
+        return newValidationException("json响应体中的list节点不存在.", ValidationStep.LIST_NODE, null, null);
+    }
+
+    private HttpRequestException newJsonFormatException(Throwable cause) {
+        String reason = format("请求响应的Json串格式错误. contentType: [{}],", httpResponse.contentType());
+        return newValidationException(reason, ValidationStep.JSON_FORMAT, null, cause);
+    }
+
+    /**
+     * 创建自定义校验规则失败的异常，响应体片段与内置校验相同，参考{@link ValidationContext#fail(String)}
+     *
+     * @param reason 失败原因
+     * @return 校验失败的异常
+     */
+    public HttpRequestException newCustomValidationException(String reason) {
+        return newValidationException(reason, ValidationStep.CUSTOM, null, null);
+    }
+
+    /**
+     * 创建校验失败的异常，只截取{@link JoddHttpConfig#getErrorBodySnippetLimit()}字节的响应体，
+     * 压缩的响应体只解压开头的部分，异常信息在读取时才生成，不会在创建异常时解码完整的响应体
+     *
+     * @param reason       失败原因
+     * @param step         失败的校验步骤
+     * @param businessCode 响应体json中的业务编码，可以为null
+     * @param cause        异常原因，可以为null
+     * @return 校验失败的异常
+     */
+    private HttpRequestException newValidationException(String reason, ValidationStep step, Integer businessCode,
+                                                        Throwable cause) {
+        loadOffHeapBody();
+        ResponseBodySnippet snippet = HttpResponseUtils.newBodySnippet(httpResponse,
+            joddHttpConfig.getErrorBodySnippetLimit());
+        return new HttpRequestException(reason, step, httpRequest.url(), httpResponse.statusCode(), businessCode,
+            snippet, cause);
     }
 
     /**
-     * 当响应头contentType为application/json类型时，校验响应体的json格式是否正确
+     * 当响应头contentType为application/json类型时，校验响应体的json格式是否正确。
+     * 格式校验与获取json对象共用同一次解析，解析时按RFC 8259校验格式，
+     * 不接受单引号、注释、末尾多余的逗号以及NaN等非标准写法，参考{@link StrictJsonValidator}。
+     * 开启{@link JoddHttpConfig#isLazyJsonAccess()}时跳过该校验，格式错误只会在扫描到的部分中被发现
      *
      * @throws HttpRequestException http返回的json格式错误时，抛出此异常
      */
     public void validateJsonFormat() {
-        if (isResponseMediaTypeNotJson()) {
+        if (isResponseMediaTypeNotJson() || joddHttpConfig.isLazyJsonAccess()) {
             return;
         }
 
-        boolean isValidJson = JSONValidator.from(httpResponse.bodyText()).validate();
-        if (!isValidJson) {
-            String errorMessage = format("请求响应的Json串格式错误. url: [{}], statusCode: [{}], contentType: [{}], responseBodyText: [{}]",
-                httpRequest.url(), httpResponse.statusCode(), httpResponse.contentType(), httpResponse.bodyText());
-            throw new HttpRequestException(errorMessage);
+        JSONException parseException = getJsonResponseBody().getParseException();
+        if (parseException != null) {
+            throw newJsonFormatException(parseException);
         }
     }
 
@@ -302,11 +2261,9 @@ public class JoddHttpWrapper {
                 cause = "请求响应头content-type中的charset部分与请求头accept中指定的不匹配.";
             }
 
-            String errorMessage = format(
-                "{} url: [{}], statusCode: [{}], accept: [{}],contentType: [{}], responseBodyText: [{}]",
-                cause, httpRequest.url(), httpResponse.statusCode(),
-                joddHttpConfig.getAccept(), httpResponse.contentType(), httpResponse.bodyText());
-            throw new HttpRequestException(errorMessage);
+            String reason = format("{} accept: [{}], contentType: [{}],",
+                cause, joddHttpConfig.getAccept(), httpResponse.contentType());
+            throw newValidationException(reason, ValidationStep.CONTENT_TYPE, null, null);
         }
     }
 
@@ -316,10 +2273,8 @@ public class JoddHttpWrapper {
      * @throws HttpRequestException 当http状态码不为2xx开头时，抛出此异常
      */
     public void validateStatusCode() {
-        if (!HttpStatus.valueOf(httpResponse.statusCode()).is2xxSuccessful()) {
-            String errorMessage = format("请求响应的statusCode错误. url: [{}], statusCode: [{}], responseBodyText: [{}]",
-                httpRequest.url(), httpResponse.statusCode(), httpResponse.bodyText());
-            throw new HttpRequestException(errorMessage);
+        if (!HttpStatusCode.valueOf(httpResponse.statusCode()).is2xxSuccessful()) {
+            throw newValidationException("请求响应的statusCode错误.", ValidationStep.STATUS_CODE, null, null);
         }
     }
 
@@ -329,8 +2284,7 @@ public class JoddHttpWrapper {
      * @return 是否未接收json类型的响应体
      */
     private boolean isAcceptNotJson() {
-        String requestAccept = joddHttpConfig.getAccept();
-        return !(requestAccept.contains(MIME_APPLICATION_JSON));
+        return !compiledConfig.isAcceptJson();
     }
 
     /**
@@ -338,6 +2292,7 @@ public class JoddHttpWrapper {
      * <p>
      * 不能直接创建该对象，只能调用{@link JoddHttpConfig#newConfigInstanceByDefault()}创建带有默认配置的对象。
      * 如果需要修改配置，请调用该对象相应的setter方法。
+     * 该对象不是线程安全的，配置完成后可以通过{@link JoddHttpConfig#compile()}编译为不可变的{@link CompiledJoddHttpConfig}在多个线程中共用。
      */
     @Data
     @Accessors(chain = true)
@@ -369,10 +2324,32 @@ public class JoddHttpWrapper {
         private String accept;
 
         /**
-         * timeout，请求超时时间
+         * timeout，请求超时时间，单位毫秒，没有单独设置{@link #connectTimeout}、{@link #readTimeout}时作为二者的值
          */
         private int timeout;
 
+        /**
+         * 建立连接的超时时间，单位毫秒，小于等于0时使用{@link #timeout}
+         */
+        private int connectTimeout;
+
+        /**
+         * 读取超时时间，即两次读取之间的最大间隔，单位毫秒，小于等于0时使用{@link #timeout}
+         */
+        private int readTimeout;
+
+        /**
+         * 写入请求的超时时间，单位毫秒，从开始写入请求到请求写完为止，小于等于0时不限制
+         */
+        private int writeTimeout;
+
+        /**
+         * 端到端的总超时时间，单位毫秒，小于等于0时不限制。
+         * 从{@link JoddHttpWrapper#sendRequest()}开始计时，包括所有重试、等待重试以及流式请求读取响应体的时间，
+         * 与{@link JoddHttpWrapper#getDeadline()}同时存在时使用较早的截止时间
+         */
+        private int totalTimeout;
+
         /**
          * 是否需要校验响应体json中的data结点是否存在。
          * 当code错误时，一般不会有data节点（更不会有list），如果关闭code节点的校验，会自动关闭data和list节点的校验
@@ -396,15 +2373,116 @@ public class JoddHttpWrapper {
         private boolean isIgnoreAllValidation;
 
         /**
-         * 默认的jodd-http配置对象
+         * http连接池，为null时每次请求都会新建连接。
+         * 多个配置对象可以共用同一个连接池
+         */
+        private HttpConnectionPool connectionPool;
+
+        /**
+         * 异步请求使用的线程池，为null时使用{@link AsyncHttpExecutors#getDefaultExecutor()}。
+         * 建议通过{@link AsyncHttpExecutors#newBoundedExecutor(int, int)}创建有界线程池
+         */
+        private Executor asyncExecutor;
+
+        /**
+         * 是否按需扫描响应体。
+         * 开启后code、data、list的校验以及{@link JoddHttpWrapper#getBusinessCode()}只扫描到所需字段为止，不再构建完整的json对象，
+         * 同时跳过json格式校验，适用于响应体很大但只关心少数字段的接口
+         */
+        private boolean isLazyJsonAccess;
+
+        /**
+         * 是否通过请求头Accept-Encoding请求压缩的响应，解码器参考{@link ContentDecoders}，默认开启。
+         * 不论是否开启，响应头中有Content-Encoding时都会解码，流式请求边读取边解码，
+         * 其余请求解压后的响应体不能超过{@link #maxDecompressedBodySize}
+         */
+        private boolean isCompressionEnabled;
+
+        /**
+         * 非流式请求解压后响应体的最大字节数，超过时抛出{@link HttpRequestException}，防止很小的压缩响应解压出大量数据
          */
-        private static JoddHttpConfig DEFAULT_JODD_HTTP_CONFIG;
+        private int maxDecompressedBodySize;
+
+        /**
+         * 异步请求的超时时间，单位毫秒，小于等于0时只受{@link JoddHttpConfig#timeout}限制
+         */
+        private int asyncTimeout;
+
+        /**
+         * 流式下载使用的缓冲区大小，单位字节
+         */
+        private int downloadBufferSize;
+
+        /**
+         * 校验失败时异常中保留的响应体最大字节数，为0时异常中不包含响应体
+         */
+        private int errorBodySnippetLimit;
+
+        /**
+         * 请求指标记录器，默认为{@link NoopHttpMetricsRecorder}，不采集任何指标。
+         * 只有{@link JoddHttpWrapper#sendRequest()}和{@link JoddHttpWrapper#validateResponse()}会记录指标，流式请求不记录
+         */
+        private HttpMetricsRecorder metricsRecorder;
+
+        /**
+         * 请求重试策略，为null时不重试。
+         * 通过{@link RetryPolicy#newDefaultInstance()}创建，多个配置对象可以共用同一个{@link RetryBudget}
+         */
+        private RetryPolicy retryPolicy;
+
+        /**
+         * 按host划分的熔断器，为null时不熔断。
+         * 5xx响应、连接失败、超时、业务编码校验失败（包括绑定和流式读取时的校验）以及自定义校验失败都计为失败，
+         * 从连接池借出连接超时等本地的失败不计入
+         */
+        private CircuitBreakerRegistry circuitBreakerRegistry;
+
+        /**
+         * 对冲请求策略，为null时不对冲。
+         * 只对通过{@link JoddHttpWrapper#newInstance(Supplier, JoddHttpConfig)}创建的GET、HEAD请求生效，对冲请求在{@link #asyncExecutor}中发送
+         */
+        private HedgingPolicy hedgingPolicy;
+
+        /**
+         * 响应缓存，为null时不缓存。
+         * 只缓存GET请求校验通过的响应，多个配置对象共用同一个缓存时，应当使用相同的校验规则。
+         * 较大的响应体可以通过{@link com.cqnu.cache.OffHeapCacheTier}存放在堆外
+         */
+        private HttpResponseCache responseCache;
+
+        /**
+         * 自定义校验规则，在内置校验之后按添加的顺序执行，参考{@link ResponseValidator}。
+         * 编译时与内置校验一起生成校验规则链，通过{@link #addValidator(ResponseValidator)}添加
+         */
+        private List<ResponseValidator> validators;
+
+        /**
+         * 相同请求的合并器，为null时不合并。
+         * 只合并方法、url和请求头都相同的GET、HEAD请求，等待者按{@link #timeout}等待，
+         * 共用的响应和json对象不能被修改。多个配置对象可以共用同一个合并器，每个请求按各自配置的校验规则校验共用的响应
+         */
+        private RequestCoalescer requestCoalescer;
 
         /**
          * 默认的http请求超时时间
          */
         private static final int DEFAULT_TIMEOUT = 5000;
 
+        /**
+         * 默认的流式下载缓冲区大小
+         */
+        private static final int DEFAULT_DOWNLOAD_BUFFER_SIZE = 8192;
+
+        /**
+         * 默认的异常中保留的响应体最大字节数
+         */
+        private static final int DEFAULT_ERROR_BODY_SNIPPET_LIMIT = 4096;
+
+        /**
+         * 默认的解压后响应体最大字节数
+         */
+        private static final int DEFAULT_MAX_DECOMPRESSED_BODY_SIZE = 64 * 1024 * 1024;
+
         private JoddHttpConfig() {
         }
 
@@ -417,6 +2495,46 @@ public class JoddHttpWrapper {
             throw new UnsupportedCharsetException(charset);
         }
 
+        public JoddHttpConfig setDownloadBufferSize(int downloadBufferSize) {
+            if (downloadBufferSize <= 0) {
+                throw new IllegalArgumentException("downloadBufferSize必须大于0");
+            }
+            this.downloadBufferSize = downloadBufferSize;
+            return this;
+        }
+
+        public JoddHttpConfig setErrorBodySnippetLimit(int errorBodySnippetLimit) {
+            if (errorBodySnippetLimit < 0) {
+                throw new IllegalArgumentException("errorBodySnippetLimit不能小于0");
+            }
+            this.errorBodySnippetLimit = errorBodySnippetLimit;
+            return this;
+        }
+
+        public JoddHttpConfig setMaxDecompressedBodySize(int maxDecompressedBodySize) {
+            if (maxDecompressedBodySize <= 0) {
+                throw new IllegalArgumentException("maxDecompressedBodySize必须大于0");
+            }
+            this.maxDecompressedBodySize = maxDecompressedBodySize;
+            return this;
+        }
+
+        /**
+         * 在已有的自定义校验规则之后添加规则
+         *
+         * @param validator 校验规则，不能为null
+         * @return 当前配置对象
+         * @throws IllegalArgumentException 当validator为null时，抛出此异常
+         */
+        public JoddHttpConfig addValidator(ResponseValidator validator) {
+            Assert.notNull(validator, "validator不能为null");
+            if (validators == null) {
+                validators = new ArrayList<>();
+            }
+            validators.add(validator);
+            return this;
+        }
+
         public JoddHttpConfig setValidateCodeJsonNodeExist(boolean validateCodeJsonNodeExist) {
             this.isValidateCodeJsonNodeExist = validateCodeJsonNodeExist;
             if (!isValidateCodeJsonNodeExist) {
@@ -434,16 +2552,50 @@ public class JoddHttpWrapper {
         }
 
         /**
-         * 获取默认的jodd http 常量配置对象。
-         * 默认配置参考：{@link JoddHttpConfig#newConfigInstanceByDefault()}
+         * 编译为不可变的配置，编译后修改该对象不会影响编译结果
          *
-         * @return 默认的jodd http 常量配置对象
+         * @return 编译后的配置
          */
-        private static JoddHttpConfig getDefaultConfig() {
-            if (DEFAULT_JODD_HTTP_CONFIG == null) {
-                DEFAULT_JODD_HTTP_CONFIG = newConfigInstanceByDefault();
-            }
-            return DEFAULT_JODD_HTTP_CONFIG;
+        public CompiledJoddHttpConfig compile() {
+            return new CompiledJoddHttpConfig(copy());
+        }
+
+        /**
+         * 复制配置对象，连接池、线程池、缓存等共享组件只复制引用
+         *
+         * @return 配置的副本
+         */
+        public JoddHttpConfig copy() {
+            JoddHttpConfig copy = new JoddHttpConfig();
+            copy.businessCode = businessCode;
+            copy.mediaType = mediaType;
+            copy.charset = charset;
+            copy.accept = accept;
+            copy.timeout = timeout;
+            copy.connectTimeout = connectTimeout;
+            copy.readTimeout = readTimeout;
+            copy.writeTimeout = writeTimeout;
+            copy.totalTimeout = totalTimeout;
+            copy.isValidateCodeJsonNodeExist = isValidateCodeJsonNodeExist;
+            copy.isValidateDataJsonNodeExist = isValidateDataJsonNodeExist;
+            copy.isValidateListJsonNodeExist = isValidateListJsonNodeExist;
+            copy.isIgnoreAllValidation = isIgnoreAllValidation;
+            copy.connectionPool = connectionPool;
+            copy.asyncExecutor = asyncExecutor;
+            copy.isLazyJsonAccess = isLazyJsonAccess;
+            copy.isCompressionEnabled = isCompressionEnabled;
+            copy.maxDecompressedBodySize = maxDecompressedBodySize;
+            copy.asyncTimeout = asyncTimeout;
+            copy.downloadBufferSize = downloadBufferSize;
+            copy.errorBodySnippetLimit = errorBodySnippetLimit;
+            copy.metricsRecorder = metricsRecorder;
+            copy.retryPolicy = retryPolicy;
+            copy.circuitBreakerRegistry = circuitBreakerRegistry;
+            copy.hedgingPolicy = hedgingPolicy;
+            copy.responseCache = responseCache;
+            copy.requestCoalescer = requestCoalescer;
+            copy.validators = validators == null ? null : new ArrayList<>(validators);
+            return copy;
         }
 
         /**
@@ -453,7 +2605,11 @@ public class JoddHttpWrapper {
          *  <li> 请求头contentType中的mediaType默认为application/json
          *  <li> 请求头contentType中的charset默认为utf-8
          *  <li> 响应体json中code成功的值默认为0
-         *  <li> 请求超时时间默认为5秒
+         *  <li> 请求超时时间默认为5秒，连接超时和读取超时使用该值，不限制写入时间和总时长
+         *  <li> 流式下载缓冲区默认为8KB
+         *  <li> 校验失败的异常中最多保留4KB响应体
+         *  <li> 不采集请求指标
+         *  <li> 请求gzip、deflate压缩的响应，解压后的响应体最多64MB，不需要压缩时调用{@code setCompressionEnabled(false)}
          *  <li> 开启响应体json中code节点是否存在和成功的校验
          *  <li> 开启响应体json中data节点是否存在的校验
          *  <p> 如果要处理特殊错误码，需要手动关闭响应体json中code节点是否存在和成功的校验：
@@ -467,6 +2623,11 @@ public class JoddHttpWrapper {
                 .setMediaType(MIME_APPLICATION_JSON)
                 .setCharset(StandardCharsets.UTF_8.name())
                 .setTimeout(DEFAULT_TIMEOUT)
+                .setDownloadBufferSize(DEFAULT_DOWNLOAD_BUFFER_SIZE)
+                .setErrorBodySnippetLimit(DEFAULT_ERROR_BODY_SNIPPET_LIMIT)
+                .setMetricsRecorder(NoopHttpMetricsRecorder.INSTANCE)
+                .setCompressionEnabled(true)
+                .setMaxDecompressedBodySize(DEFAULT_MAX_DECOMPRESSED_BODY_SIZE)
                 .setBusinessCode(DEFAULT_BUSINESS_CODE)
                 .setValidateCodeJsonNodeExist(true)
                 .setValidateDataJsonNodeExist(true)
@@ -477,6 +2638,7 @@ public class JoddHttpWrapper {
          * 调用{@link JoddHttpConfig#newConfigInstanceByDefault()}创建带默认值的配置对象，并修改如下配置再返回：
          * <ol>
          *  <li> 响应头accept默认为application/octet-stream
+         *  <li> 不请求压缩的响应，分段下载的Range针对的是压缩后的内容
          *  <li> 关闭响应体json中code节点是否存在的校验
          *  <li> 关闭响应体json中data节点是否存在的校验
          *
@@ -485,6 +2647,7 @@ public class JoddHttpWrapper {
         public static JoddHttpConfig newStreamConfigInstance() {
             return newConfigInstanceByDefault()
                 .setAccept(MimeTypes.MIME_APPLICATION_OCTET_STREAM)
+                .setCompressionEnabled(false)
                 .setValidateCodeJsonNodeExist(false)
                 .setValidateDataJsonNodeExist(false)
                 ;
@@ -0,0 +1,109 @@
+package com.cqnu.async;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 异步http请求使用的线程池
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public final class AsyncHttpExecutors {
+
+    /**
+     * 默认线程池的任务队列容量
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private AsyncHttpExecutors() {
+    }
+
+    /**
+     * 创建有界的线程池。
+     * 队列满时由提交任务的线程直接执行请求，以此对调用方形成背压；线程池关闭后提交任务会抛出{@link RejectedExecutionException}
+     *
+     * @param threads       线程数，必须大于0
+     * @param queueCapacity 任务队列容量，必须大于0
+     * @return 有界线程池
+     * @throws IllegalArgumentException 当线程数或队列容量小于等于0时，抛出此异常
+     */
+    public static ThreadPoolExecutor newBoundedExecutor(int threads, int queueCapacity) {
+        if (threads <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("线程数和队列容量必须大于0");
+        }
+        return new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), newThreadFactory("jodd-http-async-"), new CallerRunsUnlessShutdownPolicy());
+    }
+
+    /**
+     * 获取默认的异步线程池，线程数为cpu核数的2倍，队列容量为{@link #DEFAULT_QUEUE_CAPACITY}
+     *
+     * @return 默认的异步线程池
+     */
+    public static Executor getDefaultExecutor() {
+        return DefaultExecutorHolder.EXECUTOR;
+    }
+
+    /**
+     * 获取用于异步请求超时检测的调度线程池
+     *
+     * @return 超时检测的调度线程池
+     */
+    public static ScheduledExecutorService getTimeoutScheduler() {
+        return TimeoutSchedulerHolder.SCHEDULER;
+    }
+
+    private static ThreadFactory newThreadFactory(String namePrefix) {
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 队列满时由提交任务的线程执行，线程池关闭时拒绝任务
+     */
+    private static class CallerRunsUnlessShutdownPolicy implements RejectedExecutionHandler {
+
+        @Override
+        public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("异步http线程池已关闭");
+            }
+            runnable.run();
+        }
+    }
+
+    private static class DefaultExecutorHolder {
+
+        private static final Executor EXECUTOR =
+            newBoundedExecutor(Runtime.getRuntime().availableProcessors() * 2, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    private static class TimeoutSchedulerHolder {
+
+        private static final ScheduledExecutorService SCHEDULER = newTimeoutScheduler();
+
+        /**
+         * 超时任务大多在到期前被取消，取消时立即从队列中移除，避免已取消的任务及其引用的连接在队列中保留到原定的执行时间
+         */
+        private static ScheduledExecutorService newTimeoutScheduler() {
+            ScheduledThreadPoolExecutor scheduler =
+                new ScheduledThreadPoolExecutor(1, newThreadFactory("jodd-http-timeout-"));
+            scheduler.setRemoveOnCancelPolicy(true);
+            return Executors.unconfigurableScheduledExecutorService(scheduler);
+        }
+    }
+}
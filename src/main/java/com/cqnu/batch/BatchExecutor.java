@@ -0,0 +1,214 @@
+package com.cqnu.batch;
+
+import static com.cqnu.utill.Slf4jStyleFormatter.format;
+
+import com.cqnu.CompiledJoddHttpConfig;
+import com.cqnu.JoddHttpWrapper;
+import com.cqnu.JoddHttpWrapper.JoddHttpConfig;
+import com.cqnu.exception.HttpRequestException;
+import com.cqnu.timeout.Deadline;
+import com.cqnu.utill.Assert;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import jodd.http.HttpRequest;
+
+/**
+ * 批量请求执行器，适用于对同一个接口发送大量请求。
+ * <p>
+ * 请求从迭代器中按需读取，同时最多{@link #parallelism}个请求在发送，同一个host最多{@link #maxRequestsPerHost}个，
+ * 每个请求都会经过{@link JoddHttpWrapper#sendRequest()}和{@link JoddHttpWrapper#validateResponse()}，
+ * 结果在调用线程中逐个交给consumer处理，已经处理的结果不会被保留，所以内存占用只与并行度有关，与请求总数无关。
+ * 配置了{@link JoddHttpConfig#getConnectionPool()}时，同一个host的请求会复用池中的长连接。
+ * <p>
+ * 按顺序返回结果时，先完成的结果会等待之前的请求，等待的结果最多为并行度的{@link #ORDERED_WINDOW_FACTOR}倍，
+ * 超过时暂停发送新的请求
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public class BatchExecutor {
+
+    /**
+     * 默认的并行请求数
+     */
+    public static final int DEFAULT_PARALLELISM = 16;
+
+    /**
+     * 默认的单个host的并行请求数
+     */
+    public static final int DEFAULT_MAX_REQUESTS_PER_HOST = 8;
+
+    /**
+     * 按顺序返回结果时，已发送但未交给consumer的结果数相对并行度的倍数
+     */
+    private static final int ORDERED_WINDOW_FACTOR = 4;
+
+    private final CompiledJoddHttpConfig compiledConfig;
+
+    private final int parallelism;
+
+    private final int maxRequestsPerHost;
+
+    /**
+     * 创建批量请求执行器
+     *
+     * @param joddHttpConfig     请求配置对象，如果为null则启用默认配置，创建时编译，之后的修改不会生效
+     * @param parallelism        并行请求数，必须大于0
+     * @param maxRequestsPerHost 单个host的并行请求数，必须大于0
+     * @throws IllegalArgumentException 当并行请求数或者单个host的并行请求数小于等于0时，抛出此异常
+     */
+    public BatchExecutor(JoddHttpConfig joddHttpConfig, int parallelism, int maxRequestsPerHost) {
+        if (parallelism <= 0 || maxRequestsPerHost <= 0) {
+            throw new IllegalArgumentException(format("并行请求数必须大于0. parallelism: [{}], maxRequestsPerHost: [{}]",
+                parallelism, maxRequestsPerHost));
+        }
+        this.compiledConfig = joddHttpConfig == null ? CompiledJoddHttpConfig.getDefault() : joddHttpConfig.compile();
+        this.parallelism = parallelism;
+        this.maxRequestsPerHost = maxRequestsPerHost;
+    }
+
+    /**
+     * 以默认的并行请求数创建批量请求执行器
+     *
+     * @param joddHttpConfig 请求配置对象，如果为null则启用默认配置
+     * @return 批量请求执行器
+     */
+    public static BatchExecutor newDefaultInstance(JoddHttpConfig joddHttpConfig) {
+        return new BatchExecutor(joddHttpConfig, DEFAULT_PARALLELISM, DEFAULT_MAX_REQUESTS_PER_HOST);
+    }
+
+    /**
+     * 批量发送请求，结果在调用线程中交给consumer，其余同{@link #execute(Iterator, boolean, boolean, Consumer)}。
+     * 方法结束时会关闭requests
+     *
+     * @param requests 请求对象的流，不能为null
+     * @return 执行汇总
+     */
+    public BatchSummary execute(Stream<HttpRequest> requests, boolean ordered, boolean stopOnFailure,
+                                Consumer<BatchResult> consumer) {
+        Assert.notNull(requests, "requests不能为null");
+        try (Stream<HttpRequest> closeableRequests = requests) {
+            return execute(closeableRequests.iterator(), ordered, stopOnFailure, consumer);
+        }
+    }
+
+    /**
+     * 批量发送请求，结果在调用线程中交给consumer。
+     * 提前停止或者consumer抛出异常时，正在执行的请求所在的线程会被中断，其结果不再交给consumer：
+     * 等待重试、等待连接池中的连接的请求会立即失败，不再发送；正在读写socket的请求不响应中断，仍会在后台完成
+     *
+     * @param requests      请求对象的迭代器，不能为null，按需读取
+     * @param ordered       是否按请求的顺序返回结果，为false时按完成的顺序返回
+     * @param stopOnFailure 是否在第一个失败的结果交给consumer后停止
+     * @param consumer      结果的处理逻辑，不能为null，抛出的异常会终止批量请求
+     * @return 执行汇总
+     * @throws HttpRequestException 等待结果时被中断，抛出此异常
+     * @throws IllegalArgumentException 任一参数为null或者迭代器返回null时，抛出此异常
+     */
+    public BatchSummary execute(Iterator<HttpRequest> requests, boolean ordered, boolean stopOnFailure,
+                                Consumer<BatchResult> consumer) {
+        Assert.notNull(requests, "requests不能为null");
+        Assert.notNull(consumer, "consumer不能为null");
+
+        int maxOutstanding = ordered ? parallelism * ORDERED_WINDOW_FACTOR : parallelism;
+        BlockingQueue<BatchResult> completedResults = new LinkedBlockingQueue<>();
+        Map<String, Integer> runningPerHost = new HashMap<>();
+        Map<Long, BatchResult> reorderBuffer = new HashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        // 请求在线程池中发送，调用线程继承的截止时间需要显式传递
+        Deadline deadline = Deadline.current();
+
+        long submitted = 0;
+        long delivered = 0;
+        long failureCount = 0;
+        int running = 0;
+        HttpRequest pendingRequest = null;
+        try {
+            while (true) {
+                while (running < parallelism && submitted - delivered < maxOutstanding) {
+                    if (pendingRequest == null) {
+                        if (!requests.hasNext()) {
+                            break;
+                        }
+                        pendingRequest = requests.next();
+                        Assert.notNull(pendingRequest, "requests返回的httpRequest不能为null");
+                    }
+                    // host已满时等待该host的请求完成，保持请求的读取顺序
+                    int hostRunning = runningPerHost.getOrDefault(pendingRequest.host(), 0);
+                    if (hostRunning >= maxRequestsPerHost) {
+                        break;
+                    }
+                    runningPerHost.put(pendingRequest.host(), hostRunning + 1);
+                    submit(executor, completedResults, submitted++, pendingRequest, deadline);
+                    running++;
+                    pendingRequest = null;
+                }
+                if (running == 0) {
+                    return new BatchSummary(delivered - failureCount, failureCount, false);
+                }
+
+                BatchResult result = takeResult(completedResults);
+                running--;
+                runningPerHost.merge(result.getHttpRequest().host(), -1, Integer::sum);
+
+                if (ordered) {
+                    reorderBuffer.put(result.getIndex(), result);
+                    result = reorderBuffer.remove(delivered);
+                }
+                while (result != null) {
+                    consumer.accept(result);
+                    delivered++;
+                    if (!result.isSuccess()) {
+                        failureCount++;
+                        if (stopOnFailure) {
+                            return new BatchSummary(delivered - failureCount, failureCount, true);
+                        }
+                    }
+                    result = ordered ? reorderBuffer.remove(delivered) : null;
+                }
+            }
+        } finally {
+            // 中断正在执行的请求，避免提前停止后继续重试或者等待连接
+            executor.shutdownNow();
+        }
+    }
+
+    private void submit(ExecutorService executor, BlockingQueue<BatchResult> completedResults, long index,
+                        HttpRequest httpRequest, Deadline deadline) {
+        executor.execute(() -> completedResults.add(send(index, httpRequest, deadline)));
+    }
+
+    /**
+     * 发送并校验单个请求，异常都转换为{@link HttpRequestException}记录在结果中
+     */
+    private BatchResult send(long index, HttpRequest httpRequest, Deadline deadline) {
+        try {
+            JoddHttpWrapper wrapper = JoddHttpWrapper.newInstance(httpRequest, compiledConfig);
+            wrapper.setDeadline(deadline);
+            wrapper.sendRequest();
+            wrapper.validateResponse();
+            return new BatchResult(index, httpRequest, wrapper, null);
+        } catch (HttpRequestException e) {
+            return new BatchResult(index, httpRequest, null, e);
+        } catch (RuntimeException e) {
+            String message = format("批量请求失败. url: [{}]", httpRequest.url());
+            return new BatchResult(index, httpRequest, null, new HttpRequestException(message, e));
+        }
+    }
+
+    private static BatchResult takeResult(BlockingQueue<BatchResult> completedResults) {
+        try {
+            return completedResults.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HttpRequestException("批量请求被中断", e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.cqnu.batch;
+
+import com.cqnu.JoddHttpWrapper;
+import com.cqnu.exception.HttpRequestException;
+import jodd.http.HttpRequest;
+
+/**
+ * 批量请求中单个请求的结果，成功时包含已经校验通过的包装类，失败时包含异常
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public final class BatchResult {
+
+    private final long index;
+
+    private final HttpRequest httpRequest;
+
+    private final JoddHttpWrapper wrapper;
+
+    private final HttpRequestException exception;
+
+    BatchResult(long index, HttpRequest httpRequest, JoddHttpWrapper wrapper, HttpRequestException exception) {
+        this.index = index;
+        this.httpRequest = httpRequest;
+        this.wrapper = wrapper;
+        this.exception = exception;
+    }
+
+    /**
+     * 获取请求在输入中的序号，从0开始
+     *
+     * @return 请求的序号
+     */
+    public long getIndex() {
+        return index;
+    }
+
+    public HttpRequest getHttpRequest() {
+        return httpRequest;
+    }
+
+    /**
+     * 获取已经发送并校验通过的包装类
+     *
+     * @return 包装类，请求失败时返回null
+     */
+    public JoddHttpWrapper getWrapper() {
+        return wrapper;
+    }
+
+    /**
+     * 获取请求或校验失败的异常
+     *
+     * @return 异常，请求成功时返回null
+     */
+    public HttpRequestException getException() {
+        return exception;
+    }
+
+    public boolean isSuccess() {
+        return exception == null;
+    }
+}
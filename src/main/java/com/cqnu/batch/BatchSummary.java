@@ -0,0 +1,39 @@
+package com.cqnu.batch;
+
+/**
+ * 批量请求的执行汇总
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public final class BatchSummary {
+
+    private final long successCount;
+
+    private final long failureCount;
+
+    private final boolean stopped;
+
+    BatchSummary(long successCount, long failureCount, boolean stopped) {
+        this.successCount = successCount;
+        this.failureCount = failureCount;
+        this.stopped = stopped;
+    }
+
+    public long getSuccessCount() {
+        return successCount;
+    }
+
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * 是否因为请求失败而提前停止，停止后剩余的请求不会发送
+     *
+     * @return 提前停止时返回true
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+}
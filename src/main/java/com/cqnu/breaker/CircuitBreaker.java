@@ -0,0 +1,310 @@
+package com.cqnu.breaker;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 单个host的熔断器，由{@link CircuitBreakerRegistry}创建。
+ * <p>
+ * 状态保存在不可变的状态对象中，状态切换通过CAS替换整个状态对象完成，不使用锁。
+ * 关闭状态下判断是否放行只需要读取一次volatile字段；请求结果记录在基于请求数的环形滑动窗口中，
+ * 窗口的每个槽位保存请求序号和结果，校验业务编码等在请求结束后才发现的失败可以通过序号补记到对应的槽位。
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public class CircuitBreaker {
+
+    /**
+     * 没有被记录的请求，例如熔断器打开时的请求
+     */
+    public static final long NOT_RECORDED = -2;
+
+    /**
+     * 半开状态下的探测请求
+     */
+    public static final long HALF_OPEN_CALL = -1;
+
+    private static final long FAILURE_FLAG = 1;
+
+    private static final long SLOW_FLAG = 2;
+
+    private static final int FLAG_BITS = 2;
+
+    /**
+     * 熔断器的状态
+     */
+    public enum State {
+
+        /**
+         * 关闭，请求正常放行
+         */
+        CLOSED,
+
+        /**
+         * 打开，请求直接被拒绝
+         */
+        OPEN,
+
+        /**
+         * 半开，放行有限的探测请求
+         */
+        HALF_OPEN
+    }
+
+    private final String host;
+
+    private final int failureRateThreshold;
+
+    private final int slowCallRateThreshold;
+
+    private final long slowCallNanos;
+
+    private final int slidingWindowSize;
+
+    private final int minimumNumberOfCalls;
+
+    private final long waitDurationInOpenState;
+
+    private final int permittedCallsInHalfOpenState;
+
+    /**
+     * 请求序号，所有滑动窗口共用，保证补记失败时不会记到其他窗口的请求上
+     */
+    private final AtomicLong callSequence = new AtomicLong();
+
+    private final AtomicReference<StateHolder> stateHolder;
+
+    CircuitBreaker(String host, CircuitBreakerPolicy policy) {
+        this.host = host;
+        this.failureRateThreshold = policy.getFailureRateThreshold();
+        this.slowCallRateThreshold = policy.getSlowCallRateThreshold();
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(policy.getSlowCallDuration());
+        this.slidingWindowSize = policy.getSlidingWindowSize();
+        this.minimumNumberOfCalls = Math.min(policy.getMinimumNumberOfCalls(), policy.getSlidingWindowSize());
+        this.waitDurationInOpenState = policy.getWaitDurationInOpenState();
+        this.permittedCallsInHalfOpenState = policy.getPermittedCallsInHalfOpenState();
+        this.stateHolder = new AtomicReference<>(StateHolder.closed(slidingWindowSize));
+    }
+
+    /**
+     * 判断是否放行请求，打开状态超过等待时间后会切换为半开状态
+     *
+     * @return 放行时返回true，放行后必须调用{@link #onResult(long, boolean)}记录结果或者调用{@link #releasePermission()}归还许可
+     */
+    public boolean tryAcquirePermission() {
+        StateHolder current = stateHolder.get();
+        if (current.state == State.CLOSED) {
+            return true;
+        }
+
+        if (current.state == State.OPEN) {
+            if (System.currentTimeMillis() < current.openUntilMillis) {
+                return false;
+            }
+            StateHolder halfOpen = StateHolder.halfOpen();
+            if (!stateHolder.compareAndSet(current, halfOpen)) {
+                return tryAcquirePermission();
+            }
+            current = halfOpen;
+        }
+
+        return current.halfOpenPermits.incrementAndGet() <= permittedCallsInHalfOpenState;
+    }
+
+    /**
+     * 记录放行的请求的结果
+     *
+     * @param durationNanos 请求耗时，单位纳秒
+     * @param failure       请求是否失败
+     * @return 请求的记录序号，用于{@link #onLateFailure(long)}补记失败
+     */
+    public long onResult(long durationNanos, boolean failure) {
+        StateHolder current = stateHolder.get();
+        boolean slow = durationNanos >= slowCallNanos;
+
+        if (current.state == State.CLOSED) {
+            long sequence = callSequence.getAndIncrement();
+            current.window.record(sequence, failure, slow);
+            evaluateClosed(current);
+            return sequence;
+        }
+
+        if (current.state == State.HALF_OPEN) {
+            if (failure) {
+                current.halfOpenFailures.incrementAndGet();
+            }
+            if (slow) {
+                current.halfOpenSlowCalls.incrementAndGet();
+            }
+            if (current.halfOpenCompleted.incrementAndGet() >= permittedCallsInHalfOpenState) {
+                boolean unhealthy = isOverThreshold(permittedCallsInHalfOpenState,
+                    current.halfOpenFailures.get(), current.halfOpenSlowCalls.get());
+                stateHolder.compareAndSet(current, unhealthy ? newOpenState() : StateHolder.closed(slidingWindowSize));
+            }
+            return HALF_OPEN_CALL;
+        }
+        return NOT_RECORDED;
+    }
+
+    /**
+     * 归还放行后没有产生结果的请求的许可，例如被对冲请求取消的请求，不计入滑动窗口。
+     * 半开状态下归还后可以再放行一个探测请求
+     */
+    public void releasePermission() {
+        StateHolder current = stateHolder.get();
+        if (current.state == State.HALF_OPEN) {
+            current.halfOpenPermits.decrementAndGet();
+        }
+    }
+
+    /**
+     * 补记请求结束后才发现的失败，例如响应体中的业务编码错误
+     *
+     * @param callSequence {@link #onResult(long, boolean)}返回的记录序号
+     */
+    public void onLateFailure(long callSequence) {
+        StateHolder current = stateHolder.get();
+        if (current.state == State.CLOSED && callSequence >= 0) {
+            if (current.window.markFailure(callSequence)) {
+                evaluateClosed(current);
+            }
+        } else if (current.state == State.HALF_OPEN && callSequence == HALF_OPEN_CALL) {
+            stateHolder.compareAndSet(current, newOpenState());
+        }
+    }
+
+    private void evaluateClosed(StateHolder current) {
+        SlidingWindow window = current.window;
+        int calls = window.calls.get();
+        if (calls >= minimumNumberOfCalls && isOverThreshold(calls, window.failures.get(), window.slowCalls.get())) {
+            stateHolder.compareAndSet(current, newOpenState());
+        }
+    }
+
+    private boolean isOverThreshold(int calls, int failures, int slowCalls) {
+        return failures * 100L >= (long) failureRateThreshold * calls
+            || slowCalls * 100L >= (long) slowCallRateThreshold * calls;
+    }
+
+    private StateHolder newOpenState() {
+        return StateHolder.open(System.currentTimeMillis() + waitDurationInOpenState);
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public State getState() {
+        return stateHolder.get().state;
+    }
+
+    /**
+     * 获取关闭状态下滑动窗口中的失败率
+     *
+     * @return 失败率百分比，非关闭状态或者请求数不足时返回-1
+     */
+    public int getFailureRate() {
+        StateHolder current = stateHolder.get();
+        if (current.state != State.CLOSED) {
+            return -1;
+        }
+        int calls = current.window.calls.get();
+        return calls < minimumNumberOfCalls ? -1 : (int) (current.window.failures.get() * 100L / calls);
+    }
+
+    /**
+     * 熔断器状态，切换状态时整体替换
+     */
+    private static final class StateHolder {
+
+        private final State state;
+
+        private final long openUntilMillis;
+
+        private final SlidingWindow window;
+
+        private final AtomicInteger halfOpenPermits;
+
+        private final AtomicInteger halfOpenCompleted;
+
+        private final AtomicInteger halfOpenFailures;
+
+        private final AtomicInteger halfOpenSlowCalls;
+
+        private StateHolder(State state, long openUntilMillis, SlidingWindow window) {
+            this.state = state;
+            this.openUntilMillis = openUntilMillis;
+            this.window = window;
+            boolean halfOpen = state == State.HALF_OPEN;
+            this.halfOpenPermits = halfOpen ? new AtomicInteger() : null;
+            this.halfOpenCompleted = halfOpen ? new AtomicInteger() : null;
+            this.halfOpenFailures = halfOpen ? new AtomicInteger() : null;
+            this.halfOpenSlowCalls = halfOpen ? new AtomicInteger() : null;
+        }
+
+        private static StateHolder closed(int slidingWindowSize) {
+            return new StateHolder(State.CLOSED, 0, new SlidingWindow(slidingWindowSize));
+        }
+
+        private static StateHolder open(long openUntilMillis) {
+            return new StateHolder(State.OPEN, openUntilMillis, null);
+        }
+
+        private static StateHolder halfOpen() {
+            return new StateHolder(State.HALF_OPEN, 0, null);
+        }
+    }
+
+    /**
+     * 基于请求数的环形滑动窗口，槽位的值为{@code (序号 + 1) << 2 | 结果标记}，0表示空槽位
+     */
+    private static final class SlidingWindow {
+
+        private final AtomicLongArray slots;
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private final AtomicInteger failures = new AtomicInteger();
+
+        private final AtomicInteger slowCalls = new AtomicInteger();
+
+        private SlidingWindow(int size) {
+            this.slots = new AtomicLongArray(size);
+        }
+
+        private void record(long sequence, boolean failure, boolean slow) {
+            long value = (sequence + 1) << FLAG_BITS | (failure ? FAILURE_FLAG : 0) | (slow ? SLOW_FLAG : 0);
+            long old = slots.getAndSet(indexOf(sequence), value);
+            if (old == 0) {
+                calls.incrementAndGet();
+            }
+            failures.addAndGet(flag(value, FAILURE_FLAG) - flag(old, FAILURE_FLAG));
+            slowCalls.addAndGet(flag(value, SLOW_FLAG) - flag(old, SLOW_FLAG));
+        }
+
+        private boolean markFailure(long sequence) {
+            int index = indexOf(sequence);
+            long old = slots.get(index);
+            if (old >>> FLAG_BITS != sequence + 1 || (old & FAILURE_FLAG) != 0) {
+                return false;
+            }
+            if (!slots.compareAndSet(index, old, old | FAILURE_FLAG)) {
+                return false;
+            }
+            failures.incrementAndGet();
+            return true;
+        }
+
+        private int indexOf(long sequence) {
+            return (int) (sequence % slots.length());
+        }
+
+        private static int flag(long value, long flag) {
+            return (value & flag) != 0 ? 1 : 0;
+        }
+    }
+}
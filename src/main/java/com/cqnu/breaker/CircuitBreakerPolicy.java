@@ -0,0 +1,119 @@
+package com.cqnu.breaker;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+/**
+ * 熔断策略。
+ * <p>
+ * 不能直接创建该对象，只能调用{@link CircuitBreakerPolicy#newDefaultInstance()}创建带有默认配置的对象，再调用相应的setter方法修改。
+ * 最近{@link #slidingWindowSize}次请求中失败率或者慢调用率达到阈值时熔断器打开，
+ * 打开{@link #waitDurationInOpenState}毫秒后进入半开状态，放行{@link #permittedCallsInHalfOpenState}个探测请求，
+ * 探测请求的失败率和慢调用率都低于阈值时关闭熔断器，否则重新打开
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+@Data
+@Accessors(chain = true)
+public class CircuitBreakerPolicy {
+
+    /**
+     * 失败率阈值，百分比，范围为1到100
+     */
+    private int failureRateThreshold;
+
+    /**
+     * 慢调用率阈值，百分比，范围为1到100
+     */
+    private int slowCallRateThreshold;
+
+    /**
+     * 慢调用的耗时阈值，单位毫秒
+     */
+    private int slowCallDuration;
+
+    /**
+     * 滑动窗口中保存的请求数
+     */
+    private int slidingWindowSize;
+
+    /**
+     * 计算失败率所需的最少请求数，窗口中的请求数不足时不会打开熔断器
+     */
+    private int minimumNumberOfCalls;
+
+    /**
+     * 熔断器打开后进入半开状态前的等待时间，单位毫秒
+     */
+    private int waitDurationInOpenState;
+
+    /**
+     * 半开状态下放行的探测请求数
+     */
+    private int permittedCallsInHalfOpenState;
+
+    private CircuitBreakerPolicy() {
+    }
+
+    public CircuitBreakerPolicy setFailureRateThreshold(int failureRateThreshold) {
+        this.failureRateThreshold = checkPercentage(failureRateThreshold, "failureRateThreshold");
+        return this;
+    }
+
+    public CircuitBreakerPolicy setSlowCallRateThreshold(int slowCallRateThreshold) {
+        this.slowCallRateThreshold = checkPercentage(slowCallRateThreshold, "slowCallRateThreshold");
+        return this;
+    }
+
+    public CircuitBreakerPolicy setSlidingWindowSize(int slidingWindowSize) {
+        this.slidingWindowSize = checkPositive(slidingWindowSize, "slidingWindowSize");
+        return this;
+    }
+
+    public CircuitBreakerPolicy setMinimumNumberOfCalls(int minimumNumberOfCalls) {
+        this.minimumNumberOfCalls = checkPositive(minimumNumberOfCalls, "minimumNumberOfCalls");
+        return this;
+    }
+
+    public CircuitBreakerPolicy setPermittedCallsInHalfOpenState(int permittedCallsInHalfOpenState) {
+        this.permittedCallsInHalfOpenState = checkPositive(permittedCallsInHalfOpenState, "permittedCallsInHalfOpenState");
+        return this;
+    }
+
+    private static int checkPercentage(int value, String name) {
+        if (value < 1 || value > 100) {
+            throw new IllegalArgumentException(name + "必须在1到100之间");
+        }
+        return value;
+    }
+
+    private static int checkPositive(int value, String name) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + "必须大于0");
+        }
+        return value;
+    }
+
+    /**
+     * 创建带有默认值的熔断策略，默认值如下:
+     * <ol>
+     *  <li> 滑动窗口为最近100次请求，至少20次请求后才计算失败率
+     *  <li> 失败率达到50%时打开
+     *  <li> 耗时超过3秒为慢调用，慢调用率达到100%时打开
+     *  <li> 打开10秒后进入半开状态，放行5个探测请求
+     *
+     * @return 默认的熔断策略
+     */
+    public static CircuitBreakerPolicy newDefaultInstance() {
+        return new CircuitBreakerPolicy()
+            .setSlidingWindowSize(100)
+            .setMinimumNumberOfCalls(20)
+            .setFailureRateThreshold(50)
+            .setSlowCallRateThreshold(100)
+            .setSlowCallDuration(3000)
+            .setWaitDurationInOpenState(10000)
+            .setPermittedCallsInHalfOpenState(5)
+            ;
+    }
+}
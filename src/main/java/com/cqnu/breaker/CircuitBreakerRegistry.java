@@ -0,0 +1,61 @@
+package com.cqnu.breaker;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 按host管理熔断器，通过{@code JoddHttpConfig#setCircuitBreakerRegistry}配置，多个配置对象可以共用同一个实例。
+ * 熔断器创建时复制策略中的参数，之后修改策略不会影响已经创建的熔断器
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public class CircuitBreakerRegistry {
+
+    private final CircuitBreakerPolicy policy;
+
+    private final ConcurrentMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    /**
+     * 以指定的熔断策略创建
+     *
+     * @param policy 熔断策略，为null时使用{@link CircuitBreakerPolicy#newDefaultInstance()}
+     */
+    public CircuitBreakerRegistry(CircuitBreakerPolicy policy) {
+        this.policy = policy == null ? CircuitBreakerPolicy.newDefaultInstance() : policy;
+    }
+
+    /**
+     * 以默认的熔断策略创建
+     *
+     * @return 熔断器注册表
+     */
+    public static CircuitBreakerRegistry newDefaultInstance() {
+        return new CircuitBreakerRegistry(null);
+    }
+
+    /**
+     * 获取host对应的熔断器，不存在时创建
+     *
+     * @param host 请求的host
+     * @return 熔断器
+     */
+    public CircuitBreaker getCircuitBreaker(String host) {
+        CircuitBreaker circuitBreaker = circuitBreakers.get(host);
+        if (circuitBreaker != null) {
+            return circuitBreaker;
+        }
+        return circuitBreakers.computeIfAbsent(host, key -> new CircuitBreaker(key, policy));
+    }
+
+    /**
+     * 获取已经创建的熔断器
+     *
+     * @return 只读的host与熔断器的映射
+     */
+    public Map<String, CircuitBreaker> getCircuitBreakers() {
+        return Collections.unmodifiableMap(circuitBreakers);
+    }
+}
@@ -0,0 +1,116 @@
+package com.cqnu.cache;
+
+import java.util.Locale;
+
+/**
+ * Cache-Control头中与客户端缓存相关的指令
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+final class CacheControl {
+
+    private static final CacheControl EMPTY = new CacheControl(false, false, false, false, -1, -1);
+
+    private final boolean noStore;
+
+    private final boolean noCache;
+
+    private final boolean isPublic;
+
+    /**
+     * 响应只能由单个用户的私有缓存保存，包括只限定了部分响应头的{@code private="..."}
+     */
+    private final boolean isPrivate;
+
+    /**
+     * max-age，单位秒，不存在时为-1
+     */
+    private final long maxAge;
+
+    /**
+     * s-maxage，单位秒，不存在时为-1
+     */
+    private final long sharedMaxAge;
+
+    private CacheControl(boolean noStore, boolean noCache, boolean isPublic, boolean isPrivate, long maxAge,
+                         long sharedMaxAge) {
+        this.noStore = noStore;
+        this.noCache = noCache;
+        this.isPublic = isPublic;
+        this.isPrivate = isPrivate;
+        this.maxAge = maxAge;
+        this.sharedMaxAge = sharedMaxAge;
+    }
+
+    /**
+     * 解析Cache-Control头，无法识别的指令会被忽略
+     *
+     * @param value Cache-Control头的值，可以为null
+     * @return 解析结果
+     */
+    static CacheControl parse(String value) {
+        if (value == null || value.isEmpty()) {
+            return EMPTY;
+        }
+
+        boolean noStore = false;
+        boolean noCache = false;
+        boolean isPublic = false;
+        boolean isPrivate = false;
+        long maxAge = -1;
+        long sharedMaxAge = -1;
+        for (String directive : value.split(",")) {
+            String trimmed = directive.trim().toLowerCase(Locale.ROOT);
+            if (trimmed.equals("no-store")) {
+                noStore = true;
+            } else if (trimmed.equals("no-cache") || trimmed.startsWith("no-cache=")) {
+                noCache = true;
+            } else if (trimmed.equals("public")) {
+                isPublic = true;
+            } else if (trimmed.equals("private") || trimmed.startsWith("private=")) {
+                isPrivate = true;
+            } else if (trimmed.startsWith("s-maxage=")) {
+                sharedMaxAge = parseSeconds(trimmed.substring("s-maxage=".length()));
+            } else if (trimmed.startsWith("max-age=")) {
+                maxAge = parseSeconds(trimmed.substring("max-age=".length()));
+            }
+        }
+        return new CacheControl(noStore, noCache, isPublic, isPrivate, maxAge, sharedMaxAge);
+    }
+
+    private static long parseSeconds(String value) {
+        try {
+            return Math.max(0, Long.parseLong(value.replace("\"", "").trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    boolean isNoStore() {
+        return noStore;
+    }
+
+    boolean isPrivate() {
+        return isPrivate;
+    }
+
+    boolean isNoCache() {
+        return noCache;
+    }
+
+    long getMaxAge() {
+        return maxAge;
+    }
+
+    long getSharedMaxAge() {
+        return sharedMaxAge;
+    }
+
+    /**
+     * 是否允许共享缓存保存带有Authorization请求头的请求的响应，即有public或者s-maxage指令
+     */
+    boolean isSharedCacheAllowed() {
+        return isPublic || sharedMaxAge >= 0;
+    }
+}
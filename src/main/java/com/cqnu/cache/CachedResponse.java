@@ -0,0 +1,249 @@
+package com.cqnu.cache;
+
+import com.cqnu.json.JsonResponseBody;
+import com.cqnu.utill.HttpResponseUtils;
+import java.nio.ByteBuffer;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.Objects;
+import jodd.http.HttpRequest;
+import jodd.http.HttpResponse;
+
+/**
+ * 缓存的响应，包含校验通过的响应对象以及已经解析的json。
+ * <p>
+ * 同一个缓存条目会被多个请求共用，条目内部的响应对象和json对象不会直接交给调用方，
+ * {@link #newHttpResponse()}和{@link #getJsonResponseBody()}每次都返回独立的副本，调用方可以随意修改。
+ * 存放在{@link OffHeapCacheTier}中的条目只保留状态行和响应头，响应体保存在堆外内存中，也不缓存解析后的json。
+ * 堆外的条目由{@link HttpResponseCache#lookup(HttpRequest)}返回时已经增加了响应体的引用，
+ * 读取响应体之后应当调用{@link #releaseBody()}释放，缓冲区才能在条目被删除后复用
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public final class CachedResponse {
+
+    private final String key;
+
+    private final HttpResponse httpResponse;
+
+    private final JsonResponseBody jsonResponseBody;
+
+    /**
+     * 参与缓存匹配的请求头及其在原始请求中的值
+     */
+    private final Map<String, String> varyHeaders;
+
+    private final long weight;
+
+    /**
+     * 堆外的响应体，堆内的条目为null
+     */
+    private final OffHeapBody offHeapBody;
+
+    private final long createdAtMillis = System.currentTimeMillis();
+
+    private volatile String etag;
+
+    private volatile String lastModified;
+
+    /**
+     * 响应存入或者最近一次重新验证的时间，减去了响应头Age中的时间
+     */
+    private volatile long responseTimeMillis;
+
+    /**
+     * 新鲜期，单位毫秒，为0时每次使用前都需要重新验证
+     */
+    private volatile long freshnessMillis;
+
+    CachedResponse(String key, HttpResponse httpResponse, JsonResponseBody jsonResponseBody,
+                   Map<String, String> varyHeaders, long weight) {
+        this(key, httpResponse, jsonResponseBody, varyHeaders, weight, null);
+    }
+
+    CachedResponse(String key, HttpResponse httpResponse, JsonResponseBody jsonResponseBody,
+                   Map<String, String> varyHeaders, long weight, OffHeapBody offHeapBody) {
+        this.key = key;
+        this.httpResponse = httpResponse;
+        this.jsonResponseBody = jsonResponseBody;
+        this.varyHeaders = varyHeaders;
+        this.weight = weight;
+        this.offHeapBody = offHeapBody;
+        updateFreshness(httpResponse);
+    }
+
+    /**
+     * 根据响应头更新验证器和新鲜期
+     *
+     * @param response 存入时的响应或者重新验证时的304响应
+     */
+    void updateFreshness(HttpResponse response) {
+        long now = System.currentTimeMillis();
+        this.responseTimeMillis = now - parseAgeMillis(response.header("Age"));
+        if (response.header("ETag") != null) {
+            this.etag = response.header("ETag");
+        }
+        if (response.header("Last-Modified") != null) {
+            this.lastModified = response.header("Last-Modified");
+        }
+
+        CacheControl cacheControl = CacheControl.parse(response.header("Cache-Control"));
+        if (cacheControl.isNoCache()) {
+            this.freshnessMillis = 0;
+        } else if (cacheControl.getSharedMaxAge() >= 0) {
+            // 缓存由多个请求共用，属于共享缓存，s-maxage优先于max-age
+            this.freshnessMillis = cacheControl.getSharedMaxAge() * 1000;
+        } else if (cacheControl.getMaxAge() >= 0) {
+            this.freshnessMillis = cacheControl.getMaxAge() * 1000;
+        } else {
+            // Expires为0等非法日期时视为已过期，Date非法时按当前时间计算
+            long expires = parseHttpDate(response.header("Expires"), 0);
+            long date = parseHttpDate(response.header("Date"), -1);
+            this.freshnessMillis = expires < 0 ? 0 : Math.max(0, expires - (date < 0 ? now : date));
+        }
+    }
+
+    /**
+     * 是否仍在新鲜期内，新鲜的响应可以不经过服务端直接使用
+     *
+     * @return 新鲜时返回true
+     */
+    public boolean isFresh() {
+        return System.currentTimeMillis() - responseTimeMillis < freshnessMillis;
+    }
+
+    /**
+     * 是否有ETag或者Last-Modified，过期后可以通过条件请求重新验证
+     *
+     * @return 有验证器时返回true
+     */
+    public boolean hasValidators() {
+        return etag != null || lastModified != null;
+    }
+
+    /**
+     * 判断请求中Vary指定的请求头是否与缓存时一致
+     */
+    boolean matchesVary(HttpRequest httpRequest) {
+        for (Map.Entry<String, String> varyHeader : varyHeaders.entrySet()) {
+            if (!Objects.equals(httpRequest.header(varyHeader.getKey()), varyHeader.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 响应体是否保存在堆外内存中
+     *
+     * @return 堆外的条目返回true
+     */
+    public boolean isOffHeap() {
+        return offHeapBody != null;
+    }
+
+    /**
+     * 获取堆外响应体的只读视图，不复制响应体，调用方必须持有lookup时取得的引用。
+     * 视图交给调用方后无法确定何时不再使用，此时不能再调用{@link #releaseBody()}，
+     * 条目被删除后缓冲区不会复用，视图仍然有效，内存在视图不再被引用后由GC释放
+     *
+     * @return 只读的响应体，堆内的条目返回null
+     */
+    public ByteBuffer getBody() {
+        return offHeapBody == null ? null : offHeapBody.asReadOnlyBuffer();
+    }
+
+    /**
+     * 将堆外响应体复制为jodd约定的原始响应体，每个字节对应一个字符，调用方必须持有lookup时取得的引用
+     *
+     * @return 原始响应体，堆内的条目返回null
+     */
+    public String getBodyRaw() {
+        return offHeapBody == null ? null : offHeapBody.toRawString();
+    }
+
+    /**
+     * 释放lookup时取得的堆外响应体的引用，释放后不能再读取响应体，每次lookup只能释放一次，堆内的条目不需要释放。
+     * 未释放的引用不会导致内存泄漏，只是条目被删除后缓冲区不能复用，交给GC回收
+     */
+    public void releaseBody() {
+        if (offHeapBody != null) {
+            offHeapBody.release();
+        }
+    }
+
+    OffHeapBody getOffHeapBody() {
+        return offHeapBody;
+    }
+
+    /**
+     * 创建独立的响应对象，修改该对象不会影响缓存条目。
+     * 堆内的条目复制状态行、响应头和响应体，堆外的条目只复制状态行和响应头，响应体在需要时通过{@link #getBodyRaw()}获取
+     *
+     * @return 新的响应对象
+     */
+    public HttpResponse newHttpResponse() {
+        return isOffHeap() ? HttpResponseUtils.copyHead(httpResponse) : HttpResponseUtils.copy(httpResponse);
+    }
+
+    long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    long getWeight() {
+        return weight;
+    }
+
+    /**
+     * 获取缓存时已经解析的json的副本，复制比重新解析响应体开销小，修改副本中的json对象不会影响缓存条目
+     *
+     * @return 解析结果的副本，缓存时尚未解析则返回null
+     */
+    public JsonResponseBody getJsonResponseBody() {
+        return jsonResponseBody == null ? null : jsonResponseBody.copy();
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    private static long parseAgeMillis(String age) {
+        if (age == null) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Long.parseLong(age.trim())) * 1000;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 解析http日期
+     *
+     * @param value        日期头的值，可以为null
+     * @param invalidValue 日期格式非法时的返回值
+     * @return 毫秒时间戳，日期头不存在时返回-1
+     */
+    private static long parseHttpDate(String value, long invalidValue) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return invalidValue;
+        }
+    }
+}
@@ -0,0 +1,447 @@
+package com.cqnu.cache;
+
+import com.cqnu.json.JsonResponseBody;
+import com.cqnu.utill.HttpResponseUtils;
+import com.cqnu.utill.HttpStatus;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import jodd.http.HttpRequest;
+import jodd.http.HttpResponse;
+
+/**
+ * 遵循http缓存语义的响应缓存，通过{@code JoddHttpConfig#setResponseCache}配置，多个配置对象可以共用同一个实例。
+ * <p>
+ * 只缓存GET请求的200响应，缓存键为请求方法、url以及响应头Vary指定的请求头。
+ * 新鲜期由Cache-Control的max-age或者Expires决定，过期后有ETag或Last-Modified的响应会通过条件请求重新验证，
+ * 服务端返回304时继续使用缓存的响应。响应头或请求头中有no-store时不缓存。
+ * 缓存由所有请求共用，属于共享缓存，响应头Cache-Control中有private时同样不缓存，
+ * 带有Authorization请求头的请求只有在响应头Cache-Control中有public或者s-maxage时才会被缓存。
+ * <p>
+ * Vary指定的请求头的值是缓存键的一部分，同一个url的不同变体分别缓存，互不覆盖。
+ * 查找时按该url最近一次响应的Vary确定缓存键，最多记录{@link #MAX_VARY_INDEX_SIZE}个url的Vary。
+ * <p>
+ * 只有校验通过的响应才会被缓存，缓存命中时跳过{@code validateResponse()}，所以共用缓存的配置对象应当使用相同的校验规则。
+ * 缓存按估算的字节数淘汰最久未使用的条目，同时缓存了解析后的json时，按响应体大小的{@link #PARSED_JSON_WEIGHT_FACTOR}倍估算。
+ * 配置了{@link OffHeapCacheTier}时，较大的响应体存放在堆外，不缓存解析后的json，也不计入堆内的占用
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public class HttpResponseCache {
+
+    /**
+     * 默认的缓存容量，32MB
+     */
+    public static final long DEFAULT_MAX_WEIGHT = 32L * 1024 * 1024;
+
+    /**
+     * 缓存了解析后的json时，内存占用相对响应体大小的估算倍数
+     */
+    public static final int PARSED_JSON_WEIGHT_FACTOR = 4;
+
+    /**
+     * 每个条目除响应体以外的估算开销，单位字节
+     */
+    private static final int ENTRY_OVERHEAD = 512;
+
+    /**
+     * 记录Vary的url数量上限，超出时丢弃最久未使用的记录，对应的url在下次存入前无法命中带有Vary的缓存
+     */
+    public static final int MAX_VARY_INDEX_SIZE = 4096;
+
+    private final long maxWeight;
+
+    private final long maxEntryWeight;
+
+    /**
+     * 堆外缓存层，为null时所有响应都存放在堆内
+     */
+    private final OffHeapCacheTier offHeapTier;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * 按访问顺序排列的缓存条目，只在持有锁时访问
+     */
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * 请求方法和url到最近一次响应中Vary请求头名称的映射，按访问顺序排列，只在持有锁时访问
+     */
+    private final LinkedHashMap<String, List<String>> varyIndex = new LinkedHashMap<String, List<String>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<String>> eldest) {
+            return size() > MAX_VARY_INDEX_SIZE;
+        }
+    };
+
+    private long weight;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder notModifiedCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * 创建响应缓存，单个条目最多占用容量的1/4
+     *
+     * @param maxWeight 缓存容量，单位字节，必须大于0
+     * @throws IllegalArgumentException 当maxWeight小于等于0时，抛出此异常
+     */
+    public HttpResponseCache(long maxWeight) {
+        this(maxWeight, null);
+    }
+
+    /**
+     * 创建带有堆外缓存层的响应缓存，较大的响应体存放在堆外，单个堆内条目最多占用堆内容量的1/4
+     *
+     * @param maxWeight   堆内缓存容量，单位字节，必须大于0
+     * @param offHeapTier 堆外缓存层，为null时所有响应都存放在堆内
+     * @throws IllegalArgumentException 当maxWeight小于等于0时，抛出此异常
+     */
+    public HttpResponseCache(long maxWeight, OffHeapCacheTier offHeapTier) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("maxWeight必须大于0");
+        }
+        this.maxWeight = maxWeight;
+        this.maxEntryWeight = Math.max(1, maxWeight / 4);
+        this.offHeapTier = offHeapTier;
+    }
+
+    /**
+     * 以默认容量创建响应缓存
+     *
+     * @return 响应缓存
+     */
+    public static HttpResponseCache newDefaultInstance() {
+        return new HttpResponseCache(DEFAULT_MAX_WEIGHT);
+    }
+
+    /**
+     * 判断请求是否可以使用缓存
+     *
+     * @param httpRequest 请求对象
+     * @return GET请求并且请求头中没有no-store时返回true
+     */
+    public static boolean isCacheableRequest(HttpRequest httpRequest) {
+        return "GET".equalsIgnoreCase(httpRequest.method())
+            && !CacheControl.parse(httpRequest.header("Cache-Control")).isNoStore();
+    }
+
+    /**
+     * 判断请求是否要求跳过新鲜的缓存，必须向服务端重新验证
+     *
+     * @param httpRequest 请求对象
+     * @return 请求头中有no-cache时返回true
+     */
+    public static boolean isRevalidationRequired(HttpRequest httpRequest) {
+        return CacheControl.parse(httpRequest.header("Cache-Control")).isNoCache();
+    }
+
+    /**
+     * 查找请求对应的缓存条目，不论是否新鲜。
+     * 返回堆外的条目时已经增加了响应体的引用，不再读取响应体时应当调用{@link CachedResponse#releaseBody()}
+     *
+     * @param httpRequest 请求对象
+     * @return 缓存条目，不存在或者Vary请求头不匹配时返回null
+     */
+    public CachedResponse lookup(HttpRequest httpRequest) {
+        String baseKey = baseKeyOf(httpRequest);
+        String key;
+        CachedResponse cachedResponse;
+        lock.lock();
+        try {
+            key = keyOf(baseKey, httpRequest, varyIndex.get(baseKey));
+            cachedResponse = entries.get(key);
+        } finally {
+            lock.unlock();
+        }
+        if (cachedResponse == null && offHeapTier != null) {
+            cachedResponse = offHeapTier.get(key);
+        }
+        if (cachedResponse != null && !cachedResponse.matchesVary(httpRequest)) {
+            cachedResponse.releaseBody();
+            return null;
+        }
+        return cachedResponse;
+    }
+
+    /**
+     * 缓存校验通过的响应，不可缓存的响应会被忽略。
+     * 缓存条目保存响应和json的副本，调用方之后修改传入的对象不会影响缓存
+     *
+     * @param httpRequest      请求对象
+     * @param httpResponse     校验通过的响应
+     * @param jsonResponseBody 已经解析的json，可以为null
+     * @return 缓存的条目，不可缓存时返回null
+     */
+    public CachedResponse store(HttpRequest httpRequest, HttpResponse httpResponse, JsonResponseBody jsonResponseBody) {
+        if (!isCacheableRequest(httpRequest) || httpResponse.statusCode() != HttpStatus.OK.value()) {
+            return null;
+        }
+        CacheControl cacheControl = CacheControl.parse(httpResponse.header("Cache-Control"));
+        if (cacheControl.isNoStore() || cacheControl.isPrivate()
+            || (httpRequest.header("Authorization") != null && !cacheControl.isSharedCacheAllowed())) {
+            return null;
+        }
+
+        Map<String, String> varyHeaders = parseVaryHeaders(httpRequest, httpResponse.header("Vary"));
+        if (varyHeaders == null) {
+            return null;
+        }
+
+        String body = httpResponse.bodyRaw();
+        long bodyWeight = body == null ? 0 : body.length();
+        long entryWeight = ENTRY_OVERHEAD + bodyWeight * (jsonResponseBody == null ? 1 : PARSED_JSON_WEIGHT_FACTOR);
+        boolean isOffHeap = offHeapTier != null && offHeapTier.accepts(bodyWeight);
+        if (!isOffHeap && entryWeight > maxEntryWeight) {
+            return null;
+        }
+
+        String baseKey = baseKeyOf(httpRequest);
+        List<String> varyNames = new ArrayList<>(varyHeaders.keySet());
+        String key = keyOf(baseKey, httpRequest, varyNames);
+        CachedResponse cachedResponse = new CachedResponse(key, HttpResponseUtils.copy(httpResponse),
+            jsonResponseBody == null ? null : jsonResponseBody.copy(), varyHeaders, entryWeight);
+        if (!cachedResponse.isFresh() && !cachedResponse.hasValidators()) {
+            return null;
+        }
+
+        updateVaryIndex(baseKey, varyNames);
+        if (isOffHeap) {
+            removeEntry(key);
+            return offHeapTier.put(key, httpResponse, varyHeaders);
+        }
+        if (offHeapTier != null) {
+            offHeapTier.remove(key);
+        }
+
+        lock.lock();
+        try {
+            CachedResponse previous = entries.put(key, cachedResponse);
+            if (previous != null) {
+                weight -= previous.getWeight();
+            }
+            weight += entryWeight;
+            evictToMaxWeight();
+        } finally {
+            lock.unlock();
+        }
+        return cachedResponse;
+    }
+
+    /**
+     * 服务端返回304时，使用304响应的头更新缓存条目的新鲜期
+     *
+     * @param cachedResponse      重新验证的缓存条目
+     * @param notModifiedResponse 304响应
+     */
+    public void refresh(CachedResponse cachedResponse, HttpResponse notModifiedResponse) {
+        cachedResponse.updateFreshness(notModifiedResponse);
+        notModifiedCount.increment();
+    }
+
+    /**
+     * 删除请求方法和url对应的所有缓存条目，包括Vary请求头不同的变体
+     *
+     * @param httpRequest 请求对象
+     */
+    public void invalidate(HttpRequest httpRequest) {
+        String baseKey = baseKeyOf(httpRequest);
+        lock.lock();
+        try {
+            varyIndex.remove(baseKey);
+            Iterator<Map.Entry<String, CachedResponse>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, CachedResponse> entry = iterator.next();
+                if (isVariantOf(entry.getKey(), baseKey)) {
+                    weight -= entry.getValue().getWeight();
+                    iterator.remove();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (offHeapTier != null) {
+            offHeapTier.removeIf(key -> isVariantOf(key, baseKey));
+        }
+    }
+
+    private void updateVaryIndex(String baseKey, List<String> varyNames) {
+        lock.lock();
+        try {
+            if (varyNames.isEmpty()) {
+                varyIndex.remove(baseKey);
+            } else {
+                varyIndex.put(baseKey, varyNames);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removeEntry(String key) {
+        lock.lock();
+        try {
+            CachedResponse removed = entries.remove(key);
+            if (removed != null) {
+                weight -= removed.getWeight();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+            varyIndex.clear();
+            weight = 0;
+        } finally {
+            lock.unlock();
+        }
+        if (offHeapTier != null) {
+            offHeapTier.clear();
+        }
+    }
+
+    /**
+     * 记录一次直接使用新鲜缓存的请求
+     */
+    public void recordHit() {
+        hitCount.increment();
+    }
+
+    /**
+     * 记录一次没有可用缓存或者重新验证后响应已变化的请求
+     */
+    public void recordMiss() {
+        missCount.increment();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * 获取重新验证时服务端返回304的次数
+     *
+     * @return 304的次数
+     */
+    public long getNotModifiedCount() {
+        return notModifiedCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * 获取堆外缓存层
+     *
+     * @return 堆外缓存层，未配置时返回null
+     */
+    public OffHeapCacheTier getOffHeapTier() {
+        return offHeapTier;
+    }
+
+    /**
+     * 获取堆内缓存当前的估算占用
+     *
+     * @return 估算的字节数
+     */
+    public long getWeight() {
+        lock.lock();
+        try {
+            return weight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getSize() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 淘汰最久未使用的条目，直到占用不超过容量，调用前必须持有锁
+     */
+    private void evictToMaxWeight() {
+        Iterator<CachedResponse> iterator = entries.values().iterator();
+        while (weight > maxWeight && iterator.hasNext()) {
+            weight -= iterator.next().getWeight();
+            iterator.remove();
+            evictionCount.increment();
+        }
+    }
+
+    private static String baseKeyOf(HttpRequest httpRequest) {
+        return httpRequest.method().toUpperCase(Locale.ROOT) + ' ' + httpRequest.url();
+    }
+
+    /**
+     * 由请求方法、url以及Vary指定的请求头的值组成缓存键
+     *
+     * @param varyNames Vary指定的请求头名称，可以为null
+     */
+    private static String keyOf(String baseKey, HttpRequest httpRequest, List<String> varyNames) {
+        if (varyNames == null || varyNames.isEmpty()) {
+            return baseKey;
+        }
+        StringBuilder key = new StringBuilder(baseKey);
+        for (String name : varyNames) {
+            key.append('\n').append(name).append(": ").append(httpRequest.header(name));
+        }
+        return key.toString();
+    }
+
+    private static boolean isVariantOf(String key, String baseKey) {
+        return key.startsWith(baseKey) && (key.length() == baseKey.length() || key.charAt(baseKey.length()) == '\n');
+    }
+
+    /**
+     * 解析响应头Vary，记录对应请求头的值，请求头名称统一为小写，按Vary中的顺序排列
+     *
+     * @return 请求头与值的映射，Vary为*时返回null，表示不可缓存
+     */
+    private static Map<String, String> parseVaryHeaders(HttpRequest httpRequest, String vary) {
+        if (vary == null || vary.trim().isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, String> varyHeaders = new LinkedHashMap<>();
+        for (String name : vary.split(",")) {
+            String headerName = name.trim().toLowerCase(Locale.ROOT);
+            if (headerName.equals("*")) {
+                return null;
+            }
+            if (!headerName.isEmpty()) {
+                varyHeaders.put(headerName, httpRequest.header(headerName));
+            }
+        }
+        return varyHeaders;
+    }
+}
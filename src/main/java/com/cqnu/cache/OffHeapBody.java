@@ -0,0 +1,81 @@
+package com.cqnu.cache;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 堆外缓存条目的响应体，保存在{@link OffHeapCacheTier}分配的direct ByteBuffer中。
+ * <p>
+ * 条目被查找到时增加一次引用，读取完毕后释放。条目被删除时如果没有引用，缓冲区会回到{@link OffHeapCacheTier}中复用；
+ * 仍有引用时缓冲区脱离该层，不再复用，由GC回收，这样调用方持有的引用和只读视图始终有效
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+final class OffHeapBody {
+
+    /**
+     * 缓冲区，容量为所属的容量等级，limit为响应体长度
+     */
+    private final ByteBuffer buffer;
+
+    private int references;
+
+    OffHeapBody(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * 增加一次引用，只能在条目仍在缓存中时调用，调用前必须持有{@link OffHeapCacheTier}的锁
+     */
+    synchronized void retain() {
+        references++;
+    }
+
+    synchronized void release() {
+        if (references > 0) {
+            references--;
+        }
+    }
+
+    /**
+     * 标记条目已被删除，之后不会再增加引用，调用前必须持有{@link OffHeapCacheTier}的锁
+     *
+     * @return 没有引用时返回true，缓冲区可以复用
+     */
+    synchronized boolean remove() {
+        return references == 0;
+    }
+
+    ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    int getCapacity() {
+        return buffer.capacity();
+    }
+
+    int getLength() {
+        return buffer.limit();
+    }
+
+    /**
+     * 获取响应体的只读视图，不复制响应体，调用方必须持有引用
+     */
+    ByteBuffer asReadOnlyBuffer() {
+        return buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * 将响应体复制为jodd约定的原始响应体，每个字节对应一个字符，调用方必须持有引用
+     */
+    String toRawString() {
+        byte[] bytes = new byte[buffer.limit()];
+        ByteBuffer view = buffer.duplicate();
+        // 以Buffer类型调用，避免在高版本jdk上编译后运行于jdk8时找不到ByteBuffer的协变返回方法
+        ((Buffer) view).position(0);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+}
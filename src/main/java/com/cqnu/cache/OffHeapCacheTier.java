@@ -0,0 +1,444 @@
+package com.cqnu.cache;
+
+import static com.cqnu.utill.Slf4jStyleFormatter.format;
+
+import com.cqnu.utill.HttpResponseUtils;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import jodd.http.HttpResponse;
+
+/**
+ * 响应缓存的堆外层，通过{@link HttpResponseCache#HttpResponseCache(long, OffHeapCacheTier)}配置。
+ * <p>
+ * 响应体不小于{@link #minEntryBytes}的响应存放在该层，响应体保存在direct ByteBuffer中，
+ * 堆内只保留缓存键、状态行和响应头组成的索引，较小的响应仍然存放在堆内。
+ * 条目超过{@link #ttlMillis}后不论是否新鲜都会被删除，总大小超过{@link #maxBytes}时淘汰最久未使用的条目。
+ * <p>
+ * direct ByteBuffer按2的幂划分容量等级，条目被删除后缓冲区回到对应等级的空闲列表，之后存入的条目直接复用，
+ * 避免每个条目都分配新的direct内存、依赖GC释放而触发{@code System.gc()}。
+ * 已经分配的缓冲区总容量不超过{@link #maxBytes}，容量等级不同时会先丢弃其他等级的空闲缓冲区，再淘汰最久未使用的条目。
+ * 按容量等级计算占用，响应体最多浪费一半的容量。
+ * <p>
+ * 条目删除时仍被读取的缓冲区不会复用，而是脱离该层由GC回收，参考{@link CachedResponse#releaseBody()}
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public class OffHeapCacheTier {
+
+    /**
+     * 默认的堆外容量，256MB
+     */
+    public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+    /**
+     * 默认存放到堆外的最小响应体大小，64KB
+     */
+    public static final int DEFAULT_MIN_ENTRY_BYTES = 64 * 1024;
+
+    /**
+     * 默认的条目存活时间，10分钟
+     */
+    public static final long DEFAULT_TTL_MILLIS = 10 * 60 * 1000L;
+
+    /**
+     * 写入堆外内存时每次转换的字符数
+     */
+    private static final int COPY_CHUNK_SIZE = 8192;
+
+    /**
+     * 单个缓冲区的最大容量，容量等级为2的幂，不能超过int的范围
+     */
+    private static final int MAX_BUFFER_CAPACITY = 1 << 30;
+
+    private final long maxBytes;
+
+    private final int minEntryBytes;
+
+    private final long ttlMillis;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * 按访问顺序排列的缓存条目，只在持有锁时访问
+     */
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * 按容量分组的空闲缓冲区，只在持有锁时访问
+     */
+    private final Map<Integer, ArrayDeque<ByteBuffer>> freeBuffers = new HashMap<>();
+
+    /**
+     * 缓存条目占用的容量
+     */
+    private long bytes;
+
+    /**
+     * 已经分配并由该层管理的缓冲区总容量，包括条目占用的和空闲的
+     */
+    private long allocatedBytes;
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    private final LongAdder reuseCount = new LongAdder();
+
+    private final LongAdder detachCount = new LongAdder();
+
+    private final LongAdder expiredCount = new LongAdder();
+
+    /**
+     * 创建堆外缓存层，单个条目最多占用容量的1/4
+     *
+     * @param maxBytes      堆外容量，单位字节，必须大于0
+     * @param minEntryBytes 存放到堆外的最小响应体大小，单位字节，必须大于0
+     * @param ttlMillis     条目的存活时间，单位毫秒，必须大于0
+     * @throws IllegalArgumentException 任一参数小于等于0时，抛出此异常
+     */
+    public OffHeapCacheTier(long maxBytes, int minEntryBytes, long ttlMillis) {
+        if (maxBytes <= 0 || minEntryBytes <= 0 || ttlMillis <= 0) {
+            throw new IllegalArgumentException(format("堆外缓存参数必须大于0. maxBytes: [{}], minEntryBytes: [{}], ttlMillis: [{}]",
+                maxBytes, minEntryBytes, ttlMillis));
+        }
+        this.maxBytes = maxBytes;
+        this.minEntryBytes = minEntryBytes;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * 以默认容量、最小响应体大小和存活时间创建堆外缓存层
+     *
+     * @return 堆外缓存层
+     */
+    public static OffHeapCacheTier newDefaultInstance() {
+        return new OffHeapCacheTier(DEFAULT_MAX_BYTES, DEFAULT_MIN_ENTRY_BYTES, DEFAULT_TTL_MILLIS);
+    }
+
+    /**
+     * 判断指定大小的响应体是否应该存放在该层
+     */
+    boolean accepts(long bodyLength) {
+        return bodyLength >= minEntryBytes && bodyLength <= maxBytes / 4 && bodyLength <= MAX_BUFFER_CAPACITY;
+    }
+
+    /**
+     * 查找缓存条目，超过存活时间的条目会被删除，返回的条目已经增加了响应体的引用
+     */
+    CachedResponse get(String key) {
+        lock.lock();
+        try {
+            CachedResponse cachedResponse = entries.get(key);
+            if (cachedResponse != null && isExpired(cachedResponse, System.currentTimeMillis())) {
+                removeEntry(key);
+                expiredCount.increment();
+                return null;
+            }
+            if (cachedResponse != null) {
+                cachedResponse.getOffHeapBody().retain();
+            }
+            return cachedResponse;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 将响应体复制到堆外内存，创建并存入缓存条目，调用前应当已经判断响应可以缓存
+     *
+     * @param key          缓存键
+     * @param httpResponse 完整的响应，条目中只保留其状态行和响应头
+     * @param varyHeaders  参与缓存匹配的请求头
+     * @return 缓存的条目
+     */
+    CachedResponse put(String key, HttpResponse httpResponse, Map<String, String> varyHeaders) {
+        String raw = httpResponse.bodyRaw();
+        ByteBuffer buffer = acquireBuffer(capacityOf(raw.length()));
+        copyToBuffer(raw, buffer);
+        OffHeapBody body = new OffHeapBody(buffer);
+        CachedResponse cachedResponse = new CachedResponse(key, HttpResponseUtils.copyHead(httpResponse), null,
+            varyHeaders, body.getCapacity(), body);
+
+        lock.lock();
+        try {
+            CachedResponse previous = entries.put(key, cachedResponse);
+            if (previous != null) {
+                releaseEntry(previous);
+            }
+            bytes += cachedResponse.getWeight();
+            evict(System.currentTimeMillis());
+        } finally {
+            lock.unlock();
+        }
+        return cachedResponse;
+    }
+
+    /**
+     * 获取指定容量的缓冲区，优先复用空闲的缓冲区，已分配的总容量不足时先丢弃其他等级的空闲缓冲区，再淘汰最久未使用的条目
+     */
+    private ByteBuffer acquireBuffer(int capacity) {
+        lock.lock();
+        try {
+            while (true) {
+                ArrayDeque<ByteBuffer> free = freeBuffers.get(capacity);
+                if (free != null && !free.isEmpty()) {
+                    reuseCount.increment();
+                    return free.pop();
+                }
+                if (allocatedBytes + capacity <= maxBytes || (!dropFreeBuffer() && !evictEldest())) {
+                    break;
+                }
+            }
+            allocatedBytes += capacity;
+        } finally {
+            lock.unlock();
+        }
+
+        // 分配direct内存可能较慢，不持有锁
+        try {
+            return ByteBuffer.allocateDirect(capacity);
+        } catch (OutOfMemoryError e) {
+            lock.lock();
+            try {
+                allocatedBytes -= capacity;
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 丢弃一个空闲缓冲区，交给GC回收，调用前必须持有锁
+     *
+     * @return 没有空闲缓冲区时返回false
+     */
+    private boolean dropFreeBuffer() {
+        Iterator<ArrayDeque<ByteBuffer>> iterator = freeBuffers.values().iterator();
+        while (iterator.hasNext()) {
+            ArrayDeque<ByteBuffer> free = iterator.next();
+            if (!free.isEmpty()) {
+                allocatedBytes -= free.pop().capacity();
+                return true;
+            }
+            iterator.remove();
+        }
+        return false;
+    }
+
+    /**
+     * 淘汰最久未使用的条目，调用前必须持有锁
+     *
+     * @return 没有条目时返回false
+     */
+    private boolean evictEldest() {
+        Iterator<CachedResponse> iterator = entries.values().iterator();
+        if (!iterator.hasNext()) {
+            return false;
+        }
+        CachedResponse eldest = iterator.next();
+        iterator.remove();
+        releaseEntry(eldest);
+        evictionCount.increment();
+        return true;
+    }
+
+    /**
+     * 扣除被删除条目的占用，没有引用的缓冲区放回空闲列表，仍有引用的缓冲区脱离该层，调用前必须持有锁
+     */
+    private void releaseEntry(CachedResponse removed) {
+        bytes -= removed.getWeight();
+        OffHeapBody body = removed.getOffHeapBody();
+        if (body.remove()) {
+            freeBuffers.computeIfAbsent(body.getCapacity(), capacity -> new ArrayDeque<>()).push(body.getBuffer());
+        } else {
+            allocatedBytes -= body.getCapacity();
+            detachCount.increment();
+        }
+    }
+
+    void remove(String key) {
+        lock.lock();
+        try {
+            removeEntry(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 删除缓存键满足条件的所有条目
+     */
+    void removeIf(Predicate<String> keyFilter) {
+        lock.lock();
+        try {
+            Iterator<Map.Entry<String, CachedResponse>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, CachedResponse> entry = iterator.next();
+                if (keyFilter.test(entry.getKey())) {
+                    iterator.remove();
+                    releaseEntry(entry.getValue());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 删除所有条目并丢弃所有缓冲区，已分配的direct内存交给GC回收
+     */
+    void clear() {
+        lock.lock();
+        try {
+            for (CachedResponse cachedResponse : entries.values()) {
+                cachedResponse.getOffHeapBody().remove();
+            }
+            entries.clear();
+            freeBuffers.clear();
+            bytes = 0;
+            allocatedBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public int getMinEntryBytes() {
+        return minEntryBytes;
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    /**
+     * 获取当前缓存条目占用的容量，按容量等级计算，已淘汰但仍被引用的响应体不计入
+     *
+     * @return 字节数
+     */
+    public long getBytes() {
+        lock.lock();
+        try {
+            return bytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取已经分配并由该层管理的direct内存，包括条目占用的和等待复用的空闲缓冲区
+     *
+     * @return 字节数
+     */
+    public long getAllocatedBytes() {
+        lock.lock();
+        try {
+            return allocatedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getSize() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    public long getExpiredCount() {
+        return expiredCount.sum();
+    }
+
+    /**
+     * 获取存入条目时复用空闲缓冲区的次数
+     *
+     * @return 复用的次数
+     */
+    public long getReuseCount() {
+        return reuseCount.sum();
+    }
+
+    /**
+     * 获取条目删除时仍被读取、只能交给GC回收的缓冲区数量
+     *
+     * @return 脱离该层的缓冲区数量
+     */
+    public long getDetachCount() {
+        return detachCount.sum();
+    }
+
+    /**
+     * 先删除最久未使用一端超过存活时间的条目，再淘汰最久未使用的条目直到不超过容量，调用前必须持有锁
+     */
+    private void evict(long now) {
+        Iterator<CachedResponse> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            CachedResponse cachedResponse = iterator.next();
+            boolean expired = isExpired(cachedResponse, now);
+            if (!expired && bytes <= maxBytes) {
+                return;
+            }
+            iterator.remove();
+            releaseEntry(cachedResponse);
+            if (expired) {
+                expiredCount.increment();
+            } else {
+                evictionCount.increment();
+            }
+        }
+    }
+
+    private void removeEntry(String key) {
+        CachedResponse removed = entries.remove(key);
+        if (removed != null) {
+            releaseEntry(removed);
+        }
+    }
+
+    private boolean isExpired(CachedResponse cachedResponse, long now) {
+        return now - cachedResponse.getCreatedAtMillis() >= ttlMillis;
+    }
+
+    /**
+     * 获取能容纳指定长度的容量等级，即不小于该长度的2的幂
+     */
+    private static int capacityOf(int length) {
+        int capacity = Integer.highestOneBit(Math.max(length, 1));
+        return capacity == length ? capacity : capacity << 1;
+    }
+
+    /**
+     * 将jodd的原始响应体写入direct ByteBuffer，分块转换，避免在堆上生成完整的字节数组
+     */
+    private static void copyToBuffer(String raw, ByteBuffer buffer) {
+        ((Buffer) buffer).clear();
+        byte[] chunk = new byte[Math.min(COPY_CHUNK_SIZE, raw.length())];
+        for (int start = 0; start < raw.length(); start += chunk.length) {
+            int end = Math.min(start + chunk.length, raw.length());
+            for (int i = start; i < end; i++) {
+                chunk[i - start] = (byte) raw.charAt(i);
+            }
+            buffer.put(chunk, 0, end - start);
+        }
+        // 以Buffer类型调用，避免在高版本jdk上编译后运行于jdk8时找不到ByteBuffer的协变返回方法
+        ((Buffer) buffer).flip();
+    }
+}
@@ -0,0 +1,114 @@
+package com.cqnu.coalesce;
+
+import static com.cqnu.utill.Slf4jStyleFormatter.format;
+
+import com.cqnu.exception.HttpRequestException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 相同请求的合并器（single-flight），通过{@code JoddHttpConfig#setRequestCoalescer}配置，多个配置对象可以共用同一个实例。
+ * <p>
+ * 同一个key同时只有一个调用方（leader）真正执行任务，期间到达的其他调用方等待并共用leader的结果，
+ * leader失败时所有等待者收到同一个异常。每个等待者按自己的超时时间等待，超时只影响该等待者，不会取消leader。
+ * 任务完成后key立即被移除，之后到达的调用方会重新执行任务，合并器本身不缓存结果
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public class RequestCoalescer {
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlightCalls = new ConcurrentHashMap<>();
+
+    private final LongAdder executedCount = new LongAdder();
+
+    private final LongAdder coalescedCount = new LongAdder();
+
+    public static RequestCoalescer newDefaultInstance() {
+        return new RequestCoalescer();
+    }
+
+    /**
+     * 执行任务，相同key的任务正在执行时等待并共用其结果
+     *
+     * @param key           合并的key，相同key的任务应当产生相同的结果
+     * @param timeoutMillis 等待其他调用方的任务完成的超时时间，单位毫秒，小于等于0时不限制
+     * @param task          需要执行的任务
+     * @return 任务结果，可能是其他调用方执行的结果
+     * @throws HttpRequestException 等待超时或者被中断时，抛出此异常；任务失败时抛出任务的异常
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, long timeoutMillis, Supplier<T> task) {
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> inFlightCall = inFlightCalls.putIfAbsent(key, call);
+        if (inFlightCall != null) {
+            coalescedCount.increment();
+            return (T) await(key, inFlightCall, timeoutMillis);
+        }
+
+        executedCount.increment();
+        try {
+            T result = task.get();
+            inFlightCalls.remove(key, call);
+            call.complete(result);
+            return result;
+        } catch (Throwable e) {
+            inFlightCalls.remove(key, call);
+            call.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static Object await(String key, CompletableFuture<Object> inFlightCall, long timeoutMillis) {
+        try {
+            return timeoutMillis > 0 ? inFlightCall.get(timeoutMillis, TimeUnit.MILLISECONDS) : inFlightCall.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new HttpRequestException(format("合并的请求失败. key: [{}]", key), cause);
+        } catch (TimeoutException e) {
+            throw new HttpRequestException(format("等待合并的请求超时. key: [{}], timeout: [{}]", key, timeoutMillis), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HttpRequestException(format("等待合并的请求时被中断. key: [{}]", key), e);
+        }
+    }
+
+    /**
+     * 获取真正执行的任务数
+     *
+     * @return 执行的任务数
+     */
+    public long getExecutedCount() {
+        return executedCount.sum();
+    }
+
+    /**
+     * 获取共用其他调用方结果的调用数
+     *
+     * @return 被合并的调用数
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    /**
+     * 获取正在执行的任务数
+     *
+     * @return 正在执行的任务数
+     */
+    public int getInFlightCount() {
+        return inFlightCalls.size();
+    }
+}
@@ -0,0 +1,158 @@
+package com.cqnu.download;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * 分段下载的进度清单，记录文件长度、分段大小、资源版本以及已完成的分段，用于中断后续传。
+ * <p>
+ * 每完成一个分段就会持久化一次，写入时先写临时文件再替换，避免进程中断时清单文件损坏。
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+class DownloadManifest {
+
+    private static final String KEY_CONTENT_LENGTH = "contentLength";
+
+    private static final String KEY_CHUNK_SIZE = "chunkSize";
+
+    private static final String KEY_ETAG = "etag";
+
+    private static final String KEY_LAST_MODIFIED = "lastModified";
+
+    private static final String KEY_COMPLETED = "completed";
+
+    private final Path path;
+
+    private final long contentLength;
+
+    private final long chunkSize;
+
+    private final String etag;
+
+    private final String lastModified;
+
+    private final BitSet completedChunks;
+
+    private DownloadManifest(Path path, long contentLength, long chunkSize, String etag, String lastModified,
+                             BitSet completedChunks) {
+        this.path = path;
+        this.contentLength = contentLength;
+        this.chunkSize = chunkSize;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.completedChunks = completedChunks;
+    }
+
+    /**
+     * 加载已有的进度清单，清单不存在或者与当前资源不匹配时，创建新的清单
+     *
+     * @param path          清单文件路径
+     * @param contentLength 资源长度
+     * @param chunkSize     分段大小
+     * @param etag          资源的ETag，可以为null
+     * @param lastModified  资源的Last-Modified，可以为null
+     * @return 进度清单
+     * @throws IOException 读取清单失败时，抛出此异常
+     */
+    static DownloadManifest loadOrCreate(Path path, long contentLength, long chunkSize, String etag,
+                                         String lastModified) throws IOException {
+        if (Files.exists(path)) {
+            Properties properties = new Properties();
+            try (InputStream inputStream = Files.newInputStream(path)) {
+                properties.load(inputStream);
+            }
+
+            boolean sameResource = String.valueOf(contentLength).equals(properties.getProperty(KEY_CONTENT_LENGTH))
+                && String.valueOf(chunkSize).equals(properties.getProperty(KEY_CHUNK_SIZE))
+                && Objects.equals(etag, properties.getProperty(KEY_ETAG))
+                && Objects.equals(lastModified, properties.getProperty(KEY_LAST_MODIFIED));
+            if (sameResource) {
+                BitSet completed = new BitSet();
+                String completedValue = properties.getProperty(KEY_COMPLETED, "");
+                for (String index : completedValue.split(",")) {
+                    if (!index.isEmpty()) {
+                        completed.set(Integer.parseInt(index));
+                    }
+                }
+                return new DownloadManifest(path, contentLength, chunkSize, etag, lastModified, completed);
+            }
+        }
+
+        return new DownloadManifest(path, contentLength, chunkSize, etag, lastModified, new BitSet());
+    }
+
+    int getChunkCount() {
+        return (int) ((contentLength + chunkSize - 1) / chunkSize);
+    }
+
+    long getChunkSize() {
+        return chunkSize;
+    }
+
+    long getContentLength() {
+        return contentLength;
+    }
+
+    String getEtag() {
+        return etag;
+    }
+
+    String getLastModified() {
+        return lastModified;
+    }
+
+    synchronized boolean isCompleted(int chunkIndex) {
+        return completedChunks.get(chunkIndex);
+    }
+
+    /**
+     * 标记分段已完成并持久化清单，调用前分段的数据必须已经写入磁盘
+     *
+     * @param chunkIndex 分段序号
+     * @throws IOException 写入清单失败时，抛出此异常
+     */
+    synchronized void markCompleted(int chunkIndex) throws IOException {
+        completedChunks.set(chunkIndex);
+        store();
+    }
+
+    synchronized void store() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(KEY_CONTENT_LENGTH, String.valueOf(contentLength));
+        properties.setProperty(KEY_CHUNK_SIZE, String.valueOf(chunkSize));
+        if (etag != null) {
+            properties.setProperty(KEY_ETAG, etag);
+        }
+        if (lastModified != null) {
+            properties.setProperty(KEY_LAST_MODIFIED, lastModified);
+        }
+
+        StringBuilder completed = new StringBuilder();
+        for (int i = completedChunks.nextSetBit(0); i >= 0; i = completedChunks.nextSetBit(i + 1)) {
+            if (completed.length() > 0) {
+                completed.append(',');
+            }
+            completed.append(i);
+        }
+        properties.setProperty(KEY_COMPLETED, completed.toString());
+
+        Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try (OutputStream outputStream = Files.newOutputStream(tempPath)) {
+            properties.store(outputStream, "ranged download manifest");
+        }
+        Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    void delete() throws IOException {
+        Files.deleteIfExists(path);
+    }
+}
@@ -0,0 +1,348 @@
+package com.cqnu.download;
+
+import static com.cqnu.utill.Slf4jStyleFormatter.format;
+
+import com.cqnu.CompiledJoddHttpConfig;
+import com.cqnu.JoddHttpWrapper;
+import com.cqnu.JoddHttpWrapper.JoddHttpConfig;
+import com.cqnu.exception.HttpRequestException;
+import com.cqnu.stream.StreamingHttpResponse;
+import com.cqnu.timeout.Deadline;
+import com.cqnu.utill.Assert;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import jodd.http.HttpRequest;
+import jodd.http.HttpResponse;
+
+/**
+ * 并行分段下载器，适用于高延迟链路上的大文件下载。
+ * <p>
+ * 先以{@code Range: bytes=0-0}探测资源长度和是否支持分段，支持时将文件按{@link #chunkSize}切分，
+ * 通过多个连接并行下载，每个分段直接写入预分配长度的临时文件的对应位置。
+ * 下载进度记录在目标文件旁的{@code .manifest}文件中，中断后再次调用会跳过已完成的分段；
+ * 资源的ETag或Last-Modified变化时会重新下载。服务端不支持分段时退化为单连接的流式下载。
+ * 分段针对的是资源的原始字节，所以下载器总是关闭配置中的压缩协商。
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public class RangedDownloader {
+
+    /**
+     * 默认的并行连接数
+     */
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    /**
+     * 默认的分段大小
+     */
+    public static final long DEFAULT_CHUNK_SIZE = 4L * 1024 * 1024;
+
+    private static final String PART_FILE_SUFFIX = ".part";
+
+    private static final String MANIFEST_FILE_SUFFIX = ".manifest";
+
+    /**
+     * 请求配置，一般使用{@link JoddHttpConfig#newStreamConfigInstance()}，压缩协商总是关闭的
+     */
+    private final JoddHttpConfig joddHttpConfig;
+
+    private final CompiledJoddHttpConfig compiledConfig;
+
+    private final int parallelism;
+
+    private final long chunkSize;
+
+    /**
+     * 创建分段下载器
+     *
+     * @param joddHttpConfig 请求配置对象，如果为null则使用{@link JoddHttpConfig#newStreamConfigInstance()}，
+     *                       使用的是关闭了压缩协商的副本，不会修改传入的对象
+     * @param parallelism    并行连接数，必须大于0
+     * @param chunkSize      分段大小，必须大于0
+     * @throws IllegalArgumentException 当并行连接数或分段大小小于等于0时，抛出此异常
+     */
+    public RangedDownloader(JoddHttpConfig joddHttpConfig, int parallelism, long chunkSize) {
+        if (parallelism <= 0 || chunkSize <= 0) {
+            throw new IllegalArgumentException(format("并行连接数和分段大小必须大于0. parallelism: [{}], chunkSize: [{}]", parallelism, chunkSize));
+        }
+        JoddHttpConfig config = joddHttpConfig == null ? JoddHttpConfig.newStreamConfigInstance() : joddHttpConfig.copy();
+        this.joddHttpConfig = config.setCompressionEnabled(false);
+        this.compiledConfig = this.joddHttpConfig.compile();
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * 以默认的并行连接数和分段大小创建下载器
+     *
+     * @param joddHttpConfig 请求配置对象，如果为null则使用{@link JoddHttpConfig#newStreamConfigInstance()}
+     * @return 分段下载器
+     */
+    public static RangedDownloader newDefaultInstance(JoddHttpConfig joddHttpConfig) {
+        return new RangedDownloader(joddHttpConfig, DEFAULT_PARALLELISM, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * 下载资源到目标文件，目标文件已存在时会被覆盖。
+     * 每个分段都会调用requestFactory创建一个新的请求，请求的url、请求头等应当相同
+     *
+     * @param requestFactory 请求对象的工厂，不能为null
+     * @param target         目标文件路径，不能为null
+     * @return 下载的文件长度
+     * @throws HttpRequestException 请求失败、资源在下载过程中发生变化或者写文件失败时，抛出此异常，已完成的分段会保留用于续传
+     * @throws IllegalArgumentException 任一参数为null时，抛出此异常
+     */
+    public long download(Supplier<HttpRequest> requestFactory, Path target) {
+        Assert.notNull(requestFactory, "requestFactory不能为null");
+        Assert.notNull(target, "target不能为null");
+
+        Path partPath = target.resolveSibling(target.getFileName() + PART_FILE_SUFFIX);
+        Path manifestPath = target.resolveSibling(target.getFileName() + MANIFEST_FILE_SUFFIX);
+
+        HttpRequest probeRequest = requestFactory.get();
+        probeRequest.header("Range", "bytes=0-0");
+        JoddHttpWrapper probeWrapper = JoddHttpWrapper.newInstance(probeRequest, compiledConfig);
+
+        DownloadManifest manifest;
+        try (StreamingHttpResponse probeResponse = probeWrapper.sendRequestForStream()) {
+            HttpResponse httpResponse = probeResponse.getHttpResponse();
+            long totalLength = httpResponse.statusCode() == 206 ? parseTotalLength(httpResponse.header("Content-Range")) : -1;
+            if (totalLength < 0) {
+                // 不支持分段，直接使用探测请求的响应体，服务端仍然返回压缩的响应体时解压后再写入
+                probeWrapper.validateStatusCode();
+                long length = copyToFile(probeResponse.getDecodedBody(), partPath);
+                moveToTarget(partPath, target);
+                Files.deleteIfExists(manifestPath);
+                return length;
+            }
+
+            if (!Files.exists(partPath) || Files.size(partPath) != totalLength) {
+                // 临时文件丢失或长度不符时，清单中记录的进度已经无效
+                Files.deleteIfExists(manifestPath);
+            }
+            manifest = DownloadManifest.loadOrCreate(manifestPath, totalLength, chunkSize,
+                httpResponse.header("ETag"), httpResponse.header("Last-Modified"));
+        } catch (IOException e) {
+            throw new HttpRequestException(format("分段下载探测失败. url: [{}]", probeRequest.url()), e);
+        }
+
+        try {
+            downloadChunks(requestFactory, partPath, manifest);
+            moveToTarget(partPath, target);
+            manifest.delete();
+            return manifest.getContentLength();
+        } catch (IOException e) {
+            throw new HttpRequestException(format("分段下载写文件失败. target: [{}]", target), e);
+        }
+    }
+
+    /**
+     * 并行下载所有未完成的分段
+     */
+    private void downloadChunks(Supplier<HttpRequest> requestFactory, Path partPath, DownloadManifest manifest)
+        throws IOException {
+        try (FileChannel fileChannel = FileChannel.open(partPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            if (fileChannel.size() != manifest.getContentLength()) {
+                fileChannel.truncate(0);
+                preallocate(fileChannel, manifest.getContentLength());
+            }
+            manifest.store();
+
+            // 分段在线程池中下载，调用线程继承的截止时间需要显式传递
+            Deadline deadline = Deadline.current();
+            ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, manifest.getChunkCount())));
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < manifest.getChunkCount(); i++) {
+                    if (manifest.isCompleted(i)) {
+                        continue;
+                    }
+                    int chunkIndex = i;
+                    futures.add(executor.submit(() -> {
+                        downloadChunk(requestFactory.get(), fileChannel, manifest, chunkIndex, deadline);
+                        return null;
+                    }));
+                }
+                awaitAll(futures);
+            } finally {
+                executor.shutdownNow();
+            }
+            fileChannel.force(true);
+        }
+    }
+
+    /**
+     * 等待所有分段完成，任一分段失败时取消其余分段并抛出该分段的异常
+     */
+    private static void awaitAll(List<Future<?>> futures) {
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new HttpRequestException("分段下载被中断", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            Throwable cause = e.getCause();
+            if (cause instanceof HttpRequestException) {
+                throw (HttpRequestException) cause;
+            }
+            throw new HttpRequestException("分段下载失败", cause);
+        }
+    }
+
+    /**
+     * 下载单个分段，写入临时文件的对应位置后持久化进度
+     */
+    private void downloadChunk(HttpRequest httpRequest, FileChannel fileChannel, DownloadManifest manifest,
+                               int chunkIndex, Deadline deadline) throws IOException {
+        long start = chunkIndex * manifest.getChunkSize();
+        long end = Math.min(start + manifest.getChunkSize(), manifest.getContentLength()) - 1;
+
+        httpRequest.header("Range", "bytes=" + start + "-" + end);
+        String validator = getIfRangeValidator(manifest);
+        if (validator != null) {
+            httpRequest.header("If-Range", validator);
+        }
+
+        JoddHttpWrapper wrapper = JoddHttpWrapper.newInstance(httpRequest, compiledConfig);
+        wrapper.setDeadline(deadline);
+        try (StreamingHttpResponse streamingResponse = wrapper.sendRequestForStream()) {
+            int statusCode = streamingResponse.getHttpResponse().statusCode();
+            if (statusCode != 206) {
+                throw new HttpRequestException(format("分段下载响应的statusCode错误，资源可能已变化. url: [{}], range: [{}-{}], statusCode: [{}]",
+                    httpRequest.url(), start, end, statusCode));
+            }
+            // 206响应的实际范围以Content-Range为准，与请求的范围或资源长度不一致时不能写入文件
+            String contentRange = streamingResponse.getHttpResponse().header("Content-Range");
+            if (!isExpectedContentRange(contentRange, start, end, manifest.getContentLength())) {
+                throw new HttpRequestException(format("分段下载响应的Content-Range与请求不一致. url: [{}], range: [{}-{}/{}], Content-Range: [{}]",
+                    httpRequest.url(), start, end, manifest.getContentLength(), contentRange));
+            }
+
+            InputStream body = streamingResponse.getBody();
+            byte[] buffer = new byte[joddHttpConfig.getDownloadBufferSize()];
+            long position = start;
+            int count;
+            while (position <= end && (count = body.read(buffer, 0, (int) Math.min(buffer.length, end - position + 1))) != -1) {
+                ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, count);
+                while (byteBuffer.hasRemaining()) {
+                    position += fileChannel.write(byteBuffer, position);
+                }
+            }
+            if (position <= end) {
+                throw new EOFException(format("分段响应体长度不足. range: [{}-{}], received: [{}]", start, end, position - start));
+            }
+        }
+        // 分段数据落盘后才能记录为已完成，否则进程中断后续传会跳过没有写入磁盘的分段
+        fileChannel.force(false);
+        manifest.markCompleted(chunkIndex);
+    }
+
+    /**
+     * 获取If-Range使用的校验值。
+     * If-Range只能使用强ETag，服务端会忽略弱ETag并返回200，所以ETag为弱校验值时使用Last-Modified
+     *
+     * @return 校验值，都不可用时返回null
+     */
+    private static String getIfRangeValidator(DownloadManifest manifest) {
+        String etag = manifest.getEtag();
+        if (etag != null && !etag.startsWith("W/")) {
+            return etag;
+        }
+        return manifest.getLastModified();
+    }
+
+    /**
+     * 写入文件最后一个字节，使文件长度达到资源长度
+     */
+    private static void preallocate(FileChannel fileChannel, long length) throws IOException {
+        if (length > 0) {
+            fileChannel.write(ByteBuffer.wrap(new byte[1]), length - 1);
+        }
+    }
+
+    private long copyToFile(InputStream body, Path path) throws IOException {
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            byte[] buffer = new byte[joddHttpConfig.getDownloadBufferSize()];
+            long total = 0;
+            int count;
+            while ((count = body.read(buffer)) != -1) {
+                ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, count);
+                while (byteBuffer.hasRemaining()) {
+                    total += fileChannel.write(byteBuffer);
+                }
+            }
+            return total;
+        }
+    }
+
+    private static void moveToTarget(Path partPath, Path target) throws IOException {
+        Files.move(partPath, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * 校验分段响应的Content-Range，格式为{@code bytes start-end/total}，起止位置和总长度必须与请求完全一致
+     *
+     * @return Content-Range与请求一致时返回true，缺失、无法解析或者不一致时返回false
+     */
+    private static boolean isExpectedContentRange(String contentRange, long start, long end, long totalLength) {
+        if (contentRange == null) {
+            return false;
+        }
+        String value = contentRange.trim();
+        if (!value.regionMatches(true, 0, "bytes ", 0, 6)) {
+            return false;
+        }
+        int dashIndex = value.indexOf('-', 6);
+        int slashIndex = value.indexOf('/', dashIndex + 1);
+        if (dashIndex < 0 || slashIndex < 0) {
+            return false;
+        }
+        try {
+            return Long.parseLong(value.substring(6, dashIndex).trim()) == start
+                && Long.parseLong(value.substring(dashIndex + 1, slashIndex).trim()) == end
+                && Long.parseLong(value.substring(slashIndex + 1).trim()) == totalLength;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 解析Content-Range中的资源总长度，格式为{@code bytes 0-0/12345}
+     *
+     * @return 资源总长度，无法解析或总长度未知时返回-1
+     */
+    private static long parseTotalLength(String contentRange) {
+        if (contentRange == null) {
+            return -1;
+        }
+        int slashIndex = contentRange.lastIndexOf('/');
+        if (slashIndex < 0) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentRange.substring(slashIndex + 1).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.cqnu.exception;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * 熔断器打开时请求被直接拒绝的异常，请求没有发送到服务端
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+@Data
+@ToString(callSuper = true)
+@EqualsAndHashCode(callSuper = true)
+public class CircuitBreakerOpenException extends HttpRequestException {
+
+    /**
+     * 被熔断的host
+     */
+    private final String host;
+
+    public CircuitBreakerOpenException(String message, String host) {
+        super(message);
+        this.host = host;
+    }
+}
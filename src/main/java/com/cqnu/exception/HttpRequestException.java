@@ -1,26 +1,119 @@
-package com.cqnu.exception;
-
-import lombok.Data;
-import lombok.EqualsAndHashCode;
-import lombok.NoArgsConstructor;
-import lombok.ToString;
-
-/**
- * http异常类
- *
- * @author 山崎
- * @date 2019/9/18
- */
-@Data
-@NoArgsConstructor
-@ToString(callSuper = true)
-@EqualsAndHashCode(callSuper = true)
-public class HttpRequestException extends RuntimeException{
-    public HttpRequestException(String message) {
-        super(message);
-    }
-
-    public HttpRequestException(String message, Throwable cause) {
-        super(message, cause);
-    }
-}
+package com.cqnu.exception;
+
+import static com.cqnu.utill.Slf4jStyleFormatter.format;
+
+import com.cqnu.metrics.ValidationStep;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * http异常类。
+ * <p>
+ * 校验失败时会带有url、状态码、业务编码、失败的校验步骤和截断的响应体片段，
+ * 完整的异常信息在第一次调用{@link #getMessage()}时才生成，没有读取异常信息时不会解码响应体
+ *
+ * @author 山崎
+ * @date 2019/9/18
+ */
+@Data
+@NoArgsConstructor
+@Setter(AccessLevel.NONE)
+@ToString(callSuper = true)
+@EqualsAndHashCode(callSuper = true)
+public class HttpRequestException extends RuntimeException{
+
+    /**
+     * 失败原因，为null时异常信息即构造时传入的message
+     */
+    private String reason;
+
+    /**
+     * 请求的url
+     */
+    private String url;
+
+    /**
+     * http状态码
+     */
+    private Integer statusCode;
+
+    /**
+     * 响应体json中的业务编码，只有业务编码校验失败时才有值
+     */
+    private Integer businessCode;
+
+    /**
+     * 失败的校验步骤
+     */
+    private ValidationStep failedStep;
+
+    /**
+     * 截断的响应体片段
+     */
+    private ResponseBodySnippet responseBodySnippet;
+
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient volatile String renderedMessage;
+
+    public HttpRequestException(String message) {
+        super(message);
+    }
+
+    public HttpRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    /**
+     * 创建带有请求和响应信息的异常
+     *
+     * @param reason              失败原因
+     * @param failedStep          失败的校验步骤，可以为null
+     * @param url                 请求的url
+     * @param statusCode          http状态码，可以为null
+     * @param businessCode        响应体json中的业务编码，可以为null
+     * @param responseBodySnippet 截断的响应体片段，可以为null
+     * @param cause               异常原因，可以为null
+     */
+    public HttpRequestException(String reason, ValidationStep failedStep, String url, Integer statusCode,
+                                Integer businessCode, ResponseBodySnippet responseBodySnippet, Throwable cause) {
+        super(null, cause);
+        this.reason = reason;
+        this.failedStep = failedStep;
+        this.url = url;
+        this.statusCode = statusCode;
+        this.businessCode = businessCode;
+        this.responseBodySnippet = responseBodySnippet;
+    }
+
+    @Override
+    public String getMessage() {
+        if (reason == null) {
+            return super.getMessage();
+        }
+
+        String message = renderedMessage;
+        if (message == null) {
+            message = renderMessage();
+            renderedMessage = message;
+        }
+        return message;
+    }
+
+    private String renderMessage() {
+        StringBuilder message = new StringBuilder(format("{} url: [{}], statusCode: [{}]", reason, url, statusCode));
+        if (businessCode != null) {
+            message.append(format(", businessCode: [{}]", businessCode));
+        }
+        if (responseBodySnippet != null) {
+            message.append(format(", responseBodyText: [{}]", responseBodySnippet));
+        }
+        return message.toString();
+    }
+}
@@ -0,0 +1,118 @@
+package com.cqnu.exception;
+
+import static com.cqnu.utill.Slf4jStyleFormatter.format;
+
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 异常信息中的响应体片段，只保留响应体开头的部分字节，在第一次读取文本时才解码
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public final class ResponseBodySnippet implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 完整响应体的字节数未知
+     */
+    public static final long UNKNOWN_LENGTH = -1;
+
+    /**
+     * 截取的原始响应体，每个字符对应一个字节，参考{@code HttpResponse#bodyRaw()}
+     */
+    private final String rawSnippet;
+
+    /**
+     * 完整响应体的字节数，只解码了开头部分的压缩响应体无法得知解码后的长度，为{@link #UNKNOWN_LENGTH}
+     */
+    private final long bodyLength;
+
+    /**
+     * 字符集名称，{@link Charset}不能序列化
+     */
+    private final String charsetName;
+
+    private transient volatile String text;
+
+    private ResponseBodySnippet(String rawSnippet, long bodyLength, String charsetName) {
+        this.rawSnippet = rawSnippet;
+        this.bodyLength = bodyLength;
+        this.charsetName = charsetName;
+    }
+
+    /**
+     * 从jodd的原始响应体中截取片段，只复制不超过limit的部分
+     *
+     * @param raw     jodd的原始响应体，参考{@code HttpResponse#bodyRaw()}
+     * @param charset 解码使用的字符集，为null时使用utf-8
+     * @param limit   最多保留的字节数，小于等于0时不保留响应体
+     * @return 响应体片段，raw为null或者limit小于等于0时返回null
+     */
+    public static ResponseBodySnippet of(String raw, Charset charset, int limit) {
+        if (raw == null || limit <= 0) {
+            return null;
+        }
+        String rawSnippet = raw.length() > limit ? raw.substring(0, limit) : raw;
+        String charsetName = charset == null ? StandardCharsets.UTF_8.name() : charset.name();
+        return new ResponseBodySnippet(rawSnippet, raw.length(), charsetName);
+    }
+
+    /**
+     * 从解码后的响应体开头的字节创建片段，用于只解码了开头部分的压缩响应体
+     *
+     * @param bytes     解码后的响应体开头的字节
+     * @param length    有效的字节数
+     * @param truncated 响应体在这些字节之后是否还有内容，为true时完整的字节数未知
+     * @param charset   解码使用的字符集，为null时使用utf-8
+     * @return 响应体片段
+     */
+    public static ResponseBodySnippet of(byte[] bytes, int length, boolean truncated, Charset charset) {
+        String rawSnippet = new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+        String charsetName = charset == null ? StandardCharsets.UTF_8.name() : charset.name();
+        return new ResponseBodySnippet(rawSnippet, truncated ? UNKNOWN_LENGTH : length, charsetName);
+    }
+
+    /**
+     * 获取解码后的片段文本，多次调用只会解码一次。截断处的多字节字符可能被解码为替换字符
+     *
+     * @return 片段文本
+     */
+    public String getText() {
+        String result = text;
+        if (result == null) {
+            result = new String(rawSnippet.getBytes(StandardCharsets.ISO_8859_1), Charset.forName(charsetName));
+            text = result;
+        }
+        return result;
+    }
+
+    /**
+     * 获取完整响应体的字节数
+     *
+     * @return 完整响应体的字节数，未知时返回{@link #UNKNOWN_LENGTH}
+     */
+    public long getBodyLength() {
+        return bodyLength;
+    }
+
+    /**
+     * 判断片段是否只是响应体的一部分
+     *
+     * @return 响应体被截断时返回true
+     */
+    public boolean isTruncated() {
+        return bodyLength == UNKNOWN_LENGTH || rawSnippet.length() < bodyLength;
+    }
+
+    @Override
+    public String toString() {
+        if (!isTruncated()) {
+            return getText();
+        }
+        return bodyLength == UNKNOWN_LENGTH ? getText() + "..." : format("{}...(共{}字节)", getText(), bodyLength);
+    }
+}
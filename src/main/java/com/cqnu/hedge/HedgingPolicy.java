@@ -0,0 +1,198 @@
+package com.cqnu.hedge;
+
+import static com.cqnu.utill.Slf4jStyleFormatter.format;
+
+import com.cqnu.metrics.LogLinearHistogram;
+import com.cqnu.retry.RetryBudget;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 对冲请求策略，通过{@code JoddHttpConfig#setHedgingPolicy}配置，多个配置对象可以共用同一个实例。
+ * <p>
+ * 幂等的GET、HEAD请求在等待{@link #getHedgeDelayMillis()}后仍未收到响应时，会再发送一个相同的请求，
+ * 使用先完成的响应并取消另一个请求。对冲延迟在样本足够时取最近观测到的原始请求耗时的指定百分位，否则使用固定延迟。
+ * 只记录原始请求的耗时，不记录对冲后先完成的耗时，避免对冲本身拉低观测到的百分位；
+ * 耗时按样本数分段记录，只使用最近两段的样本，下游耗时变化后对冲延迟会随之调整。
+ * 对冲请求需要从令牌桶中取得令牌，对冲请求数不会超过原始请求数乘以令牌桶的比例，令牌桶与重试预算使用相同的实现
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public class HedgingPolicy {
+
+    /**
+     * 默认的固定对冲延迟，单位毫秒
+     */
+    public static final long DEFAULT_HEDGE_DELAY = 100;
+
+    /**
+     * 默认使用的耗时百分位
+     */
+    public static final double DEFAULT_LATENCY_PERCENTILE = 95;
+
+    /**
+     * 默认的对冲请求比例
+     */
+    public static final double DEFAULT_HEDGE_RATIO = 0.1;
+
+    /**
+     * 使用观测耗时所需的最少样本数
+     */
+    private static final long MIN_OBSERVED_SAMPLES = 100;
+
+    /**
+     * 每记录多少个样本重新计算一次对冲延迟，避免每个请求都遍历直方图
+     */
+    private static final long DELAY_REFRESH_INTERVAL = 100;
+
+    /**
+     * 每段记录的样本数，计算百分位时使用当前段和上一段，即最近500到1000个样本
+     */
+    private static final long WINDOW_SLICE_SAMPLES = 500;
+
+    private final long fixedHedgeDelayMillis;
+
+    private final double latencyPercentile;
+
+    private final RetryBudget hedgeBudget;
+
+    private final AtomicReference<LatencyWindow> observedLatency = new AtomicReference<>(new LatencyWindow(null));
+
+    private final AtomicLong sampleCount = new AtomicLong();
+
+    private final LongAdder requestCount = new LongAdder();
+
+    private final LongAdder hedgedCount = new LongAdder();
+
+    private final LongAdder hedgeWinCount = new LongAdder();
+
+    private volatile long observedHedgeDelayMillis = -1;
+
+    /**
+     * 创建对冲请求策略
+     *
+     * @param fixedHedgeDelayMillis 固定的对冲延迟，单位毫秒，观测样本不足时使用，必须大于0
+     * @param latencyPercentile     使用的观测耗时百分位，范围为0到100，为0时只使用固定延迟
+     * @param hedgeBudget           对冲请求的令牌桶，不能为null
+     * @throws IllegalArgumentException 当参数超出范围时，抛出此异常
+     */
+    public HedgingPolicy(long fixedHedgeDelayMillis, double latencyPercentile, RetryBudget hedgeBudget) {
+        if (fixedHedgeDelayMillis <= 0 || latencyPercentile < 0 || latencyPercentile > 100 || hedgeBudget == null) {
+            throw new IllegalArgumentException(format("对冲请求策略参数错误. fixedHedgeDelayMillis: [{}], latencyPercentile: [{}], hedgeBudget: [{}]",
+                fixedHedgeDelayMillis, latencyPercentile, hedgeBudget));
+        }
+        this.fixedHedgeDelayMillis = fixedHedgeDelayMillis;
+        this.latencyPercentile = latencyPercentile;
+        this.hedgeBudget = hedgeBudget;
+    }
+
+    /**
+     * 创建默认的对冲请求策略：样本足够时使用p95耗时作为对冲延迟，否则为100毫秒，对冲请求不超过原始请求的10%
+     *
+     * @return 对冲请求策略
+     */
+    public static HedgingPolicy newDefaultInstance() {
+        return new HedgingPolicy(DEFAULT_HEDGE_DELAY, DEFAULT_LATENCY_PERCENTILE,
+            new RetryBudget(DEFAULT_HEDGE_RATIO, RetryBudget.DEFAULT_MAX_RETRY_TOKENS));
+    }
+
+    /**
+     * 获取当前的对冲延迟
+     *
+     * @return 对冲延迟，单位毫秒
+     */
+    public long getHedgeDelayMillis() {
+        long observed = observedHedgeDelayMillis;
+        return observed > 0 ? observed : fixedHedgeDelayMillis;
+    }
+
+    /**
+     * 记录一个原始请求，为对冲请求存入令牌
+     */
+    public void recordRequest() {
+        requestCount.increment();
+        hedgeBudget.recordRequest();
+    }
+
+    /**
+     * 尝试为一次对冲请求消耗令牌
+     *
+     * @return 可以发送对冲请求时返回true
+     */
+    public boolean tryAcquireHedge() {
+        if (!hedgeBudget.tryAcquireRetry()) {
+            return false;
+        }
+        hedgedCount.increment();
+        return true;
+    }
+
+    /**
+     * 记录请求完成时原始请求的耗时
+     *
+     * @param primaryLatencyNanos 原始请求的耗时，单位纳秒。对冲请求先完成时为原始请求被取消前的耗时，是实际耗时的下界
+     * @param hedgeWon            是否为对冲请求先完成
+     */
+    public void recordCompletion(long primaryLatencyNanos, boolean hedgeWon) {
+        if (hedgeWon) {
+            hedgeWinCount.increment();
+        }
+        if (latencyPercentile <= 0) {
+            return;
+        }
+
+        LatencyWindow window = observedLatency.get();
+        window.current.record(TimeUnit.NANOSECONDS.toMicros(primaryLatencyNanos));
+        long count = sampleCount.incrementAndGet();
+        if (count % WINDOW_SLICE_SAMPLES == 0) {
+            // 只有记录到该序号的线程会切换，切换前后写入旧段的样本仍然包含在上一段中
+            observedLatency.compareAndSet(window, new LatencyWindow(window.current));
+        }
+        if (count >= MIN_OBSERVED_SAMPLES && count % DELAY_REFRESH_INTERVAL == 0) {
+            LatencyWindow latest = observedLatency.get();
+            long percentileMicros = latest.previous == null
+                ? latest.current.getValueAtPercentile(latencyPercentile)
+                : LogLinearHistogram.getValueAtPercentile(latencyPercentile, latest.current, latest.previous);
+            observedHedgeDelayMillis = Math.max(1, TimeUnit.MICROSECONDS.toMillis(percentileMicros));
+        }
+    }
+
+    public long getRequestCount() {
+        return requestCount.sum();
+    }
+
+    public long getHedgedCount() {
+        return hedgedCount.sum();
+    }
+
+    public long getHedgeWinCount() {
+        return hedgeWinCount.sum();
+    }
+
+    /**
+     * 获取发送了对冲请求的原始请求比例
+     *
+     * @return 对冲比例，没有请求时返回0
+     */
+    public double getHedgeRate() {
+        long requests = requestCount.sum();
+        return requests == 0 ? 0 : (double) hedgedCount.sum() / requests;
+    }
+
+    /**
+     * 按样本数分段的耗时窗口，切换时整体替换
+     */
+    private static final class LatencyWindow {
+
+        private final LogLinearHistogram current = new LogLinearHistogram();
+
+        private final LogLinearHistogram previous;
+
+        private LatencyWindow(LogLinearHistogram previous) {
+            this.previous = previous;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.cqnu.json;
+
+import com.alibaba.fastjson.JSONReader;
+import com.alibaba.fastjson.parser.JSONToken;
+import com.cqnu.constant.CommonConstant;
+import java.io.Closeable;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 从响应体的字符流中逐个读取data.list元素的迭代器，同一时间只有一个元素在内存中。
+ * <p>
+ * 顶层的code、data以及data下的list按出现的顺序读取，其余的字段会被跳过，
+ * 跳过的字段会被完整解析后丢弃，所以只有list的内存占用与元素数量无关。
+ * 读取到code时立即交给{@link ListValidation#onBusinessCode(Integer)}校验，
+ * code在data之后时，只有遍历完list才会校验code
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public final class JsonListReader<T> implements Iterator<T>, Closeable {
+
+    private static final int STATE_INIT = 0;
+
+    private static final int STATE_ROOT = 1;
+
+    private static final int STATE_DATA = 2;
+
+    private static final int STATE_LIST = 3;
+
+    private static final int STATE_DONE = 4;
+
+    private final JSONReader reader;
+
+    private final Type elementType;
+
+    private final ListValidation validation;
+
+    private int state = STATE_INIT;
+
+    private boolean codeFound;
+
+    /**
+     * data是否为非空的json对象
+     */
+    private boolean dataFound;
+
+    private long elementCount;
+
+    private T nextElement;
+
+    private boolean nextReady;
+
+    /**
+     * 创建迭代器，读取在第一次调用{@link #hasNext()}时开始
+     *
+     * @param reader      响应体的字符流
+     * @param elementType list元素的类型
+     * @param validation  code、data和list的校验逻辑
+     */
+    public JsonListReader(Reader reader, Type elementType, ListValidation validation) {
+        this.reader = new JSONReader(reader);
+        this.elementType = elementType;
+        this.validation = validation;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!nextReady && state != STATE_DONE) {
+            nextReady = advance();
+        }
+        return nextReady;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        nextReady = false;
+        T element = nextElement;
+        nextElement = null;
+        return element;
+    }
+
+    /**
+     * 读取到下一个list元素为止
+     *
+     * @return 读取到元素时返回true，响应体结束时返回false
+     */
+    private boolean advance() {
+        while (true) {
+            switch (state) {
+                case STATE_INIT:
+                    reader.startObject();
+                    state = STATE_ROOT;
+                    break;
+                case STATE_ROOT:
+                    if (!reader.hasNext()) {
+                        reader.endObject();
+                        state = STATE_DONE;
+                        if (!codeFound) {
+                            validation.onBusinessCode(null);
+                        }
+                        validation.onEnd(dataFound, elementCount);
+                        return false;
+                    }
+                    readRootField(reader.readString());
+                    break;
+                case STATE_DATA:
+                    if (!reader.hasNext()) {
+                        reader.endObject();
+                        state = STATE_ROOT;
+                        break;
+                    }
+                    dataFound = true;
+                    readDataField(reader.readString());
+                    break;
+                case STATE_LIST:
+                    if (reader.hasNext()) {
+                        nextElement = reader.readObject(elementType);
+                        elementCount++;
+                        return true;
+                    }
+                    reader.endArray();
+                    state = STATE_DATA;
+                    break;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    private void readRootField(String key) {
+        if (CommonConstant.JSON_KEY_BUSINESS_CODE.equals(key)) {
+            codeFound = true;
+            validation.onBusinessCode(reader.readInteger());
+        } else if (CommonConstant.JSON_KEY_DATA.equals(key) && reader.peek() == JSONToken.LBRACE) {
+            reader.startObject();
+            state = STATE_DATA;
+        } else {
+            reader.readObject();
+        }
+    }
+
+    private void readDataField(String key) {
+        if (CommonConstant.JSON_KEY_LIST.equals(key) && reader.peek() == JSONToken.LBRACKET) {
+            reader.startArray();
+            state = STATE_LIST;
+        } else {
+            reader.readObject();
+        }
+    }
+
+    @Override
+    public void close() {
+        state = STATE_DONE;
+        reader.close();
+    }
+
+    /**
+     * 流式读取list时的校验逻辑，抛出的异常会从{@link JsonListReader#hasNext()}抛出
+     */
+    public interface ListValidation {
+
+        /**
+         * 读取到code时调用，响应体中没有code时在结束时以null调用
+         *
+         * @param code 响应体json中的业务编码
+         */
+        void onBusinessCode(Integer code);
+
+        /**
+         * 响应体读取完毕时调用
+         *
+         * @param dataFound    data是否为非空的json对象
+         * @param elementCount list中的元素数量
+         */
+        void onEnd(boolean dataFound, long elementCount);
+    }
+}
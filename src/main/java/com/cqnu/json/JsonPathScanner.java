@@ -0,0 +1,321 @@
+package com.cqnu.json;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 按路径从响应体中按需提取json值的扫描器。
+ * <p>
+ * 直接扫描jodd保存的原始响应体（每个字符对应一个字节），只扫描到目标字段为止，
+ * 不相关的值只跳过不解析，也不会构建完整的json对象树。json的结构字符都是ascii，
+ * 所以utf-8等多字节编码的内容不会影响扫描，只有命中的值才会按响应的charset解码。
+ * <p>
+ * 路径格式为点号分隔的key，数组下标写在方括号中，例如{@code data.list[0].id}。
+ * 扫描器只会发现已扫描部分的格式错误，不保证整个响应体都是合法的json。
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public final class JsonPathScanner {
+
+    /**
+     * 已编译的路径缓存的最大数量，超过后不再缓存
+     */
+    private static final int MAX_CACHED_PATHS = 1024;
+
+    private static final ConcurrentMap<String, List<Object>> COMPILED_PATHS = new ConcurrentHashMap<>();
+
+    private final String raw;
+
+    private final Charset charset;
+
+    private int pos;
+
+    private JsonPathScanner(String raw, Charset charset) {
+        this.raw = raw;
+        this.charset = charset;
+    }
+
+    /**
+     * 在原始响应体中查找路径对应的值
+     *
+     * @param raw     原始响应体，每个字符对应一个字节，参考{@code HttpResponse#bodyRaw()}
+     * @param charset 响应体的编码，为null时不解码
+     * @param path    值的路径，例如{@code data.list[0].id}
+     * @return 路径对应的值，路径不存在或者类型不匹配时返回null
+     * @throws JSONException 扫描过程中遇到格式错误或者路径格式错误时，抛出此异常
+     */
+    public static JsonValueSpan find(String raw, Charset charset, String path) {
+        if (raw == null) {
+            return null;
+        }
+        return new JsonPathScanner(raw, charset).find(compile(path));
+    }
+
+    private JsonValueSpan find(List<Object> segments) {
+        skipWhitespace();
+        for (Object segment : segments) {
+            boolean found = segment instanceof String ? enterKey((String) segment) : enterIndex((Integer) segment);
+            if (!found) {
+                return null;
+            }
+        }
+
+        int start = pos;
+        skipValue();
+        return new JsonValueSpan(raw, start, pos, charset);
+    }
+
+    /**
+     * 当前位置为json对象时，移动到指定key对应的值的开头
+     *
+     * @return key存在时返回true
+     */
+    private boolean enterKey(String key) {
+        if (peek() != '{') {
+            return false;
+        }
+        pos++;
+        skipWhitespace();
+        if (peek() == '}') {
+            return false;
+        }
+
+        while (true) {
+            expect('"');
+            int keyStart = pos;
+            skipString();
+            int keyEnd = pos - 1;
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+
+            if (keyEquals(keyStart, keyEnd, key)) {
+                return true;
+            }
+
+            skipValue();
+            skipWhitespace();
+            char c = next();
+            if (c == '}') {
+                return false;
+            }
+            if (c != ',') {
+                throw error("json对象中缺少逗号或右花括号");
+            }
+            skipWhitespace();
+        }
+    }
+
+    /**
+     * 当前位置为json数组时，移动到指定下标的元素的开头
+     *
+     * @return 下标存在时返回true
+     */
+    private boolean enterIndex(int index) {
+        if (peek() != '[') {
+            return false;
+        }
+        pos++;
+        skipWhitespace();
+        if (peek() == ']') {
+            return false;
+        }
+
+        for (int i = 0; i < index; i++) {
+            skipValue();
+            skipWhitespace();
+            char c = next();
+            if (c == ']') {
+                return false;
+            }
+            if (c != ',') {
+                throw error("json数组中缺少逗号或右方括号");
+            }
+            skipWhitespace();
+        }
+        return true;
+    }
+
+    /**
+     * 跳过当前位置的一个完整的json值
+     */
+    private void skipValue() {
+        char c = peek();
+        if (c == '"') {
+            pos++;
+            skipString();
+        } else if (c == '{' || c == '[') {
+            skipContainer();
+        } else {
+            int start = pos;
+            while (pos < raw.length() && !isLiteralEnd(raw.charAt(pos))) {
+                pos++;
+            }
+            if (pos == start) {
+                throw error("缺少json值");
+            }
+        }
+    }
+
+    /**
+     * 跳过字符串的剩余部分，调用前已跳过开头的引号，结束后位于结尾引号之后
+     */
+    private void skipString() {
+        while (pos < raw.length()) {
+            char c = raw.charAt(pos++);
+            if (c == '\\') {
+                pos++;
+            } else if (c == '"') {
+                return;
+            }
+        }
+        throw error("json字符串未结束");
+    }
+
+    private void skipContainer() {
+        int depth = 0;
+        while (pos < raw.length()) {
+            char c = raw.charAt(pos++);
+            if (c == '"') {
+                skipString();
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                if (--depth == 0) {
+                    return;
+                }
+            }
+        }
+        throw error("json对象或数组未结束");
+    }
+
+    private boolean keyEquals(int keyStart, int keyEnd, String key) {
+        boolean plain = true;
+        for (int i = keyStart; i < keyEnd; i++) {
+            char c = raw.charAt(i);
+            if (c == '\\' || c >= 0x80) {
+                plain = false;
+                break;
+            }
+        }
+        if (plain) {
+            return keyEnd - keyStart == key.length() && raw.regionMatches(keyStart, key, 0, key.length());
+        }
+
+        String decoded = JsonValueSpan.decode(raw, keyStart - 1, keyEnd + 1, charset);
+        return key.equals(JSON.parseObject(decoded, String.class));
+    }
+
+    private static boolean isLiteralEnd(char c) {
+        return c == ',' || c == '}' || c == ']' || Character.isWhitespace(c);
+    }
+
+    private void skipWhitespace() {
+        while (pos < raw.length() && Character.isWhitespace(raw.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private char peek() {
+        if (pos >= raw.length()) {
+            throw error("json意外结束");
+        }
+        return raw.charAt(pos);
+    }
+
+    private char next() {
+        char c = peek();
+        pos++;
+        return c;
+    }
+
+    private void expect(char expected) {
+        if (next() != expected) {
+            throw error("期望字符'" + expected + "'");
+        }
+    }
+
+    /**
+     * 在已经解析的json对象中按同样的路径格式取值，用于已经完整解析响应体的场景，避免再次扫描原始响应体
+     *
+     * @param root 已经解析的json对象或者json数组，可以为null
+     * @param path 值的路径，例如{@code data.list[0].id}
+     * @return 路径对应的值，路径不存在或者类型不匹配时返回null
+     * @throws JSONException 路径格式错误时，抛出此异常
+     */
+    public static Object evaluate(Object root, String path) {
+        Object current = root;
+        for (Object segment : compile(path)) {
+            if (segment instanceof String && current instanceof Map) {
+                current = ((Map<?, ?>) current).get(segment);
+            } else if (segment instanceof Integer && current instanceof List) {
+                List<?> list = (List<?>) current;
+                int index = (Integer) segment;
+                current = index < list.size() ? list.get(index) : null;
+            } else {
+                return null;
+            }
+        }
+        return current;
+    }
+
+    private JSONException error(String message) {
+        return new JSONException(message + ", pos " + pos);
+    }
+
+    /**
+     * 将路径编译为key和下标组成的列表
+     *
+     * @param path 值的路径，不能为空
+     * @return key(String)和下标(Integer)组成的列表
+     * @throws JSONException 路径格式错误时，抛出此异常
+     */
+    static List<Object> compile(String path) {
+        if (path == null || path.isEmpty()) {
+            throw new JSONException("json路径不能为空");
+        }
+
+        List<Object> cached = COMPILED_PATHS.get(path);
+        if (cached != null) {
+            return cached;
+        }
+
+        List<Object> segments = new ArrayList<>();
+        for (String part : path.split("\\.", -1)) {
+            int bracketIndex = part.indexOf('[');
+            String key = bracketIndex >= 0 ? part.substring(0, bracketIndex) : part;
+            if (!key.isEmpty()) {
+                segments.add(key);
+            } else if (bracketIndex != 0) {
+                throw new JSONException("json路径格式错误: " + path);
+            }
+
+            while (bracketIndex >= 0) {
+                int closeIndex = part.indexOf(']', bracketIndex);
+                if (closeIndex < 0) {
+                    throw new JSONException("json路径格式错误: " + path);
+                }
+                try {
+                    segments.add(Integer.parseInt(part.substring(bracketIndex + 1, closeIndex)));
+                } catch (NumberFormatException e) {
+                    throw new JSONException("json路径中的数组下标错误: " + path, e);
+                }
+                bracketIndex = part.indexOf('[', closeIndex);
+            }
+        }
+
+        List<Object> compiled = Collections.unmodifiableList(segments);
+        if (COMPILED_PATHS.size() < MAX_CACHED_PATHS) {
+            COMPILED_PATHS.putIfAbsent(path, compiled);
+        }
+        return compiled;
+    }
+}
@@ -0,0 +1,202 @@
+package com.cqnu.json;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONException;
+import com.alibaba.fastjson.JSONObject;
+import com.alibaba.fastjson.parser.DefaultJSONParser;
+import com.alibaba.fastjson.parser.Feature;
+import com.alibaba.fastjson.parser.JSONReaderScanner;
+import com.alibaba.fastjson.parser.ParserConfig;
+import com.cqnu.constant.CommonConstant;
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 响应体json的单次解析结果。
+ * <p>
+ * 响应体只会被解析一次，得到完整的json对象，json格式校验、code、data、list节点的校验以及json对象的获取都直接使用该对象，
+ * 不再重复扫描响应体文本。
+ * 解析的同时由{@link StrictJsonValidator}按RFC 8259校验json格式，校验或者解析失败即视为json格式错误，
+ * fastjson接受的末尾多余的逗号、注释以及NaN、undefined等非标准写法都会被拒绝。
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public final class JsonResponseBody {
+
+    /**
+     * 解析得到的json值，可能是json对象、json数组或者基本类型
+     */
+    private final Object parsedValue;
+
+    /**
+     * 解析失败时的异常，解析成功时为null
+     */
+    private final JSONException parseException;
+
+    /**
+     * 解析使用的fastjson特性，在默认特性的基础上关闭单引号、没有引号的key以及连续的逗号，格式校验以{@link StrictJsonValidator}为准
+     */
+    private static final int STRICT_PARSER_FEATURES;
+
+    static {
+        int features = JSON.DEFAULT_PARSER_FEATURE;
+        features = Feature.config(features, Feature.AllowSingleQuotes, false);
+        features = Feature.config(features, Feature.AllowUnQuotedFieldNames, false);
+        features = Feature.config(features, Feature.AllowArbitraryCommas, false);
+        STRICT_PARSER_FEATURES = features;
+    }
+
+    private JsonResponseBody(Object parsedValue, JSONException parseException) {
+        this.parsedValue = parsedValue;
+        this.parseException = parseException;
+    }
+
+    /**
+     * 对响应体文本进行一次完整的严格解析，json格式错误时不抛出异常，而是记录在解析结果中。
+     *
+     * @param bodyText 响应体文本，可以为null
+     * @return 响应体json的解析结果
+     */
+    public static JsonResponseBody parse(String bodyText) {
+        if (bodyText == null || bodyText.isEmpty()) {
+            return new JsonResponseBody(null, new JSONException("响应体为空，无法解析json"));
+        }
+
+        try {
+            StrictJsonValidator.validate(bodyText);
+            return new JsonResponseBody(JSON.parse(bodyText, STRICT_PARSER_FEATURES), null);
+        } catch (JSONException e) {
+            return new JsonResponseBody(null, e);
+        } catch (RuntimeException e) {
+            // fastjson转换数值等失败时抛出的不是JSONException
+            return new JsonResponseBody(null, new JSONException(e.getMessage(), e));
+        }
+    }
+
+    /**
+     * 从字符流中进行一次完整的严格解析，边读取边解析，不会生成完整的响应体文本，其余同{@link #parse(String)}。
+     * 读取字符流失败时，记录的{@link JSONException}的cause为对应的{@link IOException}
+     *
+     * @param reader 响应体的字符流，不能为null，解析结束后会被关闭
+     * @return 响应体json的解析结果
+     */
+    public static JsonResponseBody parse(Reader reader) {
+        try {
+            // 与parse(String)一致，只有完全为空的响应体视为空，只包含空白字符时按格式错误处理
+            StrictJsonValidator.ValidatingReader validatingReader = StrictJsonValidator.wrap(reader);
+            PushbackReader pushbackReader = new PushbackReader(validatingReader, 1);
+            int first = pushbackReader.read();
+            if (first == -1) {
+                pushbackReader.close();
+                return new JsonResponseBody(null, new JSONException("响应体为空，无法解析json"));
+            }
+            pushbackReader.unread(first);
+
+            DefaultJSONParser parser = new DefaultJSONParser(new JSONReaderScanner(pushbackReader, STRICT_PARSER_FEATURES),
+                ParserConfig.getGlobalInstance());
+            Object parsedValue = parser.parse();
+            parser.handleResovleTask(parsedValue);
+            // 读完fastjson没有读取的部分，末尾多余的内容同样是格式错误
+            validatingReader.finish();
+            parser.close();
+            return new JsonResponseBody(parsedValue, null);
+        } catch (IOException e) {
+            return new JsonResponseBody(null, new JSONException(e.getMessage(), e));
+        } catch (JSONException e) {
+            return new JsonResponseBody(null, e);
+        } catch (RuntimeException e) {
+            return new JsonResponseBody(null, new JSONException(e.getMessage(), e));
+        }
+    }
+
+    /**
+     * 复制解析结果，json对象和json数组逐层复制，字符串、数字等不可变的值只复制引用。
+     * 复制比重新解析响应体开销小，用于多个请求共用同一个解析结果的场景，每个请求修改自己的副本不会影响其他请求
+     *
+     * @return 新的解析结果，解析失败时返回当前对象
+     */
+    public JsonResponseBody copy() {
+        return parseException != null ? this : new JsonResponseBody(deepCopy(parsedValue), null);
+    }
+
+    private static Object deepCopy(Object value) {
+        if (value instanceof JSONObject) {
+            JSONObject source = (JSONObject) value;
+            JSONObject copy = new JSONObject(source.size(), source.getInnerMap() instanceof LinkedHashMap);
+            for (Map.Entry<String, Object> entry : source.entrySet()) {
+                copy.put(entry.getKey(), deepCopy(entry.getValue()));
+            }
+            return copy;
+        }
+        if (value instanceof JSONArray) {
+            JSONArray source = (JSONArray) value;
+            JSONArray copy = new JSONArray(source.size());
+            for (Object element : source) {
+                copy.add(deepCopy(element));
+            }
+            return copy;
+        }
+        return value;
+    }
+
+    /**
+     * 获取解析失败时的异常，即json格式校验的结果
+     *
+     * @return 解析失败时的异常，json格式正确时返回null
+     */
+    public JSONException getParseException() {
+        return parseException;
+    }
+
+    /**
+     * 获取响应体对应的json对象
+     *
+     * @return 响应体对应的json对象，响应体为json字面量null时返回null
+     * @throws JSONException 当响应体json格式错误或者不是json对象时，抛出此异常
+     */
+    public JSONObject getJsonObject() {
+        if (parseException != null) {
+            throw parseException;
+        }
+        if (parsedValue == null || parsedValue instanceof JSONObject) {
+            return (JSONObject) parsedValue;
+        }
+
+        throw new JSONException("响应体不是json对象. type: " + parsedValue.getClass().getName());
+    }
+
+    /**
+     * 获取响应体json中的业务编码code，key参考{@link CommonConstant#JSON_KEY_BUSINESS_CODE}
+     *
+     * @return 业务编码code，不存在时返回null
+     */
+    public Integer getBusinessCode() {
+        JSONObject jsonObject = getJsonObject();
+        return jsonObject == null ? null : jsonObject.getInteger(CommonConstant.JSON_KEY_BUSINESS_CODE);
+    }
+
+    /**
+     * 获取响应体json中的data节点，key参考{@link CommonConstant#JSON_KEY_DATA}
+     *
+     * @return data节点，不存在时返回null
+     */
+    public JSONObject getDataJsonObject() {
+        JSONObject jsonObject = getJsonObject();
+        return jsonObject == null ? null : jsonObject.getJSONObject(CommonConstant.JSON_KEY_DATA);
+    }
+
+    /**
+     * 获取响应体json中data下的list节点，key参考{@link CommonConstant#JSON_KEY_LIST}
+     *
+     * @return list节点，data或list不存在时返回null
+     */
+    public JSONArray getListJsonArray() {
+        JSONObject data = getDataJsonObject();
+        return data == null ? null : data.getJSONArray(CommonConstant.JSON_KEY_LIST);
+    }
+}
@@ -0,0 +1,119 @@
+package com.cqnu.json;
+
+import com.alibaba.fastjson.JSON;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link JsonPathScanner}找到的json值在原始响应体中的位置，只有需要时才解码和解析
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public final class JsonValueSpan {
+
+    private final String raw;
+
+    private final int start;
+
+    private final int end;
+
+    private final Charset charset;
+
+    JsonValueSpan(String raw, int start, int end, Charset charset) {
+        this.raw = raw;
+        this.start = start;
+        this.end = end;
+        this.charset = charset;
+    }
+
+    /**
+     * 是否为json字面量null
+     *
+     * @return 为null时返回true
+     */
+    public boolean isNull() {
+        return end - start == 4 && raw.startsWith("null", start);
+    }
+
+    /**
+     * 是否为json对象
+     *
+     * @return 为json对象时返回true
+     */
+    public boolean isObject() {
+        return raw.charAt(start) == '{';
+    }
+
+    /**
+     * 是否为json数组
+     *
+     * @return 为json数组时返回true
+     */
+    public boolean isArray() {
+        return raw.charAt(start) == '[';
+    }
+
+    /**
+     * 是否为空的json对象或者空的json数组，不需要解析其内容
+     *
+     * @return 为空对象或空数组时返回true
+     */
+    public boolean isEmptyContainer() {
+        if (!isObject() && !isArray()) {
+            return false;
+        }
+        for (int i = start + 1; i < end - 1; i++) {
+            if (!Character.isWhitespace(raw.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 获取解码后的json文本
+     *
+     * @return 值对应的json文本
+     */
+    public String getText() {
+        return decode(raw, start, end, charset);
+    }
+
+    /**
+     * 将值解析为fastjson的对象，json对象为{@code JSONObject}，json数组为{@code JSONArray}
+     *
+     * @return 解析后的值
+     */
+    public Object getValue() {
+        return JSON.parse(getText());
+    }
+
+    /**
+     * 将值绑定为指定类型
+     *
+     * @param type 目标类型
+     * @return 绑定后的对象
+     */
+    public <T> T getValue(Type type) {
+        return JSON.parseObject(getText(), type);
+    }
+
+    /**
+     * 按charset解码原始响应体中的一段，纯ascii的内容直接截取
+     */
+    static String decode(String raw, int start, int end, Charset charset) {
+        boolean ascii = true;
+        for (int i = start; i < end; i++) {
+            if (raw.charAt(i) >= 0x80) {
+                ascii = false;
+                break;
+            }
+        }
+        if (ascii || charset == null) {
+            return raw.substring(start, end);
+        }
+        return new String(raw.substring(start, end).getBytes(StandardCharsets.ISO_8859_1), charset);
+    }
+}
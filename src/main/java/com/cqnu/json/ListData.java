@@ -0,0 +1,21 @@
+package com.cqnu.json;
+
+import com.cqnu.constant.CommonConstant;
+import java.util.List;
+import lombok.Data;
+
+/**
+ * 响应体json中data节点的列表结构，字段名与{@link CommonConstant#JSON_KEY_LIST}一致
+ *
+ * @param <T> list元素的类型
+ * @author 山崎
+ * @date 2026/10/16
+ */
+@Data
+public class ListData<T> {
+
+    /**
+     * list节点
+     */
+    private List<T> list;
+}
@@ -0,0 +1,26 @@
+package com.cqnu.json;
+
+import com.cqnu.constant.CommonConstant;
+import lombok.Data;
+
+/**
+ * 响应体json的外层结构，用于将data节点直接绑定为目标类型，不再经过中间的json对象。
+ * 字段名与{@link CommonConstant#JSON_KEY_BUSINESS_CODE}、{@link CommonConstant#JSON_KEY_DATA}一致
+ *
+ * @param <T> data节点的类型
+ * @author 山崎
+ * @date 2026/10/16
+ */
+@Data
+public class ResponseEnvelope<T> {
+
+    /**
+     * 业务编码
+     */
+    private Integer code;
+
+    /**
+     * data节点
+     */
+    private T data;
+}
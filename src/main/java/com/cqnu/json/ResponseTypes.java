@@ -0,0 +1,47 @@
+package com.cqnu.json;
+
+import com.alibaba.fastjson.util.ParameterizedTypeImpl;
+import java.lang.reflect.Type;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 绑定响应体时使用的泛型类型缓存。
+ * <p>
+ * 同一个目标类型每次都返回同一个{@link Type}实例，fastjson按类型缓存的反序列化器可以直接命中，
+ * 也避免每次请求都创建新的泛型类型对象。
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public final class ResponseTypes {
+
+    private static final ConcurrentMap<Type, Type> ENVELOPE_TYPES = new ConcurrentHashMap<>();
+
+    private static final ConcurrentMap<Type, Type> LIST_ENVELOPE_TYPES = new ConcurrentHashMap<>();
+
+    private ResponseTypes() {
+    }
+
+    /**
+     * 获取{@code ResponseEnvelope<dataType>}类型
+     *
+     * @param dataType data节点的类型
+     * @return 外层结构的泛型类型
+     */
+    public static Type envelopeOf(Type dataType) {
+        return ENVELOPE_TYPES.computeIfAbsent(dataType,
+            type -> new ParameterizedTypeImpl(new Type[]{type}, null, ResponseEnvelope.class));
+    }
+
+    /**
+     * 获取{@code ResponseEnvelope<ListData<elementType>>}类型
+     *
+     * @param elementType list元素的类型
+     * @return 外层结构的泛型类型
+     */
+    public static Type listEnvelopeOf(Type elementType) {
+        return LIST_ENVELOPE_TYPES.computeIfAbsent(elementType, type -> new ParameterizedTypeImpl(
+            new Type[]{new ParameterizedTypeImpl(new Type[]{type}, null, ListData.class)}, null, ResponseEnvelope.class));
+    }
+}
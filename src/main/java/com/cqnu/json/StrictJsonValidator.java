@@ -0,0 +1,460 @@
+package com.cqnu.json;
+
+import com.alibaba.fastjson.JSONException;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * 按RFC 8259逐字符校验json格式的校验器。
+ * <p>
+ * fastjson即使关闭了宽松特性，仍然接受对象和数组末尾多余的逗号、注释、NaN、undefined、new Date(...)、Set[...]、
+ * x'..'等非标准写法，解析成功并不代表json格式正确，所以格式校验由该校验器完成。
+ * 校验器只保存嵌套层级和当前token的状态，不缓存响应体，可以在fastjson读取字符流的同时进行校验，
+ * 参考{@link #wrap(Reader)}。
+ * <p>
+ * 按RFC 8259，字符串中不能出现未转义的控制字符，数字不能有前导0，响应体只能包含一个json值。
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public final class StrictJsonValidator {
+
+    private static final byte IN_OBJECT = 1;
+
+    private static final byte IN_ARRAY = 2;
+
+    private static final int VALUE = 0;
+
+    private static final int VALUE_OR_ARRAY_END = 1;
+
+    private static final int KEY_OR_OBJECT_END = 2;
+
+    private static final int KEY = 3;
+
+    private static final int COLON = 4;
+
+    private static final int AFTER_VALUE = 5;
+
+    private static final int STRING = 6;
+
+    private static final int STRING_ESCAPE = 7;
+
+    private static final int STRING_UNICODE = 8;
+
+    private static final int LITERAL = 9;
+
+    private static final int NUMBER_MINUS = 10;
+
+    private static final int NUMBER_ZERO = 11;
+
+    private static final int NUMBER_INT = 12;
+
+    private static final int NUMBER_DOT = 13;
+
+    private static final int NUMBER_FRACTION = 14;
+
+    private static final int NUMBER_EXPONENT = 15;
+
+    private static final int NUMBER_EXPONENT_SIGN = 16;
+
+    private static final int NUMBER_EXPONENT_DIGITS = 17;
+
+    private int state = VALUE;
+
+    /**
+     * 嵌套的对象和数组，元素为{@link #IN_OBJECT}或{@link #IN_ARRAY}
+     */
+    private byte[] containers = new byte[16];
+
+    private int depth;
+
+    /**
+     * 当前字符串是否为对象的key
+     */
+    private boolean isKey;
+
+    /**
+     * 正在匹配的true、false或null，以及已经匹配的字符数
+     */
+    private String literal;
+
+    private int literalIndex;
+
+    /**
+     * \\u转义还需要的十六进制字符数
+     */
+    private int unicodeRemaining;
+
+    /**
+     * 已经校验的字符数，用于错误信息
+     */
+    private long pos;
+
+    /**
+     * 完整校验一段json文本
+     *
+     * @param text json文本，不能为null
+     * @throws JSONException json格式不符合RFC 8259时，抛出此异常
+     */
+    public static void validate(CharSequence text) {
+        StrictJsonValidator validator = new StrictJsonValidator();
+        for (int i = 0, length = text.length(); i < length; i++) {
+            validator.accept(text.charAt(i));
+        }
+        validator.finish();
+    }
+
+    /**
+     * 包装字符流，读取的字符在返回之前经过校验，读到流结束时校验json是否完整。
+     * 调用方需要读到流结束，或者在读取完毕后调用{@link ValidatingReader#finish()}，才能发现末尾多余的内容
+     *
+     * @param reader 被包装的字符流
+     * @return 校验中的字符流，格式错误时读取方法抛出{@link JSONException}
+     */
+    public static ValidatingReader wrap(Reader reader) {
+        return new ValidatingReader(reader);
+    }
+
+    private void accept(char c) {
+        pos++;
+        switch (state) {
+            case STRING:
+                acceptStringChar(c);
+                return;
+            case STRING_ESCAPE:
+                acceptEscape(c);
+                return;
+            case STRING_UNICODE:
+                if (Character.digit(c, 16) < 0) {
+                    throw error(c);
+                }
+                if (--unicodeRemaining == 0) {
+                    state = STRING;
+                }
+                return;
+            case LITERAL:
+                if (c != literal.charAt(literalIndex++)) {
+                    throw error(c);
+                }
+                if (literalIndex == literal.length()) {
+                    state = AFTER_VALUE;
+                }
+                return;
+            case NUMBER_MINUS:
+            case NUMBER_ZERO:
+            case NUMBER_INT:
+            case NUMBER_DOT:
+            case NUMBER_FRACTION:
+            case NUMBER_EXPONENT:
+            case NUMBER_EXPONENT_SIGN:
+            case NUMBER_EXPONENT_DIGITS:
+                if (acceptNumberChar(c)) {
+                    return;
+                }
+                // 数字结束，当前字符按数字之后的位置处理
+                state = AFTER_VALUE;
+                break;
+            default:
+                break;
+        }
+
+        if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+            return;
+        }
+        switch (state) {
+            case VALUE:
+                acceptValueStart(c);
+                break;
+            case VALUE_OR_ARRAY_END:
+                if (c == ']') {
+                    closeContainer(IN_ARRAY, c);
+                } else {
+                    acceptValueStart(c);
+                }
+                break;
+            case KEY_OR_OBJECT_END:
+                if (c == '}') {
+                    closeContainer(IN_OBJECT, c);
+                } else {
+                    acceptKeyStart(c);
+                }
+                break;
+            case KEY:
+                acceptKeyStart(c);
+                break;
+            case COLON:
+                if (c != ':') {
+                    throw error(c);
+                }
+                state = VALUE;
+                break;
+            case AFTER_VALUE:
+                acceptAfterValue(c);
+                break;
+            default:
+                throw error(c);
+        }
+    }
+
+    private void acceptValueStart(char c) {
+        switch (c) {
+            case '{':
+                openContainer(IN_OBJECT);
+                state = KEY_OR_OBJECT_END;
+                break;
+            case '[':
+                openContainer(IN_ARRAY);
+                state = VALUE_OR_ARRAY_END;
+                break;
+            case '"':
+                isKey = false;
+                state = STRING;
+                break;
+            case 't':
+                startLiteral("true");
+                break;
+            case 'f':
+                startLiteral("false");
+                break;
+            case 'n':
+                startLiteral("null");
+                break;
+            case '-':
+                state = NUMBER_MINUS;
+                break;
+            case '0':
+                state = NUMBER_ZERO;
+                break;
+            default:
+                if (c >= '1' && c <= '9') {
+                    state = NUMBER_INT;
+                    break;
+                }
+                throw error(c);
+        }
+    }
+
+    private void acceptKeyStart(char c) {
+        if (c != '"') {
+            throw error(c);
+        }
+        isKey = true;
+        state = STRING;
+    }
+
+    private void acceptAfterValue(char c) {
+        if (depth == 0) {
+            throw error(c);
+        }
+        byte container = containers[depth - 1];
+        if (c == ',') {
+            state = container == IN_OBJECT ? KEY : VALUE;
+        } else if (c == '}' || c == ']') {
+            closeContainer(c == '}' ? IN_OBJECT : IN_ARRAY, c);
+        } else {
+            throw error(c);
+        }
+    }
+
+    private void acceptStringChar(char c) {
+        if (c == '"') {
+            state = isKey ? COLON : AFTER_VALUE;
+        } else if (c == '\\') {
+            state = STRING_ESCAPE;
+        } else if (c < 0x20) {
+            throw error(c);
+        }
+    }
+
+    private void acceptEscape(char c) {
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+            case 'b':
+            case 'f':
+            case 'n':
+            case 'r':
+            case 't':
+                state = STRING;
+                break;
+            case 'u':
+                unicodeRemaining = 4;
+                state = STRING_UNICODE;
+                break;
+            default:
+                throw error(c);
+        }
+    }
+
+    /**
+     * 校验数字中的字符
+     *
+     * @return 字符属于当前数字时返回true，数字已经结束时返回false
+     */
+    private boolean acceptNumberChar(char c) {
+        boolean isDigit = c >= '0' && c <= '9';
+        switch (state) {
+            case NUMBER_MINUS:
+                if (c == '0') {
+                    state = NUMBER_ZERO;
+                } else if (isDigit) {
+                    state = NUMBER_INT;
+                } else {
+                    throw error(c);
+                }
+                return true;
+            case NUMBER_ZERO:
+            case NUMBER_INT:
+                if (isDigit && state == NUMBER_INT) {
+                    return true;
+                }
+                if (isDigit) {
+                    throw error(c);
+                }
+                if (c == '.') {
+                    state = NUMBER_DOT;
+                    return true;
+                }
+                return acceptExponentStart(c);
+            case NUMBER_DOT:
+                if (!isDigit) {
+                    throw error(c);
+                }
+                state = NUMBER_FRACTION;
+                return true;
+            case NUMBER_FRACTION:
+                return isDigit || acceptExponentStart(c);
+            case NUMBER_EXPONENT:
+                if (c == '+' || c == '-') {
+                    state = NUMBER_EXPONENT_SIGN;
+                    return true;
+                }
+                // fall through
+            case NUMBER_EXPONENT_SIGN:
+                if (!isDigit) {
+                    throw error(c);
+                }
+                state = NUMBER_EXPONENT_DIGITS;
+                return true;
+            default:
+                return isDigit;
+        }
+    }
+
+    private boolean acceptExponentStart(char c) {
+        if (c == 'e' || c == 'E') {
+            state = NUMBER_EXPONENT;
+            return true;
+        }
+        return false;
+    }
+
+    private void startLiteral(String value) {
+        literal = value;
+        literalIndex = 1;
+        state = LITERAL;
+    }
+
+    private void openContainer(byte container) {
+        if (depth == containers.length) {
+            containers = Arrays.copyOf(containers, depth * 2);
+        }
+        containers[depth++] = container;
+    }
+
+    private void closeContainer(byte container, char c) {
+        if (depth == 0 || containers[depth - 1] != container) {
+            throw error(c);
+        }
+        depth--;
+        state = AFTER_VALUE;
+    }
+
+    /**
+     * 输入结束，校验是否恰好是一个完整的json值
+     *
+     * @throws JSONException json不完整时，抛出此异常
+     */
+    private void finish() {
+        boolean isNumberEnd = state == NUMBER_ZERO || state == NUMBER_INT || state == NUMBER_FRACTION
+            || state == NUMBER_EXPONENT_DIGITS;
+        if (depth != 0 || !(state == AFTER_VALUE || isNumberEnd)) {
+            throw new JSONException("json格式错误，内容不完整, pos " + pos);
+        }
+    }
+
+    private JSONException error(char c) {
+        String character = c < 0x20 ? String.format("\\u%04x", (int) c) : String.valueOf(c);
+        return new JSONException("json格式错误，不符合RFC 8259的字符 '" + character + "', pos " + pos);
+    }
+
+    /**
+     * 边读取边校验的字符流，参考{@link StrictJsonValidator#wrap(Reader)}
+     */
+    public static final class ValidatingReader extends FilterReader {
+
+        private final StrictJsonValidator validator = new StrictJsonValidator();
+
+        private boolean finished;
+
+        private ValidatingReader(Reader reader) {
+            super(reader);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int c = super.read();
+            if (c == -1) {
+                finishOnce();
+            } else {
+                validator.accept((char) c);
+            }
+            return c;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            int count = super.read(buffer, offset, length);
+            if (count == -1) {
+                finishOnce();
+            }
+            for (int i = 0; i < count; i++) {
+                validator.accept(buffer[offset + i]);
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            throw new IOException("校验中的字符流不支持skip");
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        /**
+         * 读取并校验剩余的字符，然后校验json是否完整
+         *
+         * @throws IOException     读取失败时，抛出此异常
+         * @throws JSONException json格式不符合RFC 8259时，抛出此异常
+         */
+        public void finish() throws IOException {
+            char[] buffer = new char[1024];
+            while (read(buffer, 0, buffer.length) != -1) {
+                // 只为校验剩余的字符
+            }
+        }
+
+        private void finishOnce() {
+            if (!finished) {
+                finished = true;
+                validator.finish();
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.cqnu.metrics;
+
+import com.cqnu.utill.HttpStatus;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一个host或者一个路由的请求指标，时间类直方图的单位为微秒，大小类直方图的单位为字节
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public final class HttpMetrics {
+
+    private static final int NANOS_PER_MICRO = 1000;
+
+    /**
+     * 校验规则数量上限，超过后新的规则计入{@link InMemoryHttpMetricsRecorder#OTHER}
+     */
+    private static final int MAX_VALIDATION_RULES = 64;
+
+    /**
+     * 状态码按百位计数，下标1到5对应{@link HttpStatus.Series}，0为非标准状态码
+     */
+    private final AtomicLongArray statusSeriesCounts = new AtomicLongArray(6);
+
+    private final AtomicLongArray validationFailureCounts = new AtomicLongArray(ValidationStep.values().length);
+
+    private final LongAdder requestFailureCount = new LongAdder();
+
+    private final ConcurrentMap<String, ValidationRuleMetrics> validationRuleMetrics = new ConcurrentHashMap<>();
+
+    private final LongAdder compressedResponseCount = new LongAdder();
+
+    private final LongAdder encodedBodyBytes = new LongAdder();
+
+    private final LongAdder decodedBodyBytes = new LongAdder();
+
+    private final LogLinearHistogram connectTime = new LogLinearHistogram();
+
+    private final LogLinearHistogram timeToFirstByte = new LogLinearHistogram();
+
+    private final LogLinearHistogram totalLatency = new LogLinearHistogram();
+
+    private final LogLinearHistogram requestBytes = new LogLinearHistogram();
+
+    private final LogLinearHistogram responseBytes = new LogLinearHistogram();
+
+    void recordExchange(int statusCode, long connectNanos, long timeToFirstByteNanos, long totalNanos,
+                        long requestBytes, long responseBytes) {
+        // 直接按百位计算下标，1xx到5xx以外的状态码计入下标0
+        int seriesIndex = statusCode / 100;
+        statusSeriesCounts.incrementAndGet(seriesIndex >= 1 && seriesIndex <= 5 ? seriesIndex : 0);
+
+        connectTime.record(toMicros(connectNanos));
+        timeToFirstByte.record(toMicros(timeToFirstByteNanos));
+        totalLatency.record(toMicros(totalNanos));
+        this.requestBytes.record(requestBytes);
+        this.responseBytes.record(responseBytes);
+    }
+
+    void recordRequestFailure() {
+        requestFailureCount.increment();
+    }
+
+    void recordValidationFailure(ValidationStep step) {
+        validationFailureCounts.incrementAndGet(step.ordinal());
+    }
+
+    void recordValidationRule(String rule, long nanos, boolean passed) {
+        ValidationRuleMetrics metrics = validationRuleMetrics.get(rule);
+        if (metrics == null) {
+            String key = validationRuleMetrics.size() >= MAX_VALIDATION_RULES ? InMemoryHttpMetricsRecorder.OTHER : rule;
+            metrics = validationRuleMetrics.computeIfAbsent(key, k -> new ValidationRuleMetrics());
+        }
+        metrics.record(nanos, passed);
+    }
+
+    void recordCompression(long encodedBytes, long decodedBytes) {
+        compressedResponseCount.increment();
+        encodedBodyBytes.add(encodedBytes);
+        decodedBodyBytes.add(decodedBytes);
+    }
+
+    private static long toMicros(long nanos) {
+        return nanos < 0 ? -1 : nanos / NANOS_PER_MICRO;
+    }
+
+    /**
+     * 获取收到响应的请求数
+     *
+     * @return 收到响应的请求数
+     */
+    public long getExchangeCount() {
+        return totalLatency.getCount();
+    }
+
+    /**
+     * 获取没有收到响应的请求数
+     *
+     * @return 连接失败、超时等没有收到响应的请求数
+     */
+    public long getRequestFailureCount() {
+        return requestFailureCount.sum();
+    }
+
+    /**
+     * 获取指定类别的状态码的响应数
+     *
+     * @param series 状态码类别，不能为null
+     * @return 响应数
+     */
+    public long getStatusSeriesCount(HttpStatus.Series series) {
+        return statusSeriesCounts.get(series.value());
+    }
+
+    /**
+     * 获取非标准状态码（不在100到599之间）的响应数
+     *
+     * @return 响应数
+     */
+    public long getNonStandardStatusCount() {
+        return statusSeriesCounts.get(0);
+    }
+
+    /**
+     * 获取指定校验步骤的失败次数
+     *
+     * @param step 校验步骤，不能为null
+     * @return 失败次数
+     */
+    public long getValidationFailureCount(ValidationStep step) {
+        return validationFailureCounts.get(step.ordinal());
+    }
+
+    /**
+     * 获取已记录的校验规则
+     *
+     * @return 只读的规则名称集合
+     */
+    public Set<String> getValidationRules() {
+        return Collections.unmodifiableSet(validationRuleMetrics.keySet());
+    }
+
+    /**
+     * 获取单个校验规则的执行指标
+     *
+     * @param rule 规则名称，内置规则为{@link ValidationStep}的名称
+     * @return 规则的执行指标，不存在时返回null
+     */
+    public ValidationRuleMetrics getValidationRuleMetrics(String rule) {
+        return validationRuleMetrics.get(rule);
+    }
+
+    /**
+     * 获取经过压缩的响应数
+     *
+     * @return 经过压缩的响应数
+     */
+    public long getCompressedResponseCount() {
+        return compressedResponseCount.sum();
+    }
+
+    /**
+     * 获取压缩响应的平均压缩比，即解码后与压缩后的字节数之比
+     *
+     * @return 压缩比，没有压缩响应时返回0
+     */
+    public double getCompressionRatio() {
+        long encoded = encodedBodyBytes.sum();
+        return encoded == 0 ? 0 : (double) decodedBodyBytes.sum() / encoded;
+    }
+
+    /**
+     * 获取压缩节省的响应体字节数
+     *
+     * @return 解码后与压缩后的字节数之差
+     */
+    public long getCompressionSavedBytes() {
+        return decodedBodyBytes.sum() - encodedBodyBytes.sum();
+    }
+
+    public LogLinearHistogram getConnectTime() {
+        return connectTime;
+    }
+
+    public LogLinearHistogram getTimeToFirstByte() {
+        return timeToFirstByte;
+    }
+
+    public LogLinearHistogram getTotalLatency() {
+        return totalLatency;
+    }
+
+    public LogLinearHistogram getRequestBytes() {
+        return requestBytes;
+    }
+
+    public LogLinearHistogram getResponseBytes() {
+        return responseBytes;
+    }
+}
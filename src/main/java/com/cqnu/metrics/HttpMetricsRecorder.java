@@ -0,0 +1,81 @@
+package com.cqnu.metrics;
+
+/**
+ * http请求指标的记录器，通过{@code JoddHttpConfig#setMetricsRecorder}配置。
+ * <p>
+ * 每个请求完成后都会在请求线程中调用，实现类必须是线程安全的，并且不应在记录时分配对象或者阻塞，
+ * 所有参数都是基本类型或者请求中已有的字符串。时间单位均为纳秒，未测量到的值为-1。
+ * <p>
+ * 默认实现为{@link NoopHttpMetricsRecorder}，需要在进程内统计时使用{@link InMemoryHttpMetricsRecorder}，
+ * 也可以实现该接口对接其他监控系统。
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public interface HttpMetricsRecorder {
+
+    /**
+     * 是否需要采集指标，返回false时请求不会进行任何测量
+     *
+     * @return 需要采集时返回true
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * 记录一次收到响应的请求
+     *
+     * @param host                 请求的host
+     * @param route                请求的路由，默认为请求路径
+     * @param statusCode           http状态码
+     * @param connectNanos         建立连接（包括ssl握手）的耗时，复用连接池中的连接时接近0
+     * @param timeToFirstByteNanos 从开始发送请求到收到响应第一个字节的耗时
+     * @param totalNanos           从开始发送请求到读取完整个响应的耗时
+     * @param requestBytes         发送的字节数，包括请求行和请求头
+     * @param responseBytes        接收的字节数，包括状态行和响应头
+     */
+    void recordExchange(String host, String route, int statusCode, long connectNanos, long timeToFirstByteNanos,
+                        long totalNanos, long requestBytes, long responseBytes);
+
+    /**
+     * 记录一次没有收到响应的请求，例如连接失败或者读取超时
+     *
+     * @param host       请求的host
+     * @param route      请求的路由
+     * @param totalNanos 从开始发送请求到失败的耗时
+     */
+    void recordRequestFailure(String host, String route, long totalNanos);
+
+    /**
+     * 记录一次响应校验失败
+     *
+     * @param host  请求的host
+     * @param route 请求的路由
+     * @param step  失败的校验步骤
+     */
+    void recordValidationFailure(String host, String route, ValidationStep step);
+
+    /**
+     * 记录一个校验规则的执行耗时，只在{@code JoddHttpWrapper#validateResponse()}中按规则逐个调用，默认不记录
+     *
+     * @param host   请求的host
+     * @param route  请求的路由
+     * @param rule   规则名称，内置规则为{@link ValidationStep}的名称
+     * @param nanos  规则的执行耗时
+     * @param passed 是否校验通过
+     */
+    default void recordValidationRule(String host, String route, String rule, long nanos, boolean passed) {
+    }
+
+    /**
+     * 记录一次经过压缩的响应，在解码响应体后调用，默认不记录
+     *
+     * @param host         请求的host
+     * @param route        请求的路由
+     * @param encodedBytes 压缩后的响应体字节数
+     * @param decodedBytes 解码后的响应体字节数
+     */
+    default void recordCompression(String host, String route, long encodedBytes, long decodedBytes) {
+    }
+}
@@ -0,0 +1,187 @@
+package com.cqnu.metrics;
+
+import static com.cqnu.utill.Slf4jStyleFormatter.format;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 在内存中按host和路由汇总指标的记录器。
+ * <p>
+ * 每个host和每个路由各有一份{@link HttpMetrics}，每份约占用80KB内存。
+ * host和路由数量有上限，超过上限后新的host或路由计入{@link #OTHER}，避免路径中带有id等高基数内容时内存无限增长，
+ * 这种情况下建议通过{@code JoddHttpWrapper#setMetricsRoute}设置路由模板。
+ * 已存在的host和路由在记录时只有map查找和原子自增，不会分配对象。
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public class InMemoryHttpMetricsRecorder implements HttpMetricsRecorder {
+
+    /**
+     * 超过数量上限的host或路由使用的名称
+     */
+    public static final String OTHER = "<other>";
+
+    /**
+     * 默认的host数量上限
+     */
+    public static final int DEFAULT_MAX_HOSTS = 64;
+
+    /**
+     * 默认的每个host的路由数量上限
+     */
+    public static final int DEFAULT_MAX_ROUTES_PER_HOST = 64;
+
+    private final int maxHosts;
+
+    private final int maxRoutesPerHost;
+
+    private final ConcurrentMap<String, HostMetrics> hostMetricsMap = new ConcurrentHashMap<>();
+
+    /**
+     * 创建内存指标记录器
+     *
+     * @param maxHosts         host数量上限，必须大于0
+     * @param maxRoutesPerHost 每个host的路由数量上限，必须大于0
+     * @throws IllegalArgumentException 当任一上限小于等于0时，抛出此异常
+     */
+    public InMemoryHttpMetricsRecorder(int maxHosts, int maxRoutesPerHost) {
+        if (maxHosts <= 0 || maxRoutesPerHost <= 0) {
+            throw new IllegalArgumentException(format("host和路由的数量上限必须大于0. maxHosts: [{}], maxRoutesPerHost: [{}]",
+                maxHosts, maxRoutesPerHost));
+        }
+        this.maxHosts = maxHosts;
+        this.maxRoutesPerHost = maxRoutesPerHost;
+    }
+
+    /**
+     * 以默认的数量上限创建内存指标记录器
+     *
+     * @return 内存指标记录器
+     */
+    public static InMemoryHttpMetricsRecorder newDefaultInstance() {
+        return new InMemoryHttpMetricsRecorder(DEFAULT_MAX_HOSTS, DEFAULT_MAX_ROUTES_PER_HOST);
+    }
+
+    @Override
+    public void recordExchange(String host, String route, int statusCode, long connectNanos, long timeToFirstByteNanos,
+                               long totalNanos, long requestBytes, long responseBytes) {
+        HostMetrics hostMetrics = hostMetrics(host);
+        hostMetrics.total.recordExchange(statusCode, connectNanos, timeToFirstByteNanos, totalNanos, requestBytes, responseBytes);
+        hostMetrics.route(route).recordExchange(statusCode, connectNanos, timeToFirstByteNanos, totalNanos, requestBytes, responseBytes);
+    }
+
+    @Override
+    public void recordRequestFailure(String host, String route, long totalNanos) {
+        HostMetrics hostMetrics = hostMetrics(host);
+        hostMetrics.total.recordRequestFailure();
+        hostMetrics.route(route).recordRequestFailure();
+    }
+
+    @Override
+    public void recordValidationFailure(String host, String route, ValidationStep step) {
+        HostMetrics hostMetrics = hostMetrics(host);
+        hostMetrics.total.recordValidationFailure(step);
+        hostMetrics.route(route).recordValidationFailure(step);
+    }
+
+    @Override
+    public void recordValidationRule(String host, String route, String rule, long nanos, boolean passed) {
+        HostMetrics hostMetrics = hostMetrics(host);
+        hostMetrics.total.recordValidationRule(rule, nanos, passed);
+        hostMetrics.route(route).recordValidationRule(rule, nanos, passed);
+    }
+
+    @Override
+    public void recordCompression(String host, String route, long encodedBytes, long decodedBytes) {
+        HostMetrics hostMetrics = hostMetrics(host);
+        hostMetrics.total.recordCompression(encodedBytes, decodedBytes);
+        hostMetrics.route(route).recordCompression(encodedBytes, decodedBytes);
+    }
+
+    /**
+     * 获取已记录的host
+     *
+     * @return 只读的host集合
+     */
+    public Set<String> getHosts() {
+        return Collections.unmodifiableSet(hostMetricsMap.keySet());
+    }
+
+    /**
+     * 获取host下已记录的路由
+     *
+     * @param host 请求的host
+     * @return 只读的路由集合，host不存在时返回空集合
+     */
+    public Set<String> getRoutes(String host) {
+        HostMetrics hostMetrics = hostMetricsMap.get(host);
+        return hostMetrics == null ? Collections.emptySet() : Collections.unmodifiableSet(hostMetrics.routes.keySet());
+    }
+
+    /**
+     * 获取host下所有路由汇总的指标
+     *
+     * @param host 请求的host
+     * @return host的指标，不存在时返回null
+     */
+    public HttpMetrics getHostMetrics(String host) {
+        HostMetrics hostMetrics = hostMetricsMap.get(host);
+        return hostMetrics == null ? null : hostMetrics.total;
+    }
+
+    /**
+     * 获取单个路由的指标
+     *
+     * @param host  请求的host
+     * @param route 请求的路由
+     * @return 路由的指标，不存在时返回null
+     */
+    public HttpMetrics getRouteMetrics(String host, String route) {
+        HostMetrics hostMetrics = hostMetricsMap.get(host);
+        return hostMetrics == null ? null : hostMetrics.routes.get(route);
+    }
+
+    private HostMetrics hostMetrics(String host) {
+        String key = host == null ? OTHER : host;
+        HostMetrics hostMetrics = hostMetricsMap.get(key);
+        if (hostMetrics != null) {
+            return hostMetrics;
+        }
+        if (hostMetricsMap.size() >= maxHosts) {
+            key = OTHER;
+        }
+        return hostMetricsMap.computeIfAbsent(key, k -> new HostMetrics(maxRoutesPerHost));
+    }
+
+    /**
+     * 单个host的汇总指标和各路由的指标
+     */
+    private static final class HostMetrics {
+
+        private final HttpMetrics total = new HttpMetrics();
+
+        private final ConcurrentMap<String, HttpMetrics> routes = new ConcurrentHashMap<>();
+
+        private final int maxRoutes;
+
+        private HostMetrics(int maxRoutes) {
+            this.maxRoutes = maxRoutes;
+        }
+
+        private HttpMetrics route(String route) {
+            String key = route == null ? OTHER : route;
+            HttpMetrics metrics = routes.get(key);
+            if (metrics != null) {
+                return metrics;
+            }
+            if (routes.size() >= maxRoutes) {
+                key = OTHER;
+            }
+            return routes.computeIfAbsent(key, k -> new HttpMetrics());
+        }
+    }
+}
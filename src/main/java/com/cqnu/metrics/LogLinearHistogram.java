@@ -0,0 +1,142 @@
+package com.cqnu.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 固定内存、线程安全的对数-线性直方图，思路与HdrHistogram相同。
+ * <p>
+ * 小于128的值每个值一个桶，之后每个2的幂区间平均分为64个桶，相对误差不超过1/64。
+ * 记录时只有原子自增，不会分配对象；超过{@link #MAX_TRACKABLE_VALUE}的值计入最后一个桶，最大值仍会精确记录。
+ * 读取与记录可以并发进行，读取结果是近似的快照。
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public final class LogLinearHistogram {
+
+    private static final int PRECISION_BITS = 7;
+
+    private static final int LINEAR_LIMIT = 1 << PRECISION_BITS;
+
+    private static final int SUB_BUCKET_COUNT = LINEAR_LIMIT >> 1;
+
+    private static final int MAX_VALUE_BITS = 36;
+
+    /**
+     * 可以区分的最大值，微秒约为19小时，字节约为64GB
+     */
+    public static final long MAX_TRACKABLE_VALUE = (1L << MAX_VALUE_BITS) - 1;
+
+    private static final int BUCKET_COUNT = LINEAR_LIMIT + (MAX_VALUE_BITS - PRECISION_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    private final LongAdder totalCount = new LongAdder();
+
+    private final LongAdder totalSum = new LongAdder();
+
+    private final AtomicLong maxValue = new AtomicLong();
+
+    /**
+     * 记录一个值，负数会被忽略
+     *
+     * @param value 需要记录的值
+     */
+    public void record(long value) {
+        if (value < 0) {
+            return;
+        }
+        counts.incrementAndGet(indexOf(Math.min(value, MAX_TRACKABLE_VALUE)));
+        totalCount.increment();
+        totalSum.add(value);
+
+        long max = maxValue.get();
+        while (value > max && !maxValue.compareAndSet(max, value)) {
+            max = maxValue.get();
+        }
+    }
+
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    public long getMax() {
+        return maxValue.get();
+    }
+
+    public double getMean() {
+        long count = totalCount.sum();
+        return count == 0 ? 0 : (double) totalSum.sum() / count;
+    }
+
+    /**
+     * 获取指定百分位的值，返回所在桶的上界
+     *
+     * @param percentile 百分位，范围为0到100
+     * @return 百分位对应的值，没有记录时返回0
+     * @throws IllegalArgumentException 当percentile不在0到100之间时，抛出此异常
+     */
+    public long getValueAtPercentile(double percentile) {
+        return getValueAtPercentile(percentile, this);
+    }
+
+    /**
+     * 将多个直方图合并后获取指定百分位的值，返回所在桶的上界，用于按时间或样本数分段记录的滑动窗口
+     *
+     * @param percentile 百分位，范围为0到100
+     * @param histograms 需要合并的直方图
+     * @return 百分位对应的值，没有记录时返回0
+     * @throws IllegalArgumentException 当percentile不在0到100之间时，抛出此异常
+     */
+    public static long getValueAtPercentile(double percentile, LogLinearHistogram... histograms) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile必须在0到100之间: " + percentile);
+        }
+
+        long[] snapshot = new long[BUCKET_COUNT];
+        long count = 0;
+        long max = 0;
+        for (LogLinearHistogram histogram : histograms) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                long bucketCount = histogram.counts.get(i);
+                snapshot[i] += bucketCount;
+                count += bucketCount;
+            }
+            max = Math.max(max, histogram.getMax());
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long accumulated = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            accumulated += snapshot[i];
+            if (accumulated >= target) {
+                return Math.min(highestValueAt(i), max);
+            }
+        }
+        return max;
+    }
+
+    private static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (PRECISION_BITS - 1);
+        int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    private static long highestValueAt(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int offset = index - LINEAR_LIMIT;
+        int shift = offset / SUB_BUCKET_COUNT + 1;
+        long lowest = (long) (offset % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
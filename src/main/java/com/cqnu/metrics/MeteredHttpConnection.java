@@ -0,0 +1,163 @@
+package com.cqnu.metrics;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import jodd.http.HttpConnection;
+
+/**
+ * 记录连接耗时、首字节时间和读写字节数的连接包装类，由{@link MeteredHttpConnectionProvider}创建。
+ * <p>
+ * 一个连接对象只用于一次请求，测量值只在发送请求的线程中读写
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public class MeteredHttpConnection implements HttpConnection {
+
+    private final HttpConnection delegate;
+
+    private long connectNanos;
+
+    private long firstByteAtNanos = -1;
+
+    private long bytesWritten;
+
+    private long bytesRead;
+
+    private OutputStream outputStream;
+
+    private InputStream inputStream;
+
+    MeteredHttpConnection(HttpConnection delegate, long connectNanos) {
+        this.delegate = delegate;
+        this.connectNanos = connectNanos;
+    }
+
+    /**
+     * 获取被包装的连接，不是包装类时直接返回
+     *
+     * @param connection jodd连接
+     * @return 被包装的连接
+     */
+    public static HttpConnection unwrap(HttpConnection connection) {
+        return connection instanceof MeteredHttpConnection ? ((MeteredHttpConnection) connection).delegate : connection;
+    }
+
+    /**
+     * 获取建立连接的耗时，包括ssl握手
+     *
+     * @return 耗时，单位纳秒
+     */
+    public long getConnectNanos() {
+        return connectNanos;
+    }
+
+    /**
+     * 获取收到第一个响应字节时的{@link System#nanoTime()}
+     *
+     * @return 收到第一个字节的时间，尚未收到时返回-1
+     */
+    public long getFirstByteAtNanos() {
+        return firstByteAtNanos;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    @Override
+    public void init() throws IOException {
+        long startNanos = System.nanoTime();
+        delegate.init();
+        connectNanos += System.nanoTime() - startNanos;
+    }
+
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+        if (outputStream == null) {
+            outputStream = new CountingOutputStream(delegate.getOutputStream());
+        }
+        return outputStream;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        if (inputStream == null) {
+            inputStream = new CountingInputStream(delegate.getInputStream());
+        }
+        return inputStream;
+    }
+
+    @Override
+    public void setTimeout(int milliseconds) {
+        delegate.setTimeout(milliseconds);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private void onRead(int count) {
+        if (count > 0) {
+            if (firstByteAtNanos < 0) {
+                firstByteAtNanos = System.nanoTime();
+            }
+            bytesRead += count;
+        }
+    }
+
+    private final class CountingOutputStream extends FilterOutputStream {
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            bytesWritten++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            bytesWritten += len;
+        }
+    }
+
+    private final class CountingInputStream extends FilterInputStream {
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            onRead(b < 0 ? -1 : 1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = in.read(b, off, len);
+            onRead(count);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(n);
+            onRead((int) Math.min(skipped, Integer.MAX_VALUE));
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.cqnu.metrics;
+
+import java.io.IOException;
+import jodd.http.HttpConnection;
+import jodd.http.HttpConnectionProvider;
+import jodd.http.HttpRequest;
+import jodd.http.ProxyInfo;
+import jodd.http.net.SocketHttpConnectionProvider;
+
+/**
+ * 为创建的连接测量耗时和字节数的provider，只在配置了启用的{@link HttpMetricsRecorder}时使用
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public class MeteredHttpConnectionProvider implements HttpConnectionProvider {
+
+    private final HttpConnectionProvider delegate;
+
+    /**
+     * 创建provider
+     *
+     * @param delegate 实际创建连接的provider，例如连接池，为null时使用{@link SocketHttpConnectionProvider}
+     */
+    public MeteredHttpConnectionProvider(HttpConnectionProvider delegate) {
+        this.delegate = delegate == null ? new SocketHttpConnectionProvider() : delegate;
+    }
+
+    @Override
+    public void useProxy(ProxyInfo proxyInfo) {
+        delegate.useProxy(proxyInfo);
+    }
+
+    @Override
+    public HttpConnection createHttpConnection(HttpRequest httpRequest) throws IOException {
+        long startNanos = System.nanoTime();
+        HttpConnection connection = delegate.createHttpConnection(httpRequest);
+        return new MeteredHttpConnection(connection, System.nanoTime() - startNanos);
+    }
+}
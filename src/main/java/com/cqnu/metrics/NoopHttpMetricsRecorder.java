@@ -0,0 +1,33 @@
+package com.cqnu.metrics;
+
+/**
+ * 不记录任何指标的默认实现，请求不会为指标采集做任何额外的工作
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public final class NoopHttpMetricsRecorder implements HttpMetricsRecorder {
+
+    public static final NoopHttpMetricsRecorder INSTANCE = new NoopHttpMetricsRecorder();
+
+    private NoopHttpMetricsRecorder() {
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+
+    @Override
+    public void recordExchange(String host, String route, int statusCode, long connectNanos, long timeToFirstByteNanos,
+                               long totalNanos, long requestBytes, long responseBytes) {
+    }
+
+    @Override
+    public void recordRequestFailure(String host, String route, long totalNanos) {
+    }
+
+    @Override
+    public void recordValidationFailure(String host, String route, ValidationStep step) {
+    }
+}
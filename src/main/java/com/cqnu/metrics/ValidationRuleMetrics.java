@@ -0,0 +1,56 @@
+package com.cqnu.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个校验规则的执行次数、失败次数和耗时，耗时单位为纳秒
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public final class ValidationRuleMetrics {
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder failureCount = new LongAdder();
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    void record(long nanos, boolean passed) {
+        count.increment();
+        if (!passed) {
+            failureCount.increment();
+        }
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getFailureCount() {
+        return failureCount.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * 获取平均耗时
+     *
+     * @return 平均耗时，没有执行记录时返回0
+     */
+    public long getAverageNanos() {
+        long executions = count.sum();
+        return executions == 0 ? 0 : totalNanos.sum() / executions;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+}
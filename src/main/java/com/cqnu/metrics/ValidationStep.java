@@ -0,0 +1,45 @@
+package com.cqnu.metrics;
+
+/**
+ * {@code JoddHttpWrapper#validateResponse()}中的校验步骤，用于记录校验失败发生在哪一步
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public enum ValidationStep {
+
+    /**
+     * http状态码校验
+     */
+    STATUS_CODE,
+
+    /**
+     * 响应头content-type校验
+     */
+    CONTENT_TYPE,
+
+    /**
+     * json格式校验
+     */
+    JSON_FORMAT,
+
+    /**
+     * 业务编码code校验
+     */
+    BUSINESS_CODE,
+
+    /**
+     * data节点校验
+     */
+    DATA_NODE,
+
+    /**
+     * list节点校验
+     */
+    LIST_NODE,
+
+    /**
+     * 通过{@code JoddHttpConfig#addValidator}添加的自定义校验
+     */
+    CUSTOM
+}
@@ -0,0 +1,22 @@
+package com.cqnu.pool;
+
+import jodd.http.HttpException;
+
+/**
+ * 从连接池借出连接失败的异常，例如等待连接超时、等待时被中断或者连接池已关闭。
+ * <p>
+ * 请求没有发送到服务端，失败的原因在本地，不应当计为上游的失败
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public class ConnectionPoolException extends HttpException {
+
+    public ConnectionPoolException(String message) {
+        super(message);
+    }
+
+    public ConnectionPoolException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,465 @@
+package com.cqnu.pool;
+
+import static com.cqnu.utill.Slf4jStyleFormatter.format;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import jodd.http.HttpConnection;
+import jodd.http.HttpConnectionProvider;
+import jodd.http.HttpRequest;
+import jodd.http.ProxyInfo;
+import jodd.http.net.SocketHttpConnection;
+import jodd.http.net.SocketHttpConnectionProvider;
+
+/**
+ * 按host划分的http长连接池，作为jodd的{@link HttpConnectionProvider}使用。
+ * <p>
+ * 支持以下功能：
+ * <ol>
+ *     <li> 每个路由(protocol://host:port)的最大连接数和连接池总连接数限制
+ *     <li> 空闲连接超时回收
+ *     <li> 借出空闲较久的连接前检查连接是否已被服务端关闭
+ *     <li> 连接数达到上限时，在请求的connectionTimeout内等待其他连接归还
+ * </ol>
+ * 每次借出都会把请求的读取超时设置到socket上，复用的连接不会沿用上一个请求的超时时间。
+ * 检查空闲连接需要在socket上进行一次最长1毫秒的阻塞读取，只对空闲超过{@link #setValidateAfterInactivity(long)}的连接进行，
+ * 刚归还的连接只检查socket的状态，被服务端关闭的连接在发送时失败，由{@code RetryPolicy}重试。
+ * 通过{@code JoddHttpConfig.setConnectionPool(pool)}挂载到配置上后，{@code JoddHttpWrapper}会自动借出和归还连接。
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public class HttpConnectionPool implements HttpConnectionProvider {
+
+    /**
+     * 每个路由默认的最大连接数
+     */
+    public static final int DEFAULT_MAX_PER_ROUTE = 20;
+
+    /**
+     * 连接池默认的最大连接数
+     */
+    public static final int DEFAULT_MAX_TOTAL = 200;
+
+    /**
+     * 空闲连接默认的存活时间，单位毫秒
+     */
+    public static final long DEFAULT_IDLE_TIMEOUT = 30_000L;
+
+    /**
+     * 默认空闲超过该时间的连接在借出前检查是否已被关闭，单位毫秒
+     */
+    public static final long DEFAULT_VALIDATE_AFTER_INACTIVITY = 2_000L;
+
+    /**
+     * 检查空闲连接是否已被关闭时，读socket的超时时间，单位毫秒
+     */
+    private static final int STALE_CHECK_TIMEOUT = 1;
+
+    /**
+     * 实际创建连接的provider
+     */
+    private final HttpConnectionProvider connectionProvider;
+
+    private final int maxPerRoute;
+
+    private final int maxTotal;
+
+    private final long idleTimeoutNanos;
+
+    private volatile long validateAfterInactivityNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_VALIDATE_AFTER_INACTIVITY);
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition connectionReleased = lock.newCondition();
+
+    private final Map<String, Route> routes = new HashMap<>();
+
+    private int totalLeased;
+
+    private int totalIdle;
+
+    private int pending;
+
+    private boolean shutdown;
+
+    /**
+     * 创建连接池
+     *
+     * @param maxPerRoute       每个路由的最大连接数，必须大于0
+     * @param maxTotal          连接池的最大连接数，必须大于0
+     * @param idleTimeoutMillis 空闲连接的存活时间，单位毫秒
+     * @throws IllegalArgumentException 当连接数限制小于等于0时，抛出此异常
+     */
+    public HttpConnectionPool(int maxPerRoute, int maxTotal, long idleTimeoutMillis) {
+        this(new SocketHttpConnectionProvider(), maxPerRoute, maxTotal, idleTimeoutMillis);
+    }
+
+    /**
+     * 以指定的provider创建底层连接，用于需要定制socket或代理的场景
+     *
+     * @param connectionProvider 创建底层连接的provider，不能为null
+     * @param maxPerRoute        每个路由的最大连接数，必须大于0
+     * @param maxTotal           连接池的最大连接数，必须大于0
+     * @param idleTimeoutMillis  空闲连接的存活时间，单位毫秒
+     * @throws IllegalArgumentException 当参数不合法时，抛出此异常
+     */
+    public HttpConnectionPool(HttpConnectionProvider connectionProvider, int maxPerRoute, int maxTotal,
+                              long idleTimeoutMillis) {
+        if (connectionProvider == null) {
+            throw new IllegalArgumentException("connectionProvider不能为null");
+        }
+        if (maxPerRoute <= 0 || maxTotal <= 0) {
+            throw new IllegalArgumentException(format("连接数限制必须大于0. maxPerRoute: [{}], maxTotal: [{}]", maxPerRoute, maxTotal));
+        }
+        this.connectionProvider = connectionProvider;
+        this.maxPerRoute = maxPerRoute;
+        this.maxTotal = maxTotal;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+    }
+
+    /**
+     * 以默认参数创建连接池，默认值参考{@link #DEFAULT_MAX_PER_ROUTE}、{@link #DEFAULT_MAX_TOTAL}、{@link #DEFAULT_IDLE_TIMEOUT}
+     *
+     * @return 默认参数的连接池
+     */
+    public static HttpConnectionPool newDefaultInstance() {
+        return new HttpConnectionPool(DEFAULT_MAX_PER_ROUTE, DEFAULT_MAX_TOTAL, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * 设置空闲连接在借出前需要检查是否已被关闭的空闲时间，为0时每次借出都检查
+     *
+     * @param validateAfterInactivityMillis 空闲时间，单位毫秒，不能小于0
+     * @return 当前连接池
+     * @throws IllegalArgumentException 当空闲时间小于0时，抛出此异常
+     */
+    public HttpConnectionPool setValidateAfterInactivity(long validateAfterInactivityMillis) {
+        if (validateAfterInactivityMillis < 0) {
+            throw new IllegalArgumentException("validateAfterInactivity不能小于0");
+        }
+        this.validateAfterInactivityNanos = TimeUnit.MILLISECONDS.toNanos(validateAfterInactivityMillis);
+        return this;
+    }
+
+    @Override
+    public void useProxy(ProxyInfo proxyInfo) {
+        connectionProvider.useProxy(proxyInfo);
+    }
+
+    /**
+     * 为请求借出一个连接，优先复用同一路由下的空闲连接。
+     * 连接数达到上限时，最多等待请求的connectionTimeout，借出的连接使用请求的读取超时
+     *
+     * @param httpRequest 请求对象
+     * @return 借出的连接，使用完毕后调用close归还
+     * @throws IOException   创建底层连接失败时，抛出此异常
+     * @throws ConnectionPoolException 等待连接超时、等待时被中断或者连接池已关闭时，抛出此异常
+     */
+    @Override
+    public HttpConnection createHttpConnection(HttpRequest httpRequest) throws IOException {
+        String routeKey = routeKey(httpRequest);
+        long waitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(httpRequest.connectionTimeout(), 0));
+        long deadline = System.nanoTime() + waitNanos;
+
+        while (true) {
+            PoolEntry idleEntry = null;
+            Route route;
+
+            lock.lock();
+            try {
+                if (shutdown) {
+                    throw new ConnectionPoolException("连接池已关闭");
+                }
+                route = routes.computeIfAbsent(routeKey, key -> new Route());
+                evictExpired(System.nanoTime());
+
+                if (!route.idle.isEmpty()) {
+                    idleEntry = route.idle.pollFirst();
+                    totalIdle--;
+                    route.leased++;
+                    totalLeased++;
+                } else if (!reserveNewConnection(route)) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new ConnectionPoolException(format("从连接池获取连接超时. route: [{}], stats: [{}]", routeKey, getStats()));
+                    }
+                    pending++;
+                    try {
+                        connectionReleased.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new ConnectionPoolException("等待连接池归还连接时被中断", e);
+                    } finally {
+                        pending--;
+                    }
+                    continue;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (idleEntry != null) {
+                if (!isStale(idleEntry)) {
+                    applyTimeout(idleEntry, httpRequest);
+                    return new PooledHttpConnection(this, idleEntry);
+                }
+                release(idleEntry, false);
+                continue;
+            }
+
+            return new PooledHttpConnection(this, openEntry(route, httpRequest));
+        }
+    }
+
+    /**
+     * 将请求的读取超时设置到复用的连接上，请求未设置超时时与新建的连接一样不限制
+     */
+    private static void applyTimeout(PoolEntry entry, HttpRequest httpRequest) {
+        entry.connection.setTimeout(Math.max(httpRequest.timeout(), 0));
+    }
+
+    /**
+     * 在已预留的名额下创建底层连接，失败时释放名额
+     */
+    private PoolEntry openEntry(Route route, HttpRequest httpRequest) throws IOException {
+        boolean success = false;
+        try {
+            PoolEntry entry = new PoolEntry(route, connectionProvider.createHttpConnection(httpRequest));
+            success = true;
+            return entry;
+        } finally {
+            if (!success) {
+                lock.lock();
+                try {
+                    route.leased--;
+                    totalLeased--;
+                    connectionReleased.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * 为路由预留一个新连接的名额。总连接数已满时，会关闭其他路由中最早空闲的连接腾出名额
+     *
+     * @return 是否预留成功
+     */
+    private boolean reserveNewConnection(Route route) {
+        if (route.leased + route.idle.size() >= maxPerRoute) {
+            return false;
+        }
+        if (totalLeased + totalIdle >= maxTotal && !closeOldestIdle()) {
+            return false;
+        }
+        route.leased++;
+        totalLeased++;
+        return true;
+    }
+
+    /**
+     * 关闭整个连接池中最早空闲的连接
+     *
+     * @return 是否关闭了连接
+     */
+    private boolean closeOldestIdle() {
+        PoolEntry oldest = null;
+        for (Route route : routes.values()) {
+            PoolEntry candidate = route.idle.peekLast();
+            if (candidate != null && (oldest == null || candidate.lastUsedNanos < oldest.lastUsedNanos)) {
+                oldest = candidate;
+            }
+        }
+        if (oldest == null) {
+            return false;
+        }
+        oldest.route.idle.remove(oldest);
+        totalIdle--;
+        oldest.connection.close();
+        return true;
+    }
+
+    /**
+     * 归还借出的连接
+     *
+     * @param entry    借出的连接
+     * @param reusable 是否可以复用，不可复用时直接关闭
+     */
+    void release(PoolEntry entry, boolean reusable) {
+        lock.lock();
+        try {
+            entry.route.leased--;
+            totalLeased--;
+            if (reusable && !shutdown) {
+                entry.lastUsedNanos = System.nanoTime();
+                entry.route.idle.addFirst(entry);
+                totalIdle++;
+            } else {
+                entry.connection.close();
+            }
+            connectionReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 关闭所有超过空闲存活时间的连接，也可以由调用方定时调用
+     */
+    public void closeExpiredConnections() {
+        lock.lock();
+        try {
+            evictExpired(System.nanoTime());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evictExpired(long now) {
+        for (Route route : routes.values()) {
+            Iterator<PoolEntry> iterator = route.idle.descendingIterator();
+            while (iterator.hasNext()) {
+                PoolEntry entry = iterator.next();
+                if (now - entry.lastUsedNanos < idleTimeoutNanos) {
+                    break;
+                }
+                iterator.remove();
+                totalIdle--;
+                entry.connection.close();
+            }
+        }
+    }
+
+    /**
+     * 检查空闲连接是否已经被服务端关闭。
+     * 空闲超过{@link #validateAfterInactivityNanos}时以极短的超时时间读取socket，读到流结束或者意外的数据都视为连接不可用，
+     * 连接正常时读取会阻塞到超时，即多出{@link #STALE_CHECK_TIMEOUT}的等待；刚归还的连接只检查socket的状态，不会阻塞
+     */
+    private boolean isStale(PoolEntry entry) {
+        if (!(entry.connection instanceof SocketHttpConnection)) {
+            return false;
+        }
+
+        Socket socket = ((SocketHttpConnection) entry.connection).getSocket();
+        if (socket == null || socket.isClosed() || socket.isInputShutdown() || socket.isOutputShutdown()) {
+            return true;
+        }
+        if (System.nanoTime() - entry.lastUsedNanos < validateAfterInactivityNanos) {
+            return false;
+        }
+
+        try {
+            int soTimeout = socket.getSoTimeout();
+            try {
+                socket.setSoTimeout(STALE_CHECK_TIMEOUT);
+                InputStream inputStream = socket.getInputStream();
+                inputStream.read();
+                return true;
+            } finally {
+                socket.setSoTimeout(soTimeout);
+            }
+        } catch (SocketTimeoutException e) {
+            return false;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    /**
+     * 获取连接池当前的统计信息
+     *
+     * @return 连接池统计信息的快照
+     */
+    public PoolStats getStats() {
+        lock.lock();
+        try {
+            return new PoolStats(totalLeased, totalIdle, pending, maxTotal);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取指定路由当前的统计信息
+     *
+     * @param httpRequest 用于确定路由的请求对象
+     * @return 路由统计信息的快照，路由不存在时各项均为0
+     */
+    public PoolStats getStats(HttpRequest httpRequest) {
+        lock.lock();
+        try {
+            Route route = routes.get(routeKey(httpRequest));
+            if (route == null) {
+                return new PoolStats(0, 0, 0, maxPerRoute);
+            }
+            return new PoolStats(route.leased, route.idle.size(), pending, maxPerRoute);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 关闭连接池，关闭所有空闲连接，借出中的连接会在归还时关闭
+     */
+    public void shutdown() {
+        lock.lock();
+        try {
+            shutdown = true;
+            for (Route route : routes.values()) {
+                for (PoolEntry entry : route.idle) {
+                    entry.connection.close();
+                }
+                route.idle.clear();
+            }
+            totalIdle = 0;
+            connectionReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static String routeKey(HttpRequest httpRequest) {
+        return httpRequest.protocol() + "://" + httpRequest.host() + ":" + httpRequest.port();
+    }
+
+    /**
+     * 路由下的连接，idle中越靠前的连接越晚归还
+     */
+    private static class Route {
+
+        private final Deque<PoolEntry> idle = new ArrayDeque<>();
+
+        private int leased;
+    }
+
+    /**
+     * 连接池中的底层连接
+     */
+    static class PoolEntry {
+
+        final Route route;
+
+        final HttpConnection connection;
+
+        volatile boolean initialized;
+
+        long lastUsedNanos;
+
+        private PoolEntry(Route route, HttpConnection connection) {
+            this.route = route;
+            this.connection = connection;
+        }
+    }
+}
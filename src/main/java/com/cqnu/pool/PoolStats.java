@@ -0,0 +1,42 @@
+package com.cqnu.pool;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 连接池统计信息的快照
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+@Getter
+@ToString
+public class PoolStats {
+
+    /**
+     * 借出中的连接数
+     */
+    private final int leased;
+
+    /**
+     * 空闲的连接数
+     */
+    private final int idle;
+
+    /**
+     * 等待借出连接的请求数
+     */
+    private final int pending;
+
+    /**
+     * 最大连接数
+     */
+    private final int max;
+
+    public PoolStats(int leased, int idle, int pending, int max) {
+        this.leased = leased;
+        this.idle = idle;
+        this.pending = pending;
+        this.max = max;
+    }
+}
@@ -0,0 +1,80 @@
+package com.cqnu.pool;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+import jodd.http.HttpConnection;
+
+/**
+ * 从连接池中借出的连接。
+ * <p>
+ * 每次借出都会创建一个新的包装对象，{@link #close()}只会生效一次：
+ * 被标记为可复用时归还连接池，否则关闭底层连接。
+ * 这样即使jodd在响应关闭时再次调用close，也不会影响已经被其他请求借走的底层连接。
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public class PooledHttpConnection implements HttpConnection {
+
+    private final HttpConnectionPool pool;
+
+    private final HttpConnectionPool.PoolEntry entry;
+
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    /**
+     * 本次借出结束后底层连接是否可以复用，只有响应为keep-alive时才会被置为true
+     */
+    private volatile boolean reusable;
+
+    PooledHttpConnection(HttpConnectionPool pool, HttpConnectionPool.PoolEntry entry) {
+        this.pool = pool;
+        this.entry = entry;
+    }
+
+    /**
+     * 标记底层连接在本次借出结束后可以复用
+     */
+    public void markReusable() {
+        this.reusable = true;
+    }
+
+    /**
+     * 只在底层连接第一次使用时初始化，避免对已经完成握手的ssl连接重复握手。
+     * 读取超时在每次借出时由{@link HttpConnectionPool}设置，不依赖该方法
+     */
+    @Override
+    public void init() throws IOException {
+        if (!entry.initialized) {
+            entry.connection.init();
+            entry.initialized = true;
+        }
+    }
+
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+        return entry.connection.getOutputStream();
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return entry.connection.getInputStream();
+    }
+
+    @Override
+    public void setTimeout(int milliseconds) {
+        entry.connection.setTimeout(milliseconds);
+    }
+
+    /**
+     * 结束本次借出，可复用时归还连接池，否则关闭底层连接。重复调用无效果
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            pool.release(entry, reusable);
+        }
+    }
+}
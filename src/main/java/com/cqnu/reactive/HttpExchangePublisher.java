@@ -0,0 +1,220 @@
+package com.cqnu.reactive;
+
+import static com.cqnu.utill.Slf4jStyleFormatter.format;
+
+import com.cqnu.CompiledJoddHttpConfig;
+import com.cqnu.JoddHttpWrapper;
+import com.cqnu.JoddHttpWrapper.JoddHttpConfig;
+import com.cqnu.exception.HttpRequestException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import jodd.http.HttpRequest;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * 将请求的Publisher转换为校验通过的包装类的Publisher，参考{@link ReactiveHttp#exchange(Publisher, JoddHttpConfig, int)}
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+final class HttpExchangePublisher implements Publisher<JoddHttpWrapper> {
+
+    private final Publisher<HttpRequest> requests;
+
+    private final CompiledJoddHttpConfig compiledConfig;
+
+    private final Executor executor;
+
+    private final int maxConcurrency;
+
+    HttpExchangePublisher(Publisher<HttpRequest> requests, CompiledJoddHttpConfig compiledConfig, Executor executor,
+                          int maxConcurrency) {
+        this.requests = requests;
+        this.compiledConfig = compiledConfig;
+        this.executor = executor;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super JoddHttpWrapper> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber不能为null");
+        }
+        requests.subscribe(new ExchangeSubscriber(subscriber));
+    }
+
+    /**
+     * 订阅上游的请求，按下游的需求和最大并发数向上游请求，结果按完成的顺序发给下游。
+     * 所有发给下游的信号都在drain中串行发出
+     */
+    private final class ExchangeSubscriber implements Subscriber<HttpRequest>, Subscription {
+
+        private final Subscriber<? super JoddHttpWrapper> downstream;
+
+        private final Queue<JoddHttpWrapper> completedWrappers = new ConcurrentLinkedQueue<>();
+
+        private final AtomicLong requested = new AtomicLong();
+
+        /**
+         * 已经向上游请求但还没有收到的请求数
+         */
+        private final AtomicInteger upstreamPending = new AtomicInteger();
+
+        private final AtomicInteger running = new AtomicInteger();
+
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+
+        private final AtomicBoolean subscribed = new AtomicBoolean();
+
+        private volatile Subscription upstream;
+
+        private volatile boolean upstreamDone;
+
+        private volatile boolean cancelled;
+
+        private boolean terminated;
+
+        ExchangeSubscriber(Subscriber<? super JoddHttpWrapper> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            if (!subscribed.compareAndSet(false, true)) {
+                subscription.cancel();
+                return;
+            }
+            this.upstream = subscription;
+            downstream.onSubscribe(this);
+            drain();
+        }
+
+        @Override
+        public void onNext(HttpRequest httpRequest) {
+            if (cancelled || upstreamDone) {
+                return;
+            }
+            // 先增加running再减少upstreamPending，drain看到的未完成数不会偏小
+            running.incrementAndGet();
+            upstreamPending.decrementAndGet();
+            try {
+                executor.execute(() -> exchange(httpRequest));
+            } catch (RuntimeException e) {
+                running.decrementAndGet();
+                String message = format("提交请求失败. url: [{}]", httpRequest == null ? null : httpRequest.url());
+                onError(new HttpRequestException(message, e));
+            }
+        }
+
+        private void exchange(HttpRequest httpRequest) {
+            try {
+                JoddHttpWrapper wrapper = JoddHttpWrapper.newInstance(httpRequest, compiledConfig);
+                wrapper.sendRequest();
+                wrapper.validateResponse();
+                completedWrappers.offer(wrapper);
+            } catch (RuntimeException e) {
+                error.compareAndSet(null, e);
+            } finally {
+                running.decrementAndGet();
+                drain();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error.compareAndSet(null, throwable);
+            upstreamDone = true;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            upstreamDone = true;
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error.compareAndSet(null, new IllegalArgumentException("request的数量必须大于0. n: " + n));
+            } else {
+                requested.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            Subscription subscription = upstream;
+            if (subscription != null) {
+                subscription.cancel();
+            }
+            drain();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            do {
+                if (terminated || cancelled) {
+                    completedWrappers.clear();
+                } else {
+                    drainOnce();
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * 发出结果、错误或完成信号，并按需向上游请求，只在drain中调用
+         */
+        private void drainOnce() {
+            Throwable throwable = error.get();
+            if (throwable != null) {
+                terminated = true;
+                upstream.cancel();
+                completedWrappers.clear();
+                downstream.onError(throwable);
+                return;
+            }
+
+            long emitted = 0;
+            long demand = requested.get();
+            JoddHttpWrapper wrapper;
+            while (emitted < demand && !cancelled && (wrapper = completedWrappers.poll()) != null) {
+                downstream.onNext(wrapper);
+                emitted++;
+            }
+            if (emitted > 0 && demand != Long.MAX_VALUE) {
+                demand = requested.addAndGet(-emitted);
+            }
+
+            if (upstreamDone && running.get() == 0 && completedWrappers.isEmpty()) {
+                terminated = true;
+                downstream.onComplete();
+                return;
+            }
+
+            // 未完成的请求数不超过最大并发数，也不超过下游尚未满足的需求
+            long outstanding = (long) upstreamPending.get() + running.get() + completedWrappers.size();
+            long toRequest = Math.min(maxConcurrency, demand) - outstanding;
+            if (toRequest > 0 && !upstreamDone && !cancelled) {
+                upstreamPending.addAndGet((int) toRequest);
+                upstream.request(toRequest);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.cqnu.reactive;
+
+import com.cqnu.CompiledJoddHttpConfig;
+import com.cqnu.JoddHttpWrapper;
+import com.cqnu.JoddHttpWrapper.JoddHttpConfig;
+import com.cqnu.async.AsyncHttpExecutors;
+import com.cqnu.exception.HttpRequestException;
+import com.cqnu.utill.Assert;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executor;
+import jodd.http.HttpRequest;
+import org.reactivestreams.Publisher;
+
+/**
+ * Reactive Streams适配器，可以直接用于Reactor、RxJava等框架，
+ * jdk9及以上的{@code java.util.concurrent.Flow}可以通过{@code org.reactivestreams.FlowAdapters}转换。
+ * <p>
+ * 阻塞的请求在{@link JoddHttpConfig#getAsyncExecutor()}中执行，为null时使用{@link AsyncHttpExecutors#getDefaultExecutor()}，
+ * 只有下游发出需求后才会向上游请求或者读取数据
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public final class ReactiveHttp {
+
+    /**
+     * 默认的最大并发请求数
+     */
+    public static final int DEFAULT_MAX_CONCURRENCY = 16;
+
+    private ReactiveHttp() {
+    }
+
+    /**
+     * 发送上游的每个请求并校验响应，发出校验通过的包装类，其余同{@link #exchange(Publisher, JoddHttpConfig, int)}
+     *
+     * @param requests       请求对象的Publisher，不能为null
+     * @param joddHttpConfig 请求配置对象，如果为null则启用默认配置
+     * @return 校验通过的包装类的Publisher
+     */
+    public static Publisher<JoddHttpWrapper> exchange(Publisher<HttpRequest> requests, JoddHttpConfig joddHttpConfig) {
+        return exchange(requests, joddHttpConfig, DEFAULT_MAX_CONCURRENCY);
+    }
+
+    /**
+     * 发送上游的每个请求并校验响应，按完成的顺序发出校验通过的包装类。
+     * 同时进行的请求数不超过maxConcurrency，也不超过下游尚未满足的需求；
+     * 任一请求或校验失败时取消上游，以该请求的{@link HttpRequestException}结束，每次订阅都会重新订阅上游
+     *
+     * @param requests       请求对象的Publisher，不能为null
+     * @param joddHttpConfig 请求配置对象，如果为null则启用默认配置
+     * @param maxConcurrency 最大并发请求数，必须大于0
+     * @return 校验通过的包装类的Publisher
+     * @throws IllegalArgumentException 当requests为null或者maxConcurrency小于等于0时，抛出此异常
+     */
+    public static Publisher<JoddHttpWrapper> exchange(Publisher<HttpRequest> requests, JoddHttpConfig joddHttpConfig,
+                                                      int maxConcurrency) {
+        Assert.notNull(requests, "requests不能为null");
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency必须大于0");
+        }
+        CompiledJoddHttpConfig compiledConfig = joddHttpConfig == null
+            ? CompiledJoddHttpConfig.getDefault() : joddHttpConfig.compile();
+        return new HttpExchangePublisher(requests, compiledConfig, resolveExecutor(joddHttpConfig), maxConcurrency);
+    }
+
+    /**
+     * 以流的方式发送请求，将响应体按{@link JoddHttpConfig#getDownloadBufferSize()}大小分块发出，响应体不会完整缓存在内存中。
+     * 返回的Publisher只能被订阅一次，第一次request时才发送请求，http状态码不为2xx时以{@link HttpRequestException}结束
+     *
+     * @param wrapper 尚未发送的包装类，不能为null
+     * @return 响应体的Publisher，每个ByteBuffer都是独立的内存，下游可以保留
+     * @throws IllegalArgumentException 当wrapper为null时，抛出此异常
+     */
+    public static Publisher<ByteBuffer> responseBody(JoddHttpWrapper wrapper) {
+        Assert.notNull(wrapper, "wrapper不能为null");
+        // 只读取配置，使用编译后的配置，避免复制整个配置对象
+        CompiledJoddHttpConfig compiledConfig = wrapper.getCompiledConfig();
+        Executor executor = compiledConfig.getAsyncExecutor();
+        return new ResponseBodyPublisher(wrapper, executor == null ? AsyncHttpExecutors.getDefaultExecutor() : executor,
+            compiledConfig.getDownloadBufferSize());
+    }
+
+    private static Executor resolveExecutor(JoddHttpConfig joddHttpConfig) {
+        Executor executor = joddHttpConfig == null ? null : joddHttpConfig.getAsyncExecutor();
+        return executor == null ? AsyncHttpExecutors.getDefaultExecutor() : executor;
+    }
+}
@@ -0,0 +1,211 @@
+package com.cqnu.reactive;
+
+import static com.cqnu.utill.Slf4jStyleFormatter.format;
+
+import com.cqnu.JoddHttpWrapper;
+import com.cqnu.exception.HttpRequestException;
+import com.cqnu.metrics.ValidationStep;
+import com.cqnu.stream.StreamingHttpResponse;
+import com.cqnu.utill.HttpStatusCode;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * 以ByteBuffer分块发出响应体的Publisher，参考{@link ReactiveHttp#responseBody(JoddHttpWrapper)}。
+ * <p>
+ * 只能被订阅一次，第一次request时才发送请求，之后每个需求从连接中读取一块响应体，
+ * 读取在异步线程池中进行，下游处理前一块时不会继续读取。完成、失败或者取消时关闭连接
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+final class ResponseBodyPublisher implements Publisher<ByteBuffer> {
+
+    private final JoddHttpWrapper wrapper;
+
+    private final Executor executor;
+
+    private final int chunkSize;
+
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    ResponseBodyPublisher(JoddHttpWrapper wrapper, Executor executor, int chunkSize) {
+        this.wrapper = wrapper;
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super ByteBuffer> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber不能为null");
+        }
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(EmptySubscription.INSTANCE);
+            subscriber.onError(new IllegalStateException("响应体只能被订阅一次"));
+            return;
+        }
+        subscriber.onSubscribe(new BodySubscription(subscriber));
+    }
+
+    private final class BodySubscription implements Subscription {
+
+        private final Subscriber<? super ByteBuffer> downstream;
+
+        private final AtomicLong requested = new AtomicLong();
+
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private volatile boolean cancelled;
+
+        private volatile IllegalArgumentException invalidRequest;
+
+        /**
+         * 以下字段只在读取任务中访问，读取任务由wip保证串行
+         */
+        private StreamingHttpResponse streamingResponse;
+
+        private boolean terminated;
+
+        BodySubscription(Subscriber<? super ByteBuffer> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("request的数量必须大于0. n: " + n);
+            } else {
+                requested.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            try {
+                executor.execute(this::drain);
+            } catch (RuntimeException e) {
+                cancelled = true;
+                downstream.onError(new HttpRequestException("提交读取响应体的任务失败", e));
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                if (!terminated) {
+                    drainOnce();
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drainOnce() {
+            if (cancelled) {
+                terminate(null, false);
+                return;
+            }
+            if (invalidRequest != null) {
+                terminate(invalidRequest, true);
+                return;
+            }
+
+            try {
+                long emitted = 0;
+                while (emitted < requested.get() && !cancelled) {
+                    ByteBuffer chunk = readChunk();
+                    if (chunk == null) {
+                        terminate(null, true);
+                        return;
+                    }
+                    downstream.onNext(chunk);
+                    emitted++;
+                }
+                requested.addAndGet(-emitted);
+                if (cancelled) {
+                    terminate(null, false);
+                }
+            } catch (RuntimeException e) {
+                terminate(e, true);
+            } catch (IOException e) {
+                String message = format("读取响应体失败. url: [{}]", wrapper.getHttpRequest().url());
+                terminate(new HttpRequestException(message, e), true);
+            }
+        }
+
+        /**
+         * 读取一块响应体，第一次读取时发送请求并校验http状态码
+         *
+         * @return 响应体的一块，读取完毕时返回null
+         */
+        private ByteBuffer readChunk() throws IOException {
+            if (streamingResponse == null) {
+                streamingResponse = wrapper.sendRequestForStream();
+                int statusCode = streamingResponse.getHttpResponse().statusCode();
+                if (!HttpStatusCode.valueOf(statusCode).is2xxSuccessful()) {
+                    throw new HttpRequestException("请求响应的statusCode错误.", ValidationStep.STATUS_CODE,
+                        wrapper.getHttpRequest().url(), statusCode, null, null, null);
+                }
+            }
+
+            InputStream body = streamingResponse.getDecodedBody();
+            byte[] buffer = new byte[chunkSize];
+            int count = body.read(buffer);
+            while (count == 0) {
+                count = body.read(buffer);
+            }
+            return count < 0 ? null : ByteBuffer.wrap(buffer, 0, count);
+        }
+
+        /**
+         * 关闭连接，按需向下游发出完成或失败信号
+         */
+        private void terminate(Throwable throwable, boolean signal) {
+            terminated = true;
+            if (streamingResponse != null) {
+                streamingResponse.close();
+            }
+            if (!signal) {
+                return;
+            }
+            if (throwable == null) {
+                downstream.onComplete();
+            } else {
+                downstream.onError(throwable);
+            }
+        }
+    }
+
+    /**
+     * 拒绝重复订阅时使用的空订阅
+     */
+    private enum EmptySubscription implements Subscription {
+
+        INSTANCE;
+
+        @Override
+        public void request(long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+    }
+}
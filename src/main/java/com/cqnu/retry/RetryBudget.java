@@ -0,0 +1,104 @@
+package com.cqnu.retry;
+
+import static com.cqnu.utill.Slf4jStyleFormatter.format;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 重试预算，基于令牌桶限制重试请求占总请求的比例，避免下游故障时重试成倍放大流量。
+ * <p>
+ * 每个原始请求存入retryRatio个令牌，每次重试消耗1个令牌，令牌数最多为maxRetryTokens。
+ * 长期来看重试数不会超过原始请求数乘以retryRatio再加上maxRetryTokens。
+ * 多个配置对象可以共用同一个预算，令牌的存取都是无锁的
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public class RetryBudget {
+
+    /**
+     * 默认的重试比例
+     */
+    public static final double DEFAULT_RETRY_RATIO = 0.1;
+
+    /**
+     * 默认的令牌上限
+     */
+    public static final int DEFAULT_MAX_RETRY_TOKENS = 10;
+
+    /**
+     * 令牌以千分之一为单位存储，避免浮点运算
+     */
+    private static final long TOKEN_SCALE = 1000;
+
+    private final long depositPerRequest;
+
+    private final long maxBalance;
+
+    private final AtomicLong balance;
+
+    /**
+     * 创建重试预算，初始令牌数为上限
+     *
+     * @param retryRatio     重试请求占原始请求的最大比例，范围为0到1
+     * @param maxRetryTokens 令牌上限，即短时间内最多允许的连续重试数，不能小于0
+     * @throws IllegalArgumentException 当参数超出范围时，抛出此异常
+     */
+    public RetryBudget(double retryRatio, int maxRetryTokens) {
+        if (retryRatio < 0 || retryRatio > 1 || maxRetryTokens < 0) {
+            throw new IllegalArgumentException(format("重试预算参数错误. retryRatio: [{}], maxRetryTokens: [{}]",
+                retryRatio, maxRetryTokens));
+        }
+        this.depositPerRequest = Math.round(retryRatio * TOKEN_SCALE);
+        this.maxBalance = maxRetryTokens * TOKEN_SCALE;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    /**
+     * 以默认的重试比例和令牌上限创建重试预算
+     *
+     * @return 重试预算
+     */
+    public static RetryBudget newDefaultInstance() {
+        return new RetryBudget(DEFAULT_RETRY_RATIO, DEFAULT_MAX_RETRY_TOKENS);
+    }
+
+    /**
+     * 记录一个原始请求，存入令牌
+     */
+    public void recordRequest() {
+        long current = balance.get();
+        while (current < maxBalance) {
+            long next = Math.min(maxBalance, current + depositPerRequest);
+            if (balance.compareAndSet(current, next)) {
+                return;
+            }
+            current = balance.get();
+        }
+    }
+
+    /**
+     * 尝试为一次重试消耗令牌
+     *
+     * @return 令牌足够时返回true，此时可以重试
+     */
+    public boolean tryAcquireRetry() {
+        long current = balance.get();
+        while (current >= TOKEN_SCALE) {
+            if (balance.compareAndSet(current, current - TOKEN_SCALE)) {
+                return true;
+            }
+            current = balance.get();
+        }
+        return false;
+    }
+
+    /**
+     * 获取当前可用的重试次数
+     *
+     * @return 可用的重试次数，可能为小数
+     */
+    public double getAvailableRetries() {
+        return (double) balance.get() / TOKEN_SCALE;
+    }
+}
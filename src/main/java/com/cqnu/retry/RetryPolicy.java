@@ -0,0 +1,282 @@
+package com.cqnu.retry;
+
+import com.cqnu.utill.HttpStatus;
+import java.io.EOFException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import jodd.http.HttpResponse;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+/**
+ * 请求重试策略，通过{@code JoddHttpConfig#setRetryPolicy}配置。
+ * <p>
+ * 不能直接创建该对象，只能调用{@link RetryPolicy#newDefaultInstance()}创建带有默认配置的对象，再调用相应的setter方法修改。
+ * 重试间隔按指数增长，并在[间隔 * (1 - jitterFactor), 间隔]之间随机取值，避免大量客户端同时重试。
+ * 响应带有Retry-After头时优先使用该值，超过{@link #maxRetryAfter}时不再重试。
+ * 配置了{@link #retryBudget}时，每次重试还需要从预算中取得令牌
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+@Data
+@Accessors(chain = true)
+public class RetryPolicy {
+
+    /**
+     * 默认的最大尝试次数，包括第一次请求
+     */
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+    /**
+     * 默认的首次重试间隔，单位毫秒
+     */
+    public static final int DEFAULT_INITIAL_BACKOFF = 100;
+
+    /**
+     * 默认的最大重试间隔，单位毫秒
+     */
+    public static final int DEFAULT_MAX_BACKOFF = 2000;
+
+    /**
+     * 默认的Retry-After上限，单位毫秒
+     */
+    public static final int DEFAULT_MAX_RETRY_AFTER = 30000;
+
+    /**
+     * 幂等的请求方法，非幂等的请求只在连接失败（请求未发出）时重试
+     */
+    private static final Set<String> IDEMPOTENT_METHODS = Collections.unmodifiableSet(
+        new HashSet<>(Arrays.asList("GET", "HEAD", "OPTIONS", "PUT", "DELETE", "TRACE")));
+
+    /**
+     * 最大尝试次数，包括第一次请求，为1时不重试
+     */
+    private int maxAttempts;
+
+    /**
+     * 首次重试间隔，单位毫秒
+     */
+    private int initialBackoff;
+
+    /**
+     * 最大重试间隔，单位毫秒
+     */
+    private int maxBackoff;
+
+    /**
+     * 重试间隔的增长倍数
+     */
+    private double backoffMultiplier;
+
+    /**
+     * 随机抖动比例，范围为0到1，为1时在0到重试间隔之间随机取值
+     */
+    private double jitterFactor;
+
+    /**
+     * 连接失败时是否重试
+     */
+    private boolean isRetryOnConnectFailure;
+
+    /**
+     * 连接或读取超时时是否重试
+     */
+    private boolean isRetryOnTimeout;
+
+    /**
+     * 连接被服务端重置或关闭时是否重试，例如复用了已被服务端关闭的空闲连接，只重试幂等请求
+     */
+    private boolean isRetryOnConnectionReset;
+
+    /**
+     * 是否重试非幂等请求（POST、PATCH）的超时、被重置的连接和需要重试的状态码，连接失败不受该配置影响
+     */
+    private boolean isRetryNonIdempotent;
+
+    /**
+     * 需要重试的http状态码
+     */
+    private Set<HttpStatus> retryableStatuses;
+
+    /**
+     * 是否使用响应头Retry-After作为重试间隔
+     */
+    private boolean isRespectRetryAfter;
+
+    /**
+     * Retry-After的上限，单位毫秒，超过该值时不再重试
+     */
+    private int maxRetryAfter;
+
+    /**
+     * 重试预算，为null时不限制
+     */
+    private RetryBudget retryBudget;
+
+    private RetryPolicy() {
+    }
+
+    public RetryPolicy setMaxAttempts(int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts不能小于1");
+        }
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    public RetryPolicy setBackoffMultiplier(double backoffMultiplier) {
+        if (backoffMultiplier < 1) {
+            throw new IllegalArgumentException("backoffMultiplier不能小于1");
+        }
+        this.backoffMultiplier = backoffMultiplier;
+        return this;
+    }
+
+    public RetryPolicy setJitterFactor(double jitterFactor) {
+        if (jitterFactor < 0 || jitterFactor > 1) {
+            throw new IllegalArgumentException("jitterFactor必须在0到1之间");
+        }
+        this.jitterFactor = jitterFactor;
+        return this;
+    }
+
+    public RetryPolicy setRetryableStatuses(HttpStatus... retryableStatuses) {
+        Set<HttpStatus> statuses = EnumSet.noneOf(HttpStatus.class);
+        statuses.addAll(Arrays.asList(retryableStatuses));
+        this.retryableStatuses = statuses;
+        return this;
+    }
+
+    /**
+     * 创建带有默认值的重试策略，默认值如下:
+     * <ol>
+     *  <li> 最多尝试3次
+     *  <li> 重试间隔从100毫秒开始按2倍增长，最大2秒，完全随机抖动
+     *  <li> 重试连接失败、超时以及被服务端重置或关闭的连接，非幂等请求只重试连接失败
+     *  <li> 重试状态码429、502、503、504，使用不超过30秒的Retry-After
+     *  <li> 不限制重试预算
+     *
+     * @return 默认的重试策略
+     */
+    public static RetryPolicy newDefaultInstance() {
+        return new RetryPolicy()
+            .setMaxAttempts(DEFAULT_MAX_ATTEMPTS)
+            .setInitialBackoff(DEFAULT_INITIAL_BACKOFF)
+            .setMaxBackoff(DEFAULT_MAX_BACKOFF)
+            .setBackoffMultiplier(2)
+            .setJitterFactor(1)
+            .setRetryOnConnectFailure(true)
+            .setRetryOnTimeout(true)
+            .setRetryOnConnectionReset(true)
+            .setRetryableStatuses(HttpStatus.TOO_MANY_REQUESTS, HttpStatus.BAD_GATEWAY,
+                HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.GATEWAY_TIMEOUT)
+            .setRespectRetryAfter(true)
+            .setMaxRetryAfter(DEFAULT_MAX_RETRY_AFTER)
+            ;
+    }
+
+    /**
+     * 计算请求失败（没有收到响应）后的重试间隔
+     *
+     * @param attempt 已经尝试的次数，从1开始
+     * @param method  请求方法
+     * @param failure 请求失败的异常
+     * @return 重试间隔，单位毫秒，不需要重试时返回-1
+     */
+    public long getRetryDelay(int attempt, String method, Throwable failure) {
+        if (attempt >= maxAttempts) {
+            return -1;
+        }
+
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof NoRouteToHostException) {
+                return isRetryOnConnectFailure ? computeBackoff(attempt) : -1;
+            }
+            if (cause instanceof SocketTimeoutException) {
+                return isRetryOnTimeout && isRetryAllowed(method) ? computeBackoff(attempt) : -1;
+            }
+            if (cause instanceof SocketException || cause instanceof EOFException) {
+                return isRetryOnConnectionReset && isRetryAllowed(method) ? computeBackoff(attempt) : -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 计算收到响应后的重试间隔
+     *
+     * @param attempt      已经尝试的次数，从1开始
+     * @param method       请求方法
+     * @param httpResponse 本次请求的响应
+     * @return 重试间隔，单位毫秒，不需要重试时返回-1
+     */
+    public long getRetryDelay(int attempt, String method, HttpResponse httpResponse) {
+        if (attempt >= maxAttempts || !isRetryAllowed(method)) {
+            return -1;
+        }
+
+        HttpStatus status = HttpStatus.resolve(httpResponse.statusCode());
+        if (status == null || retryableStatuses == null || !retryableStatuses.contains(status)) {
+            return -1;
+        }
+
+        if (isRespectRetryAfter) {
+            long retryAfter = parseRetryAfter(httpResponse.header("Retry-After"));
+            if (retryAfter >= 0) {
+                return retryAfter <= maxRetryAfter ? retryAfter : -1;
+            }
+        }
+        return computeBackoff(attempt);
+    }
+
+    private boolean isRetryAllowed(String method) {
+        return isRetryNonIdempotent || (method != null && IDEMPOTENT_METHODS.contains(method.toUpperCase(Locale.ROOT)));
+    }
+
+    /**
+     * 计算第attempt次重试的间隔，按指数增长后加入随机抖动
+     */
+    private long computeBackoff(int attempt) {
+        double backoff = Math.min(maxBackoff, initialBackoff * Math.pow(backoffMultiplier, attempt - 1));
+        double jitter = backoff * jitterFactor * ThreadLocalRandom.current().nextDouble();
+        return Math.max(0, Math.round(backoff - jitter));
+    }
+
+    /**
+     * 解析Retry-After，格式为秒数或者http日期
+     *
+     * @return 需要等待的毫秒数，无法解析时返回-1
+     */
+    private static long parseRetryAfter(String retryAfter) {
+        if (retryAfter == null || retryAfter.trim().isEmpty()) {
+            return -1;
+        }
+
+        String value = retryAfter.trim();
+        try {
+            long seconds = Long.parseLong(value);
+            return seconds < 0 ? -1 : Math.min(seconds, Long.MAX_VALUE / 1000) * 1000;
+        } catch (NumberFormatException e) {
+            // 不是秒数时按http日期解析
+        }
+        try {
+            ZonedDateTime retryAt = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0, retryAt.toInstant().toEpochMilli() - System.currentTimeMillis());
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.cqnu.stream;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 解码Transfer-Encoding: chunked响应体的输入流，读到最后一个chunk及其trailer后返回流结束
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+class ChunkedInputStream extends ResponseBodyInputStream {
+
+    private final InputStream in;
+
+    /**
+     * 当前chunk剩余未读的字节数
+     */
+    private long chunkRemaining;
+
+    /**
+     * 是否已经读取过第一个chunk的长度
+     */
+    private boolean started;
+
+    private boolean finished;
+
+    ChunkedInputStream(InputStream in) {
+        this.in = in;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!prepareChunk()) {
+            return -1;
+        }
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("chunked响应体在chunk中间结束");
+        }
+        chunkRemaining--;
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!prepareChunk()) {
+            return -1;
+        }
+        int count = in.read(buffer, offset, (int) Math.min(length, chunkRemaining));
+        if (count < 0) {
+            throw new EOFException("chunked响应体在chunk中间结束");
+        }
+        chunkRemaining -= count;
+        return count;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return finished ? 0 : (int) Math.min(in.available(), chunkRemaining);
+    }
+
+    /**
+     * 当前chunk读完时读取下一个chunk的长度
+     *
+     * @return 还有数据可读时返回true
+     */
+    private boolean prepareChunk() throws IOException {
+        if (finished) {
+            return false;
+        }
+        if (chunkRemaining > 0) {
+            return true;
+        }
+
+        if (started) {
+            // 上一个chunk数据后的CRLF
+            HttpLineReader.readLine(in);
+        }
+        started = true;
+
+        String sizeLine = HttpLineReader.readLine(in);
+        if (sizeLine == null) {
+            throw new EOFException("chunked响应体缺少chunk长度");
+        }
+        int extensionIndex = sizeLine.indexOf(';');
+        String size = (extensionIndex >= 0 ? sizeLine.substring(0, extensionIndex) : sizeLine).trim();
+        try {
+            chunkRemaining = Long.parseLong(size, 16);
+        } catch (NumberFormatException e) {
+            throw new IOException("chunk长度格式错误: " + sizeLine, e);
+        }
+
+        if (chunkRemaining == 0) {
+            // 跳过trailer，直到空行
+            String trailer;
+            do {
+                trailer = HttpLineReader.readLine(in);
+            } while (trailer != null && !trailer.isEmpty());
+            finished = true;
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    boolean isFullyRead() {
+        return finished;
+    }
+}
@@ -0,0 +1,330 @@
+package com.cqnu.stream;
+
+import static com.cqnu.utill.Slf4jStyleFormatter.format;
+
+import com.cqnu.utill.Assert;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 响应体Content-Encoding的解码器，解码以流的方式进行，只有{@link #decodeRaw(String, String, long)}会保存完整的解码结果，
+ * 并且限制了解码后的最大字节数。
+ * <p>
+ * 内置gzip和deflate，其他编码（例如br）可以通过{@link #register(String, ContentDecoder)}注册，
+ * 注册后会自动加入请求头Accept-Encoding
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public final class ContentDecoders {
+
+    /**
+     * 解码时使用的缓冲区大小
+     */
+    private static final int DECODE_BUFFER_SIZE = 8192;
+
+    private static volatile Map<String, ContentDecoder> decoders;
+
+    private static volatile String acceptEncoding;
+
+    static {
+        Map<String, ContentDecoder> builtInDecoders = new LinkedHashMap<>();
+        builtInDecoders.put("gzip", encoded -> new GZIPInputStream(encoded, DECODE_BUFFER_SIZE));
+        builtInDecoders.put("deflate", ContentDecoders::newDeflateInputStream);
+        setDecoders(builtInDecoders);
+    }
+
+    private ContentDecoders() {
+    }
+
+    /**
+     * 注册Content-Encoding的解码器，已存在时覆盖
+     *
+     * @param contentEncoding 编码名称，例如br，不区分大小写
+     * @param decoder         解码器，不能为null
+     * @throws IllegalArgumentException 任一参数为null时，抛出此异常
+     */
+    public static synchronized void register(String contentEncoding, ContentDecoder decoder) {
+        Assert.notNull(contentEncoding, "contentEncoding不能为null");
+        Assert.notNull(decoder, "decoder不能为null");
+        Map<String, ContentDecoder> newDecoders = new LinkedHashMap<>(decoders);
+        newDecoders.put(contentEncoding.trim().toLowerCase(Locale.ROOT), decoder);
+        setDecoders(newDecoders);
+    }
+
+    private static void setDecoders(Map<String, ContentDecoder> newDecoders) {
+        decoders = Collections.unmodifiableMap(newDecoders);
+        acceptEncoding = String.join(", ", newDecoders.keySet());
+    }
+
+    /**
+     * 获取请求头Accept-Encoding的值，由已注册的编码组成
+     *
+     * @return Accept-Encoding的值，例如{@code gzip, deflate}
+     */
+    public static String getAcceptEncoding() {
+        return acceptEncoding;
+    }
+
+    /**
+     * 判断响应头Content-Encoding中的所有编码是否都可以解码
+     *
+     * @param contentEncoding 响应头Content-Encoding，可以为null
+     * @return 不需要解码或者可以解码时返回true
+     */
+    public static boolean isSupported(String contentEncoding) {
+        if (contentEncoding == null) {
+            return true;
+        }
+        Map<String, ContentDecoder> currentDecoders = decoders;
+        for (String coding : contentEncoding.split(",")) {
+            String name = coding.trim().toLowerCase(Locale.ROOT);
+            if (!name.isEmpty() && !"identity".equals(name) && !currentDecoders.containsKey(name)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 判断响应头Content-Encoding是否表示响应体经过了编码
+     *
+     * @param contentEncoding 响应头Content-Encoding，可以为null
+     * @return 需要解码时返回true
+     */
+    public static boolean isEncoded(String contentEncoding) {
+        if (contentEncoding == null) {
+            return false;
+        }
+        for (String coding : contentEncoding.split(",")) {
+            String name = coding.trim();
+            if (!name.isEmpty() && !"identity".equalsIgnoreCase(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 按Content-Encoding包装输入流，多个编码时按相反的顺序解码
+     *
+     * @param contentEncoding 响应头Content-Encoding，为null时直接返回原始的流
+     * @param encoded         编码后的响应体
+     * @return 解码后的响应体
+     * @throws IOException 编码不支持或者读取编码头失败时，抛出此异常
+     */
+    public static InputStream decode(String contentEncoding, InputStream encoded) throws IOException {
+        if (!isEncoded(contentEncoding)) {
+            return encoded;
+        }
+
+        String[] codings = contentEncoding.split(",");
+        Map<String, ContentDecoder> currentDecoders = decoders;
+        InputStream decoded = encoded;
+        for (int i = codings.length - 1; i >= 0; i--) {
+            String name = codings[i].trim().toLowerCase(Locale.ROOT);
+            if (name.isEmpty() || "identity".equals(name)) {
+                continue;
+            }
+            ContentDecoder decoder = currentDecoders.get(name);
+            if (decoder == null) {
+                throw new IOException("不支持的Content-Encoding: " + contentEncoding);
+            }
+            decoded = decoder.decode(decoded);
+        }
+        return decoded;
+    }
+
+    /**
+     * 解码jodd的原始响应体，每个字符对应一个字节，解码结果也按该约定返回。
+     * 解码结果需要完整保存在内存中，先按字节累积，最后一次转换为字符串
+     *
+     * @param contentEncoding  响应头Content-Encoding
+     * @param raw              jodd的原始响应体，参考{@code HttpResponse#bodyRaw()}
+     * @param maxDecodedLength 解码后的最大字节数，超过时停止解码
+     * @return 解码后的原始响应体
+     * @throws IOException 编码不支持、内容损坏或者解码后超过最大字节数时，抛出此异常
+     */
+    public static String decodeRaw(String contentEncoding, String raw, long maxDecodedLength) throws IOException {
+        try (InputStream decoded = decodeRawStream(contentEncoding, raw, maxDecodedLength)) {
+            int initialSize = (int) Math.min(Math.min((long) raw.length() * 4, maxDecodedLength), Integer.MAX_VALUE - 8);
+            ByteArrayOutputStream result = new ByteArrayOutputStream(Math.max(initialSize, 32));
+            byte[] buffer = new byte[DECODE_BUFFER_SIZE];
+            int count;
+            while ((count = decoded.read(buffer)) != -1) {
+                result.write(buffer, 0, count);
+            }
+            return result.toString(StandardCharsets.ISO_8859_1.name());
+        }
+    }
+
+    /**
+     * 以流的方式解码jodd的原始响应体，不复制原始响应体，也不保存解码结果，适合直接交给json解析等只需要读取一次的场景
+     *
+     * @param contentEncoding  响应头Content-Encoding
+     * @param raw              jodd的原始响应体，参考{@code HttpResponse#bodyRaw()}
+     * @param maxDecodedLength 解码后的最大字节数，读取超过该长度时抛出{@link IOException}
+     * @return 解码后的响应体
+     * @throws IOException 编码不支持或者读取编码头失败时，抛出此异常
+     */
+    public static BoundedInputStream decodeRawStream(String contentEncoding, String raw, long maxDecodedLength)
+        throws IOException {
+        return new BoundedInputStream(decode(contentEncoding, new RawStringInputStream(raw)), maxDecodedLength);
+    }
+
+    /**
+     * http的deflate应当带有zlib头，但有些服务端直接发送不带头的deflate数据，根据前两个字节判断
+     */
+    private static InputStream newDeflateInputStream(InputStream encoded) throws IOException {
+        PushbackInputStream pushback = new PushbackInputStream(encoded, 2);
+        int cmf = pushback.read();
+        int flg = cmf == -1 ? -1 : pushback.read();
+        if (flg != -1) {
+            pushback.unread(flg);
+        }
+        if (cmf != -1) {
+            pushback.unread(cmf);
+        }
+        boolean zlibWrapped = flg != -1 && (cmf & 0x0F) == 8 && ((cmf << 8) | flg) % 31 == 0;
+        return new InflaterInputStream(pushback, new Inflater(!zlibWrapped), DECODE_BUFFER_SIZE);
+    }
+
+    /**
+     * Content-Encoding的解码器
+     */
+    @FunctionalInterface
+    public interface ContentDecoder {
+
+        /**
+         * 包装编码后的输入流
+         *
+         * @param encoded 编码后的输入流
+         * @return 解码后的输入流
+         * @throws IOException 读取编码头失败时，抛出此异常
+         */
+        InputStream decode(InputStream encoded) throws IOException;
+    }
+
+    /**
+     * 限制读取长度的输入流，用于防止压缩比极高的响应体解码后占满内存
+     */
+    public static final class BoundedInputStream extends FilterInputStream {
+
+        private final long maxLength;
+
+        private long count;
+
+        private BoundedInputStream(InputStream in, long maxLength) {
+            super(in);
+            this.maxLength = maxLength;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (count >= maxLength) {
+                return checkEnd();
+            }
+            int value = in.read();
+            if (value != -1) {
+                count++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (count >= maxLength) {
+                return checkEnd();
+            }
+            int read = in.read(buffer, offset, (int) Math.min(length, maxLength - count));
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            byte[] buffer = new byte[(int) Math.min(Math.max(n, 0), DECODE_BUFFER_SIZE)];
+            int read = buffer.length == 0 ? 0 : read(buffer, 0, buffer.length);
+            return Math.max(read, 0);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        /**
+         * 已经读到最大长度时，只有流恰好结束才能返回-1，否则抛出异常
+         */
+        private int checkEnd() throws IOException {
+            if (in.read() == -1) {
+                return -1;
+            }
+            throw new IOException(format("解码后的响应体超过最大字节数. maxLength: [{}]", maxLength));
+        }
+
+        /**
+         * 获取已经读取的解码后的字节数
+         *
+         * @return 字节数
+         */
+        public long getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * 按字节读取jodd原始响应体的输入流，不复制响应体
+     */
+    private static final class RawStringInputStream extends InputStream {
+
+        private final String raw;
+
+        private int position;
+
+        private RawStringInputStream(String raw) {
+            this.raw = raw;
+        }
+
+        @Override
+        public int read() {
+            return position < raw.length() ? raw.charAt(position++) & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (position >= raw.length()) {
+                return -1;
+            }
+            int count = Math.min(length, raw.length() - position);
+            for (int i = 0; i < count; i++) {
+                buffer[offset + i] = (byte) raw.charAt(position++);
+            }
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return raw.length() - position;
+        }
+    }
+}
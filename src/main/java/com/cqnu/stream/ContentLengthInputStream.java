@@ -0,0 +1,59 @@
+package com.cqnu.stream;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 按Content-Length读取响应体的输入流，读满指定长度后返回流结束，不会多读底层连接中的数据
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+class ContentLengthInputStream extends ResponseBodyInputStream {
+
+    private final InputStream in;
+
+    private long remaining;
+
+    ContentLengthInputStream(InputStream in, long contentLength) {
+        this.in = in;
+        this.remaining = contentLength;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (remaining <= 0) {
+            return -1;
+        }
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("响应体长度小于Content-Length, 剩余字节数: " + remaining);
+        }
+        remaining--;
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (remaining <= 0) {
+            return -1;
+        }
+        int count = in.read(buffer, offset, (int) Math.min(length, remaining));
+        if (count < 0) {
+            throw new EOFException("响应体长度小于Content-Length, 剩余字节数: " + remaining);
+        }
+        remaining -= count;
+        return count;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(in.available(), remaining);
+    }
+
+    @Override
+    boolean isFullyRead() {
+        return remaining <= 0;
+    }
+}
@@ -0,0 +1,20 @@
+package com.cqnu.stream;
+
+/**
+ * HEAD请求以及1xx、204、304响应没有响应体
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+class EmptyBodyInputStream extends ResponseBodyInputStream {
+
+    @Override
+    public int read() {
+        return -1;
+    }
+
+    @Override
+    boolean isFullyRead() {
+        return true;
+    }
+}
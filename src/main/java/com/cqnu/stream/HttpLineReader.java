@@ -0,0 +1,53 @@
+package com.cqnu.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 按行读取http报文头的工具类，行以CRLF或LF结尾，按ISO-8859-1解码
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+final class HttpLineReader {
+
+    /**
+     * 单行的最大长度，防止异常的响应占满内存
+     */
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    private HttpLineReader() {
+    }
+
+    /**
+     * 读取一行，不包含行尾的换行符
+     *
+     * @param in 输入流
+     * @return 读取到的行，流已结束且没有读到任何字符时返回null
+     * @throws IOException 读取失败或者行超过最大长度时，抛出此异常
+     */
+    static String readLine(InputStream in) throws IOException {
+        byte[] line = new byte[128];
+        int length = 0;
+        int b;
+        while ((b = in.read()) >= 0) {
+            if (b == '\n') {
+                if (length > 0 && line[length - 1] == '\r') {
+                    length--;
+                }
+                return new String(line, 0, length, StandardCharsets.ISO_8859_1);
+            }
+            if (length == line.length) {
+                if (length >= MAX_LINE_LENGTH) {
+                    throw new IOException("http报文行超过最大长度: " + MAX_LINE_LENGTH);
+                }
+                byte[] expanded = new byte[length * 2];
+                System.arraycopy(line, 0, expanded, 0, length);
+                line = expanded;
+            }
+            line[length++] = (byte) b;
+        }
+        return length == 0 ? null : new String(line, 0, length, StandardCharsets.ISO_8859_1);
+    }
+}
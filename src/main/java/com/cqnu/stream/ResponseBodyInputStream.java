@@ -0,0 +1,33 @@
+package com.cqnu.stream;
+
+import java.io.InputStream;
+
+/**
+ * 响应体输入流的基类，用于判断响应体是否已被完整读取，只有完整读取后的长连接才能被复用。
+ * 关闭该流不会关闭底层连接，底层连接由{@link StreamingHttpResponse#close()}负责释放
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+abstract class ResponseBodyInputStream extends InputStream {
+
+    /**
+     * 响应体是否已被完整读取
+     *
+     * @return 完整读取时返回true
+     */
+    abstract boolean isFullyRead();
+
+    /**
+     * 响应体是否以连接关闭作为结束标志，这种连接读取完毕后不能复用
+     *
+     * @return 以连接关闭作为结束标志时返回true
+     */
+    boolean isDelimitedByClose() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+    }
+}
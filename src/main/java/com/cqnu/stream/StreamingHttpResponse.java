@@ -0,0 +1,212 @@
+package com.cqnu.stream;
+
+import com.cqnu.metrics.MeteredHttpConnection;
+import com.cqnu.pool.PooledHttpConnection;
+import com.cqnu.timeout.TimedHttpConnection;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import jodd.http.HttpConnection;
+import jodd.http.HttpException;
+import jodd.http.HttpRequest;
+import jodd.http.HttpResponse;
+
+/**
+ * 以流的方式读取的http响应。
+ * <p>
+ * jodd的{@link HttpRequest#send()}会把整个响应体读入内存，该类只读取状态行和响应头，
+ * 响应体通过{@link #getBody()}按需从连接中读取，内存占用与响应体大小无关。
+ * 使用完毕后必须调用{@link #close()}释放连接，响应体被完整读取且为keep-alive时，连接池中的连接会被复用。
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public class StreamingHttpResponse implements Closeable {
+
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    private final HttpConnection connection;
+
+    /**
+     * 只包含状态码和响应头的jodd响应对象，响应体为空
+     */
+    private final HttpResponse httpResponse;
+
+    private final ResponseBodyInputStream body;
+
+    private final long contentLength;
+
+    private InputStream decodedBody;
+
+    private boolean closed;
+
+    private StreamingHttpResponse(HttpConnection connection, HttpResponse httpResponse,
+                                  ResponseBodyInputStream body, long contentLength) {
+        this.connection = connection;
+        this.httpResponse = httpResponse;
+        this.body = body;
+        this.contentLength = contentLength;
+    }
+
+    /**
+     * 发送请求并读取响应头，1xx的中间响应会被跳过
+     *
+     * @param httpRequest 请求对象，不能为null
+     * @return 流式响应，响应体尚未读取
+     * @throws HttpException 连接、发送或者读取响应头失败时，抛出此异常
+     */
+    public static StreamingHttpResponse send(HttpRequest httpRequest) {
+        if (httpRequest.connection() == null) {
+            httpRequest.open();
+        }
+        HttpConnection connection = httpRequest.connection();
+
+        try {
+            connection.init();
+            OutputStream outputStream = connection.getOutputStream();
+            httpRequest.sendTo(outputStream);
+
+            InputStream inputStream = new BufferedInputStream(connection.getInputStream(), READ_BUFFER_SIZE);
+            HttpResponse httpResponse;
+            do {
+                httpResponse = readHead(inputStream);
+            } while (httpResponse.statusCode() >= 100 && httpResponse.statusCode() < 200);
+
+            long contentLength = parseContentLength(httpResponse);
+            ResponseBodyInputStream body = createBody(inputStream, httpRequest.method(), httpResponse, contentLength);
+            return new StreamingHttpResponse(connection, httpResponse, body, contentLength);
+        } catch (IOException | RuntimeException e) {
+            connection.close();
+            throw e instanceof HttpException ? (HttpException) e : new HttpException(e);
+        }
+    }
+
+    /**
+     * 读取状态行和响应头
+     */
+    private static HttpResponse readHead(InputStream inputStream) throws IOException {
+        String statusLine = HttpLineReader.readLine(inputStream);
+        while (statusLine != null && statusLine.isEmpty()) {
+            statusLine = HttpLineReader.readLine(inputStream);
+        }
+        if (statusLine == null) {
+            throw new EOFException("连接在返回状态行之前被关闭");
+        }
+
+        String[] statusParts = statusLine.split(" ", 3);
+        if (statusParts.length < 2) {
+            throw new IOException("http状态行格式错误: " + statusLine);
+        }
+
+        HttpResponse httpResponse = new HttpResponse();
+        httpResponse.httpVersion(statusParts[0]);
+        try {
+            httpResponse.statusCode(Integer.parseInt(statusParts[1]));
+        } catch (NumberFormatException e) {
+            throw new IOException("http状态行格式错误: " + statusLine, e);
+        }
+        httpResponse.statusPhrase(statusParts.length > 2 ? statusParts[2] : "");
+
+        String headerLine;
+        while ((headerLine = HttpLineReader.readLine(inputStream)) != null && !headerLine.isEmpty()) {
+            int colonIndex = headerLine.indexOf(':');
+            if (colonIndex <= 0) {
+                continue;
+            }
+            httpResponse.header(headerLine.substring(0, colonIndex).trim(), headerLine.substring(colonIndex + 1).trim());
+        }
+        return httpResponse;
+    }
+
+    private static long parseContentLength(HttpResponse httpResponse) throws IOException {
+        String contentLength = httpResponse.header("Content-Length");
+        if (contentLength == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentLength.trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Content-Length格式错误: " + contentLength, e);
+        }
+    }
+
+    private static ResponseBodyInputStream createBody(InputStream inputStream, String method,
+                                                      HttpResponse httpResponse, long contentLength) {
+        int statusCode = httpResponse.statusCode();
+        if ("HEAD".equalsIgnoreCase(method) || statusCode == 204 || statusCode == 304) {
+            return new EmptyBodyInputStream();
+        }
+
+        String transferEncoding = httpResponse.header("Transfer-Encoding");
+        if (transferEncoding != null && transferEncoding.toLowerCase(Locale.ROOT).contains("chunked")) {
+            return new ChunkedInputStream(inputStream);
+        }
+        if (contentLength >= 0) {
+            return new ContentLengthInputStream(inputStream, contentLength);
+        }
+        return new UntilCloseInputStream(inputStream);
+    }
+
+    /**
+     * 获取只包含状态码和响应头的jodd响应对象
+     *
+     * @return jodd响应对象，响应体为空
+     */
+    public HttpResponse getHttpResponse() {
+        return httpResponse;
+    }
+
+    /**
+     * 获取响应体输入流，关闭该流不会释放连接
+     *
+     * @return 响应体输入流，内容与Content-Encoding一致，没有解码
+     */
+    public InputStream getBody() {
+        return body;
+    }
+
+    /**
+     * 获取按Content-Encoding解码后的响应体输入流，边读取边解码，多次调用返回同一个流，关闭该流不会释放连接。
+     * 解码器参考{@link ContentDecoders}
+     *
+     * @return 解码后的响应体输入流，响应体没有编码时与{@link #getBody()}相同
+     * @throws IOException 编码不支持或者读取编码头失败时，抛出此异常
+     */
+    public InputStream getDecodedBody() throws IOException {
+        if (decodedBody == null) {
+            decodedBody = ContentDecoders.decode(httpResponse.header("Content-Encoding"), body);
+        }
+        return decodedBody;
+    }
+
+    /**
+     * 获取响应头中的Content-Length
+     *
+     * @return 响应体长度，未知时返回-1
+     */
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * 释放连接。响应体被完整读取且为keep-alive时，连接池中的连接会被复用，否则关闭连接
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        boolean reusable = body.isFullyRead() && !body.isDelimitedByClose() && httpResponse.isConnectionPersistent();
+        HttpConnection pooledConnection = TimedHttpConnection.unwrap(MeteredHttpConnection.unwrap(connection));
+        if (reusable && pooledConnection instanceof PooledHttpConnection) {
+            ((PooledHttpConnection) pooledConnection).markReusable();
+        }
+        connection.close();
+    }
+}
@@ -0,0 +1,50 @@
+package com.cqnu.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 没有Content-Length也不是chunked编码时，响应体以服务端关闭连接作为结束
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+class UntilCloseInputStream extends ResponseBodyInputStream {
+
+    private final InputStream in;
+
+    private boolean finished;
+
+    UntilCloseInputStream(InputStream in) {
+        this.in = in;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        finished = b < 0;
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int count = in.read(buffer, offset, length);
+        finished = count < 0;
+        return count;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return in.available();
+    }
+
+    @Override
+    boolean isFullyRead() {
+        return finished;
+    }
+
+    @Override
+    boolean isDelimitedByClose() {
+        return true;
+    }
+}
@@ -0,0 +1,146 @@
+package com.cqnu.timeout;
+
+import static com.cqnu.utill.Slf4jStyleFormatter.format;
+
+import com.cqnu.utill.Assert;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求的截止时间，基于{@link System#nanoTime()}，不受系统时间调整的影响。
+ * <p>
+ * 截止时间是一个时间点而不是时长，重试、对冲以及调用方在同一截止时间内发起的嵌套请求共用剩余的时间。
+ * 调用方可以通过{@link com.cqnu.JoddHttpWrapper#setDeadline(Deadline)}显式传入截止时间，
+ * 也可以通过{@link #attach()}绑定到当前线程，绑定期间当前线程发送的请求以及由其提交的异步请求都会继承该截止时间：
+ * <pre>{@code
+ * try (Deadline.Scope scope = Deadline.after(2, TimeUnit.SECONDS).attach()) {
+ *     wrapper.sendRequest();
+ *     otherWrapper.sendRequest();
+ * }
+ * }</pre>
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * 创建从现在开始经过指定时长后的截止时间
+     *
+     * @param duration 时长，小于等于0时截止时间已经到达
+     * @param unit     时长的单位，不能为null
+     * @return 截止时间
+     * @throws IllegalArgumentException 当unit为null时，抛出此异常
+     */
+    public static Deadline after(long duration, TimeUnit unit) {
+        Assert.notNull(unit, "unit不能为null");
+        long durationNanos = unit.toNanos(Math.max(duration, 0));
+        long now = System.nanoTime();
+        // 时长过大时避免溢出
+        return new Deadline(durationNanos > Long.MAX_VALUE / 2 ? now + Long.MAX_VALUE / 2 : now + durationNanos);
+    }
+
+    /**
+     * 获取当前线程继承的截止时间
+     *
+     * @return 截止时间，没有绑定时返回null
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 返回两个截止时间中较早的一个，参数可以为null
+     *
+     * @param first  截止时间，可以为null
+     * @param second 截止时间，可以为null
+     * @return 较早的截止时间，都为null时返回null
+     */
+    public static Deadline earliest(Deadline first, Deadline second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        return first.deadlineNanos - second.deadlineNanos <= 0 ? first : second;
+    }
+
+    /**
+     * 将截止时间绑定到当前线程，当前线程已经绑定了更早的截止时间时保留更早的截止时间。
+     * 返回的{@link Scope}关闭时恢复之前的绑定，必须在当前线程中关闭
+     *
+     * @return 绑定的作用域
+     */
+    public Scope attach() {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(earliest(previous, this));
+        return new Scope(previous);
+    }
+
+    /**
+     * 获取剩余的时间
+     *
+     * @param unit 时间单位，不能为null
+     * @return 剩余的时间，已经到达截止时间时返回0
+     */
+    public long remaining(TimeUnit unit) {
+        long remainingNanos = deadlineNanos - System.nanoTime();
+        return remainingNanos <= 0 ? 0 : unit.convert(remainingNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 获取剩余的毫秒数，不足1毫秒但尚未到达截止时间时返回1，可以直接作为jodd的超时时间使用
+     *
+     * @return 剩余的毫秒数，已经到达截止时间时返回0
+     */
+    public long remainingMillis() {
+        long remainingNanos = deadlineNanos - System.nanoTime();
+        if (remainingNanos <= 0) {
+            return 0;
+        }
+        return Math.max(TimeUnit.NANOSECONDS.toMillis(remainingNanos), 1);
+    }
+
+    /**
+     * 判断是否已经到达截止时间
+     *
+     * @return 已经到达截止时间时返回true
+     */
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    @Override
+    public String toString() {
+        return format("Deadline(remainingMillis={})", remainingMillis());
+    }
+
+    /**
+     * 截止时间在当前线程上的绑定，关闭时恢复之前的绑定
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final Deadline previous;
+
+        private Scope(Deadline previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.cqnu.timeout;
+
+import com.cqnu.async.AsyncHttpExecutors;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import jodd.http.HttpConnection;
+
+/**
+ * 限制写入时间和截止时间的连接包装类，由{@link TimedHttpConnectionProvider}创建。
+ * <p>
+ * socket只有读超时，没有写超时和总时长的限制，该类在{@link AsyncHttpExecutors#getTimeoutScheduler()}中定时关闭连接，
+ * 正在读写该连接的线程会立即失败：
+ * <ol>
+ *  <li> 写超时从第一次获取输出流开始计时，到获取输入流（请求写完、开始读取响应）时结束
+ *  <li> 截止时间从创建连接开始生效，到连接关闭或者{@link #disarm()}时结束，覆盖流式读取响应体的整个过程
+ * </ol>
+ * 超时关闭后，可以通过{@link #isWriteTimedOut()}和{@link #isDeadlineExceeded()}区分失败原因
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public class TimedHttpConnection implements HttpConnection {
+
+    private static final int ACTIVE = 0;
+
+    private static final int CLOSED = 1;
+
+    private static final int WRITE_TIMED_OUT = 2;
+
+    private static final int DEADLINE_EXCEEDED = 3;
+
+    private final HttpConnection delegate;
+
+    private final int writeTimeout;
+
+    private final AtomicInteger state = new AtomicInteger(ACTIVE);
+
+    private volatile ScheduledFuture<?> deadlineTask;
+
+    private volatile ScheduledFuture<?> writeTask;
+
+    private boolean isWriteStarted;
+
+    TimedHttpConnection(HttpConnection delegate, int writeTimeout) {
+        this.delegate = delegate;
+        this.writeTimeout = writeTimeout;
+    }
+
+    /**
+     * 获取被包装的连接，不是包装类时直接返回
+     *
+     * @param connection jodd连接
+     * @return 被包装的连接
+     */
+    public static HttpConnection unwrap(HttpConnection connection) {
+        return connection instanceof TimedHttpConnection ? ((TimedHttpConnection) connection).delegate : connection;
+    }
+
+    /**
+     * 在截止时间到达时关闭连接
+     *
+     * @param deadline 截止时间，为null时不限制
+     */
+    void arm(Deadline deadline) {
+        if (deadline != null) {
+            deadlineTask = AsyncHttpExecutors.getTimeoutScheduler().schedule(() -> expire(DEADLINE_EXCEEDED),
+                deadline.remaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 取消写超时和截止时间的定时任务，不关闭连接。
+     * jodd已经读取了完整的响应体时调用，之后连接可能仍然保持打开或者被连接池复用
+     */
+    public void disarm() {
+        cancel(writeTask);
+        cancel(deadlineTask);
+    }
+
+    public boolean isWriteTimedOut() {
+        return state.get() == WRITE_TIMED_OUT;
+    }
+
+    public boolean isDeadlineExceeded() {
+        return state.get() == DEADLINE_EXCEEDED;
+    }
+
+    @Override
+    public void init() throws IOException {
+        delegate.init();
+    }
+
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+        if (!isWriteStarted && writeTimeout > 0) {
+            isWriteStarted = true;
+            writeTask = AsyncHttpExecutors.getTimeoutScheduler().schedule(() -> expire(WRITE_TIMED_OUT),
+                writeTimeout, TimeUnit.MILLISECONDS);
+        }
+        return delegate.getOutputStream();
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        cancel(writeTask);
+        return delegate.getInputStream();
+    }
+
+    @Override
+    public void setTimeout(int milliseconds) {
+        delegate.setTimeout(milliseconds);
+    }
+
+    @Override
+    public void close() {
+        if (state.compareAndSet(ACTIVE, CLOSED)) {
+            disarm();
+            delegate.close();
+        }
+    }
+
+    private void expire(int reason) {
+        if (state.compareAndSet(ACTIVE, reason)) {
+            disarm();
+            delegate.close();
+        }
+    }
+
+    private static void cancel(ScheduledFuture<?> task) {
+        if (task != null) {
+            task.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.cqnu.timeout;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import jodd.http.HttpConnection;
+import jodd.http.HttpConnectionProvider;
+import jodd.http.HttpRequest;
+import jodd.http.ProxyInfo;
+import jodd.http.net.SocketHttpConnectionProvider;
+
+/**
+ * 为创建的连接限制写入时间和截止时间的provider，只在配置了写超时或者请求有截止时间时使用，参考{@link TimedHttpConnection}。
+ * <p>
+ * 截止时间属于一次请求，每次发送请求前都会创建新的provider
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public class TimedHttpConnectionProvider implements HttpConnectionProvider {
+
+    private final HttpConnectionProvider delegate;
+
+    private final int writeTimeout;
+
+    private final Deadline deadline;
+
+    /**
+     * 创建provider
+     *
+     * @param delegate     实际创建连接的provider，例如连接池，为null时使用{@link SocketHttpConnectionProvider}
+     * @param writeTimeout 写超时时间，单位毫秒，小于等于0时不限制
+     * @param deadline     截止时间，为null时不限制
+     */
+    public TimedHttpConnectionProvider(HttpConnectionProvider delegate, int writeTimeout, Deadline deadline) {
+        this.delegate = delegate == null ? new SocketHttpConnectionProvider() : delegate;
+        this.writeTimeout = writeTimeout;
+        this.deadline = deadline;
+    }
+
+    @Override
+    public void useProxy(ProxyInfo proxyInfo) {
+        delegate.useProxy(proxyInfo);
+    }
+
+    /**
+     * 创建连接，建立连接的时间由请求的connectionTimeout限制，发送请求前已经按截止时间缩短
+     *
+     * @throws SocketTimeoutException 已经到达截止时间时，抛出此异常
+     */
+    @Override
+    public HttpConnection createHttpConnection(HttpRequest httpRequest) throws IOException {
+        if (deadline != null && deadline.isExpired()) {
+            throw new SocketTimeoutException("建立连接前已经超过截止时间");
+        }
+        TimedHttpConnection connection = new TimedHttpConnection(delegate.createHttpConnection(httpRequest), writeTimeout);
+        connection.arm(deadline);
+        return connection;
+    }
+}
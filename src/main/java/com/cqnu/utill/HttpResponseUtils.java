@@ -0,0 +1,100 @@
+package com.cqnu.utill;
+
+import com.cqnu.exception.ResponseBodySnippet;
+import com.cqnu.stream.ContentDecoders;
+import com.cqnu.stream.ContentDecoders.BoundedInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import jodd.http.HttpResponse;
+
+/**
+ * jodd响应对象的工具类
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public class HttpResponseUtils {
+
+    private HttpResponseUtils() {
+    }
+
+    /**
+     * 复制响应的状态行和响应头，不复制响应体，也不关联原响应的请求对象
+     *
+     * @param source 被复制的响应，不能为null
+     * @return 新的响应对象
+     */
+    public static HttpResponse copyHead(HttpResponse source) {
+        HttpResponse copy = new HttpResponse()
+            .statusCode(source.statusCode())
+            .statusPhrase(source.statusPhrase());
+        copy.httpVersion(source.httpVersion());
+        for (String name : source.headerNames()) {
+            for (String value : source.headers(name)) {
+                copy.header(name, value);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * 复制响应的状态行、响应头和响应体，响应体是不可变的字符串，只复制引用
+     *
+     * @param source 被复制的响应，不能为null
+     * @return 新的响应对象
+     */
+    public static HttpResponse copy(HttpResponse source) {
+        HttpResponse copy = copyHead(source);
+        if (source.bodyRaw() != null) {
+            copy.body(source.bodyRaw());
+        }
+        return copy;
+    }
+
+    /**
+     * 获取响应头Content-Type中的charset
+     *
+     * @param httpResponse 响应对象，不能为null
+     * @return 响应体的编码，未指定或者不支持时返回null
+     */
+    public static Charset getCharset(HttpResponse httpResponse) {
+        String charset = httpResponse.charset();
+        try {
+            return charset == null || !Charset.isSupported(charset) ? null : Charset.forName(charset);
+        } catch (IllegalCharsetNameException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 截取响应体开头的片段用于异常信息。
+     * 响应体按Content-Encoding压缩时只解码开头的limit字节，不会解压完整的响应体；无法解码时保留压缩的响应体
+     *
+     * @param httpResponse 响应对象，不能为null
+     * @param limit        最多保留的字节数，小于等于0时不保留响应体
+     * @return 响应体片段，没有响应体或者limit小于等于0时返回null
+     */
+    public static ResponseBodySnippet newBodySnippet(HttpResponse httpResponse, int limit) {
+        String raw = httpResponse.bodyRaw();
+        Charset charset = getCharset(httpResponse);
+        String contentEncoding = httpResponse.header("Content-Encoding");
+        if (raw == null || raw.isEmpty() || limit <= 0 || !ContentDecoders.isEncoded(contentEncoding)
+            || !ContentDecoders.isSupported(contentEncoding)) {
+            return ResponseBodySnippet.of(raw, charset, limit);
+        }
+
+        // 多读一个字节用于判断是否截断，解码的字节数不会超过limit + 1
+        byte[] snippet = new byte[limit + 1];
+        int length = 0;
+        try (BoundedInputStream decoded = ContentDecoders.decodeRawStream(contentEncoding, raw, snippet.length)) {
+            int count;
+            while (length < snippet.length && (count = decoded.read(snippet, length, snippet.length - length)) != -1) {
+                length += count;
+            }
+        } catch (IOException e) {
+            return ResponseBodySnippet.of(raw, charset, limit);
+        }
+        return ResponseBodySnippet.of(snippet, Math.min(length, limit), length > limit, charset);
+    }
+}
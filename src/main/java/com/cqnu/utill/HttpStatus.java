@@ -410,14 +410,32 @@ public enum HttpStatus {
 	NETWORK_AUTHENTICATION_REQUIRED(511, "Network Authentication Required");
 
 
+	/**
+	 * 按状态码减100索引的查找表，覆盖100到599，{@link #values()}每次调用都会复制数组，不能在查找时使用
+	 */
+	private static final HttpStatus[] STATUS_TABLE = new HttpStatus[500];
+
+	static {
+		// 多个常量的状态码相同时保留先声明的常量，与按声明顺序查找的结果一致，例如302对应FOUND而不是MOVED_TEMPORARILY
+		for (HttpStatus status : values()) {
+			if (STATUS_TABLE[status.value - 100] == null) {
+				STATUS_TABLE[status.value - 100] = status;
+			}
+		}
+	}
+
+
 	private final int value;
 
 	private final String reasonPhrase;
 
+	private final Series series;
+
 
 	HttpStatus(int value, String reasonPhrase) {
 		this.value = value;
 		this.reasonPhrase = reasonPhrase;
+		this.series = Series.resolve(value);
 	}
 
 
@@ -440,7 +458,7 @@ public enum HttpStatus {
 	 * @see Series
 	 */
 	public Series series() {
-		return Series.valueOf(this);
+		return this.series;
 	}
 
 	/**
@@ -531,17 +549,13 @@ public enum HttpStatus {
 
 	/**
 	 * Resolve the given status code to an {@code HttpStatus}, if possible.
+	 * <p>非标准状态码需要分类时使用{@link HttpStatusCode#valueOf(int)}，不会返回null
 	 * @param statusCode the HTTP status code (potentially non-standard)
 	 * @return the corresponding {@code HttpStatus}, or {@code null} if not found
 	 * @since 5.0
 	 */
 	public static HttpStatus resolve(int statusCode) {
-		for (HttpStatus status : values()) {
-			if (status.value == statusCode) {
-				return status;
-			}
-		}
-		return null;
+		return statusCode >= 100 && statusCode <= 599 ? STATUS_TABLE[statusCode - 100] : null;
 	}
 
 
@@ -557,6 +571,11 @@ public enum HttpStatus {
 		CLIENT_ERROR(4),
 		SERVER_ERROR(5);
 
+		/**
+		 * 按系列值索引的查找表，下标0不使用
+		 */
+		private static final Series[] SERIES_TABLE = {null, INFORMATIONAL, SUCCESSFUL, REDIRECTION, CLIENT_ERROR, SERVER_ERROR};
+
 		private final int value;
 
 		Series(int value) {
@@ -577,7 +596,7 @@ public enum HttpStatus {
 		 * @throws IllegalArgumentException if this enum has no corresponding constant
 		 */
 		public static Series valueOf(HttpStatus status) {
-			return valueOf(status.value);
+			return status.series;
 		}
 
 		/**
@@ -601,13 +620,7 @@ public enum HttpStatus {
 		 * @since 5.1.3
 		 */
 		public static Series resolve(int statusCode) {
-			int seriesCode = statusCode / 100;
-			for (Series series : values()) {
-				if (series.value == seriesCode) {
-					return series;
-				}
-			}
-			return null;
+			return statusCode >= 100 && statusCode <= 599 ? SERIES_TABLE[statusCode / 100] : null;
 		}
 	}
 
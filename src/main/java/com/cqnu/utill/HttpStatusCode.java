@@ -0,0 +1,125 @@
+package com.cqnu.utill;
+
+import com.cqnu.utill.HttpStatus.Series;
+
+/**
+ * http状态码，可以表示{@link HttpStatus}中没有定义的状态码，例如部分代理返回的599。
+ * <p>
+ * 100到599的状态码在类加载时预先创建，{@link #valueOf(int)}只是一次数组访问，不会分配对象；
+ * 超出该范围的状态码每次创建新的对象，其{@link #series()}为null
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public final class HttpStatusCode {
+
+    private static final int MIN_CODE = 100;
+
+    private static final int MAX_CODE = 599;
+
+    private static final HttpStatusCode[] CODES = new HttpStatusCode[MAX_CODE - MIN_CODE + 1];
+
+    static {
+        for (int code = MIN_CODE; code <= MAX_CODE; code++) {
+            CODES[code - MIN_CODE] = new HttpStatusCode(code);
+        }
+    }
+
+    private final int value;
+
+    /**
+     * 对应的标准状态码，非标准状态码时为null
+     */
+    private final HttpStatus status;
+
+    private final Series series;
+
+    private HttpStatusCode(int value) {
+        this.value = value;
+        this.status = HttpStatus.resolve(value);
+        this.series = Series.resolve(value);
+    }
+
+    /**
+     * 获取状态码对应的对象，不会抛出异常
+     *
+     * @param statusCode http状态码，可以是非标准的状态码
+     * @return 状态码对象
+     */
+    public static HttpStatusCode valueOf(int statusCode) {
+        if (statusCode >= MIN_CODE && statusCode <= MAX_CODE) {
+            return CODES[statusCode - MIN_CODE];
+        }
+        return new HttpStatusCode(statusCode);
+    }
+
+    public int value() {
+        return value;
+    }
+
+    /**
+     * 获取对应的标准状态码
+     *
+     * @return 标准状态码，非标准状态码时返回null
+     */
+    public HttpStatus resolve() {
+        return status;
+    }
+
+    /**
+     * 获取状态码所属的系列
+     *
+     * @return 状态码的系列，不在100到599之间时返回null
+     */
+    public Series series() {
+        return series;
+    }
+
+    /**
+     * 获取状态码的描述
+     *
+     * @return 标准状态码的描述，非标准状态码时返回Unknown
+     */
+    public String getReasonPhrase() {
+        return status == null ? "Unknown" : status.getReasonPhrase();
+    }
+
+    public boolean is1xxInformational() {
+        return series == Series.INFORMATIONAL;
+    }
+
+    public boolean is2xxSuccessful() {
+        return series == Series.SUCCESSFUL;
+    }
+
+    public boolean is3xxRedirection() {
+        return series == Series.REDIRECTION;
+    }
+
+    public boolean is4xxClientError() {
+        return series == Series.CLIENT_ERROR;
+    }
+
+    public boolean is5xxServerError() {
+        return series == Series.SERVER_ERROR;
+    }
+
+    public boolean isError() {
+        return is4xxClientError() || is5xxServerError();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof HttpStatusCode && ((HttpStatusCode) o).value == value);
+    }
+
+    @Override
+    public int hashCode() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return status == null ? String.valueOf(value) : status.toString();
+    }
+}
@@ -0,0 +1,33 @@
+package com.cqnu.validation;
+
+/**
+ * 自定义的响应校验规则，通过{@code JoddHttpConfig#addValidator}添加。
+ * <p>
+ * 自定义规则在内置的状态码、content-type、json格式、code、data、list校验之后按添加的顺序执行，
+ * 第一个失败的规则抛出的异常会直接抛给调用方，之后的规则不再执行。
+ * 规则通过{@link ValidationContext}读取响应，与内置校验共用同一次json解析结果。
+ * 实现类会在多个线程中同时调用，必须是线程安全的
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+@FunctionalInterface
+public interface ResponseValidator {
+
+    /**
+     * 校验响应
+     *
+     * @param context 本次响应的校验上下文
+     * @throws com.cqnu.exception.HttpRequestException 校验失败时，抛出此异常，建议通过{@link ValidationContext#fail(String)}创建
+     */
+    void validate(ValidationContext context);
+
+    /**
+     * 获取规则名称，用于校验指标
+     *
+     * @return 规则名称，默认为类名
+     */
+    default String getName() {
+        return getClass().getSimpleName();
+    }
+}
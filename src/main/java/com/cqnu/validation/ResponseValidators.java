@@ -0,0 +1,85 @@
+package com.cqnu.validation;
+
+import static com.cqnu.utill.Slf4jStyleFormatter.format;
+
+import com.cqnu.utill.Assert;
+import java.util.Objects;
+
+/**
+ * 常用的自定义校验规则，适用于业务编码字段不是code、使用success标志或者需要校验嵌套字段的接口
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public final class ResponseValidators {
+
+    private ResponseValidators() {
+    }
+
+    /**
+     * 校验json路径对应的值等于期望值。
+     * 数字按字符串形式比较，所以期望值为0时，响应中的0和0L都能通过校验
+     *
+     * @param path     值的路径，例如{@code success}或者{@code data.result.code}
+     * @param expected 期望值，为null时要求路径不存在或者值为null
+     * @return 校验规则
+     * @throws IllegalArgumentException 当path为null时，抛出此异常
+     */
+    public static ResponseValidator jsonPathEquals(String path, Object expected) {
+        Assert.notNull(path, "path不能为null");
+        String name = format("jsonPathEquals({}={})", path, expected);
+        return named(name, context -> {
+            Object actual = context.getJsonPathValue(path);
+            if (!isEqual(expected, actual)) {
+                throw context.fail(format("json响应体中{}的值错误. expected: [{}], actual: [{}],", path, expected, actual));
+            }
+        });
+    }
+
+    /**
+     * 校验json路径对应的值存在且不为null
+     *
+     * @param path 值的路径，例如{@code data.result}
+     * @return 校验规则
+     * @throws IllegalArgumentException 当path为null时，抛出此异常
+     */
+    public static ResponseValidator jsonPathExists(String path) {
+        Assert.notNull(path, "path不能为null");
+        return named(format("jsonPathExists({})", path), context -> {
+            if (context.getJsonPathValue(path) == null) {
+                throw context.fail(format("json响应体中的{}节点不存在.", path));
+            }
+        });
+    }
+
+    /**
+     * 为规则指定名称，用于校验指标
+     *
+     * @param name      规则名称，不能为null
+     * @param validator 校验规则，不能为null
+     * @return 带有名称的校验规则
+     * @throws IllegalArgumentException 任一参数为null时，抛出此异常
+     */
+    public static ResponseValidator named(String name, ResponseValidator validator) {
+        Assert.notNull(name, "name不能为null");
+        Assert.notNull(validator, "validator不能为null");
+        return new ResponseValidator() {
+            @Override
+            public void validate(ValidationContext context) {
+                validator.validate(context);
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+
+    private static boolean isEqual(Object expected, Object actual) {
+        if (Objects.equals(expected, actual)) {
+            return true;
+        }
+        return expected instanceof Number && actual instanceof Number && expected.toString().equals(actual.toString());
+    }
+}
@@ -0,0 +1,77 @@
+package com.cqnu.validation;
+
+import com.alibaba.fastjson.JSONObject;
+import com.cqnu.JoddHttpWrapper;
+import com.cqnu.exception.HttpRequestException;
+import com.cqnu.json.JsonPathScanner;
+import jodd.http.HttpResponse;
+
+/**
+ * 自定义校验规则的上下文，一次{@link JoddHttpWrapper#validateResponse()}中的所有规则共用同一个上下文
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public final class ValidationContext {
+
+    private final JoddHttpWrapper wrapper;
+
+    private final boolean lazyJsonAccess;
+
+    /**
+     * 创建校验上下文，由{@link JoddHttpWrapper}在执行自定义规则前创建
+     *
+     * @param wrapper        已经收到响应的包装类
+     * @param lazyJsonAccess 是否按需扫描响应体，参考{@code JoddHttpConfig#isLazyJsonAccess()}
+     */
+    public ValidationContext(JoddHttpWrapper wrapper, boolean lazyJsonAccess) {
+        this.wrapper = wrapper;
+        this.lazyJsonAccess = lazyJsonAccess;
+    }
+
+    public JoddHttpWrapper getWrapper() {
+        return wrapper;
+    }
+
+    public HttpResponse getHttpResponse() {
+        return wrapper.getHttpResponse();
+    }
+
+    public int getStatusCode() {
+        return wrapper.getHttpResponse().statusCode();
+    }
+
+    /**
+     * 获取响应体的json对象，与内置校验共用同一次解析结果
+     *
+     * @return 响应体的json对象
+     */
+    public JSONObject getJsonObject() {
+        return wrapper.getResponseJsonObject();
+    }
+
+    /**
+     * 按路径获取json值，路径格式参考{@link JsonPathScanner}，例如{@code data.result.success}。
+     * 开启按需扫描时只扫描到目标字段，否则从已经解析的json对象中取值，都不会再次解析整个响应体
+     *
+     * @param path 值的路径，不能为空
+     * @return 路径对应的值，路径不存在时返回null
+     */
+    public Object getJsonPathValue(String path) {
+        if (lazyJsonAccess) {
+            return wrapper.getJsonPathValue(path);
+        }
+        return JsonPathScanner.evaluate(wrapper.getResponseJsonObject(), path);
+    }
+
+    /**
+     * 创建校验失败的异常，异常中带有请求url、状态码和截断的响应体片段。
+     * 压缩的响应体只解压片段需要的开头部分，不会为了异常信息解压完整的响应体
+     *
+     * @param reason 失败原因
+     * @return 校验失败的异常
+     */
+    public HttpRequestException fail(String reason) {
+        return wrapper.newCustomValidationException(reason);
+    }
+}
@@ -0,0 +1,182 @@
+package com.cqnu.breaker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/**
+ * {@link CircuitBreaker}状态切换的测试
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public class CircuitBreakerTest {
+
+    private static final long FAST_CALL = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final long SLOW_CALL = TimeUnit.SECONDS.toNanos(10);
+
+    /**
+     * 窗口为10次请求，至少4次请求后计算失败率，失败率达到50%时打开，半开状态放行2个探测请求
+     */
+    private static CircuitBreakerPolicy newPolicy(int waitDurationInOpenState) {
+        return CircuitBreakerPolicy.newDefaultInstance()
+            .setSlidingWindowSize(10)
+            .setMinimumNumberOfCalls(4)
+            .setFailureRateThreshold(50)
+            .setSlowCallRateThreshold(100)
+            .setSlowCallDuration(1000)
+            .setWaitDurationInOpenState(waitDurationInOpenState)
+            .setPermittedCallsInHalfOpenState(2);
+    }
+
+    private static CircuitBreaker newCircuitBreaker(int waitDurationInOpenState) {
+        return new CircuitBreakerRegistry(newPolicy(waitDurationInOpenState)).getCircuitBreaker("example.com");
+    }
+
+    private static long call(CircuitBreaker circuitBreaker, boolean failure) {
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        return circuitBreaker.onResult(FAST_CALL, failure);
+    }
+
+    private static CircuitBreaker newOpenCircuitBreaker(int waitDurationInOpenState) {
+        CircuitBreaker circuitBreaker = newCircuitBreaker(waitDurationInOpenState);
+        for (int i = 0; i < 4; i++) {
+            call(circuitBreaker, true);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        return circuitBreaker;
+    }
+
+    @Test
+    public void staysClosedBeforeMinimumNumberOfCalls() {
+        CircuitBreaker circuitBreaker = newCircuitBreaker(60_000);
+        for (int i = 0; i < 3; i++) {
+            call(circuitBreaker, true);
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(-1, circuitBreaker.getFailureRate());
+    }
+
+    @Test
+    public void staysClosedBelowFailureRateThreshold() {
+        CircuitBreaker circuitBreaker = newCircuitBreaker(60_000);
+        call(circuitBreaker, true);
+        for (int i = 0; i < 4; i++) {
+            call(circuitBreaker, false);
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(20, circuitBreaker.getFailureRate());
+    }
+
+    @Test
+    public void opensWhenFailureRateReachesThreshold() {
+        CircuitBreaker circuitBreaker = newCircuitBreaker(60_000);
+        call(circuitBreaker, false);
+        call(circuitBreaker, false);
+        call(circuitBreaker, true);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        call(circuitBreaker, true);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    public void opensWhenSlowCallRateReachesThreshold() {
+        CircuitBreaker circuitBreaker = newCircuitBreaker(60_000);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(circuitBreaker.tryAcquirePermission());
+            circuitBreaker.onResult(SLOW_CALL, false);
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void lateFailureIsRecordedToItsCall() {
+        CircuitBreaker circuitBreaker = newCircuitBreaker(60_000);
+        call(circuitBreaker, true);
+        long sequence = call(circuitBreaker, false);
+        call(circuitBreaker, false);
+        call(circuitBreaker, false);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        circuitBreaker.onLateFailure(sequence);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void halfOpenAfterWaitDurationPermitsLimitedCalls() {
+        CircuitBreaker circuitBreaker = newOpenCircuitBreaker(0);
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    public void releasedPermissionAllowsAnotherHalfOpenCall() {
+        CircuitBreaker circuitBreaker = newOpenCircuitBreaker(0);
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+
+        circuitBreaker.releasePermission();
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    public void closesWhenHalfOpenCallsSucceed() {
+        CircuitBreaker circuitBreaker = newOpenCircuitBreaker(0);
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+
+        assertEquals(CircuitBreaker.HALF_OPEN_CALL, circuitBreaker.onResult(FAST_CALL, false));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        circuitBreaker.onResult(FAST_CALL, false);
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(-1, circuitBreaker.getFailureRate());
+    }
+
+    @Test
+    public void reopensWhenHalfOpenCallsFail() {
+        CircuitBreaker circuitBreaker = newOpenCircuitBreaker(0);
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+
+        circuitBreaker.onResult(FAST_CALL, true);
+        circuitBreaker.onResult(FAST_CALL, false);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void lateFailureOfHalfOpenCallReopens() {
+        CircuitBreaker circuitBreaker = newOpenCircuitBreaker(0);
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        long sequence = circuitBreaker.onResult(FAST_CALL, false);
+
+        circuitBreaker.onLateFailure(sequence);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void rejectsWhileOpenBeforeWaitDuration() {
+        CircuitBreaker circuitBreaker = newOpenCircuitBreaker(60_000);
+
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(CircuitBreaker.NOT_RECORDED, circuitBreaker.onResult(FAST_CALL, true));
+    }
+}
@@ -0,0 +1,130 @@
+package com.cqnu.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.alibaba.fastjson.JSONObject;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import org.junit.Test;
+
+/**
+ * {@link JsonResponseBody}严格解析的测试，文本和字符流两种解析方式的结果必须一致
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public class JsonResponseBodyTest {
+
+    private static void assertRejected(String body) {
+        assertNotNull("应当拒绝: " + body, JsonResponseBody.parse(body).getParseException());
+        assertNotNull("字符流应当拒绝: " + body, JsonResponseBody.parse(new StringReader(body)).getParseException());
+    }
+
+    private static JSONObject assertAccepted(String body) {
+        JsonResponseBody parsed = JsonResponseBody.parse(body);
+        assertNull("应当接受: " + body, parsed.getParseException());
+        JsonResponseBody streamed = JsonResponseBody.parse(new StringReader(body));
+        assertNull("字符流应当接受: " + body, streamed.getParseException());
+        assertEquals(parsed.getJsonObject(), streamed.getJsonObject());
+        return parsed.getJsonObject();
+    }
+
+    @Test
+    public void rejectsTrailingCommaInObject() {
+        assertRejected("{\"code\":0,}");
+    }
+
+    @Test
+    public void rejectsTrailingCommaInArray() {
+        assertRejected("[1,2,]");
+    }
+
+    @Test
+    public void rejectsComment() {
+        assertRejected("{\"code\":0 /*c*/}");
+    }
+
+    @Test
+    public void rejectsNaN() {
+        assertRejected("{\"code\":NaN}");
+    }
+
+    @Test
+    public void rejectsUndefined() {
+        assertRejected("{\"code\":undefined}");
+    }
+
+    @Test
+    public void rejectsNewDate() {
+        assertRejected("{\"a\":new Date(1)}");
+    }
+
+    @Test
+    public void rejectsSetLiteral() {
+        assertRejected("{\"a\":Set[1]}");
+    }
+
+    @Test
+    public void rejectsHexBytes() {
+        assertRejected("{\"a\":x'00'}");
+    }
+
+    @Test
+    public void rejectsOtherNonStandardInput() {
+        assertRejected("{'code':0}");
+        assertRejected("{code:0}");
+        assertRejected("[1,,2]");
+        assertRejected("{\"a\":01}");
+        assertRejected("{\"a\":-}");
+        assertRejected("{\"a\":1.}");
+        assertRejected("{\"a\":\"\t\"}");
+        assertRejected("{\"a\":\"\\x\"}");
+        assertRejected("{\"a\":1}{}");
+        assertRejected("{\"a\":1} x");
+        assertRejected("{\"a\":[1}");
+        assertRejected("{\"a\":1");
+        assertRejected("tru");
+        assertRejected("   ");
+        assertRejected("");
+    }
+
+    @Test
+    public void acceptsStandardJson() {
+        JSONObject jsonObject = assertAccepted(
+            " {\"code\":0,\"data\":{\"list\":[1,-2.5e3,0.5E-3,true,false,null,\"s\\u0041\\n\\\"\",{},[]]}}\r\n");
+
+        assertEquals(Integer.valueOf(0), jsonObject.getInteger("code"));
+        assertEquals(9, jsonObject.getJSONObject("data").getJSONArray("list").size());
+        assertEquals("sA\n\"", jsonObject.getJSONObject("data").getJSONArray("list").getString(6));
+    }
+
+    @Test
+    public void acceptsTopLevelScalars() {
+        assertNull(JsonResponseBody.parse("null").getParseException());
+        assertNull(JsonResponseBody.parse("0").getParseException());
+        assertNull(JsonResponseBody.parse(new StringReader("-1.5")).getParseException());
+        assertNull(JsonResponseBody.parse(new StringReader("\"x\"")).getParseException());
+    }
+
+    @Test
+    public void readerFailureIsKeptAsCause() {
+        Reader failingReader = new Reader() {
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                throw new IOException("broken");
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        Throwable cause = JsonResponseBody.parse(failingReader).getParseException().getCause();
+
+        assertTrue(cause instanceof IOException);
+    }
+}
@@ -0,0 +1,287 @@
+package com.cqnu.pool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import jodd.http.HttpConnection;
+import jodd.http.HttpConnectionProvider;
+import jodd.http.HttpRequest;
+import jodd.http.ProxyInfo;
+import jodd.http.net.SocketHttpConnection;
+import org.junit.Test;
+
+/**
+ * {@link HttpConnectionPool}借出、归还和等待超时的测试，底层连接由不访问网络的provider创建
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public class HttpConnectionPoolTest {
+
+    private final FakeConnectionProvider connectionProvider = new FakeConnectionProvider();
+
+    private static HttpRequest newRequest(String host, int connectionTimeout) {
+        return HttpRequest.get("http://" + host + ":8080/test").connectionTimeout(connectionTimeout);
+    }
+
+    private static PooledHttpConnection lease(HttpConnectionPool pool, HttpRequest httpRequest) throws Exception {
+        return (PooledHttpConnection) pool.createHttpConnection(httpRequest);
+    }
+
+    private static void release(PooledHttpConnection connection) {
+        connection.markReusable();
+        connection.close();
+    }
+
+    @Test
+    public void reusableConnectionIsReturnedToPool() throws Exception {
+        HttpConnectionPool pool = new HttpConnectionPool(connectionProvider, 2, 10, 60_000);
+        HttpRequest httpRequest = newRequest("a.example.com", 100);
+
+        PooledHttpConnection first = lease(pool, httpRequest);
+        assertEquals(1, pool.getStats().getLeased());
+        release(first);
+        assertEquals(0, pool.getStats().getLeased());
+        assertEquals(1, pool.getStats().getIdle());
+
+        PooledHttpConnection second = lease(pool, httpRequest);
+        assertEquals(1, connectionProvider.connections.size());
+        assertEquals(0, pool.getStats().getIdle());
+        assertFalse(connectionProvider.connections.get(0).closed);
+        second.close();
+    }
+
+    @Test
+    public void connectionNotMarkedReusableIsClosed() throws Exception {
+        HttpConnectionPool pool = new HttpConnectionPool(connectionProvider, 2, 10, 60_000);
+        HttpRequest httpRequest = newRequest("a.example.com", 100);
+
+        PooledHttpConnection connection = lease(pool, httpRequest);
+        connection.close();
+        connection.close();
+
+        assertTrue(connectionProvider.connections.get(0).closed);
+        assertEquals(0, pool.getStats().getLeased());
+        assertEquals(0, pool.getStats().getIdle());
+
+        lease(pool, httpRequest).close();
+        assertEquals(2, connectionProvider.connections.size());
+    }
+
+    @Test
+    public void leaseTimesOutWhenRouteIsFull() throws Exception {
+        HttpConnectionPool pool = new HttpConnectionPool(connectionProvider, 1, 10, 60_000);
+        HttpRequest httpRequest = newRequest("a.example.com", 50);
+        PooledHttpConnection leased = lease(pool, httpRequest);
+
+        long startNanos = System.nanoTime();
+        try {
+            lease(pool, httpRequest);
+            fail("连接数达到上限时应当等待超时");
+        } catch (ConnectionPoolException e) {
+            assertTrue(e.getMessage().contains("从连接池获取连接超时"));
+        }
+        assertTrue(System.nanoTime() - startNanos >= TimeUnit.MILLISECONDS.toNanos(40));
+        assertEquals(0, pool.getStats().getPending());
+
+        // 其他路由不受该路由的连接数限制
+        lease(pool, newRequest("b.example.com", 50)).close();
+        leased.close();
+    }
+
+    @Test
+    public void waitingLeaseReceivesReleasedConnection() throws Exception {
+        HttpConnectionPool pool = new HttpConnectionPool(connectionProvider, 1, 10, 60_000);
+        HttpRequest httpRequest = newRequest("a.example.com", 5_000);
+        PooledHttpConnection leased = lease(pool, httpRequest);
+
+        CompletableFuture<PooledHttpConnection> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return lease(pool, httpRequest);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (pool.getStats().getPending() == 0) {
+            Thread.sleep(1);
+        }
+        release(leased);
+
+        PooledHttpConnection reused = waiting.get(5, TimeUnit.SECONDS);
+        assertEquals(1, connectionProvider.connections.size());
+        assertEquals(1, pool.getStats().getLeased());
+        reused.close();
+    }
+
+    @Test
+    public void fullPoolClosesOldestIdleConnectionOfOtherRoute() throws Exception {
+        HttpConnectionPool pool = new HttpConnectionPool(connectionProvider, 2, 1, 60_000);
+        release(lease(pool, newRequest("a.example.com", 100)));
+
+        PooledHttpConnection other = lease(pool, newRequest("b.example.com", 100));
+
+        assertEquals(2, connectionProvider.connections.size());
+        assertTrue(connectionProvider.connections.get(0).closed);
+        assertEquals(1, pool.getStats().getLeased());
+        assertEquals(0, pool.getStats().getIdle());
+        other.close();
+    }
+
+    @Test
+    public void expiredIdleConnectionsAreClosed() throws Exception {
+        HttpConnectionPool pool = new HttpConnectionPool(connectionProvider, 2, 10, 0);
+        release(lease(pool, newRequest("a.example.com", 100)));
+
+        pool.closeExpiredConnections();
+
+        assertTrue(connectionProvider.connections.get(0).closed);
+        assertEquals(0, pool.getStats().getIdle());
+    }
+
+    @Test
+    public void shutdownClosesIdleAndReturnedConnections() throws Exception {
+        HttpConnectionPool pool = new HttpConnectionPool(connectionProvider, 2, 10, 60_000);
+        HttpRequest httpRequest = newRequest("a.example.com", 100);
+        PooledHttpConnection leased = lease(pool, httpRequest);
+        release(lease(pool, httpRequest));
+
+        pool.shutdown();
+        assertTrue(connectionProvider.connections.get(1).closed);
+        assertFalse(connectionProvider.connections.get(0).closed);
+
+        release(leased);
+        assertTrue(connectionProvider.connections.get(0).closed);
+        assertEquals(0, pool.getStats().getIdle());
+        try {
+            lease(pool, httpRequest);
+            fail("连接池关闭后不能再借出连接");
+        } catch (ConnectionPoolException e) {
+            assertEquals("连接池已关闭", e.getMessage());
+        }
+    }
+
+    @Test
+    public void leaseAppliesRequestTimeoutToReusedConnection() throws Exception {
+        HttpConnectionPool pool = new HttpConnectionPool(connectionProvider, 2, 10, 60_000);
+        release(lease(pool, newRequest("a.example.com", 100).timeout(1_000)));
+
+        PooledHttpConnection reused = lease(pool, newRequest("a.example.com", 100).timeout(2_000));
+
+        assertEquals(1, connectionProvider.connections.size());
+        assertEquals(2_000, connectionProvider.connections.get(0).timeout);
+        reused.close();
+    }
+
+    @Test
+    public void connectionClosedByServerIsDetectedAfterInactivity() throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 10, InetAddress.getLoopbackAddress())) {
+            SocketConnectionProvider socketProvider = new SocketConnectionProvider(server.getLocalPort());
+            HttpConnectionPool pool = new HttpConnectionPool(socketProvider, 2, 10, 60_000)
+                .setValidateAfterInactivity(0);
+            HttpRequest httpRequest = newRequest("a.example.com", 100);
+            release(lease(pool, httpRequest));
+            server.accept().close();
+
+            lease(pool, httpRequest).close();
+
+            assertEquals(2, socketProvider.created);
+        }
+    }
+
+    @Test
+    public void recentlyReleasedConnectionIsNotProbed() throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 10, InetAddress.getLoopbackAddress())) {
+            SocketConnectionProvider socketProvider = new SocketConnectionProvider(server.getLocalPort());
+            HttpConnectionPool pool = new HttpConnectionPool(socketProvider, 2, 10, 60_000)
+                .setValidateAfterInactivity(60_000);
+            HttpRequest httpRequest = newRequest("a.example.com", 100);
+            release(lease(pool, httpRequest));
+            server.accept().close();
+
+            // 刚归还的连接不做阻塞读取，被服务端关闭的连接在发送时失败，由重试策略处理
+            lease(pool, httpRequest).close();
+
+            assertEquals(1, socketProvider.created);
+        }
+    }
+
+    private static class SocketConnectionProvider implements HttpConnectionProvider {
+
+        private final int port;
+
+        private int created;
+
+        private SocketConnectionProvider(int port) {
+            this.port = port;
+        }
+
+        @Override
+        public void useProxy(ProxyInfo proxyInfo) {
+        }
+
+        @Override
+        public synchronized HttpConnection createHttpConnection(HttpRequest httpRequest) throws IOException {
+            created++;
+            return new SocketHttpConnection(new Socket(InetAddress.getLoopbackAddress(), port));
+        }
+    }
+
+    private static class FakeConnectionProvider implements HttpConnectionProvider {
+
+        private final List<FakeConnection> connections = new ArrayList<>();
+
+        @Override
+        public void useProxy(ProxyInfo proxyInfo) {
+        }
+
+        @Override
+        public synchronized HttpConnection createHttpConnection(HttpRequest httpRequest) {
+            FakeConnection connection = new FakeConnection();
+            connections.add(connection);
+            return connection;
+        }
+    }
+
+    private static class FakeConnection implements HttpConnection {
+
+        private volatile boolean closed;
+
+        private volatile int timeout = -1;
+
+        @Override
+        public void init() {
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        public void setTimeout(int milliseconds) {
+            this.timeout = milliseconds;
+        }
+    }
+}
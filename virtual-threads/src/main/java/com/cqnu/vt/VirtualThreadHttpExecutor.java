@@ -0,0 +1,150 @@
+package com.cqnu.vt;
+
+import static com.cqnu.utill.Slf4jStyleFormatter.format;
+
+import com.alibaba.fastjson.JSONObject;
+import com.cqnu.JoddHttpWrapper;
+import com.cqnu.JoddHttpWrapper.JoddHttpConfig;
+import com.cqnu.exception.HttpRequestException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import jodd.http.HttpRequest;
+
+/**
+ * 基于虚拟线程的请求执行器，每个请求占用一个虚拟线程执行阻塞的
+ * {@link JoddHttpWrapper#sendRequest()}和{@link JoddHttpWrapper#validateResponse()}，不再需要估算线程池大小。
+ * <p>
+ * 虚拟线程本身没有数量上限，为了不压垮下游，同一host的并发请求数由信号量限制，超出的请求在虚拟线程中等待。
+ * 只有存在执行中或等待中的请求的host才会保留信号量，最后一个请求结束后删除，访问大量不同host时不会无限增长。
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public class VirtualThreadHttpExecutor implements AutoCloseable {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * 每个host允许的最大并发请求数
+     */
+    private final int maxConcurrencyPerHost;
+
+    private final ConcurrentHashMap<String, HostLimiter> hostLimiters = new ConcurrentHashMap<>();
+
+    /**
+     * 创建执行器
+     *
+     * @param maxConcurrencyPerHost 每个host允许的最大并发请求数，必须大于0
+     * @throws IllegalArgumentException 当maxConcurrencyPerHost小于等于0时，抛出此异常
+     */
+    public VirtualThreadHttpExecutor(int maxConcurrencyPerHost) {
+        if (maxConcurrencyPerHost <= 0) {
+            throw new IllegalArgumentException("maxConcurrencyPerHost必须大于0");
+        }
+        this.maxConcurrencyPerHost = maxConcurrencyPerHost;
+    }
+
+    /**
+     * 在虚拟线程中发送请求并校验响应结果
+     *
+     * @param httpRequest    请求参数，不能为null
+     * @param joddHttpConfig 请求配置对象，如果为null则启用默认配置
+     * @return 校验通过后的包装类的future，请求或校验失败时以{@link HttpRequestException}异常完成
+     */
+    public CompletableFuture<JoddHttpWrapper> sendAndValidate(HttpRequest httpRequest, JoddHttpConfig joddHttpConfig) {
+        return submit(httpRequest, joddHttpConfig, wrapper -> wrapper);
+    }
+
+    /**
+     * 在虚拟线程中发送请求，校验响应结果后返回响应体json对象
+     *
+     * @param httpRequest    请求参数，不能为null
+     * @param joddHttpConfig 请求配置对象，如果为null则启用默认配置
+     * @return 响应体json对象的future，请求或校验失败时以{@link HttpRequestException}异常完成
+     */
+    public CompletableFuture<JSONObject> sendForJsonObject(HttpRequest httpRequest, JoddHttpConfig joddHttpConfig) {
+        return submit(httpRequest, joddHttpConfig, JoddHttpWrapper::getResponseJsonObject);
+    }
+
+    private <T> CompletableFuture<T> submit(HttpRequest httpRequest, JoddHttpConfig joddHttpConfig,
+                                            Function<JoddHttpWrapper, T> resultMapper) {
+        JoddHttpWrapper wrapper = JoddHttpWrapper.newInstance(httpRequest, joddHttpConfig);
+        String host = httpRequest.host();
+        HostLimiter limiter = retainLimiter(host);
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    limiter.permits.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    releaseLimiter(host);
+                    future.completeExceptionally(new HttpRequestException("等待host并发许可时被中断", e));
+                    return;
+                }
+
+                try {
+                    wrapper.sendRequest();
+                    wrapper.validateResponse();
+                    future.complete(resultMapper.apply(wrapper));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    limiter.permits.release();
+                    releaseLimiter(host);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            releaseLimiter(host);
+            String message = format("虚拟线程执行器已关闭. url: [{}]", httpRequest.url());
+            future.completeExceptionally(new HttpRequestException(message, e));
+        }
+        return future;
+    }
+
+    /**
+     * 获取host的信号量并增加引用计数，请求结束后必须调用{@link #releaseLimiter(String)}
+     */
+    private HostLimiter retainLimiter(String host) {
+        return hostLimiters.compute(host, (key, limiter) -> {
+            HostLimiter result = limiter == null ? new HostLimiter(maxConcurrencyPerHost) : limiter;
+            result.references++;
+            return result;
+        });
+    }
+
+    /**
+     * 减少host信号量的引用计数，没有执行中或等待中的请求时删除该信号量，此时所有许可都已经归还
+     */
+    private void releaseLimiter(String host) {
+        hostLimiters.computeIfPresent(host, (key, limiter) -> --limiter.references == 0 ? null : limiter);
+    }
+
+    /**
+     * 关闭执行器，等待已提交的请求全部完成
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    /**
+     * host的并发许可，引用计数只在{@link ConcurrentHashMap#compute}中修改
+     */
+    private static final class HostLimiter {
+
+        private final Semaphore permits;
+
+        private int references;
+
+        private HostLimiter(int maxConcurrency) {
+            this.permits = new Semaphore(maxConcurrency);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.cqnu.vt.benchmark;
+
+import com.cqnu.JoddHttpWrapper;
+import com.cqnu.JoddHttpWrapper.JoddHttpConfig;
+import com.cqnu.vt.VirtualThreadHttpExecutor;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import jodd.http.HttpRequest;
+
+/**
+ * 虚拟线程模式与平台线程池模式的压测对比。
+ * <p>
+ * 在本地启动一个固定延迟的桩服务，分别以两种模式发送相同数量的请求，输出耗时和吞吐量。
+ * 运行方式：{@code mvn -f virtual-threads/pom.xml compile exec:java -Dexec.args="20000 50 200 200"}，
+ * 参数依次为请求总数、桩服务响应延迟(毫秒)、平台线程池大小、虚拟线程模式的单host并发数。
+ * 桩服务只有一个host，单host并发数默认与平台线程池大小相同，两种模式在相同的并发上限下对比。
+ *
+ * @author 山崎
+ * @date 2026/10/16
+ */
+public class LoadBenchmark {
+
+    private static final byte[] RESPONSE_BODY =
+        "{\"code\":0,\"data\":{\"list\":[{\"id\":1}]}}".getBytes(StandardCharsets.UTF_8);
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int latencyMillis = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int platformThreads = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int maxConcurrencyPerHost = args.length > 3 ? Integer.parseInt(args[3]) : platformThreads;
+
+        HttpServer server = startStubServer(latencyMillis);
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/list";
+        try {
+            // 预热
+            runPlatformThreads(url, Math.min(requests, 1000), platformThreads);
+            runVirtualThreads(url, Math.min(requests, 1000), maxConcurrencyPerHost);
+
+            report("platform-threads(" + platformThreads + ")", requests, runPlatformThreads(url, requests, platformThreads));
+            report("virtual-threads(" + maxConcurrencyPerHost + ")", requests,
+                runVirtualThreads(url, requests, maxConcurrencyPerHost));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static HttpServer startStubServer(int latencyMillis) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/list", exchange -> {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+            exchange.sendResponseHeaders(200, RESPONSE_BODY.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(RESPONSE_BODY);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static Result runPlatformThreads(String url, int requests, int threads) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicInteger failures = new AtomicInteger();
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            executor.execute(() -> {
+                try {
+                    JoddHttpWrapper wrapper = JoddHttpWrapper.newInstance(HttpRequest.get(url), newConfig());
+                    wrapper.sendRequest();
+                    wrapper.validateResponse();
+                } catch (RuntimeException e) {
+                    failures.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.HOURS);
+        return new Result(System.nanoTime() - start, failures.get());
+    }
+
+    private static Result runVirtualThreads(String url, int requests, int maxConcurrencyPerHost) {
+        AtomicInteger failures = new AtomicInteger();
+        long start = System.nanoTime();
+        try (VirtualThreadHttpExecutor executor = new VirtualThreadHttpExecutor(maxConcurrencyPerHost)) {
+            List<CompletableFuture<?>> futures = new ArrayList<>(requests);
+            for (int i = 0; i < requests; i++) {
+                futures.add(executor.sendAndValidate(HttpRequest.get(url), newConfig())
+                    .exceptionally(e -> {
+                        failures.incrementAndGet();
+                        return null;
+                    }));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        }
+        return new Result(System.nanoTime() - start, failures.get());
+    }
+
+    private static JoddHttpConfig newConfig() {
+        return JoddHttpConfig.newConfigInstanceByDefault().setValidateListJsonNodeExist(true);
+    }
+
+    private static void report(String mode, int requests, Result result) {
+        double seconds = result.elapsedNanos / 1_000_000_000.0;
+        System.out.printf("%-24s requests=%d failures=%d elapsed=%.2fs throughput=%.0f req/s%n",
+            mode, requests, result.failures, seconds, requests / seconds);
+    }
+
+    private record Result(long elapsedNanos, int failures) {
+    }
+}